@@ -0,0 +1,47 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Bao cao cua mot tai khoan (khoang transactions/accounts giao dich):
+// qua rollups nhu ung dung dang dung, va phan loai lai tu lich su nhu cach cu
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class AccountReportBenchmark {
+    private Account account;
+    private List<Transaction> accountTransactions;
+
+    @Setup(Level.Trial)
+    public void setUp(LedgerState ledger) {
+        account = ledger.accountService.findAccountById(ledger.accountIds[0]).orElseThrow();
+        accountTransactions = ledger.transactionService.getTransactionsByAccount(account.getAccountId());
+    }
+
+    @Benchmark
+    public void generateAccountReportFromRollups(LedgerState ledger) {
+        ledger.transactionService.printAccountReport(account);
+    }
+
+    @Benchmark
+    public void generateAccountReportFromHistory() {
+        account.generateAccountReport(accountTransactions);
+    }
+}
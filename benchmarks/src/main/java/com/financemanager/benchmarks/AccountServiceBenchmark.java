@@ -0,0 +1,32 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.model.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Tim tai khoan theo ID; `transactions` cho thay so cai lon co anh huong toi tra cuu hay khong
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class AccountServiceBenchmark {
+
+    @Benchmark
+    public Optional<Account> findAccountById(LedgerState ledger) {
+        return ledger.accountService.findAccountById(ledger.randomAccountId());
+    }
+
+    @Benchmark
+    public Optional<Account> findAccountByIdMissing(LedgerState ledger) {
+        return ledger.accountService.findAccountById("ACC_KHONG_TON_TAI");
+    }
+}
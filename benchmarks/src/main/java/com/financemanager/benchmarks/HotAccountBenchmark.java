@@ -0,0 +1,85 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Money;
+import com.financemanager.model.TransactionType;
+import com.financemanager.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Mot tai khoan "nong" (vi kinh doanh chinh) nhan thu/chi tu 32 luong cung luc.
+// "locked": kiem tra va cap nhat so du trong khoa cua tai khoan, nhu AccountService.applyTransaction
+// o che do mac dinh (mot tai khoan = mot stripe); "cas": chi vong CAS trong Account (che do lock-free).
+// Tai khoan duoc dang ky qua AccountService nen moi thay doi van cap nhat tong so du va dong tien theo ngay.
+// Doi so luong: java -jar target/benchmarks.jar HotAccount -t 64
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class HotAccountBenchmark {
+    private static final long AMOUNT = Money.of(50_000);
+    // Du lon de khoan chi khong bao gio bi tu choi trong luc do
+    private static final long INITIAL_BALANCE = Long.MAX_VALUE / 4;
+
+    @Param({"locked", "cas"})
+    public String mode;
+
+    private Account account;
+    private boolean lockFree;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lockFree = "cas".equals(mode);
+        AccountService accountService = new AccountService(lockFree);
+        account = new Account("Vi kinh doanh", "WALLET", "0000000001", INITIAL_BALANCE);
+        accountService.restoreAccount(account);
+    }
+
+    @Benchmark
+    public boolean expense() {
+        return apply(AMOUNT, TransactionType.EXPENSE);
+    }
+
+    @Benchmark
+    public boolean income() {
+        return apply(AMOUNT, TransactionType.INCOME);
+    }
+
+    private boolean apply(long amount, TransactionType type) {
+        if (lockFree) {
+            return applyAtomically(amount, type);
+        }
+        lock.lock();
+        try {
+            return applyAtomically(amount, type);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean applyAtomically(long amount, TransactionType type) {
+        if (type == TransactionType.EXPENSE) {
+            return account.withdraw(amount);
+        }
+        account.updateBalance(amount, type);
+        return true;
+    }
+}
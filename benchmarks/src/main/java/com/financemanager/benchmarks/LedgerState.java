@@ -0,0 +1,127 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+import com.financemanager.service.AccountService;
+import com.financemanager.service.FinanceManager;
+import com.financemanager.service.HeapTransactionStore;
+import com.financemanager.service.TransactionService;
+import com.financemanager.service.TransactionStore;
+import com.financemanager.storage.ColumnarTransactionStore;
+import com.financemanager.util.Ids;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+// Du lieu dung chung cho moi benchmark: mot FinanceManager trong bo nho (khong nhat ky)
+// voi so giao dich theo tham so, rai deu tren cac tai khoan, danh muc va 365 ngay gan nhat.
+// Nap qua duong khoi phuc (restore*) nen khong in va khong kiem tra so du.
+// Bao cao in ra man hinh duoc chuyen vao luong rong trong suot benchmark
+@State(Scope.Benchmark)
+public class LedgerState {
+    private static final long INITIAL_BALANCE = Money.of(1_000_000_000_000.0);
+    private static final int DAYS = 365;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int transactions;
+
+    @Param({"100"})
+    public int accounts;
+
+    // "heap" hoac "columnar" (file map vao bo nho trong thu muc tam)
+    @Param({"heap"})
+    public String store;
+
+    FinanceManager manager;
+    AccountService accountService;
+    TransactionService transactionService;
+    String[] accountIds;
+    private Path columnsDirectory;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        TransactionStore transactionStore;
+        if ("columnar".equals(store)) {
+            columnsDirectory = Files.createTempDirectory("jmh-columns");
+            transactionStore = new ColumnarTransactionStore(columnsDirectory);
+        } else {
+            transactionStore = new HeapTransactionStore();
+        }
+        manager = new FinanceManager(transactionStore);
+        accountService = manager.getAccountService();
+        transactionService = manager.getTransactionService();
+
+        accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account("Tai khoan " + i, "BANK", String.format("%09d", i), INITIAL_BALANCE);
+            accountService.restoreAccount(account);
+            accountIds[i] = account.getAccountId();
+        }
+
+        List<Category> income = new ArrayList<>();
+        List<Category> expense = new ArrayList<>();
+        for (Category category : transactionService.getAllCategories()) {
+            if (category.getTransactionType() == TransactionType.INCOME) {
+                income.add(category);
+            } else if (category.getTransactionType() == TransactionType.EXPENSE) {
+                expense.add(category);
+            }
+        }
+
+        // Cung seed de moi lan chay co cung du lieu
+        Random random = new Random(42);
+        LocalDateTime end = LocalDateTime.now();
+        long spanSeconds = DAYS * 24L * 3600;
+        for (int i = 0; i < transactions; i++) {
+            boolean isIncome = random.nextInt(4) == 0;
+            TransactionType type = isIncome ? TransactionType.INCOME : TransactionType.EXPENSE;
+            Category category = isIncome
+                    ? income.get(random.nextInt(income.size()))
+                    : expense.get(random.nextInt(expense.size()));
+            long amount = Money.of(1_000 + random.nextInt(5_000_000));
+            LocalDateTime date = end.minusSeconds((long) (random.nextDouble() * spanSeconds));
+            transactionService.restoreTransaction(new Transaction(Ids.next("TRX_"),
+                    accountIds[random.nextInt(accounts)], type, amount, "Giao dich benchmark", category, date, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.shutdown();
+        System.setOut(originalOut);
+        if (columnsDirectory != null) {
+            try (Stream<Path> paths = Files.walk(columnsDirectory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    String randomAccountId() {
+        return accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+    }
+}
@@ -0,0 +1,135 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+import com.financemanager.persistence.BinaryDecoder;
+import com.financemanager.persistence.BinaryEncoder;
+import com.financemanager.persistence.ModelCodec;
+import com.financemanager.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Ma hoa / giai ma mot lo `transactions` giao dich bang ModelCodec (nhu khi ghi snapshot),
+// so voi ban van ban mot dong moi giao dich (tach bang ';', thoi gian ISO) lam moc.
+// Khong dung LedgerState: chi can danh sach giao dich, khong can service.
+// Kich thuoc hai dang in mot lan khi khoi tao
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+public class ModelCodecBenchmark {
+    @Param({"1000", "100000"})
+    public int transactions;
+
+    @Param({"100"})
+    public int accounts;
+
+    private List<Transaction> batch;
+    private List<Category> categories;
+    private BinaryEncoder encoder;
+    private byte[] encoded;
+    private byte[] text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        categories = TransactionService.createDefaultCategories();
+        String[] accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = String.format("ACC_%013d", i);
+        }
+
+        // Cung seed de moi lan chay co cung du lieu
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        batch = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            Category category = categories.get(random.nextInt(categories.size()));
+            batch.add(new Transaction(String.format("TRX_%013d", i), accountIds[random.nextInt(accounts)],
+                    category.getTransactionType(), Money.of(1_000 + random.nextInt(5_000_000)),
+                    "Giao dich benchmark", category, start.plusSeconds(random.nextInt(365 * 24 * 3600)), null));
+        }
+
+        encoder = new BinaryEncoder(64 * transactions);
+        encoded = encodeTransactions().toByteArray();
+        text = encodeText();
+        System.out.printf("%n%d giao dich: nhi phan %d byte, van ban %d byte%n",
+                transactions, encoded.length, text.length);
+    }
+
+    @Benchmark
+    public BinaryEncoder encodeTransactions() {
+        ModelCodec codec = new ModelCodec();
+        codec.registerCategories(categories);
+        encoder.reset();
+        for (Transaction transaction : batch) {
+            codec.writeTransaction(encoder, transaction);
+        }
+        return encoder;
+    }
+
+    @Benchmark
+    public List<Transaction> decodeTransactions() {
+        ModelCodec codec = new ModelCodec();
+        codec.registerCategories(categories);
+        BinaryDecoder in = new BinaryDecoder(encoded);
+        List<Transaction> result = new ArrayList<>(transactions);
+        while (in.hasRemaining()) {
+            result.add(codec.readTransaction(in));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] encodeText() {
+        StringBuilder out = new StringBuilder(128 * transactions);
+        for (Transaction transaction : batch) {
+            out.append(transaction.getTransactionId()).append(';')
+                    .append(transaction.getAccountId()).append(';')
+                    .append(transaction.getType().name()).append(';')
+                    .append(transaction.getAmount()).append(';')
+                    .append(transaction.getDescription()).append(';')
+                    .append(transaction.getCategory().getCategoryId()).append(';')
+                    .append(transaction.getDate()).append('\n');
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Transaction> decodeText() {
+        Map<String, Category> categoriesById = new HashMap<>();
+        for (Category category : categories) {
+            categoriesById.put(category.getCategoryId(), category);
+        }
+        List<Transaction> result = new ArrayList<>(transactions);
+        for (String line : new String(text, StandardCharsets.UTF_8).split("\n")) {
+            String[] fields = line.split(";", -1);
+            result.add(new Transaction(fields[0], fields[1], TransactionType.valueOf(fields[2]),
+                    Long.parseLong(fields[3]), fields[4], categoriesById.get(fields[5]),
+                    LocalDateTime.parse(fields[6]), null));
+        }
+        return result;
+    }
+}
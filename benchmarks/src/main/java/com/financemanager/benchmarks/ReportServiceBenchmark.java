@@ -0,0 +1,52 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Bao cao tong quan va thu chi; noi dung in ra duoc LedgerState chuyen vao luong rong
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class ReportServiceBenchmark {
+    private ReportService reportService;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp(LedgerState ledger) {
+        reportService = ledger.manager.getReportService();
+        today = LocalDate.now();
+    }
+
+    @Benchmark
+    public void generateFinancialOverview() {
+        reportService.generateFinancialOverview();
+    }
+
+    // Mot thang gan nhat (khoang 1/12 so cai)
+    @Benchmark
+    public void generateIncomeExpenseReportMonth() {
+        reportService.generateIncomeExpenseReport(today.minusMonths(1), today);
+    }
+
+    // Ca nam: phu toan bo du lieu sinh ra
+    @Benchmark
+    public void generateIncomeExpenseReportYear() {
+        reportService.generateIncomeExpenseReport(today.minusYears(1), today);
+    }
+}
@@ -0,0 +1,122 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+import com.financemanager.service.AccountService;
+import com.financemanager.service.TransactionService;
+import com.financemanager.util.Ids;
+import com.financemanager.util.RenderSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// In toan bo lich su giao dich (displayAllTransactions) voi `transactions` dong:
+// bo dem RenderBuffer ghi mot lan ra sink, so voi cach cu (printf tung dong, chuoi dinh dang
+// ghep moi lan, DateTimeFormatter tao moi moi giao dich) giu lai o day lam moc.
+// Ca hai ghi vao cung mot PrintStream UTF-8 bo di noi dung, nen chi khac nhau o phan dung chuoi
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+public class TransactionRenderBenchmark {
+    @Param({"100000"})
+    public int transactions;
+
+    @Param({"100"})
+    public int accounts;
+
+    private TransactionService transactionService;
+    private PrintStream out;
+    private RenderSink sink;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AccountService accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        String[] accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account("Tai khoan " + i, "BANK", String.format("%09d", i), 0);
+            accountService.restoreAccount(account);
+            accountIds[i] = account.getAccountId();
+        }
+
+        // Cung seed de moi lan chay co cung du lieu
+        List<Category> categories = transactionService.getAllCategories();
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < transactions; i++) {
+            Category category = categories.get(random.nextInt(categories.size()));
+            transactionService.restoreTransaction(new Transaction(Ids.next("TRX_"),
+                    accountIds[random.nextInt(accounts)], category.getTransactionType(),
+                    Money.of(1_000 + random.nextInt(5_000_000)), "Giao dich benchmark", category,
+                    start.plusSeconds(random.nextInt(365 * 24 * 3600)), null));
+        }
+
+        out = new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8);
+        sink = RenderSink.of(out);
+    }
+
+    @Benchmark
+    public void renderBuffered() {
+        transactionService.displayAllTransactions(sink);
+    }
+
+    @Benchmark
+    public void renderPrintf() {
+        List<Transaction> all = transactionService.getAllTransactions();
+        out.println("\nLICH SU GIAO DICH (" + all.size() + " giao dich)");
+        out.println("=========================================");
+        for (Transaction transaction : all) {
+            printfInfo(out, transaction);
+            out.println();
+        }
+    }
+
+    // Transaction.displayInfo truoc khi co RenderBuffer
+    private static void printfInfo(PrintStream out, Transaction transaction) {
+        String date = transaction.getDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
+        String[] contents = {
+                "ID: " + transaction.getTransactionId(),
+                "Tài khoản: " + transaction.getAccountId(),
+                "Loại: " + transaction.getType().getVietnameseName(),
+                String.format("Số tiền: %,.2f", Money.toDouble(transaction.getAmount())),
+                "Danh mục: " + transaction.getCategory().getName(),
+                "Mô tả: " + transaction.getDescription(),
+                "Thời gian: " + date
+        };
+        int maxWidth = "THÔNG TIN GIAO DỊCH".length();
+        for (String content : contents) {
+            maxWidth = Math.max(maxWidth, content.length());
+        }
+
+        out.println("┌" + "─".repeat(maxWidth + 2) + "┐");
+        out.printf("│ %-" + maxWidth + "s │\n", "THÔNG TIN GIAO DỊCH");
+        out.println("├" + "─".repeat(maxWidth + 2) + "┤");
+        for (String content : contents) {
+            out.printf("│ %-" + maxWidth + "s │\n", content);
+        }
+        out.println("└" + "─".repeat(maxWidth + 2) + "┘");
+    }
+}
@@ -0,0 +1,44 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.exception.AccountNotFoundException;
+import com.financemanager.exception.InsufficientBalanceException;
+import com.financemanager.model.Money;
+import com.financemanager.model.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Ghi giao dich va chuyen khoan tren so cai da co san `transactions` giao dich.
+// So cai lon dan trong luc do (moi lan goi them 1 hoac 2 giao dich), nen so lan lap duoc gioi han
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class TransactionServiceBenchmark {
+    private static final long AMOUNT = Money.of(50_000);
+
+    @Benchmark
+    public boolean addTransaction(LedgerState ledger) {
+        return ledger.transactionService.addTransaction(ledger.randomAccountId(),
+                TransactionType.INCOME, AMOUNT, "Benchmark", "Luong");
+    }
+
+    @Benchmark
+    public String transferBetweenAccounts(LedgerState ledger)
+            throws AccountNotFoundException, InsufficientBalanceException {
+        String[] ids = ledger.accountIds;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ids.length);
+        // Cong them 1..n-1 de hai tai khoan luon khac nhau
+        int to = (from + 1 + random.nextInt(ids.length - 1)) % ids.length;
+        return ledger.transactionService.transferBetweenAccounts(ids[from], ids[to], AMOUNT);
+    }
+}
@@ -0,0 +1,80 @@
+package com.financemanager.benchmarks;
+
+import com.financemanager.util.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Kiem tra dau vao khong phu thuoc so cai nen khong dung LedgerState va khong co tham so kich thuoc.
+// Moi phuong thuc co mot ban hop le va mot ban sai (duong tao thong bao loi)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+    // Truong khong final de JIT khong gap hang so
+    private String accountName = "Tai khoan chinh";
+    private String accountType = "BANK";
+    private String accountNumber = "0123456789";
+    private String badAccountNumber = "12-ab";
+    private String accountId = "ACC_00000000001";
+    private String description = "Tien an trua";
+    private String amountText = "1500000";
+    private String badAmountText = "1.5tr";
+    private double amount = 1_500_000;
+
+    @Benchmark
+    public Validator.ValidationResult validateAccount() {
+        return Validator.validateAccount(accountName, accountType, accountNumber, amount);
+    }
+
+    @Benchmark
+    public Validator.ValidationResult validateAccountInvalid() {
+        return Validator.validateAccount("", "UNKNOWN", badAccountNumber, -amount);
+    }
+
+    @Benchmark
+    public Validator.ValidationResult validateTransaction() {
+        return Validator.validateTransaction(accountId, "EXPENSE", amount, description);
+    }
+
+    @Benchmark
+    public Validator.ValidationResult validateLoan() {
+        return Validator.validateLoan(accountName, amount, 7.5, description, 12);
+    }
+
+    @Benchmark
+    public Validator.ValidationResult validateDeposit() {
+        return Validator.validateDeposit(accountId, amount, amountText);
+    }
+
+    @Benchmark
+    public Validator.ValidationResult validateInitialBalance() {
+        return Validator.validateInitialBalance(amountText);
+    }
+
+    @Benchmark
+    public Validator.ValidationResult validateInitialBalanceInvalid() {
+        return Validator.validateInitialBalance(badAmountText);
+    }
+
+    @Benchmark
+    public Validator.ValidationResult validateAccountNumber() {
+        return Validator.validateAccountNumber(accountNumber);
+    }
+
+    @Benchmark
+    public boolean isValidAmountFormat() {
+        return Validator.isValidAmountFormat(amountText);
+    }
+}
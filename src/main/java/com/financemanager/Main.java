@@ -1,15 +1,28 @@
 package com.financemanager;
 
+import com.financemanager.metrics.MetricsRegistry;
+import com.financemanager.persistence.DurabilityMode;
 import com.financemanager.service.FinanceManager;
+import com.financemanager.service.TransactionStore;
+import com.financemanager.storage.ColumnarTransactionStore;
+import com.financemanager.ui.ConsoleRenderer;
+import com.financemanager.util.Constants;
+import com.financemanager.util.RenderSink;
 import com.financemanager.util.Validator;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class Main {
-    private static FinanceManager financeManager = new FinanceManager();
+    private static FinanceManager financeManager;
     private static Scanner scanner = new Scanner(System.in);
 
     public static void main(String[] args) {
+        // Service chay headless; giao dien dong lenh in ket qua qua su kien
+        financeManager = createFinanceManager(new ConsoleRenderer());
+        exportMetrics();
         displayWelcomeMessage();
 
         int choice;
@@ -38,9 +51,47 @@ public class Main {
             }
         } while (choice != 5);
 
+        financeManager.shutdown();
         scanner.close();
     }
 
+    // Ghi nhat ky vao thu muc du lieu; neu khong mo duoc thi chay trong bo nho
+    private static FinanceManager createFinanceManager(ConsoleRenderer renderer) {
+        DurabilityMode mode = DurabilityMode.fromString(System.getProperty(Constants.DURABILITY_PROPERTY));
+        try {
+            if (Constants.STORE_COLUMNAR.equalsIgnoreCase(System.getProperty(Constants.STORE_PROPERTY))) {
+                TransactionStore store = new ColumnarTransactionStore(
+                        Paths.get(Constants.DATA_DIRECTORY, Constants.COLUMNS_DIRECTORY));
+                return FinanceManager.open(Constants.DATA_DIRECTORY, mode, store, renderer);
+            }
+            return FinanceManager.open(Constants.DATA_DIRECTORY, mode, renderer);
+        } catch (IOException e) {
+            System.out.println("Khong the mo nhat ky du lieu: " + e.getMessage());
+            System.out.println("Du lieu se chi duoc luu trong bo nho.");
+            FinanceManager manager = new FinanceManager();
+            manager.addEventListener(renderer);
+            return manager;
+        }
+    }
+
+    // Chi so thao tac xem qua JMX (jconsole, domain com.financemanager); in dinh ky ra stderr neu
+    // dat financemanager.metricsDumpSeconds de khong lan vao menu
+    private static void exportMetrics() {
+        MetricsRegistry metrics = financeManager.getMetrics();
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        try {
+            metrics.registerMBeans();
+        } catch (JMException e) {
+            System.out.println("Khong the dang ky chi so JMX: " + e.getMessage());
+        }
+        long dumpSeconds = Long.getLong(Constants.METRICS_DUMP_PROPERTY, 0L);
+        if (dumpSeconds > 0) {
+            metrics.scheduleDump(dumpSeconds, RenderSink.of(System.err));
+        }
+    }
+
     private static void displayWelcomeMessage() {
         System.out.println("=========================================");
         System.out.println("   CHAO MUNG DEN VOI QUAN LY TAI CHINH   ");
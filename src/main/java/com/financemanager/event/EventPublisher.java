@@ -0,0 +1,28 @@
+package com.financemanager.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Phat su kien cho cac listener da dang ky. Khong co listener (che do headless)
+// thi publish chi la mot lan kiem tra danh sach rong, khong in gi
+public class EventPublisher {
+    private final List<FinanceEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(FinanceEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(FinanceEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    public void publish(FinanceEvent event) {
+        for (FinanceEventListener listener : listeners) {
+            listener.onEvent(event);
+        }
+    }
+}
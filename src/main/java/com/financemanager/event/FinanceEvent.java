@@ -0,0 +1,133 @@
+package com.financemanager.event;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Transaction;
+
+import java.util.List;
+
+// Ket qua cua mot thao tac thay doi du lieu, thay cho in truc tiep ra man hinh.
+// Moi loai co ham tao rieng; subject/related la doi tuong lien quan (tai khoan, giao dich, khoan vay),
+// so tien theo don vi nho (Money)
+public final class FinanceEvent {
+
+    public enum Type {
+        ACCOUNT_ADDED,          // subject: Account
+        ACCOUNT_DELETED,        // message: ID tai khoan
+        DEPOSITED,              // subject: Account, amount, balance = so du moi
+        TRANSACTION_ADDED,      // subject: Transaction
+        CATEGORY_CREATED,       // subject: Category
+        INSUFFICIENT_BALANCE,   // subject: Account, amount = so can chi, balance = so du hien tai
+        TRANSFER_COMPLETED,     // subject: tai khoan nguon, related: tai khoan dich, message: ma chuyen khoan
+        LOAN_ADDED,             // subject: Loan
+        LENDING_ADDED,          // subject: Lending
+        LOAN_PAYMENT,           // subject: Loan, amount, balance = so con no
+        LENDING_REPAYMENT,      // subject: Lending, amount, balance = so con phai thu
+        VALIDATION_FAILED,      // errors
+        REJECTED,               // message: ly do
+        DATA_RESTORED,          // message: tom tat, amount = so ban ghi nhat ky da phat lai
+        TRANSACTION_EDITED      // subject: Transaction (gia tri moi)
+    }
+
+    private final Type type;
+    private final Object subject;
+    private final Object related;
+    private final long amount;
+    private final long balance;
+    private final String message;
+    private final List<String> errors;
+
+    private FinanceEvent(Type type, Object subject, Object related, long amount, long balance,
+                         String message, List<String> errors) {
+        this.type = type;
+        this.subject = subject;
+        this.related = related;
+        this.amount = amount;
+        this.balance = balance;
+        this.message = message;
+        this.errors = errors;
+    }
+
+    public static FinanceEvent accountAdded(Account account) {
+        return new FinanceEvent(Type.ACCOUNT_ADDED, account, null, 0, account.getBalance(), null, null);
+    }
+
+    public static FinanceEvent accountDeleted(String accountId) {
+        return new FinanceEvent(Type.ACCOUNT_DELETED, null, null, 0, 0, accountId, null);
+    }
+
+    public static FinanceEvent deposited(Account account, long amount, long newBalance) {
+        return new FinanceEvent(Type.DEPOSITED, account, null, amount, newBalance, null, null);
+    }
+
+    public static FinanceEvent transactionAdded(Transaction transaction) {
+        return new FinanceEvent(Type.TRANSACTION_ADDED, transaction, null, transaction.getAmount(), 0, null, null);
+    }
+
+    public static FinanceEvent transactionEdited(Transaction transaction) {
+        return new FinanceEvent(Type.TRANSACTION_EDITED, transaction, null, transaction.getAmount(), 0, null, null);
+    }
+
+    public static FinanceEvent categoryCreated(Category category) {
+        return new FinanceEvent(Type.CATEGORY_CREATED, category, null, 0, 0, null, null);
+    }
+
+    public static FinanceEvent insufficientBalance(Account account, long amount, long balance) {
+        return new FinanceEvent(Type.INSUFFICIENT_BALANCE, account, null, amount, balance, null, null);
+    }
+
+    public static FinanceEvent transferCompleted(Account from, Account to, long amount, String transferId) {
+        return new FinanceEvent(Type.TRANSFER_COMPLETED, from, to, amount, 0, transferId, null);
+    }
+
+    public static FinanceEvent loanAdded(Loan loan) {
+        return new FinanceEvent(Type.LOAN_ADDED, loan, null, loan.getPrincipalAmount(), 0, null, null);
+    }
+
+    public static FinanceEvent lendingAdded(Lending lending) {
+        return new FinanceEvent(Type.LENDING_ADDED, lending, null, lending.getPrincipalAmount(), 0, null, null);
+    }
+
+    public static FinanceEvent loanPayment(Loan loan, long amount) {
+        return new FinanceEvent(Type.LOAN_PAYMENT, loan, null, amount, loan.getRemainingAmount(), null, null);
+    }
+
+    public static FinanceEvent lendingRepayment(Lending lending, long amount) {
+        return new FinanceEvent(Type.LENDING_REPAYMENT, lending, null, amount, lending.getRemainingAmount(),
+                null, null);
+    }
+
+    public static FinanceEvent validationFailed(List<String> errors) {
+        return new FinanceEvent(Type.VALIDATION_FAILED, null, null, 0, 0, null, List.copyOf(errors));
+    }
+
+    public static FinanceEvent rejected(String message) {
+        return new FinanceEvent(Type.REJECTED, null, null, 0, 0, message, null);
+    }
+
+    public static FinanceEvent dataRestored(long snapshotSequence, long replayedRecords, long millis) {
+        return new FinanceEvent(Type.DATA_RESTORED, null, null, replayedRecords, 0,
+                String.format("Da khoi phuc du lieu: snapshot #%d + %d ban ghi nhat ky (%d ms)",
+                        snapshotSequence, replayedRecords, millis), null);
+    }
+
+    public Type getType() { return type; }
+    public Object getSubject() { return subject; }
+    public Object getRelated() { return related; }
+    public long getAmount() { return amount; }
+    public long getBalance() { return balance; }
+    public String getMessage() { return message; }
+    public List<String> getErrors() { return errors != null ? errors : List.of(); }
+
+    public boolean isFailure() {
+        return type == Type.INSUFFICIENT_BALANCE || type == Type.VALIDATION_FAILED || type == Type.REJECTED;
+    }
+
+    @Override
+    public String toString() {
+        return "FinanceEvent{" + type + (subject != null ? ", " + subject : "")
+                + (message != null ? ", " + message : "") + "}";
+    }
+}
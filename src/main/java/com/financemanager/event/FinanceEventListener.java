@@ -0,0 +1,7 @@
+package com.financemanager.event;
+
+// Nhan su kien tu cac service (vd. ConsoleRenderer in ra man hinh).
+// Duoc goi tren luong thuc hien thay doi, sau khi da nha khoa; nen xu ly nhanh
+public interface FinanceEventListener {
+    void onEvent(FinanceEvent event);
+}
@@ -1,6 +1,8 @@
 package com.financemanager.exception;
 
 public class InsufficientBalanceException extends Exception {
+    private static final long serialVersionUID = 1L;
+
     public InsufficientBalanceException(String message) {
         super(message);
     }
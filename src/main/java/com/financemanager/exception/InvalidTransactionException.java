@@ -1,6 +1,8 @@
 package com.financemanager.exception;
 
 public class InvalidTransactionException extends Exception {
+    private static final long serialVersionUID = 1L;
+
     public InvalidTransactionException(String message) {
         super(message);
     }
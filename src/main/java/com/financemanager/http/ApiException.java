@@ -0,0 +1,38 @@
+package com.financemanager.http;
+
+import java.util.List;
+
+// Loi tra ve cho client voi ma HTTP tuong ung (du lieu sai, khong tim thay, ...)
+public class ApiException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    // Chi dung trong tien trinh (khong tuan tu hoa), sau khi doc lai tu luong byte la danh sach rong
+    private final transient List<String> errors;
+
+    public ApiException(int status, String message) {
+        this(status, message, List.of());
+    }
+
+    public ApiException(int status, String message, List<String> errors) {
+        super(message);
+        this.status = status;
+        this.errors = List.copyOf(errors);
+    }
+
+    public static ApiException badRequest(String message) {
+        return new ApiException(400, message);
+    }
+
+    public static ApiException notFound(String message) {
+        return new ApiException(404, message);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public List<String> getErrors() {
+        return errors != null ? errors : List.of();
+    }
+}
@@ -0,0 +1,130 @@
+package com.financemanager.http;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Yeu cau da tach: phuong thuc, cac doan duong dan, tham so query va than JSON (doc khi can).
+// Cac ham lay truong nem ApiException 400 khi thieu hoac sai kieu
+public class ApiRequest {
+    private final String method;
+    private final String[] segments;
+    private final Map<String, String> query;
+    private final String body;
+    private Object parsedBody;
+
+    public ApiRequest(String method, String path, String rawQuery, String body) {
+        this.method = method;
+        this.segments = splitPath(path);
+        this.query = parseQuery(rawQuery);
+        this.body = body;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    // Doan thu index cua duong dan, "" neu khong co
+    public String segment(int index) {
+        return index < segments.length ? segments[index] : "";
+    }
+
+    public String query(String name) {
+        return query.get(name);
+    }
+
+    public int queryInt(String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw ApiException.badRequest("Tham so '" + name + "' phai la so nguyen");
+        }
+    }
+
+    public Object json() {
+        if (parsedBody == null) {
+            if (body == null || body.isBlank()) {
+                throw ApiException.badRequest("Thieu than yeu cau JSON");
+            }
+            parsedBody = JsonReader.parse(body);
+        }
+        return parsedBody;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> object() {
+        Object value = json();
+        if (!(value instanceof Map)) {
+            throw ApiException.badRequest("Than yeu cau phai la mot doi tuong JSON");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    public String string(String name) {
+        return string(object(), name);
+    }
+
+    public String optionalString(String name, String defaultValue) {
+        Object value = object().get(name);
+        return value == null ? defaultValue : string(object(), name);
+    }
+
+    public double number(String name) {
+        return number(object(), name);
+    }
+
+    public int integer(String name) {
+        double value = number(name);
+        if (value != Math.rint(value) || Math.abs(value) > Integer.MAX_VALUE) {
+            throw ApiException.badRequest("Truong '" + name + "' phai la so nguyen");
+        }
+        return (int) value;
+    }
+
+    static String string(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof String)) {
+            throw ApiException.badRequest("Truong '" + name + "' phai la chuoi");
+        }
+        return (String) value;
+    }
+
+    static double number(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof Double)) {
+            throw ApiException.badRequest("Truong '" + name + "' phai la so");
+        }
+        return (Double) value;
+    }
+
+    private static String[] splitPath(String path) {
+        return Arrays.stream(path.split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .map(segment -> URLDecoder.decode(segment, StandardCharsets.UTF_8))
+                .toArray(String[]::new);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+}
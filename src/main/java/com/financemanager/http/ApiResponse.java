@@ -0,0 +1,56 @@
+package com.financemanager.http;
+
+import java.util.List;
+
+// Phan hoi da dung xong: ma HTTP, kieu noi dung va than
+public class ApiResponse {
+    static final String JSON = "application/json; charset=utf-8";
+    static final String TEXT = "text/plain; charset=utf-8";
+
+    private final int status;
+    private final String contentType;
+    private final String body;
+
+    private ApiResponse(int status, String contentType, String body) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+    }
+
+    public static ApiResponse json(int status, JsonWriter json) {
+        return new ApiResponse(status, JSON, json.toString());
+    }
+
+    public static ApiResponse text(int status, String body) {
+        return new ApiResponse(status, TEXT, body);
+    }
+
+    // {"error": "...", "errors": [...]}
+    public static ApiResponse error(int status, String message, List<String> errors) {
+        JsonWriter json = new JsonWriter().beginObject().field("error", message);
+        if (!errors.isEmpty()) {
+            json.name("errors").beginArray();
+            for (String error : errors) {
+                json.value(error);
+            }
+            json.endArray();
+        }
+        return json(status, json.endObject());
+    }
+
+    public static ApiResponse error(int status, String message) {
+        return error(status, message, List.of());
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
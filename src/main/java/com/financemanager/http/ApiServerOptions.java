@@ -0,0 +1,150 @@
+package com.financemanager.http;
+
+import com.financemanager.util.Constants;
+
+// Cau hinh may chu HTTP, doc tu tham so dong lenh dang key=value, vd.
+//   port=8080 maxConcurrent=128 maxQueue=4096 queueTimeoutMs=1000 requestTimeoutMs=5000
+// - maxConcurrent: so yeu cau duoc xu ly cung luc; vuot qua thi xep hang
+// - maxQueue: so yeu cau duoc xep hang cho; day thi tra 503 ngay (ap luc nguoc ve client)
+// - queueTimeoutMs: thoi gian cho toi da trong hang; qua thi 503
+// - requestTimeoutMs: han tu luc nhan yeu cau (gom ca thoi gian cho); qua thi 504
+// - clientTimeoutSeconds: client gui yeu cau / nhan phan hoi cham hon muc nay thi bi ngat ket noi
+public class ApiServerOptions {
+    private String host = "0.0.0.0";
+    private int port = 8080;
+    private int backlog = 1024;
+    private int maxConcurrent = 128;
+    private int maxQueue = 4096;
+    private long queueTimeoutMillis = 1_000;
+    private long requestTimeoutMillis = 5_000;
+    private int clientTimeoutSeconds = 30;
+    private int maxBodyBytes = 1 << 20;
+    private String dataDirectory = Constants.DATA_DIRECTORY;   // null = chi trong bo nho
+
+    public static ApiServerOptions parse(String[] args) {
+        ApiServerOptions options = new ApiServerOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Tham so phai co dang key=value: " + arg);
+            }
+            String key = arg.substring(0, separator).trim();
+            String value = arg.substring(separator + 1).trim();
+            switch (key) {
+                case "host":
+                    options.setHost(value);
+                    break;
+                case "port":
+                    options.setPort(Integer.parseInt(value));
+                    break;
+                case "backlog":
+                    options.setBacklog(Integer.parseInt(value));
+                    break;
+                case "maxConcurrent":
+                    options.setMaxConcurrent(Integer.parseInt(value));
+                    break;
+                case "maxQueue":
+                    options.setMaxQueue(Integer.parseInt(value));
+                    break;
+                case "queueTimeoutMs":
+                    options.setQueueTimeoutMillis(Long.parseLong(value));
+                    break;
+                case "requestTimeoutMs":
+                    options.setRequestTimeoutMillis(Long.parseLong(value));
+                    break;
+                case "clientTimeoutSeconds":
+                    options.setClientTimeoutSeconds(Integer.parseInt(value));
+                    break;
+                case "maxBodyBytes":
+                    options.setMaxBodyBytes(Integer.parseInt(value));
+                    break;
+                case "dir":
+                    options.setDataDirectory(value.isEmpty() ? null : value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Tham so khong hop le: " + key);
+            }
+        }
+        return options;
+    }
+
+    public String getHost() { return host; }
+    public int getPort() { return port; }
+    public int getBacklog() { return backlog; }
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public int getMaxQueue() { return maxQueue; }
+    public long getQueueTimeoutMillis() { return queueTimeoutMillis; }
+    public long getRequestTimeoutMillis() { return requestTimeoutMillis; }
+    public int getClientTimeoutSeconds() { return clientTimeoutSeconds; }
+    public int getMaxBodyBytes() { return maxBodyBytes; }
+    public String getDataDirectory() { return dataDirectory; }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public void setPort(int port) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Cong phai tu 0 den 65535");
+        }
+        this.port = port;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("So yeu cau dong thoi phai lon hon 0");
+        }
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public void setMaxQueue(int maxQueue) {
+        if (maxQueue < 0) {
+            throw new IllegalArgumentException("Do dai hang cho khong duoc am");
+        }
+        this.maxQueue = maxQueue;
+    }
+
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) {
+        if (queueTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Thoi gian cho khong duoc am");
+        }
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    public void setRequestTimeoutMillis(long requestTimeoutMillis) {
+        if (requestTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Han xu ly phai lon hon 0");
+        }
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    public void setClientTimeoutSeconds(int clientTimeoutSeconds) {
+        if (clientTimeoutSeconds <= 0) {
+            throw new IllegalArgumentException("Han ket noi phai lon hon 0");
+        }
+        this.clientTimeoutSeconds = clientTimeoutSeconds;
+    }
+
+    public void setMaxBodyBytes(int maxBodyBytes) {
+        if (maxBodyBytes <= 0) {
+            throw new IllegalArgumentException("Kich thuoc than yeu cau phai lon hon 0");
+        }
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public void setDataDirectory(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    @Override
+    public String toString() {
+        return "port=" + port + " maxConcurrent=" + maxConcurrent + " maxQueue=" + maxQueue
+                + " queueTimeoutMs=" + queueTimeoutMillis + " requestTimeoutMs=" + requestTimeoutMillis
+                + " clientTimeoutSeconds=" + clientTimeoutSeconds
+                + " dir=" + (dataDirectory == null ? "(bo nho)" : dataDirectory);
+    }
+}
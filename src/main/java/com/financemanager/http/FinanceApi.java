@@ -0,0 +1,524 @@
+package com.financemanager.http;
+
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.event.FinanceEventListener;
+import com.financemanager.model.Account;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+import com.financemanager.service.AccountService;
+import com.financemanager.service.BatchResult;
+import com.financemanager.service.FinanceManager;
+import com.financemanager.service.LoanService;
+import com.financemanager.service.TransactionCursor;
+import com.financemanager.service.TransactionRequest;
+import com.financemanager.service.TransactionService;
+import com.financemanager.util.RenderSink;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Anh xa HTTP/JSON sang FinanceManager, khong phu thuoc vao may chu HTTP (HttpApiServer).
+// Ket qua thay doi lay tu su kien ma FinanceManager phat tren chinh luong xu ly yeu cau:
+// su kien that bai -> 400 / 404 / 409 / 422, su kien thanh cong -> than phan hoi.
+// Bao cao tra ve dang van ban, giong het ban in ra man hinh.
+//
+// GET    /accounts                          POST /accounts {name, type, number, balance}
+// GET    /accounts/{id}                     DELETE /accounts/{id}
+// POST   /accounts/{id}/deposits {amount}   GET /accounts/{id}/transactions?from=&to=&limit=
+// POST   /transactions {accountId, type, amount, description, category}
+// POST   /transactions/batch [{...}, ...]   POST /transfers {fromAccountId, toAccountId, amount}
+// GET    /loans, /lendings                  POST /loans {lender, ...}, /lendings {borrower, ...}
+// POST   /loans/{id}/payments {amount}      POST /lendings/{id}/repayments {amount}
+// GET    /reports/summary (JSON), /reports/overview, /reports/income-expense?from=&to=,
+//        /reports/loans, /reports/monthly?year=&month=, /reports/accounts/{id}
+// GET    /metrics
+public class FinanceApi implements FinanceEventListener {
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+
+    private final FinanceManager manager;
+    private final AccountService accounts;
+    private final TransactionService transactions;
+    private final LoanService loans;
+    // Su kien cua yeu cau dang xu ly tren luong nay (null = khong thu)
+    private final ThreadLocal<List<FinanceEvent>> captured = new ThreadLocal<>();
+
+    private FinanceApi(FinanceManager manager) {
+        this.manager = manager;
+        this.accounts = manager.getAccountService();
+        this.transactions = manager.getTransactionService();
+        this.loans = manager.getLoanService();
+    }
+
+    // Tao va dang ky nhan su kien sau khi doi tuong da khoi tao xong
+    public static FinanceApi attach(FinanceManager manager) {
+        FinanceApi api = new FinanceApi(manager);
+        manager.addEventListener(api);
+        return api;
+    }
+
+    // Ngung nhan su kien (vd. khi dung may chu)
+    public void detach() {
+        manager.removeEventListener(this);
+    }
+
+    @Override
+    public void onEvent(FinanceEvent event) {
+        List<FinanceEvent> events = captured.get();
+        if (events != null) {
+            events.add(event);
+        }
+    }
+
+    // Khong nem ngoai le: loi du lieu thanh ma 4xx, loi khac thanh 500
+    public ApiResponse handle(ApiRequest request) {
+        try {
+            return route(request);
+        } catch (ApiException e) {
+            return ApiResponse.error(e.getStatus(), e.getMessage(), e.getErrors());
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            return ApiResponse.error(500, "Loi may chu: " + e.getMessage());
+        }
+    }
+
+    private ApiResponse route(ApiRequest request) {
+        switch (request.segment(0)) {
+            case "accounts":
+                return accounts(request);
+            case "transactions":
+                return transactions(request);
+            case "transfers":
+                requirePath(request, 1, "POST");
+                return transfer(request);
+            case "loans":
+                return loans(request, true);
+            case "lendings":
+                return loans(request, false);
+            case "reports":
+                return reports(request);
+            case "metrics":
+                requirePath(request, 1, "GET");
+                StringWriter text = new StringWriter();
+                manager.getMetrics().dump(RenderSink.of(text));
+                return ApiResponse.text(200, text.toString());
+            default:
+                throw ApiException.notFound("Khong co duong dan: /" + request.segment(0));
+        }
+    }
+
+    // ===== Tai khoan =====
+
+    private ApiResponse accounts(ApiRequest request) {
+        if (request.segmentCount() == 1) {
+            if (request.getMethod().equals("GET")) {
+                JsonWriter json = new JsonWriter().beginArray();
+                for (Account account : accounts.getAllAccounts()) {
+                    writeAccount(json, account);
+                }
+                return ApiResponse.json(200, json.endArray());
+            }
+            requireMethod(request, "POST");
+            String name = request.string("name");
+            String type = request.string("type");
+            String number = request.string("number");
+            double balance = request.number("balance");
+            FinanceEvent added = expect(capture(() -> manager.addAccount(name, type, number, balance)),
+                    FinanceEvent.Type.ACCOUNT_ADDED);
+            return ApiResponse.json(201, writeAccount(new JsonWriter(), (Account) added.getSubject()));
+        }
+
+        String accountId = request.segment(1);
+        Account account = findAccount(accountId);
+        if (request.segmentCount() == 2) {
+            if (request.getMethod().equals("DELETE")) {
+                expect(capture(() -> manager.deleteAccount(accountId)), FinanceEvent.Type.ACCOUNT_DELETED);
+                return ApiResponse.json(200, new JsonWriter().beginObject().field("deleted", accountId).endObject());
+            }
+            requireMethod(request, "GET");
+            return ApiResponse.json(200, writeAccount(new JsonWriter(), account));
+        }
+
+        switch (request.segment(2)) {
+            case "deposits":
+                requirePath(request, 3, "POST");
+                double amount = request.number("amount");
+                FinanceEvent deposited = expect(capture(() -> manager.depositToAccount(accountId, amount)),
+                        FinanceEvent.Type.DEPOSITED);
+                return ApiResponse.json(200, new JsonWriter().beginObject()
+                        .field("accountId", accountId)
+                        .moneyField("amount", deposited.getAmount())
+                        .moneyField("balance", deposited.getBalance())
+                        .endObject());
+            case "transactions":
+                requirePath(request, 3, "GET");
+                return accountTransactions(request, accountId);
+            default:
+                throw ApiException.notFound("Khong co duong dan: /accounts/{id}/" + request.segment(2));
+        }
+    }
+
+    // Giao dich cua tai khoan theo thu tu thoi gian trong [from, to], toi da limit dong
+    private ApiResponse accountTransactions(ApiRequest request, String accountId) {
+        LocalDateTime from = dateParam(request, "from", null);
+        LocalDateTime to = dateParam(request, "to", null);
+        int limit = Math.min(MAX_LIMIT, Math.max(1, request.queryInt("limit", DEFAULT_LIMIT)));
+        JsonWriter json = new JsonWriter().beginArray();
+        TransactionCursor cursor = transactions.getTransactionStore().cursor(accountId, from,
+                to == null ? null : to.plusDays(1));
+        int count = 0;
+        while (count < limit && cursor.next()) {
+            writeTransaction(json, cursor.toTransaction());
+            count++;
+        }
+        return ApiResponse.json(200, json.endArray());
+    }
+
+    // ===== Giao dich, chuyen khoan =====
+
+    private ApiResponse transactions(ApiRequest request) {
+        if (request.segmentCount() == 2 && request.segment(1).equals("batch")) {
+            requireMethod(request, "POST");
+            return batch(request);
+        }
+        requirePath(request, 1, "POST");
+        String accountId = request.string("accountId");
+        findAccount(accountId);
+        String type = request.string("type");
+        double amount = request.number("amount");
+        String description = request.optionalString("description", "");
+        String category = request.string("category");
+        FinanceEvent added = expect(capture(() ->
+                        manager.addTransaction(accountId, type, amount, description, category)),
+                FinanceEvent.Type.TRANSACTION_ADDED);
+        return ApiResponse.json(201, writeTransaction(new JsonWriter(), (Transaction) added.getSubject()));
+    }
+
+    // Lo giao dich: mang cac doi tuong nhu POST /transactions; tra ket qua tung dong
+    @SuppressWarnings("unchecked")
+    private ApiResponse batch(ApiRequest request) {
+        if (!(request.json() instanceof List)) {
+            throw ApiException.badRequest("Than yeu cau phai la mot mang giao dich");
+        }
+        List<Object> items = (List<Object>) request.json();
+        List<TransactionRequest> requests = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if (!(item instanceof Map)) {
+                throw ApiException.badRequest("Moi giao dich phai la mot doi tuong JSON");
+            }
+            Map<String, Object> fields = (Map<String, Object>) item;
+            Object description = fields.get("description");
+            requests.add(new TransactionRequest(ApiRequest.string(fields, "accountId"),
+                    ApiRequest.string(fields, "type"), ApiRequest.number(fields, "amount"),
+                    description instanceof String ? (String) description : "",
+                    ApiRequest.string(fields, "category")));
+        }
+
+        BatchResult result = manager.addTransactions(requests);
+        JsonWriter json = new JsonWriter().beginObject()
+                .field("applied", result.getAppliedCount())
+                .field("rejected", result.getRejectedCount())
+                .name("rows").beginArray();
+        for (BatchResult.Row row : result.getRows()) {
+            json.beginObject().field("index", row.getIndex()).field("status", row.getStatus().name());
+            if (row.getTransactionId() != null) {
+                json.field("transactionId", row.getTransactionId());
+            }
+            if (row.getMessage() != null) {
+                json.field("message", row.getMessage());
+            }
+            json.endObject();
+        }
+        return ApiResponse.json(200, json.endArray().endObject());
+    }
+
+    private ApiResponse transfer(ApiRequest request) {
+        String fromId = request.string("fromAccountId");
+        String toId = request.string("toAccountId");
+        double amount = request.number("amount");
+        findAccount(fromId);
+        findAccount(toId);
+        FinanceEvent completed = expect(capture(() -> manager.transferBetweenAccounts(fromId, toId, amount)),
+                FinanceEvent.Type.TRANSFER_COMPLETED);
+        return ApiResponse.json(201, new JsonWriter().beginObject()
+                .field("transferId", completed.getMessage())
+                .field("fromAccountId", fromId)
+                .field("toAccountId", toId)
+                .moneyField("amount", completed.getAmount())
+                .endObject());
+    }
+
+    // ===== Khoan vay (loan = true) / cho vay =====
+
+    private ApiResponse loans(ApiRequest request, boolean loan) {
+        if (request.segmentCount() == 1) {
+            if (request.getMethod().equals("GET")) {
+                JsonWriter json = new JsonWriter().beginArray();
+                if (loan) {
+                    loans.getAllLoans().forEach(item -> writeLoan(json, item));
+                } else {
+                    loans.getAllLendings().forEach(item -> writeLending(json, item));
+                }
+                return ApiResponse.json(200, json.endArray());
+            }
+            requireMethod(request, "POST");
+            String counterparty = request.string(loan ? "lender" : "borrower");
+            double amount = request.number("amount");
+            double interest = request.number("interest");
+            int months = request.integer("months");
+            String description = request.optionalString("description", "");
+            if (loan) {
+                FinanceEvent added = expect(capture(() ->
+                                manager.addLoan(counterparty, amount, interest, months, description)),
+                        FinanceEvent.Type.LOAN_ADDED);
+                return ApiResponse.json(201, writeLoan(new JsonWriter(), (Loan) added.getSubject()));
+            }
+            FinanceEvent added = expect(capture(() ->
+                            manager.addLending(counterparty, amount, interest, months, description)),
+                    FinanceEvent.Type.LENDING_ADDED);
+            return ApiResponse.json(201, writeLending(new JsonWriter(), (Lending) added.getSubject()));
+        }
+
+        String id = request.segment(1);
+        if (request.segmentCount() == 2) {
+            requireMethod(request, "GET");
+            return loan
+                    ? ApiResponse.json(200, writeLoan(new JsonWriter(), findLoan(id)))
+                    : ApiResponse.json(200, writeLending(new JsonWriter(), findLending(id)));
+        }
+        requirePath(request, 3, "POST");
+        if (!request.segment(2).equals(loan ? "payments" : "repayments")) {
+            throw ApiException.notFound("Khong co duong dan: /" + request.segment(0) + "/{id}/" + request.segment(2));
+        }
+        double amount = request.number("amount");
+        FinanceEvent paid;
+        if (loan) {
+            findLoan(id);
+            paid = expect(capture(() -> manager.repayLoan(id, amount)), FinanceEvent.Type.LOAN_PAYMENT);
+        } else {
+            findLending(id);
+            paid = expect(capture(() -> manager.collectLending(id, amount)), FinanceEvent.Type.LENDING_REPAYMENT);
+        }
+        return ApiResponse.json(200, new JsonWriter().beginObject()
+                .field("id", id)
+                .moneyField("amount", paid.getAmount())
+                .moneyField("remaining", paid.getBalance())
+                .endObject());
+    }
+
+    // ===== Bao cao =====
+
+    private ApiResponse reports(ApiRequest request) {
+        requireMethod(request, "GET");
+        String type = request.segment(1);
+        if (type.equals("summary")) {
+            requirePath(request, 2, "GET");
+            return summary();
+        }
+
+        StringWriter text = new StringWriter();
+        RenderSink sink = RenderSink.of(text);
+        switch (type) {
+            case "overview":
+                manager.generateFinancialReport(sink);
+                break;
+            case "income-expense":
+                LocalDate today = LocalDate.now();
+                LocalDate from = dateParam(request, "from", today.minusMonths(1).atStartOfDay()).toLocalDate();
+                LocalDate to = dateParam(request, "to", today.atStartOfDay()).toLocalDate();
+                if (to.isBefore(from)) {
+                    throw ApiException.badRequest("'to' phai sau 'from'");
+                }
+                manager.generateIncomeExpenseReport(from, to, sink);
+                break;
+            case "loans":
+                manager.generateLoanReport(sink);
+                break;
+            case "monthly":
+                int year = request.queryInt("year", LocalDate.now().getYear());
+                int month = request.queryInt("month", LocalDate.now().getMonthValue());
+                if (month < 1 || month > 12) {
+                    throw ApiException.badRequest("Thang phai tu 1 den 12");
+                }
+                manager.generateMonthlyReport(year, month, sink);
+                break;
+            case "accounts":
+                requirePath(request, 3, "GET");
+                String accountId = request.segment(2);
+                findAccount(accountId);
+                manager.generateAccountReport(accountId, sink);
+                break;
+            default:
+                throw ApiException.notFound("Khong co bao cao: " + type);
+        }
+        return ApiResponse.text(200, text.toString());
+    }
+
+    // Cac tong dang chay, doc trong O(1)
+    private ApiResponse summary() {
+        long totalBalance = accounts.getTotalBalance();
+        long totalLoans = loans.getTotalLoanAmount();
+        long totalLendings = loans.getTotalLendingAmount();
+        return ApiResponse.json(200, new JsonWriter().beginObject()
+                .field("accountCount", accounts.getAccountCount())
+                .field("transactionCount", transactions.getTransactionStore().size())
+                .moneyField("totalBalance", totalBalance)
+                .moneyField("totalIncome", transactions.getTotalIncome())
+                .moneyField("totalExpense", transactions.getTotalExpense())
+                .moneyField("totalLoans", totalLoans)
+                .moneyField("totalLendings", totalLendings)
+                .moneyField("netWorth", totalBalance + totalLendings - totalLoans)
+                .endObject());
+    }
+
+    // ===== Ket qua thay doi =====
+
+    // Chay thay doi va thu cac su kien no phat tren luong nay
+    private List<FinanceEvent> capture(Runnable change) {
+        List<FinanceEvent> events = new ArrayList<>(4);
+        captured.set(events);
+        try {
+            change.run();
+        } finally {
+            captured.remove();
+        }
+        return events;
+    }
+
+    // Su kien thanh cong mong doi; su kien that bai thanh loi tuong ung
+    private static FinanceEvent expect(List<FinanceEvent> events, FinanceEvent.Type type) {
+        for (FinanceEvent event : events) {
+            if (event.isFailure()) {
+                throw failure(event);
+            }
+        }
+        for (FinanceEvent event : events) {
+            if (event.getType() == type) {
+                return event;
+            }
+        }
+        throw new ApiException(500, "Thao tac khong tra ve ket qua");
+    }
+
+    private static ApiException failure(FinanceEvent event) {
+        switch (event.getType()) {
+            case VALIDATION_FAILED:
+                return new ApiException(400, "Du lieu khong hop le", event.getErrors());
+            case INSUFFICIENT_BALANCE:
+                return new ApiException(409, "So du khong du: hien co " + Money.formatPlain(event.getBalance())
+                        + ", can " + Money.formatPlain(event.getAmount()));
+            default:
+                return new ApiException(422, event.getMessage().trim());
+        }
+    }
+
+    // ===== Tien ich =====
+
+    private Account findAccount(String accountId) {
+        return accounts.findAccountById(accountId)
+                .orElseThrow(() -> ApiException.notFound("Khong tim thay tai khoan: " + accountId));
+    }
+
+    private Loan findLoan(String loanId) {
+        return loans.findLoanById(loanId)
+                .orElseThrow(() -> ApiException.notFound("Khong tim thay khoan vay: " + loanId));
+    }
+
+    private Lending findLending(String lendingId) {
+        return loans.findLendingById(lendingId)
+                .orElseThrow(() -> ApiException.notFound("Khong tim thay khoan cho vay: " + lendingId));
+    }
+
+    private static void requireMethod(ApiRequest request, String method) {
+        if (!request.getMethod().equals(method)) {
+            throw new ApiException(405, "Phuong thuc " + request.getMethod() + " khong ho tro, can " + method);
+        }
+    }
+
+    // Duong dan dung so doan va dung phuong thuc
+    private static void requirePath(ApiRequest request, int segments, String method) {
+        if (request.segmentCount() != segments) {
+            throw ApiException.notFound("Khong co duong dan nay");
+        }
+        requireMethod(request, method);
+    }
+
+    // Ngay dang yyyy-MM-dd -> dau ngay
+    private static LocalDateTime dateParam(ApiRequest request, String name, LocalDateTime defaultValue) {
+        String value = request.query(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return LocalDate.parse(value).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw ApiException.badRequest("Tham so '" + name + "' phai co dang yyyy-MM-dd");
+        }
+    }
+
+    private static JsonWriter writeAccount(JsonWriter json, Account account) {
+        return json.beginObject()
+                .field("accountId", account.getAccountId())
+                .field("name", account.getAccountName())
+                .field("type", account.getAccountType())
+                .field("number", account.getAccountNumber())
+                .moneyField("balance", account.getBalance())
+                .field("currency", account.getCurrency())
+                .endObject();
+    }
+
+    private static JsonWriter writeTransaction(JsonWriter json, Transaction transaction) {
+        json.beginObject()
+                .field("transactionId", transaction.getTransactionId())
+                .field("accountId", transaction.getAccountId())
+                .field("type", transaction.getType().name())
+                .moneyField("amount", transaction.getAmount())
+                .field("description", transaction.getDescription())
+                .field("category", transaction.getCategory().getName())
+                .dateTimeField("date", transaction.getDate());
+        if (transaction.getTransferId() != null) {
+            json.field("transferId", transaction.getTransferId());
+        }
+        return json.endObject();
+    }
+
+    private static JsonWriter writeLoan(JsonWriter json, Loan loan) {
+        return json.beginObject()
+                .field("loanId", loan.getLoanId())
+                .field("lender", loan.getLenderName())
+                .moneyField("principal", loan.getPrincipalAmount())
+                .moneyField("remaining", loan.getRemainingAmount())
+                .field("interest", loan.getInterestRate())
+                .field("months", loan.getLoanMonths())
+                .field("status", loan.getStatus())
+                .field("description", loan.getDescription())
+                .dateTimeField("startDate", loan.getStartDate())
+                .dateTimeField("dueDate", loan.getDueDate())
+                .field("overdue", loan.isOverdue())
+                .endObject();
+    }
+
+    private static JsonWriter writeLending(JsonWriter json, Lending lending) {
+        return json.beginObject()
+                .field("lendingId", lending.getLendingId())
+                .field("borrower", lending.getBorrowerName())
+                .moneyField("principal", lending.getPrincipalAmount())
+                .moneyField("remaining", lending.getRemainingAmount())
+                .field("interest", lending.getInterestRate())
+                .field("months", lending.getLendingMonths())
+                .field("status", lending.getStatus())
+                .field("description", lending.getDescription())
+                .dateTimeField("startDate", lending.getStartDate())
+                .dateTimeField("dueDate", lending.getDueDate())
+                .field("overdue", lending.isOverdue())
+                .endObject();
+    }
+}
@@ -0,0 +1,252 @@
+package com.financemanager.http;
+
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.event.FinanceEventListener;
+import com.financemanager.persistence.DurabilityMode;
+import com.financemanager.service.FinanceManager;
+import com.financemanager.storage.ColumnarTransactionStore;
+import com.financemanager.util.Constants;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// May chu HTTP/JSON nhung (com.sun.net.httpserver), moi yeu cau mot luong ao.
+// Nhan vao co gioi han: toi da maxConcurrent yeu cau chay cung luc, toi da maxQueue yeu cau cho;
+// hang day hoac cho qua queueTimeoutMs thi tra 503 + Retry-After thay vi de hang tang vo han.
+// Moi yeu cau co han requestTimeoutMs tinh tu luc nhan: qua han tra 504; thay doi dang chay
+// khong bi huy giua chung (giu nhat quan so cai) va van giu cho cho den khi xong.
+// Chay: java com.financemanager.http.HttpApiServer port=8080 maxConcurrent=128 dir=data/
+public class HttpApiServer {
+    private static final String MAX_REQUEST_TIME_PROPERTY = "sun.net.httpserver.maxReqTime";
+    private static final String MAX_RESPONSE_TIME_PROPERTY = "sun.net.httpserver.maxRspTime";
+
+    private final FinanceApi api;
+    private final ApiServerOptions options;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public HttpApiServer(FinanceManager manager, ApiServerOptions options) {
+        this.api = FinanceApi.attach(manager);
+        this.options = options;
+        this.permits = new Semaphore(options.getMaxConcurrent());
+    }
+
+    public synchronized void start() throws IOException {
+        applyClientTimeouts();
+        server = HttpServer.create(new InetSocketAddress(options.getHost(), options.getPort()), options.getBacklog());
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    // Dung nhan ket noi moi, cho toi da 2 giay cho cac yeu cau dang chay
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(2);
+            executor.close();
+            api.detach();
+            server = null;
+        }
+    }
+
+    // Cong thuc su (port=0 thi he dieu hanh chon)
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // So yeu cau bi tu choi vi qua tai (503) / qua han (504)
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    // Gioi han thoi gian client gui yeu cau / nhan phan hoi cua HttpServer trong JDK (giay).
+    // Chi co tac dung truoc khi HttpServer dau tien trong JVM duoc tao; property dat san thi giu nguyen
+    private void applyClientTimeouts() {
+        String seconds = String.valueOf(options.getClientTimeoutSeconds());
+        if (System.getProperty(MAX_REQUEST_TIME_PROPERTY) == null) {
+            System.setProperty(MAX_REQUEST_TIME_PROPERTY, seconds);
+        }
+        if (System.getProperty(MAX_RESPONSE_TIME_PROPERTY) == null) {
+            System.setProperty(MAX_RESPONSE_TIME_PROPERTY, seconds);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long received = System.nanoTime();
+        try (exchange) {
+            ApiResponse response;
+            String body = readBody(exchange);
+            if (body == null) {
+                response = ApiResponse.error(413, "Than yeu cau vuot qua " + options.getMaxBodyBytes() + " byte");
+            } else {
+                ApiRequest request = new ApiRequest(exchange.getRequestMethod(),
+                        exchange.getRequestURI().getRawPath(), exchange.getRequestURI().getRawQuery(), body);
+                response = admitAndRun(request, received);
+            }
+            send(exchange, response);
+        }
+    }
+
+    private ApiResponse admitAndRun(ApiRequest request, long received) {
+        if (!admit()) {
+            rejected.increment();
+            return ApiResponse.error(503, "May chu dang qua tai, vui long thu lai");
+        }
+
+        // Chay tren luong ao rieng de cho co han; cho duoc tra khi thao tac thuc su xong
+        FutureTask<ApiResponse> task = new FutureTask<>(() -> {
+            try {
+                return api.handle(request);
+            } finally {
+                permits.release();
+            }
+        });
+        Thread.ofVirtual().name("api-request").start(task);
+
+        long remaining = options.getRequestTimeoutMillis() * 1_000_000L - (System.nanoTime() - received);
+        try {
+            return task.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            return ApiResponse.error(504, "Qua han xu ly " + options.getRequestTimeoutMillis()
+                    + " ms; thay doi (neu co) van co the hoan tat");
+        } catch (ExecutionException e) {
+            return ApiResponse.error(500, "Loi may chu: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ApiResponse.error(503, "May chu dang dung");
+        }
+    }
+
+    // Co cho ngay thi vao; khong thi xep hang neu hang chua day, cho toi da queueTimeoutMs
+    private boolean admit() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > options.getMaxQueue()) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(options.getQueueTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    // Doc toan bo than yeu cau; null neu vuot maxBodyBytes
+    private String readBody(HttpExchange exchange) throws IOException {
+        int limit = options.getMaxBodyBytes();
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) > limit) {
+                    return null;
+                }
+            } catch (NumberFormatException e) {
+                // De HttpServer tu xu ly; doc theo gioi han ben duoi
+            }
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (bytes.size() + read > limit) {
+                    return null;
+                }
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, ApiResponse response) throws IOException {
+        byte[] body = response.getBody().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.getContentType());
+        if (response.getStatus() == 503) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+        }
+        exchange.sendResponseHeaders(response.getStatus(), body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    // ===== Chay tu dong lenh =====
+
+    public static void main(String[] args) throws IOException {
+        ApiServerOptions options = ApiServerOptions.parse(args);
+        FinanceManager manager = openManager(options.getDataDirectory());
+        try {
+            manager.getMetrics().registerMBeans();
+        } catch (JMException e) {
+            System.out.println("Khong the dang ky chi so JMX: " + e.getMessage());
+        }
+
+        HttpApiServer server = new HttpApiServer(manager, options);
+        server.start();
+        // Ctrl+C: dung nhan yeu cau roi chup snapshot cuoi cung
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            manager.shutdown();
+        }, "api-shutdown"));
+        System.out.println("May chu HTTP dang chay tai cong " + server.getPort() + " (" + options + ")");
+    }
+
+    // Giong Main: kho va che do ben vung theo system property; khong mo duoc thi chay trong bo nho
+    private static FinanceManager openManager(String directory) {
+        if (directory == null) {
+            return new FinanceManager();
+        }
+        DurabilityMode mode = DurabilityMode.fromString(System.getProperty(Constants.DURABILITY_PROPERTY));
+        // Chi in ket qua khoi phuc luc mo; cac su kien khac tra ve qua phan hoi HTTP
+        FinanceEventListener restoreLog = event -> {
+            if (event.getType() == FinanceEvent.Type.DATA_RESTORED) {
+                System.out.println(event.getMessage());
+            }
+        };
+        try {
+            if (Constants.STORE_COLUMNAR.equalsIgnoreCase(System.getProperty(Constants.STORE_PROPERTY))) {
+                return FinanceManager.open(directory, mode,
+                        new ColumnarTransactionStore(Paths.get(directory, Constants.COLUMNS_DIRECTORY)), restoreLog);
+            }
+            return FinanceManager.open(directory, mode, restoreLog);
+        } catch (IOException e) {
+            System.out.println("Khong the mo nhat ky du lieu: " + e.getMessage());
+            System.out.println("Du lieu se chi duoc luu trong bo nho.");
+            return new FinanceManager();
+        }
+    }
+}
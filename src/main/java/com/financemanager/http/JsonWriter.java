@@ -0,0 +1,170 @@
+package com.financemanager.http;
+
+import com.financemanager.model.Money;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// Dung JSON thang vao StringBuilder (khong dung thu vien ngoai). Tu chen dau phay giua cac phan tu;
+// so tien (don vi nho) ghi thanh so thap phan VND, vd. 1500.50
+public class JsonWriter {
+    private final StringBuilder out = new StringBuilder(256);
+    // first[d]: muc long d chua co phan tu nao
+    private boolean[] first = new boolean[8];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter beginObject() {
+        separator();
+        out.append('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        depth--;
+        out.append('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        separator();
+        out.append('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        depth--;
+        out.append(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        separator();
+        string(name);
+        out.append(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            out.append("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separator();
+        out.append(value);
+        return this;
+    }
+
+    public JsonWriter value(double value) {
+        separator();
+        out.append(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separator();
+        out.append(value);
+        return this;
+    }
+
+    public JsonWriter money(long minor) {
+        separator();
+        Money.appendPlainTo(out, minor);
+        return this;
+    }
+
+    public JsonWriter dateTime(LocalDateTime dateTime) {
+        return value(dateTime == null ? null : dateTime.toString());
+    }
+
+    // Cap ten - gia tri hay dung
+    public JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, double value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter moneyField(String name, long minor) {
+        return name(name).money(minor);
+    }
+
+    public JsonWriter dateTimeField(String name, LocalDateTime dateTime) {
+        return name(name).dateTime(dateTime);
+    }
+
+    private void push() {
+        if (++depth == first.length) {
+            first = Arrays.copyOf(first, depth * 2);
+        }
+        first[depth] = true;
+    }
+
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (!first[depth]) {
+                out.append(',');
+            }
+            first[depth] = false;
+        }
+    }
+
+    private void string(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00");
+                        out.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
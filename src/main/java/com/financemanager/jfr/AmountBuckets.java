@@ -0,0 +1,23 @@
+package com.financemanager.jfr;
+
+import com.financemanager.model.Money;
+
+// Nhom so tien theo bac luy thua 10 (VND) de loc/gom su kien JFR ma khong ghi so tien chinh xac.
+// Nhan la hang so nen khong cap phat tren duong ghi
+public final class AmountBuckets {
+    private static final String[] LABELS = {
+            "<1K", "1K-10K", "10K-100K", "100K-1M", "1M-10M", "10M-100M", "100M-1B", ">=1B"
+    };
+
+    private AmountBuckets() {
+    }
+
+    public static String of(long minor) {
+        long amount = Math.abs(minor) / Money.SCALE;
+        int bucket = 0;
+        for (long limit = 1_000; bucket < LABELS.length - 1 && amount >= limit; limit *= 10) {
+            bucket++;
+        }
+        return LABELS[bucket];
+    }
+}
@@ -0,0 +1,41 @@
+package com.financemanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Tra no mot khoan vay (LOAN) hoac thu no mot khoan cho vay (LENDING)
+@Name("com.financemanager.LoanPayment")
+@Label("Loan Payment")
+@Category({"Finance Manager", "Loans"})
+@Description("Tra no khoan vay hoac thu no khoan cho vay")
+@StackTrace(false)
+public class LoanPaymentEvent extends jdk.jfr.Event {
+    public static final String LOAN = "LOAN";
+    public static final String LENDING = "LENDING";
+
+    @Label("Kind")
+    public String kind;
+
+    @Label("Loan ID")
+    public String loanId;
+
+    @Label("Amount Bucket")
+    public String amountBucket;
+
+    @Label("Success")
+    public boolean success;
+
+    public void commit(String kind, String loanId, long amount, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.kind = kind;
+            this.loanId = loanId;
+            this.amountBucket = AmountBuckets.of(amount);
+            this.success = success;
+            commit();
+        }
+    }
+}
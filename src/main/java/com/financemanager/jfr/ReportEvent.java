@@ -0,0 +1,33 @@
+package com.financemanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Dung mot bao cao. rows la so dong du lieu bao cao da duyet (giao dich, tai khoan, khoan vay);
+// phan doc tu tong dang chay / rollups khong tinh
+@Name("com.financemanager.Report")
+@Label("Report Generation")
+@Category({"Finance Manager", "Reports"})
+@Description("Dung mot bao cao")
+public class ReportEvent extends jdk.jfr.Event {
+    @Label("Report Type")
+    public String reportType;
+
+    @Label("Account ID")
+    public String accountId;
+
+    @Label("Rows")
+    public long rows;
+
+    public void commit(String reportType, String accountId, long rows) {
+        end();
+        if (shouldCommit()) {
+            this.reportType = reportType;
+            this.accountId = accountId;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.financemanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Ghi mot giao dich thu/chi (batchSize = 1) hoac mot lo giao dich (accountId rong).
+// Thoi gian gom ca cho khoa tai khoan va khoa so cai
+@Name("com.financemanager.TransactionCommit")
+@Label("Transaction Commit")
+@Category({"Finance Manager", "Transactions"})
+@Description("Thu/chi hoac lo giao dich duoc ghi vao so cai")
+@StackTrace(false)
+public class TransactionCommitEvent extends jdk.jfr.Event {
+    @Label("Account ID")
+    public String accountId;
+
+    @Label("Type")
+    public String type;
+
+    @Label("Amount Bucket")
+    public String amountBucket;
+
+    @Label("Batch Size")
+    public int batchSize;
+
+    @Label("Applied")
+    @Description("So giao dich duoc ghi (0 neu bi tu choi)")
+    public int applied;
+
+    public void commit(String accountId, String type, long amount, int batchSize, int applied) {
+        end();
+        if (shouldCommit()) {
+            this.accountId = accountId;
+            this.type = type;
+            this.amountBucket = AmountBuckets.of(amount);
+            this.batchSize = batchSize;
+            this.applied = applied;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.financemanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Chuyen khoan giua hai tai khoan; thoi gian gom ca cho khoa hai tai khoan
+@Name("com.financemanager.Transfer")
+@Label("Transfer")
+@Category({"Finance Manager", "Transactions"})
+@Description("Chuyen khoan noi bo (hai ve but toan)")
+@StackTrace(false)
+public class TransferEvent extends jdk.jfr.Event {
+    @Label("From Account ID")
+    public String fromAccountId;
+
+    @Label("To Account ID")
+    public String toAccountId;
+
+    @Label("Amount Bucket")
+    public String amountBucket;
+
+    @Label("Transfer ID")
+    public String transferId;
+
+    @Label("Success")
+    public boolean success;
+
+    public void commit(String fromAccountId, String toAccountId, long amount, String transferId) {
+        end();
+        if (shouldCommit()) {
+            this.fromAccountId = fromAccountId;
+            this.toAccountId = toAccountId;
+            this.amountBucket = AmountBuckets.of(amount);
+            this.transferId = transferId;
+            this.success = transferId != null;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.financemanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.List;
+
+// Du lieu dau vao bi tu choi truoc khi thay doi gi (kiem tra Validator, so tien <= 0, vuot so con no).
+// Giu stack trace de biet loi den tu dau
+@Name("com.financemanager.ValidationFailure")
+@Label("Validation Failure")
+@Category({"Finance Manager", "Validation"})
+@Description("Thao tac bi tu choi vi du lieu khong hop le")
+public class ValidationFailureEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Message")
+    public String message;
+
+    public static void emit(String operation, String message) {
+        ValidationFailureEvent event = new ValidationFailureEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.message = message;
+            event.commit();
+        }
+    }
+
+    public static void emit(String operation, List<String> errors) {
+        ValidationFailureEvent event = new ValidationFailureEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.message = String.join("; ", errors);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.financemanager.metrics;
+
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.service.AccountService;
+import com.financemanager.service.LoanService;
+import com.financemanager.service.TransactionService;
+
+// So lieu tuc thoi doc thang tu cac service khi co nguoi hoi (JMX, bang in dinh ky),
+// khong ton gi tren duong ghi. Dem khoan vay duyet danh sach (it phan tu)
+public class LedgerGauges implements LedgerGaugesMXBean {
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final LoanService loanService;
+
+    public LedgerGauges(AccountService accountService, TransactionService transactionService,
+                        LoanService loanService) {
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.loanService = loanService;
+    }
+
+    @Override
+    public int getAccountCount() {
+        return accountService.getAccountCount();
+    }
+
+    @Override
+    public int getTransactionCount() {
+        return transactionService.getTransactionStore().size();
+    }
+
+    @Override
+    public int getActiveLoans() {
+        return (int) loanService.getAllLoans().stream().filter(loan -> loan.getRemainingAmount() > 0).count();
+    }
+
+    @Override
+    public int getOverdueLoans() {
+        return (int) loanService.getAllLoans().stream().filter(Loan::isOverdue).count();
+    }
+
+    @Override
+    public int getActiveLendings() {
+        return (int) loanService.getAllLendings().stream()
+                .filter(lending -> lending.getRemainingAmount() > 0).count();
+    }
+
+    @Override
+    public int getOverdueLendings() {
+        return (int) loanService.getAllLendings().stream().filter(Lending::isOverdue).count();
+    }
+}
@@ -0,0 +1,17 @@
+package com.financemanager.metrics;
+
+// Giao dien JMX cua so lieu tuc thoi: com.financemanager:type=Ledger
+public interface LedgerGaugesMXBean {
+
+    int getAccountCount();
+
+    int getTransactionCount();
+
+    int getActiveLoans();
+
+    int getOverdueLoans();
+
+    int getActiveLendings();
+
+    int getOverdueLendings();
+}
@@ -0,0 +1,190 @@
+package com.financemanager.metrics;
+
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.event.FinanceEventListener;
+import com.financemanager.util.Constants;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Chi so cua cac thao tac: so lan, so lan that bai, do tre (histogram) va so lieu tuc thoi.
+// Duong ghi chi gom hai lan doc dong ho, mot histogram lock-free va LongAdder; bang EnumMap
+// tao san nen khong cap phat. That bai nhan biet qua su kien that bai phat tren cung luong goi.
+// Xuat ra JMX (registerMBeans) va/hoac in bang dinh ky (scheduleDump)
+public class MetricsRegistry implements FinanceEventListener, AutoCloseable {
+    private static final int NAME_WIDTH = 18;
+    private static final int COLUMN_WIDTH = 12;
+
+    private final boolean enabled;
+    private final Map<Operation, OperationStats> operations = new EnumMap<>(Operation.class);
+    // Thao tac dang chay tren luong nay da phat su kien that bai chua
+    private final ThreadLocal<boolean[]> failed = ThreadLocal.withInitial(() -> new boolean[1]);
+    private final List<ObjectName> registeredNames = new ArrayList<>();
+    private LedgerGauges gauges;
+    private ScheduledExecutorService dumpExecutor;
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new OperationStats(operation));
+        }
+    }
+
+    // Bat tru khi financemanager.metrics=off
+    public static MetricsRegistry fromSystemProperties() {
+        return new MetricsRegistry(!"off".equalsIgnoreCase(System.getProperty(Constants.METRICS_PROPERTY)));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setGauges(LedgerGauges gauges) {
+        this.gauges = gauges;
+    }
+
+    public LedgerGauges getGauges() {
+        return gauges;
+    }
+
+    public OperationStats get(Operation operation) {
+        return operations.get(operation);
+    }
+
+    // Goi truoc thao tac, truyen ket qua cho stop. Tat thi tra 0 va stop khong lam gi
+    public long start() {
+        if (!enabled) {
+            return 0;
+        }
+        failed.get()[0] = false;
+        return System.nanoTime();
+    }
+
+    public void stop(Operation operation, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        operations.get(operation).record(nanos, failed.get()[0]);
+    }
+
+    @Override
+    public void onEvent(FinanceEvent event) {
+        if (enabled && event.isFailure()) {
+            failed.get()[0] = true;
+        }
+    }
+
+    public void reset() {
+        for (OperationStats stats : operations.values()) {
+            stats.reset();
+        }
+    }
+
+    // Bang so lan / do tre (micro giay) cac thao tac da chay, them so lieu tuc thoi
+    public void dump(RenderSink sink) {
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            out.repeat('=', NAME_WIDTH + COLUMN_WIDTH * 7).newline();
+            out.line("CHI SO THAO TAC");
+            out.repeat('=', NAME_WIDTH + COLUMN_WIDTH * 7).newline();
+            out.pad("Thao tac", NAME_WIDTH);
+            for (String header : new String[]{"So lan", "That bai", "TB (us)", "p50 (us)", "p99 (us)", "p999 (us)"}) {
+                out.pad(header, COLUMN_WIDTH);
+            }
+            out.line("max (us)");
+            out.repeat('-', NAME_WIDTH + COLUMN_WIDTH * 7).newline();
+            for (OperationStats stats : operations.values()) {
+                if (stats.getCount() == 0) {
+                    continue;
+                }
+                out.pad(stats.getOperation().getKey(), NAME_WIDTH);
+                cell(out, stats.getCount());
+                cell(out, stats.getFailures());
+                cell(out, Math.round(stats.getMeanMicros()));
+                cell(out, stats.getP50Micros());
+                cell(out, stats.getP99Micros());
+                cell(out, stats.getP999Micros());
+                out.append(stats.getMaxMicros()).newline();
+            }
+
+            if (gauges != null) {
+                out.repeat('-', NAME_WIDTH + COLUMN_WIDTH * 7).newline();
+                out.append("Tai khoan: ").append(gauges.getAccountCount())
+                        .append(" | Giao dich: ").append(gauges.getTransactionCount()).newline();
+                out.append("Khoan vay con no: ").append(gauges.getActiveLoans())
+                        .append(" (qua han ").append(gauges.getOverdueLoans()).append(')')
+                        .append(" | Cho vay con no: ").append(gauges.getActiveLendings())
+                        .append(" (qua han ").append(gauges.getOverdueLendings()).line(")");
+            }
+        }
+    }
+
+    private static void cell(RenderBuffer out, long value) {
+        int start = out.mark();
+        out.append(value).padTo(start, COLUMN_WIDTH);
+    }
+
+    // In bang chi so moi intervalSeconds giay tren mot luong nen
+    public synchronized void scheduleDump(long intervalSeconds, RenderSink sink) {
+        if (dumpExecutor == null) {
+            dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        dumpExecutor.scheduleAtFixedRate(() -> dump(sink), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Dang ky len platform MBeanServer: type=Operation,name=<key> cho tung thao tac va
+    // type=Ledger cho so lieu tuc thoi. Ten da co (FinanceManager truoc do) thi thay the
+    public synchronized void registerMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (OperationStats stats : operations.values()) {
+            register(server, new ObjectName(Constants.METRICS_JMX_DOMAIN + ":type=Operation,name="
+                    + stats.getOperation().getKey()), stats);
+        }
+        if (gauges != null) {
+            register(server, new ObjectName(Constants.METRICS_JMX_DOMAIN + ":type=Ledger"), gauges);
+        }
+    }
+
+    private void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(bean, name);
+        registeredNames.add(name);
+    }
+
+    // Dung in dinh ky va go cac MBean da dang ky
+    @Override
+    public synchronized void close() {
+        if (dumpExecutor != null) {
+            dumpExecutor.shutdownNow();
+            dumpExecutor = null;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registeredNames) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                // MBean da bi go tu ben ngoai
+            }
+        }
+        registeredNames.clear();
+    }
+}
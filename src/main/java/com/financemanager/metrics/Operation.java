@@ -0,0 +1,28 @@
+package com.financemanager.metrics;
+
+// Cac thao tac cua FinanceManager duoc dem va do tre; key la ten MBean va ten trong bang in ra
+public enum Operation {
+    ADD_ACCOUNT("addAccount"),
+    DELETE_ACCOUNT("deleteAccount"),
+    DEPOSIT("deposit"),
+    ADD_TRANSACTION("addTransaction"),
+    ADD_TRANSACTION_BATCH("addTransactions"),
+    EDIT_TRANSACTION("editTransaction"),
+    TRANSFER("transfer"),
+    ADD_LOAN("addLoan"),
+    ADD_LENDING("addLending"),
+    LOAN_REPAYMENT("repayLoan"),
+    LENDING_COLLECTION("collectLending"),
+    REPORT("report"),
+    CHECKPOINT("checkpoint");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,72 @@
+package com.financemanager.metrics;
+
+import com.financemanager.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// So lan, so lan that bai va histogram do tre cua mot thao tac. Ghi tu nhieu luong khong khoa
+public class OperationStats implements OperationStatsMXBean {
+    private final Operation operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+
+    OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMeanNanos() / 1_000;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return latency.valueAtPercentile(50) / 1_000;
+    }
+
+    @Override
+    public long getP99Micros() {
+        return latency.valueAtPercentile(99) / 1_000;
+    }
+
+    @Override
+    public long getP999Micros() {
+        return latency.valueAtPercentile(99.9) / 1_000;
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return latency.getMaxNanos() / 1_000;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        failures.reset();
+    }
+}
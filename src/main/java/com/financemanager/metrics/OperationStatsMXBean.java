@@ -0,0 +1,22 @@
+package com.financemanager.metrics;
+
+// Giao dien JMX cua mot thao tac: com.financemanager:type=Operation,name=<key>.
+// Do tre tinh bang micro giay
+public interface OperationStatsMXBean {
+
+    long getCount();
+
+    long getFailures();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    void reset();
+}
@@ -1,7 +1,11 @@
 package com.financemanager.model;
 
+import com.financemanager.util.Ids;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import java.util.Map;
@@ -10,15 +14,28 @@ import java.util.Comparator;
 
 
 public class Account {
+    // Moi thay doi so du la CAS tren truong balance: nhieu luong cap nhat cung mot tai khoan
+    // khong can khoa, va withdraw kiem tra du tien ngay trong vong CAS nen khong bao gio am
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String accountId;
     private String accountName;
     private String accountType; // BANK, WALLEL, CASH
     private String accountNumber;
-    private double balance;
+    private volatile long balance;   // don vi nho (Money), chi ghi qua BALANCE
     private String currency;
+    private BalanceListener balanceListener;   // khong luu tru, do service gan
 
-    public Account(String accountName, String accountType, String accountNumber, double initialBalance) {
-        this.accountId = "ACC_" + UUID.randomUUID().toString().substring(0, 8);
+    public Account(String accountName, String accountType, String accountNumber, long initialBalance) {
+        this.accountId = Ids.next("ACC_");
         this.accountName = accountName;
         this.accountType = accountType;
         this.accountNumber = accountNumber;
@@ -26,52 +43,95 @@ public class Account {
         this.currency = "VND";
     }
 
+    // Khoi phuc tai khoan tu du lieu da luu (giu nguyen ID)
+    public Account(String accountId, String accountName, String accountType, String accountNumber,
+                   long balance, String currency) {
+        this.accountId = accountId;
+        this.accountName = accountName;
+        this.accountType = accountType;
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.currency = currency;
+    }
+
     // Nhap thong tin tai khoan
     public String getAccountId() { return accountId; }
     public String getAccountName() { return accountName; }
     public String getAccountType() { return accountType; }
     public String getAccountNumber() { return accountNumber; }
-    public double getBalance() { return balance; }
+    public long getBalance() { return balance; }
     public String getCurrency() { return currency; }
 
     // Phuong thuc tao lap
     public void setAccountName(String accountName) {
         this.accountName = accountName;
     }
-    public void setBalance(double balance) {
-        this.balance = balance;
+    public void setBalance(long balance) {
+        long oldBalance = (long) BALANCE.getAndSet(this, balance);
+        notifyBalanceChanged(oldBalance, balance);
+    }
+
+    public void setBalanceListener(BalanceListener balanceListener) {
+        this.balanceListener = balanceListener;
+    }
+
+    // Bao cho listener dung cap (cu, moi) cua lan CAS nay, khong doc lai truong balance
+    private void notifyBalanceChanged(long oldBalance, long newBalance) {
+        BalanceListener listener = balanceListener;
+        if (listener != null && oldBalance != newBalance) {
+            listener.onBalanceChanged(this, oldBalance, newBalance);
+        }
+    }
+
+    // Cong delta vao so du bang vong CAS, tra ve so du truoc khi cong
+    private long addToBalance(long delta) {
+        long current;
+        do {
+            current = balance;
+        } while (!BALANCE.compareAndSet(this, current, Money.add(current, delta)));
+        notifyBalanceChanged(current, current + delta);
+        return current;
     }
 
     // Business methods
-    // Nhận tiền
-    public void deposit(double amount) {
-        if (amount > 0) {
-            double oldBalance = this.balance;
-            this.balance += amount;
-            System.out.println("Da them " + String.format("%,.0f", amount) + " " + currency + " vao tai khoan");
-            System.out.println("So du cu: " + String.format("%,.0f", oldBalance) + " " + currency);
-            System.out.println("So du moi: " + String.format("%,.0f", this.balance) + " " + currency);
-        } else {
-            System.out.println("So tien them phai lon hon 0!");
+    // Nhận tiền - tra ve so du moi (ben goi tu thong bao, khong in ra man hinh)
+    public long deposit(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("So tien them phai lon hon 0");
         }
+        return addToBalance(amount) + amount;
     }
 
     // Chuyển tiền
-    public boolean withdraw(double amount) {
-        if (amount > 0 && balance >= amount) {
-            this.balance -= amount;
-            return true;
+    // Kiem tra du tien va tru trong cung mot CAS: hai luong rut dong thoi khong the cung vuot so du
+    public boolean withdraw(long amount) {
+        if (amount <= 0) {
+            return false;
         }
-        return false;
+        long current;
+        do {
+            current = balance;
+            if (current < amount) {
+                return false;
+            }
+        } while (!BALANCE.compareAndSet(this, current, current - amount));
+        notifyBalanceChanged(current, current - amount);
+        return true;
     }
 
     //Cập Nhật
-    public void updateBalance(double amount, TransactionType type) {
+    public void updateBalance(long amount, TransactionType type) {
         if (type == TransactionType.INCOME) {
-            this.balance += amount;
+            addToBalance(amount);
         } else if (type == TransactionType.EXPENSE) {
-            this.balance -= amount;
+            addToBalance(Math.negateExact(amount));
+        } else if (type == TransactionType.TRANSFER) {
+            // Ve chuyen khoan mang so tien co dau
+            addToBalance(amount);
+        } else if (type == TransactionType.DEPOSIT) {
+            addToBalance(amount);
         }
+        // OPENING_BALANCE: so du nay da co tu luc tao tai khoan
     }
 
     // Validation
@@ -83,66 +143,104 @@ public class Account {
 
     // Display
     public void displayInfo() {
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            render(out);
+        }
+    }
+
+    // Khung thong tin tai khoan vao bo dem
+    public void render(RenderBuffer out) {
         // Tính độ rộng động dựa trên nội dung
-        int maxWidth = calculateMaxWidth();
-        String horizontalLine = "┌" + "─".repeat(maxWidth + 2) + "┐";
-        String middleLine = "├" + "─".repeat(maxWidth + 2) + "┤";
-        String bottomLine = "└" + "─".repeat(maxWidth + 2) + "┘";
-
-        System.out.println(horizontalLine);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "THÔNG TIN TÀI KHOẢN");
-        System.out.println(middleLine);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "ID: " + accountId);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "Tên: " + accountName);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "Loại: " + accountType);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "Số TK: " + accountNumber);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n",
-                String.format("Số dư: %,.2f %s", balance, currency));
-        System.out.println(bottomLine);
+        long currentBalance = balance;
+        String balanceText = Money.format(currentBalance);
+        int maxWidth = calculateMaxWidth(balanceText);
+
+        out.rule('┌', '─', '┐', maxWidth);
+        out.boxRow("THÔNG TIN TÀI KHOẢN", "", maxWidth);
+        out.rule('├', '─', '┤', maxWidth);
+        out.boxRow("ID: ", accountId, maxWidth);
+        out.boxRow("Tên: ", accountName, maxWidth);
+        out.boxRow("Loại: ", accountType, maxWidth);
+        out.boxRow("Số TK: ", accountNumber, maxWidth);
+        out.append("│ ");
+        int start = out.mark();
+        out.append("Số dư: ").append(balanceText).append(' ').append(currency)
+                .padTo(start, maxWidth).line(" │");
+        out.rule('└', '─', '┘', maxWidth);
     }
 
-    private int calculateMaxWidth() {
+    private int calculateMaxWidth(String balanceText) {
         int minWidth = 40;
-        int calculatedWidth = Math.max(
-                "💰 THÔNG TIN TÀI KHOẢN".length(),
-                Math.max(
-                        ("ID: " + accountId).length(),
-                        Math.max(
-                                ("Tên: " + accountName).length(),
-                                Math.max(
-                                        ("Loại: " + accountType).length(),
-                                        Math.max(
-                                                ("Số TK: " + accountNumber).length(),
-                                                ("Số dư: " + String.format("%,.2f %s", balance, currency)).length()
-                                        )
-                                )
-                        )
-                )
-        );
+        int calculatedWidth = "💰 THÔNG TIN TÀI KHOẢN".length();
+        calculatedWidth = Math.max(calculatedWidth, "ID: ".length() + length(accountId));
+        calculatedWidth = Math.max(calculatedWidth, "Tên: ".length() + length(accountName));
+        calculatedWidth = Math.max(calculatedWidth, "Loại: ".length() + length(accountType));
+        calculatedWidth = Math.max(calculatedWidth, "Số TK: ".length() + length(accountNumber));
+        calculatedWidth = Math.max(calculatedWidth,
+                "Số dư: ".length() + balanceText.length() + 1 + length(currency));
         return Math.max(minWidth, calculatedWidth + 2);
     }
 
+    // Do dai khi noi vao chuoi (null thanh "null")
+    private static int length(String value) {
+        return value != null ? value.length() : 4;
+    }
+
+    // Nen truyen vao danh sach giao dich cua rieng tai khoan (TransactionService.getTransactionsByAccount)
+    // de chi phi bao cao chi phu thuoc so giao dich cua tai khoan nay
     public void generateAccountReport(List<Transaction> allTransactions) {
         List<Transaction> accountTransactions = filterTransactionsByAccount(allTransactions);
+        Map<String, Long> incomeByCategory = new HashMap<>();
+        Map<String, Long> expenseByCategory = new HashMap<>();
+
+        for (Transaction transaction : accountTransactions) {
+            String categoryName = transaction.getCategory().getName();
+            long amount = transaction.getAmount();
 
+            if (transaction.getType() == TransactionType.INCOME) {
+                incomeByCategory.merge(categoryName, amount, Long::sum);
+            } else if (transaction.getType() == TransactionType.EXPENSE) {
+                expenseByCategory.merge(categoryName, amount, Long::sum);
+            }
+        }
+        printAccountReport(accountTransactions, incomeByCategory, expenseByCategory);
+    }
+
+    // Bao cao voi tong theo danh muc da tinh san (CategoryRollups), khong duyet lai lich su de phan loai
+    public void generateAccountReport(List<Transaction> accountTransactions,
+                                      Map<String, Long> incomeByCategory,
+                                      Map<String, Long> expenseByCategory) {
+        printAccountReport(filterTransactionsByAccount(accountTransactions), incomeByCategory, expenseByCategory);
+    }
+
+    private void printAccountReport(List<Transaction> accountTransactions,
+                                    Map<String, Long> incomeByCategory,
+                                    Map<String, Long> expenseByCategory) {
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            renderAccountReport(out, accountTransactions, incomeByCategory, expenseByCategory);
+        }
+    }
+
+    private void renderAccountReport(RenderBuffer out, List<Transaction> accountTransactions,
+                                     Map<String, Long> incomeByCategory,
+                                     Map<String, Long> expenseByCategory) {
         // HIỂN THỊ HEADER VỚI ID TÀI KHOẢN
-        String accountHeader = "=".repeat(80);
-        System.out.println(accountHeader);
-        System.out.println("TAI KHOAN ID: " + this.accountId + " - " + this.accountName);
-        System.out.println(accountHeader);
+        out.repeat('=', 80).newline();
+        out.append("TAI KHOAN ID: ").append(this.accountId).append(" - ").line(this.accountName);
+        out.repeat('=', 80).newline();
 
         if (accountTransactions.isEmpty()) {
-            System.out.println("Khong co giao dich nao cho tai khoan nay!");
-            System.out.println(accountHeader);
+            out.line("Khong co giao dich nao cho tai khoan nay!");
+            out.repeat('=', 80).newline();
             return;
         }
 
-        displayDetailedAccountReport(accountTransactions);
+        displayDetailedAccountReport(out, accountTransactions, incomeByCategory, expenseByCategory);
 
         // FOOTER SAU KHI HIỂN THỊ BÁO CÁO
-        System.out.println(accountHeader);
-        System.out.println("KET THUC BAO CAO TAI KHOAN: " + this.accountId);
-        System.out.println(accountHeader);
+        out.repeat('=', 80).newline();
+        out.append("KET THUC BAO CAO TAI KHOAN: ").line(this.accountId);
+        out.repeat('=', 80).newline();
     }
 
     private List<Transaction> filterTransactionsByAccount(List<Transaction> allTransactions) {
@@ -152,122 +250,113 @@ public class Account {
                 .collect(Collectors.toList());
     }
 
-    private void displayDetailedAccountReport(List<Transaction> transactions) {
-        String header = "==============================================================";
-        String separator = "--------------------------------------------------------------";
+    private static final String REPORT_HEADER = "==============================================================";
+    private static final String REPORT_SEPARATOR = "--------------------------------------------------------------";
+    private static final String SUMMARY_RULE = "+----------------------------------------------------+";
 
-        System.out.println(header);
-        System.out.printf("| %-60s |\n", "BAO CAO TAI KHOAN: " + this.accountName);
-        System.out.println(separator);
+    private void displayDetailedAccountReport(RenderBuffer out, List<Transaction> transactions,
+                                              Map<String, Long> incomeByCategory,
+                                              Map<String, Long> expenseByCategory) {
+        out.line(REPORT_HEADER);
+        reportRow(out, "BAO CAO TAI KHOAN: ", this.accountName);
+        out.line(REPORT_SEPARATOR);
 
         // Thong ke tong quan
-        double totalIncome = calculateTotalIncome(transactions);
-        double totalExpense = calculateTotalExpense(transactions);
-        double netFlow = totalIncome - totalExpense;
-
-        System.out.printf("| %-60s |\n", "TONG QUAN TAI KHOAN");
-        System.out.printf("| %-60s |\n", "+----------------------------------------------------+");
-        System.out.printf("| %-60s |\n", String.format("| So du hien tai: %,.2f %s", this.balance, this.currency));
-        System.out.printf("| %-60s |\n", String.format("| Tong thu nhap:  %,.2f %s", totalIncome, this.currency));
-        System.out.printf("| %-60s |\n", String.format("| Tong chi tieu:  %,.2f %s", totalExpense, this.currency));
-        System.out.printf("| %-60s |\n", String.format("| Luong tien rong: %,.2f %s", netFlow, this.currency));
-        System.out.printf("| %-60s |\n", "+----------------------------------------------------+");
-        System.out.println(separator);
+        long totalIncome = sum(incomeByCategory);
+        long totalExpense = sum(expenseByCategory);
+        long netFlow = totalIncome - totalExpense;
+
+        reportRow(out, "TONG QUAN TAI KHOAN", "");
+        reportRow(out, SUMMARY_RULE, "");
+        summaryRow(out, "| So du hien tai: ", this.balance);
+        summaryRow(out, "| Tong thu nhap:  ", totalIncome);
+        summaryRow(out, "| Tong chi tieu:  ", totalExpense);
+        summaryRow(out, "| Luong tien rong: ", netFlow);
+        reportRow(out, SUMMARY_RULE, "");
+        out.line(REPORT_SEPARATOR);
 
         // Phan loai theo danh muc
-        displayCategoryBreakdown(transactions);
-        System.out.println(separator);
+        displayCategoryBreakdown(out, incomeByCategory, expenseByCategory);
+        out.line(REPORT_SEPARATOR);
 
         // Giao dich gan day
-        displayRecentTransactions(transactions);
+        displayRecentTransactions(out, transactions);
 
-        System.out.println(header);
+        out.line(REPORT_HEADER);
     }
 
-    private double calculateTotalIncome(List<Transaction> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // "| %-60s |"
+    private static void reportRow(RenderBuffer out, String label, String value) {
+        out.append("| ");
+        int start = out.mark();
+        out.append(label).append(value).padTo(start, 60).line(" |");
     }
 
-    private double calculateTotalExpense(List<Transaction> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    private void summaryRow(RenderBuffer out, String label, long amount) {
+        out.append("| ");
+        int start = out.mark();
+        out.append(label).money(amount).append(' ').append(this.currency).padTo(start, 60).line(" |");
     }
 
-    private void displayCategoryBreakdown(List<Transaction> transactions) {
-        Map<String, Double> incomeByCategory = new HashMap<>();
-        Map<String, Double> expenseByCategory = new HashMap<>();
-
-        for (Transaction transaction : transactions) {
-            String categoryName = transaction.getCategory().getName();
-            double amount = transaction.getAmount();
-
-            if (transaction.getType() == TransactionType.INCOME) {
-                incomeByCategory.merge(categoryName, amount, Double::sum);
-            } else {
-                expenseByCategory.merge(categoryName, amount, Double::sum);
-            }
-        }
+    private long sum(Map<String, Long> amountsByCategory) {
+        return amountsByCategory.values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
 
-        System.out.printf("║ %-60s ║\n", " PHÂN LOẠI THEO DANH MỤC");
+    private void displayCategoryBreakdown(RenderBuffer out, Map<String, Long> incomeByCategory,
+                                          Map<String, Long> expenseByCategory) {
+        out.append("║ ").pad(" PHÂN LOẠI THEO DANH MỤC", 60).line(" ║");
 
         if (!incomeByCategory.isEmpty()) {
-            System.out.printf("| %-60s |\n", "THU NHAP:");
-            incomeByCategory.entrySet().stream()
-                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                    .forEach(entry -> {
-                        String line = String.format("  - %-15s: %,.2f %s",
-                                entry.getKey(), entry.getValue(), this.currency);
-                        System.out.printf("| %-60s |\n", line);
-                    });
+            reportRow(out, "THU NHAP:", "");
+            categoryRows(out, incomeByCategory);
         }
 
         if (!expenseByCategory.isEmpty()) {
-            System.out.printf("| %-60s |\n", "CHI TIEU:");
-            expenseByCategory.entrySet().stream()
-                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                    .forEach(entry -> {
-                        String line = String.format("  - %-15s: %,.2f %s",
-                                entry.getKey(), entry.getValue(), this.currency);
-                        System.out.printf("| %-60s |\n", line);
-                    });
+            reportRow(out, "CHI TIEU:", "");
+            categoryRows(out, expenseByCategory);
         }
     }
 
-    private void displayRecentTransactions(List<Transaction> transactions) {
-        System.out.printf("| %-60s |\n", "GIAO DICH GAN DAY (5 giao dich moi nhat)");
+    // "  - %-15s: %s %s" trong o rong 60
+    private void categoryRows(RenderBuffer out, Map<String, Long> amountsByCategory) {
+        amountsByCategory.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> {
+                    out.append("| ");
+                    int start = out.mark();
+                    out.append("  - ").pad(entry.getKey(), 15).append(": ")
+                            .money(entry.getValue()).append(' ').append(this.currency)
+                            .padTo(start, 60).line(" |");
+                });
+    }
+
+    private void displayRecentTransactions(RenderBuffer out, List<Transaction> transactions) {
+        reportRow(out, "GIAO DICH GAN DAY (5 giao dich moi nhat)", "");
 
         List<Transaction> recentTransactions = transactions.stream()
                 .limit(5)
                 .collect(Collectors.toList());
 
         for (Transaction transaction : recentTransactions) {
-            String typeSymbol = transaction.getType() == TransactionType.INCOME ? "[+]" : "[-]";
+            String typeSymbol = transaction.getBalanceDelta() > 0 ? "[+]" : "[-]";
 
-            String line = String.format("%s %s %-15s: %,.2f %s",
-                    typeSymbol,
-                    transaction.getFormattedDate().substring(0, 10),
-                    transaction.getCategory().getName(),
-                    transaction.getAmount(),
-                    transaction.getDescription());
+            out.append("| ");
+            int start = out.mark();
+            out.append(typeSymbol).append(' ').date(transaction.getDate()).append(' ')
+                    .pad(transaction.getCategory().getName(), 15).append(": ")
+                    .money(transaction.getAmount()).append(' ').append(transaction.getDescription());
 
             // Cat bot neu qua dai
-            if (line.length() > 58) {
-                line = line.substring(0, 55) + "...";
-            }
-
-            System.out.printf("| %-60s |\n", line);
+            out.truncateTo(start, 58).padTo(start, 60).line(" |");
         }
     }
 
 
     @Override
     public String toString() {
-        return String.format("Account{id=%s, name=%s, type=%s, balance=%.2f %s}",
-                accountId, accountName, accountType, balance, currency);
+        return String.format("Account{id=%s, name=%s, type=%s, balance=%s %s}",
+                accountId, accountName, accountType, Money.format(balance), currency);
     }
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.financemanager.model;
+
+// Nhan thong bao moi khi so du tai khoan thay doi (nap, rut, giao dich, dat lai)
+public interface BalanceListener {
+    void onBalanceChanged(Account account, long oldBalance, long newBalance);
+}
@@ -1,13 +1,25 @@
 package com.financemanager.model;
 
+import com.financemanager.util.Ids;
+
 public class Category {
     private String categoryId;
     private String name;
     private String description;
     private TransactionType transactionType;
+    // Chi so dac do CategoryRegistry cap (-1 = chua dang ky), dung de loc va cong don theo mang
+    private int ordinal = -1;
 
     public Category(String name, String description, TransactionType transactionType) {
-        this.categoryId = "CAT_" + java.util.UUID.randomUUID().toString().substring(0, 8);
+        this.categoryId = Ids.next("CAT_");
+        this.name = name;
+        this.description = description;
+        this.transactionType = transactionType;
+    }
+
+    // Khoi phuc danh muc tu du lieu da luu (giu nguyen ID)
+    public Category(String categoryId, String name, String description, TransactionType transactionType) {
+        this.categoryId = categoryId;
         this.name = name;
         this.description = description;
         this.transactionType = transactionType;
@@ -18,10 +30,12 @@ public class Category {
     public String getName() { return name; }
     public String getDescription() { return description; }
     public TransactionType getTransactionType() { return transactionType; }
+    public int getOrdinal() { return ordinal; }
 
     // Setter methods
     public void setName(String name) { this.name = name; }
     public void setDescription(String description) { this.description = description; }
+    public void setOrdinal(int ordinal) { this.ordinal = ordinal; }
 
     @Override
     public String toString() {
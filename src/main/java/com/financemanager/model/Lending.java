@@ -1,25 +1,32 @@
 package com.financemanager.model;
 
+import com.financemanager.util.Ids;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Lending {
+    // Khung thong tin: 64 ky tu ben trong, dong du lieu "%-20s: %-42s"
+    private static final int BOX_WIDTH = 64;
+    private static final int LABEL_WIDTH = 20;
+    private static final int VALUE_WIDTH = 42;
+
     private String lendingId;
     private String borrowerName;
-    private double principalAmount;
+    private long principalAmount;   // don vi nho (Money)
     private double interestRate;
     private int lendingMonths;
-    private double remainingAmount;
+    private long remainingAmount;
     private LocalDateTime startDate;
     private LocalDateTime dueDate;
     private String status;
     private String description;
     private List<Payment> repaymentHistory;
 
-    public Lending(String borrowerName, double principalAmount, double interestRate,
+    public Lending(String borrowerName, long principalAmount, double interestRate,
                    int lendingMonths, String description) {
 
         if (principalAmount <= 0) throw new IllegalArgumentException("So tien cho vay phai lon hon 0");
@@ -29,7 +36,7 @@ public class Lending {
             throw new IllegalArgumentException("Ten nguoi vay khong duoc de trong");
         }
 
-        this.lendingId = "LEND_" + java.util.UUID.randomUUID().toString().substring(0, 8);
+        this.lendingId = Ids.next("LEND_");
         this.borrowerName = borrowerName;
         this.principalAmount = principalAmount;
         this.interestRate = interestRate;
@@ -42,13 +49,30 @@ public class Lending {
         this.repaymentHistory = new ArrayList<>();
     }
 
+    // Khoi phuc khoan cho vay tu du lieu da luu (giu nguyen ID, ngay va lich su tra no)
+    public Lending(String lendingId, String borrowerName, long principalAmount, double interestRate,
+                   int lendingMonths, long remainingAmount, LocalDateTime startDate, LocalDateTime dueDate,
+                   String status, String description, List<Payment> repaymentHistory) {
+        this.lendingId = lendingId;
+        this.borrowerName = borrowerName;
+        this.principalAmount = principalAmount;
+        this.interestRate = interestRate;
+        this.lendingMonths = lendingMonths;
+        this.remainingAmount = remainingAmount;
+        this.startDate = startDate;
+        this.dueDate = dueDate;
+        this.status = status;
+        this.description = description;
+        this.repaymentHistory = new ArrayList<>(repaymentHistory);
+    }
+
     // Getter methods...
     public String getLendingId() { return lendingId; }
     public String getBorrowerName() { return borrowerName; }
-    public double getPrincipalAmount() { return principalAmount; }
+    public long getPrincipalAmount() { return principalAmount; }
     public double getInterestRate() { return interestRate; }
     public int getLendingMonths() { return lendingMonths; }
-    public double getRemainingAmount() { return remainingAmount; }
+    public long getRemainingAmount() { return remainingAmount; }
     public String getStatus() { return status; }
     public String getDescription() { return description; }
     public LocalDateTime getStartDate() { return startDate; }
@@ -56,19 +80,22 @@ public class Lending {
     public List<Payment> getRepaymentHistory() { return repaymentHistory; }
 
     // Business methods...
-    public void addRepayment(double amount) {
+    public void addRepayment(long amount) {
         if (amount <= 0) throw new IllegalArgumentException("So tien tra phai lon hon 0");
         if (amount > remainingAmount) {
             throw new IllegalArgumentException(
-                    String.format("So tien tra (%.2f) vuot qua so tien con no (%.2f)", amount, remainingAmount));
+                    "So tien tra (" + Money.format(amount) + ") vuot qua so tien con no ("
+                            + Money.format(remainingAmount) + ")");
         }
 
-        remainingAmount -= amount;
-        Payment payment = new Payment(amount);
+        recordRepayment(new Payment(amount));
+    }
+
+    // Ghi nhan khoan tra no da duoc kiem tra (dung khi khoi phuc du lieu)
+    public void recordRepayment(Payment payment) {
+        remainingAmount = Money.subtract(remainingAmount, payment.getAmount());
         repaymentHistory.add(payment);
         updateStatus();
-
-        System.out.printf("Da nhan tra no: %.2f VND. Con no: %.2f VND\n", amount, remainingAmount);
     }
 
     public void updateStatus() {
@@ -81,16 +108,16 @@ public class Lending {
         }
     }
 
-    public double calculateTotalInterest() {
-        return principalAmount * (interestRate / 100) * (lendingMonths / 12.0);
+    public long calculateTotalInterest() {
+        return Money.multiply(principalAmount, (interestRate / 100) * (lendingMonths / 12.0));
     }
 
-    public double calculateTotalAmount() {
-        return principalAmount + calculateTotalInterest();
+    public long calculateTotalAmount() {
+        return Money.add(principalAmount, calculateTotalInterest());
     }
 
-    public double calculateMonthlyCollection() {
-        return calculateTotalAmount() / lendingMonths;
+    public long calculateMonthlyCollection() {
+        return Money.divide(calculateTotalAmount(), lendingMonths);
     }
 
     //Tính số tháng còn lại chính xác
@@ -123,40 +150,57 @@ public class Lending {
     }
 
     public void displayInfo() {
-        System.out.println("┌──────────────────────────────────────────────────────────────────┐");
-        System.out.printf("│ %-64s │\n", "THONG TIN KHOAN CHO VAY");
-        System.out.println("├──────────────────────────────────────────────────────────────────┤");
-        System.out.printf("│ %-20s: %-42s │\n", "ID", lendingId);
-        System.out.printf("│ %-20s: %-42s │\n", "Nguoi vay", shortenString(borrowerName, 42));
-        System.out.printf("│ %-20s: %-42s │\n", "So tien cho vay", formatCurrency(principalAmount) + " VND");
-        System.out.printf("│ %-20s: %-42s │\n", "Lai suat", String.format("%.2f%%/nam", interestRate));
-        System.out.printf("│ %-20s: %-42s │\n", "Thoi han cho vay", lendingMonths + " thang");
-        System.out.printf("│ %-20s: %-42s │\n", "So tien con lai", formatCurrency(remainingAmount) + " VND");
-        System.out.printf("│ %-20s: %-42s │\n", "Tong se nhan", formatCurrency(calculateTotalAmount()) + " VND");
-        System.out.printf("│ %-20s: %-42s │\n", "Hang thang", formatCurrency(calculateMonthlyCollection()) + " VND");
-        System.out.printf("│ %-20s: %-42s │\n", "Trang thai", getStatusVietnamese());
-        System.out.printf("│ %-20s: %-42s │\n", "Ngay bat dau", formatDate(startDate));
-        System.out.printf("│ %-20s: %-42s │\n", "Ngay den han", formatDate(dueDate));
-        System.out.printf("│ %-20s: %-42s │\n", "Mo ta", shortenString(description, 42));
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            render(out);
+        }
+    }
+
+    // Khung thong tin khoan cho vay vao bo dem
+    public void render(RenderBuffer out) {
+        out.rule('┌', '─', '┐', BOX_WIDTH);
+        out.append("│ ").pad("THONG TIN KHOAN CHO VAY", BOX_WIDTH).line(" │");
+        out.rule('├', '─', '┤', BOX_WIDTH);
+        field(out, "ID", lendingId);
+        field(out, "Nguoi vay", shortenString(borrowerName, VALUE_WIDTH));
+        currencyField(out, "So tien cho vay", principalAmount);
+        int start = fieldStart(out, "Lai suat");
+        out.moneyPlain(Money.of(interestRate)).append("%/nam");
+        fieldEnd(out, start);
+        start = fieldStart(out, "Thoi han cho vay");
+        out.append(lendingMonths).append(" thang");
+        fieldEnd(out, start);
+        currencyField(out, "So tien con lai", remainingAmount);
+        currencyField(out, "Tong se nhan", calculateTotalAmount());
+        currencyField(out, "Hang thang", calculateMonthlyCollection());
+        field(out, "Trang thai", getStatusVietnamese());
+        start = fieldStart(out, "Ngay bat dau");
+        out.date(startDate);
+        fieldEnd(out, start);
+        start = fieldStart(out, "Ngay den han");
+        out.date(dueDate);
+        fieldEnd(out, start);
+        field(out, "Mo ta", shortenString(description, VALUE_WIDTH));
 
         // Hiển thị thông tin bổ sung
-        System.out.println("├──────────────────────────────────────────────────────────────────┤");
+        out.rule('├', '─', '┤', BOX_WIDTH);
 
         // Hiển thị số tháng còn lại
         long remainingMonths = getRemainingMonths();
-        System.out.printf("│ %-20s: %-42s │\n", "Thang con lai", remainingMonths + " thang");
+        start = fieldStart(out, "Thang con lai");
+        out.append(remainingMonths).append(" thang");
+        fieldEnd(out, start);
 
         // Hiển thị cảnh báo
         if (isOverdue()) {
-            System.out.printf("│ \u001B[31m%-64s\u001B[0m │\n", "⚠CANH BAO: KHOAN CHO VAY DA QUA HAN!");
+            warning(out, "\u001B[31m", "⚠CANH BAO: KHOAN CHO VAY DA QUA HAN!");
         } else if (isDueSoon()) {
-            System.out.printf("│ \u001B[33m%-64s\u001B[0m │\n",
+            warning(out, "\u001B[33m",
                     "CANH BAO: KHOAN CHO VAY SAP DEN HAN! (" + remainingMonths + " thang con lai)");
         } else if (status.equals("PAID")) {
-            System.out.printf("│ \u001B[32m%-64s\u001B[0m │\n", "KHOAN CHO VAY DA DUOC TRA HET");
+            warning(out, "\u001B[32m", "KHOAN CHO VAY DA DUOC TRA HET");
         }
 
-        System.out.println("└──────────────────────────────────────────────────────────────────┘");
+        out.rule('└', '─', '┘', BOX_WIDTH);
     }
 
     //Chuyển trạng thái sang tiếng Việt
@@ -169,16 +213,44 @@ public class Lending {
         }
     }
 
+    // "│ %-20s: " - tra ve vi tri bat dau cua o gia tri
+    private static int fieldStart(RenderBuffer out, String label) {
+        out.append("│ ").pad(label, LABEL_WIDTH).append(": ");
+        return out.mark();
+    }
+
+    // Can o gia tri ve VALUE_WIDTH va dong khung
+    private static void fieldEnd(RenderBuffer out, int start) {
+        out.padTo(start, VALUE_WIDTH).line(" │");
+    }
+
+    private static void field(RenderBuffer out, String label, String value) {
+        int start = fieldStart(out, label);
+        out.append(value);
+        fieldEnd(out, start);
+    }
+
+    private static void currencyField(RenderBuffer out, String label, long amount) {
+        int start = fieldStart(out, label);
+        appendCurrency(out, amount);
+        out.append(" VND");
+        fieldEnd(out, start);
+    }
+
+    private static void warning(RenderBuffer out, String color, String text) {
+        out.append("│ ").append(color).pad(text, BOX_WIDTH).line("\u001B[0m │");
+    }
+
     //Hàm định dạng tiền tệ
-    private String formatCurrency(double amount) {
-        if (amount >= 1_000_000_000) {
-            return String.format("%,.2f ty", amount / 1_000_000_000);
-        } else if (amount >= 1_000_000) {
-            return String.format("%,.2f trieu", amount / 1_000_000);
-        } else if (amount >= 1_000) {
-            return String.format("%,.2f ngan", amount / 1_000);
+    private static void appendCurrency(RenderBuffer out, long amount) {
+        if (amount >= 1_000_000_000 * Money.SCALE) {
+            out.money(Money.divide(amount, 1_000_000_000)).append(" ty");
+        } else if (amount >= 1_000_000 * Money.SCALE) {
+            out.money(Money.divide(amount, 1_000_000)).append(" trieu");
+        } else if (amount >= 1_000 * Money.SCALE) {
+            out.money(Money.divide(amount, 1_000)).append(" ngan");
         } else {
-            return String.format("%,.2f", amount);
+            out.money(amount);
         }
     }
 
@@ -189,14 +261,9 @@ public class Lending {
         return text.substring(0, maxLength - 3) + "...";
     }
 
-    private String formatDate(LocalDateTime date) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        return date.format(formatter);
-    }
-
     @Override
     public String toString() {
-        return String.format("Lending{id=%s, borrower=%s, amount=%.2f, months=%d, remaining=%.2f, status=%s}",
-                lendingId, borrowerName, principalAmount, lendingMonths, remainingAmount, status);
+        return String.format("Lending{id=%s, borrower=%s, amount=%s, months=%d, remaining=%s, status=%s}",
+                lendingId, borrowerName, Money.format(principalAmount), lendingMonths, Money.format(remainingAmount), status);
     }
 }
\ No newline at end of file
@@ -1,25 +1,32 @@
 package com.financemanager.model;
 
+import com.financemanager.util.Ids;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Loan {
+    // Khung thong tin: 64 ky tu ben trong, dong du lieu "%-20s: %-42s"
+    private static final int BOX_WIDTH = 64;
+    private static final int LABEL_WIDTH = 20;
+    private static final int VALUE_WIDTH = 42;
+
     private String loanId;
     private String lenderName;
-    private double principalAmount;
+    private long principalAmount;   // don vi nho (Money)
     private double interestRate;
     private int loanMonths;
-    private double remainingAmount;
+    private long remainingAmount;
     private LocalDateTime startDate;
     private LocalDateTime dueDate;
     private String status;
     private String description;
     private List<Payment> paymentHistory;
 
-    public Loan(String lenderName, double principalAmount, double interestRate,
+    public Loan(String lenderName, long principalAmount, double interestRate,
                 int loanMonths, String description) {
 
         if (principalAmount <= 0) {
@@ -32,7 +39,7 @@ public class Loan {
             throw new IllegalArgumentException("So thang vay phai lon hon 0");
         }
 
-        this.loanId = "LOAN_" + java.util.UUID.randomUUID().toString().substring(0, 8);
+        this.loanId = Ids.next("LOAN_");
         this.lenderName = lenderName;
         this.principalAmount = principalAmount;
         this.interestRate = interestRate;
@@ -45,13 +52,30 @@ public class Loan {
         this.paymentHistory = new ArrayList<>();
     }
 
+    // Khoi phuc khoan vay tu du lieu da luu (giu nguyen ID, ngay va lich su thanh toan)
+    public Loan(String loanId, String lenderName, long principalAmount, double interestRate,
+                int loanMonths, long remainingAmount, LocalDateTime startDate, LocalDateTime dueDate,
+                String status, String description, List<Payment> paymentHistory) {
+        this.loanId = loanId;
+        this.lenderName = lenderName;
+        this.principalAmount = principalAmount;
+        this.interestRate = interestRate;
+        this.loanMonths = loanMonths;
+        this.remainingAmount = remainingAmount;
+        this.startDate = startDate;
+        this.dueDate = dueDate;
+        this.status = status;
+        this.description = description;
+        this.paymentHistory = new ArrayList<>(paymentHistory);
+    }
+
     // Getter methods...
     public String getLoanId() { return loanId; }
     public String getLenderName() { return lenderName; }
-    public double getPrincipalAmount() { return principalAmount; }
+    public long getPrincipalAmount() { return principalAmount; }
     public double getInterestRate() { return interestRate; }
     public int getLoanMonths() { return loanMonths; }
-    public double getRemainingAmount() { return remainingAmount; }
+    public long getRemainingAmount() { return remainingAmount; }
     public String getStatus() { return status; }
     public String getDescription() { return description; }
     public LocalDateTime getStartDate() { return startDate; }
@@ -59,22 +83,24 @@ public class Loan {
     public List<Payment> getPaymentHistory() { return paymentHistory; }
 
     // Business methods...
-    public void addPayment(double amount) {
+    public void addPayment(long amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("So tien thanh toan phai lon hon 0");
         }
         if (amount > remainingAmount) {
             throw new IllegalArgumentException(
-                    String.format("So tien thanh toan (%.2f) vuot qua so tien con no (%.2f)",
-                            amount, remainingAmount));
+                    "So tien thanh toan (" + Money.format(amount) + ") vuot qua so tien con no ("
+                            + Money.format(remainingAmount) + ")");
         }
 
-        remainingAmount -= amount;
-        Payment payment = new Payment(amount);
+        recordPayment(new Payment(amount));
+    }
+
+    // Ghi nhan thanh toan da duoc kiem tra (dung khi khoi phuc du lieu)
+    public void recordPayment(Payment payment) {
+        remainingAmount = Money.subtract(remainingAmount, payment.getAmount());
         paymentHistory.add(payment);
         updateStatus();
-
-        System.out.printf("Da thanh toan: %.2f VND. Con no: %.2f VND\n", amount, remainingAmount);
     }
 
     public void updateStatus() {
@@ -87,17 +113,16 @@ public class Loan {
         }
     }
 
-    public double calculateTotalInterest() {
-        return principalAmount * (interestRate / 100) * (loanMonths / 12.0);
+    public long calculateTotalInterest() {
+        return Money.multiply(principalAmount, (interestRate / 100) * (loanMonths / 12.0));
     }
 
-    public double calculateTotalAmount() {
-        return principalAmount + calculateTotalInterest();
+    public long calculateTotalAmount() {
+        return Money.add(principalAmount, calculateTotalInterest());
     }
 
-    public double calculateMonthlyPayment() {
-        double totalAmount = calculateTotalAmount();
-        return totalAmount / loanMonths;
+    public long calculateMonthlyPayment() {
+        return Money.divide(calculateTotalAmount(), loanMonths);
     }
 
     //Tính số tháng còn lại chính xác
@@ -132,40 +157,57 @@ public class Loan {
 
     //Display với định dạng cố định đẹp hơn
     public void displayInfo() {
-        System.out.println("┌──────────────────────────────────────────────────────────────────┐");
-        System.out.printf("│ %-64s │\n", "THONG TIN KHOAN VAY");
-        System.out.println("├──────────────────────────────────────────────────────────────────┤");
-        System.out.printf("│ %-20s: %-42s │\n", "ID", loanId);
-        System.out.printf("│ %-20s: %-42s │\n", "Nguoi cho vay", shortenString(lenderName, 42));
-        System.out.printf("│ %-20s: %-42s │\n", "So tien vay", formatCurrency(principalAmount) + " VND");
-        System.out.printf("│ %-20s: %-42s │\n", "Lai suat", String.format("%.2f%%/nam", interestRate));
-        System.out.printf("│ %-20s: %-42s │\n", "Thoi han vay", loanMonths + " thang");
-        System.out.printf("│ %-20s: %-42s │\n", "So tien con lai", formatCurrency(remainingAmount) + " VND");
-        System.out.printf("│ %-20s: %-42s │\n", "Tong phai tra", formatCurrency(calculateTotalAmount()) + " VND");
-        System.out.printf("│ %-20s: %-42s │\n", "Hang thang", formatCurrency(calculateMonthlyPayment()) + " VND");
-        System.out.printf("│ %-20s: %-42s │\n", "Trang thai", getStatusVietnamese());
-        System.out.printf("│ %-20s: %-42s │\n", "Ngay bat dau", formatDate(startDate));
-        System.out.printf("│ %-20s: %-42s │\n", "Ngay den han", formatDate(dueDate));
-        System.out.printf("│ %-20s: %-42s │\n", "Mo ta", shortenString(description, 42));
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            render(out);
+        }
+    }
+
+    // Khung thong tin khoan vay vao bo dem
+    public void render(RenderBuffer out) {
+        out.rule('┌', '─', '┐', BOX_WIDTH);
+        out.append("│ ").pad("THONG TIN KHOAN VAY", BOX_WIDTH).line(" │");
+        out.rule('├', '─', '┤', BOX_WIDTH);
+        field(out, "ID", loanId);
+        field(out, "Nguoi cho vay", shortenString(lenderName, VALUE_WIDTH));
+        currencyField(out, "So tien vay", principalAmount);
+        int start = fieldStart(out, "Lai suat");
+        out.moneyPlain(Money.of(interestRate)).append("%/nam");
+        fieldEnd(out, start);
+        start = fieldStart(out, "Thoi han vay");
+        out.append(loanMonths).append(" thang");
+        fieldEnd(out, start);
+        currencyField(out, "So tien con lai", remainingAmount);
+        currencyField(out, "Tong phai tra", calculateTotalAmount());
+        currencyField(out, "Hang thang", calculateMonthlyPayment());
+        field(out, "Trang thai", getStatusVietnamese());
+        start = fieldStart(out, "Ngay bat dau");
+        out.date(startDate);
+        fieldEnd(out, start);
+        start = fieldStart(out, "Ngay den han");
+        out.date(dueDate);
+        fieldEnd(out, start);
+        field(out, "Mo ta", shortenString(description, VALUE_WIDTH));
 
         // Hiển thị thông tin bổ sung
-        System.out.println("├──────────────────────────────────────────────────────────────────┤");
+        out.rule('├', '─', '┤', BOX_WIDTH);
 
         // Hiển thị số tháng còn lại
         long remainingMonths = getRemainingMonths();
-        System.out.printf("│ %-20s: %-42s │\n", "Thang con lai", remainingMonths + " thang");
+        start = fieldStart(out, "Thang con lai");
+        out.append(remainingMonths).append(" thang");
+        fieldEnd(out, start);
 
         // Hiển thị cảnh báo
         if (isOverdue()) {
-            System.out.printf("│ \u001B[31m%-64s\u001B[0m │\n", "CANH BAO: KHOAN VAY DA QUA HAN!");
+            warning(out, "\u001B[31m", "CANH BAO: KHOAN VAY DA QUA HAN!");
         } else if (isDueSoon()) {
-            System.out.printf("│ \u001B[33m%-64s\u001B[0m │\n",
+            warning(out, "\u001B[33m",
                     "CANH BAO: KHOAN VAY SAP DEN HAN! (" + remainingMonths + " thang con lai)");
         } else if (status.equals("PAID")) {
-            System.out.printf("│ \u001B[32m%-64s\u001B[0m │\n", "KHOAN VAY DA DUOC TRA HET");
+            warning(out, "\u001B[32m", "KHOAN VAY DA DUOC TRA HET");
         }
 
-        System.out.println("└──────────────────────────────────────────────────────────────────┘");
+        out.rule('└', '─', '┘', BOX_WIDTH);
     }
 
     //Chuyển trạng thái sang tiếng Việt
@@ -178,16 +220,44 @@ public class Loan {
         }
     }
 
+    // "│ %-20s: " - tra ve vi tri bat dau cua o gia tri
+    private static int fieldStart(RenderBuffer out, String label) {
+        out.append("│ ").pad(label, LABEL_WIDTH).append(": ");
+        return out.mark();
+    }
+
+    // Can o gia tri ve VALUE_WIDTH va dong khung
+    private static void fieldEnd(RenderBuffer out, int start) {
+        out.padTo(start, VALUE_WIDTH).line(" │");
+    }
+
+    private static void field(RenderBuffer out, String label, String value) {
+        int start = fieldStart(out, label);
+        out.append(value);
+        fieldEnd(out, start);
+    }
+
+    private static void currencyField(RenderBuffer out, String label, long amount) {
+        int start = fieldStart(out, label);
+        appendCurrency(out, amount);
+        out.append(" VND");
+        fieldEnd(out, start);
+    }
+
+    private static void warning(RenderBuffer out, String color, String text) {
+        out.append("│ ").append(color).pad(text, BOX_WIDTH).line("\u001B[0m │");
+    }
+
     //Hàm định dạng tiền tệ
-    private String formatCurrency(double amount) {
-        if (amount >= 1_000_000_000) {
-            return String.format("%,.2f ty", amount / 1_000_000_000);
-        } else if (amount >= 1_000_000) {
-            return String.format("%,.2f trieu", amount / 1_000_000);
-        } else if (amount >= 1_000) {
-            return String.format("%,.2f ngan", amount / 1_000);
+    private static void appendCurrency(RenderBuffer out, long amount) {
+        if (amount >= 1_000_000_000 * Money.SCALE) {
+            out.money(Money.divide(amount, 1_000_000_000)).append(" ty");
+        } else if (amount >= 1_000_000 * Money.SCALE) {
+            out.money(Money.divide(amount, 1_000_000)).append(" trieu");
+        } else if (amount >= 1_000 * Money.SCALE) {
+            out.money(Money.divide(amount, 1_000)).append(" ngan");
         } else {
-            return String.format("%,.2f", amount);
+            out.money(amount);
         }
     }
 
@@ -198,14 +268,9 @@ public class Loan {
         return text.substring(0, maxLength - 3) + "...";
     }
 
-    private String formatDate(LocalDateTime date) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        return date.format(formatter);
-    }
-
     @Override
     public String toString() {
-        return String.format("Loan{id=%s, lender=%s, amount=%.2f, months=%d, remaining=%.2f, status=%s}",
-                loanId, lenderName, principalAmount, loanMonths, remainingAmount, status);
+        return String.format("Loan{id=%s, lender=%s, amount=%s, months=%d, remaining=%s, status=%s}",
+                loanId, lenderName, Money.format(principalAmount), loanMonths, Money.format(remainingAmount), status);
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.financemanager.model;
+
+// Tien te dang so nguyen long theo don vi nho nhat (1/100 dong, giong %.2f truoc day).
+// Cong tru tren long la chinh xac va co tinh ket hop, nen tong co the cong theo
+// thu tu bat ky (song song) ma khong lech. Chi doi sang double o bien nhap lieu
+// va khi can tinh ty le / lai suat.
+// Moi ham la static tren long, khong tao doi tuong
+public final class Money {
+    public static final long SCALE = 100;
+
+    private Money() {
+    }
+
+    // So tien nguoi dung nhap (double) -> don vi nho, lam tron den 1/100
+    public static long of(double amount) {
+        if (Double.isNaN(amount) || Math.abs(amount) > Long.MAX_VALUE / (double) SCALE) {
+            throw new IllegalArgumentException("So tien khong hop le: " + amount);
+        }
+        return Math.round(amount * SCALE);
+    }
+
+    public static double toDouble(long minor) {
+        return (double) minor / SCALE;
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    // Nhan voi he so (lai suat, ty le), lam tron den don vi nho
+    public static long multiply(long minor, double factor) {
+        return Math.round(minor * factor);
+    }
+
+    // Chia lam tron nua len (vd. chia deu theo thang)
+    public static long divide(long minor, long divisor) {
+        long quotient = minor / divisor;
+        long remainder = minor % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (minor < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    // "1,234,567.89" - tuong duong %,.2f nhung chi dung phep toan so nguyen
+    public static String format(long minor) {
+        return format(minor, true, true);
+    }
+
+    // "1,234,568" - tuong duong %,.0f (lam tron nua len)
+    public static String formatWhole(long minor) {
+        return format(divide(minor, SCALE) * SCALE, false, true);
+    }
+
+    // "1234567.89" - tuong duong %.2f, dung cho CSV
+    public static String formatPlain(long minor) {
+        return format(minor, true, false);
+    }
+
+    // Ghi thang vao bo dem (khong tao String trung gian), cung dinh dang voi format
+    public static void appendTo(StringBuilder out, long minor) {
+        char[] chars = new char[32];
+        int position = fill(chars, minor, true, true);
+        out.append(chars, position, chars.length - position);
+    }
+
+    public static void appendPlainTo(StringBuilder out, long minor) {
+        char[] chars = new char[32];
+        int position = fill(chars, minor, true, false);
+        out.append(chars, position, chars.length - position);
+    }
+
+    private static String format(long minor, boolean withFraction, boolean grouped) {
+        char[] chars = new char[32];
+        int position = fill(chars, minor, withFraction, grouped);
+        return new String(chars, position, chars.length - position);
+    }
+
+    // Viet so tu cuoi mang ve dau, tra ve vi tri ky tu dau tien
+    private static int fill(char[] chars, long minor, boolean withFraction, boolean grouped) {
+        boolean negative = minor < 0;
+        // Dung so am de khong tran khi minor == Long.MIN_VALUE
+        long value = negative ? minor : -minor;
+        int position = chars.length;
+
+        long fraction = -(value % SCALE);
+        long whole = -(value / SCALE);
+        if (withFraction) {
+            chars[--position] = (char) ('0' + fraction % 10);
+            chars[--position] = (char) ('0' + fraction / 10);
+            chars[--position] = '.';
+        }
+        int digits = 0;
+        do {
+            if (grouped && digits > 0 && digits % 3 == 0) {
+                chars[--position] = ',';
+            }
+            chars[--position] = (char) ('0' + whole % 10);
+            whole /= 10;
+            digits++;
+        } while (whole > 0);
+        if (negative) {
+            chars[--position] = '-';
+        }
+        return position;
+    }
+}
@@ -1,40 +1,48 @@
 package com.financemanager.model;
 
+import com.financemanager.util.DateUtils;
+import com.financemanager.util.Ids;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public class Payment {
     private String paymentId;
-    private double amount;
+    private long amount;   // don vi nho (Money)
     private LocalDateTime paymentDate;
     private String paymentMethod;
 
-    public Payment(double amount) {
-        this.paymentId = "PAY_" + java.util.UUID.randomUUID().toString().substring(0, 8);
+    public Payment(long amount) {
+        this.paymentId = Ids.next("PAY_");
         this.amount = amount;
         this.paymentDate = LocalDateTime.now();
         this.paymentMethod = "CASH";
     }
 
-    public Payment(double amount, String paymentMethod) {
+    public Payment(long amount, String paymentMethod) {
         this(amount);
         this.paymentMethod = paymentMethod;
     }
 
+    // Khoi phuc thanh toan tu du lieu da luu
+    public Payment(String paymentId, long amount, LocalDateTime paymentDate, String paymentMethod) {
+        this.paymentId = paymentId;
+        this.amount = amount;
+        this.paymentDate = paymentDate;
+        this.paymentMethod = paymentMethod;
+    }
+
     // Getter methods
     public String getPaymentId() { return paymentId; }
-    public double getAmount() { return amount; }
+    public long getAmount() { return amount; }
     public LocalDateTime getPaymentDate() { return paymentDate; }
     public String getPaymentMethod() { return paymentMethod; }
 
     public String getFormattedDate() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        return paymentDate.format(formatter);
+        return DateUtils.formatDateTime(paymentDate);
     }
 
     @Override
     public String toString() {
-        return String.format("Payment{id=%s, amount=%.2f, date=%s, method=%s}",
-                paymentId, amount, getFormattedDate(), paymentMethod);
+        return String.format("Payment{id=%s, amount=%s, date=%s, method=%s}",
+                paymentId, Money.format(amount), getFormattedDate(), paymentMethod);
     }
 }
\ No newline at end of file
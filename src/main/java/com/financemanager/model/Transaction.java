@@ -1,20 +1,25 @@
 package com.financemanager.model;
 
+import com.financemanager.util.DateUtils;
+import com.financemanager.util.Ids;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public class Transaction {
     private String transactionId;
     private String accountId;
     private TransactionType type;
-    private double amount;
+    private long amount;   // don vi nho (Money); voi TRANSFER la so co dau (am = tien ra)
     private LocalDateTime date;
     private String description;
     private Category category;
+    private String transferId;   // chi co o but toan chuyen khoan, chung cho ca hai ve
+    private TransactionChangeListener changeListener;   // khong luu tru, do service gan
 
-    public Transaction(String accountId, TransactionType type, double amount,
+    public Transaction(String accountId, TransactionType type, long amount,
                        String description, Category category) {
-        this.transactionId = "TRX_" + java.util.UUID.randomUUID().toString().substring(0, 8);
+        this.transactionId = Ids.next("TRX_");
         this.accountId = accountId;
         this.type = type;
         this.amount = amount;
@@ -23,79 +28,168 @@ public class Transaction {
         this.date = LocalDateTime.now();
     }
 
+    // Mot ve cua but toan chuyen khoan: signedAmount am o tai khoan chuyen di,
+    // duong o tai khoan nhan; hai ve dung chung transferId va thoi gian
+    public Transaction(String accountId, long signedAmount, String transferId,
+                       String description, Category category, LocalDateTime date) {
+        this(Ids.next("TRX_"), accountId, TransactionType.TRANSFER, signedAmount, description, category, date,
+                transferId);
+    }
+
+    // Khoi phuc giao dich tu du lieu da luu (giu nguyen ID va thoi gian)
+    public Transaction(String transactionId, String accountId, TransactionType type, long amount,
+                       String description, Category category, LocalDateTime date) {
+        this(transactionId, accountId, type, amount, description, category, date, null);
+    }
+
+    public Transaction(String transactionId, String accountId, TransactionType type, long amount,
+                       String description, Category category, LocalDateTime date, String transferId) {
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.description = description;
+        this.category = category;
+        this.date = date;
+        this.transferId = transferId;
+    }
+
     // Getter methods
     public String getTransactionId() { return transactionId; }
     public String getAccountId() { return accountId; }
     public TransactionType getType() { return type; }
-    public double getAmount() { return amount; }
+    public long getAmount() { return amount; }
     public LocalDateTime getDate() { return date; }
     public String getDescription() { return description; }
     public Category getCategory() { return category; }
+    public String getTransferId() { return transferId; }
+
+    public boolean isTransfer() {
+        return type == TransactionType.TRANSFER;
+    }
+
+    // Anh huong len so du tai khoan: thu, nap tien, so du ban dau +, chi -, chuyen khoan theo dau cua so tien.
+    // Cong tat ca but toan cua mot tai khoan ra dong tien rong cua no
+    public long getBalanceDelta() {
+        switch (type) {
+            case INCOME: return amount;
+            case EXPENSE: return -amount;
+            default: return amount;
+        }
+    }
 
     // Setter methods
-    public void setType(TransactionType type) { this.type = type; }
-    public void setAmount(double amount) { this.amount = amount; }
-    public void setDescription(String description) { this.description = description; }
-    public void setCategory(Category category) { this.category = category; }
+    // Giao dich da vao kho chi sua duoc qua TransactionService.editTransaction (ben nghe chan lan sua khac)
+    public void setType(TransactionType type) {
+        checkChange();
+        TransactionType oldType = this.type;
+        this.type = type;
+        notifyChanged(oldType, amount, category);
+    }
+
+    public void setAmount(long amount) {
+        checkChange();
+        long oldAmount = this.amount;
+        this.amount = amount;
+        notifyChanged(type, oldAmount, category);
+    }
+
+    // Mo ta khong anh huong tong, van bao de kho theo cot ghi lai
+    public void setDescription(String description) {
+        checkChange();
+        this.description = description;
+        notifyChanged(type, amount, category);
+    }
+
+    public void setCategory(Category category) {
+        checkChange();
+        Category oldCategory = this.category;
+        this.category = category;
+        notifyChanged(type, amount, oldCategory);
+    }
+
+    public void setChangeListener(TransactionChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void checkChange() {
+        if (changeListener != null) {
+            changeListener.beforeTransactionChange(this);
+        }
+    }
+
+    private void notifyChanged(TransactionType oldType, long oldAmount, Category oldCategory) {
+        if (changeListener != null) {
+            changeListener.onTransactionChanged(this, oldType, oldAmount, oldCategory);
+        }
+    }
 
     // Business methods
     public boolean isValid() {
+        if (type == TransactionType.TRANSFER) {
+            return accountId != null && !accountId.trim().isEmpty() &&
+                    amount != 0 && transferId != null && category != null;
+        }
         return accountId != null && !accountId.trim().isEmpty() &&
                 type != null && amount > 0 && category != null;
     }
 
     public String getFormattedDate() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        return date.format(formatter);
+        return DateUtils.formatDateTime(date);
     }
 
     // Display
     public void displayInfo() {
-        int maxWidth = calculateMaxWidth();
-        String horizontalLine = "┌" + "─".repeat(maxWidth + 2) + "┐";
-        String middleLine = "├" + "─".repeat(maxWidth + 2) + "┤";
-        String bottomLine = "└" + "─".repeat(maxWidth + 2) + "┘";
-
-        System.out.println(horizontalLine);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "THÔNG TIN GIAO DỊCH");
-        System.out.println(middleLine);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "ID: " + transactionId);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "Tài khoản: " + accountId);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "Loại: " + type.getVietnameseName());
-        System.out.printf("│ %-" + (maxWidth) + "s │\n",
-                String.format("Số tiền: %,.2f", amount));
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "Danh mục: " + category.getName());
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "Mô tả: " + description);
-        System.out.printf("│ %-" + (maxWidth) + "s │\n", "Thời gian: " + getFormattedDate());
-        System.out.println(bottomLine);
-    }
-
-    private int calculateMaxWidth() {
-        int maxWidth = "THÔNG TIN GIAO DỊCH".length();
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            render(out);
+        }
+    }
 
-        // Tính độ dài của từng dòng content
-        String[] contents = {
-                "ID: " + transactionId,
-                "Tài khoản: " + accountId,
-                "Loại: " + type.getVietnameseName(),
-                String.format("Số tiền: %,.2f", amount),
-                "Danh mục: " + category.getName(),
-                "Mô tả: " + description,
-                "Thời gian: " + getFormattedDate()
-        };
-
-        for (String content : contents) {
-            if (content.length() > maxWidth) {
-                maxWidth = content.length();
-            }
+    // Khung thong tin giao dich vao bo dem (dung chung cho displayInfo va danh sach giao dich)
+    public void render(RenderBuffer out) {
+        String amountText = Money.format(amount);
+        int maxWidth = calculateMaxWidth(amountText);
+
+        out.rule('┌', '─', '┐', maxWidth);
+        out.boxRow("THÔNG TIN GIAO DỊCH", "", maxWidth);
+        out.rule('├', '─', '┤', maxWidth);
+        out.boxRow("ID: ", transactionId, maxWidth);
+        out.boxRow("Tài khoản: ", accountId, maxWidth);
+        out.boxRow("Loại: ", type.getVietnameseName(), maxWidth);
+        out.boxRow("Số tiền: ", amountText, maxWidth);
+        out.boxRow("Danh mục: ", category.getName(), maxWidth);
+        out.boxRow("Mô tả: ", description, maxWidth);
+        if (transferId != null) {
+            out.boxRow("Mã chuyển khoản: ", transferId, maxWidth);
         }
+        out.append("│ ");
+        int start = out.mark();
+        out.append("Thời gian: ").dateTime(date).padTo(start, maxWidth).line(" │");
+        out.rule('└', '─', '┘', maxWidth);
+    }
 
+    // Do rong khung tinh tu do dai tung dong, khong noi chuoi
+    private int calculateMaxWidth(String amountText) {
+        int maxWidth = "THÔNG TIN GIAO DỊCH".length();
+        maxWidth = Math.max(maxWidth, "ID: ".length() + length(transactionId));
+        maxWidth = Math.max(maxWidth, "Tài khoản: ".length() + length(accountId));
+        maxWidth = Math.max(maxWidth, "Loại: ".length() + type.getVietnameseName().length());
+        maxWidth = Math.max(maxWidth, "Số tiền: ".length() + amountText.length());
+        maxWidth = Math.max(maxWidth, "Danh mục: ".length() + length(category.getName()));
+        maxWidth = Math.max(maxWidth, "Mô tả: ".length() + length(description));
+        maxWidth = Math.max(maxWidth, "Mã chuyển khoản: ".length() + length(transferId));
+        maxWidth = Math.max(maxWidth, "Thời gian: ".length() + DateUtils.DATE_TIME_LENGTH);
         return maxWidth;
     }
 
+    // Do dai khi noi vao chuoi (null thanh "null")
+    private static int length(String value) {
+        return value != null ? value.length() : 4;
+    }
+
     @Override
     public String toString() {
-        return String.format("Transaction{id=%s, account=%s, type=%s, amount=%.2f, category=%s}",
-                transactionId, accountId, type.getVietnameseName(), amount, category.getName());
+        return String.format("Transaction{id=%s, account=%s, type=%s, amount=%s, category=%s}",
+                transactionId, accountId, type.getVietnameseName(), Money.format(amount), category.getName());
     }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.financemanager.model;
+
+// Nhan thong bao khi giao dich bi sua qua setter (loai, so tien, danh muc, mo ta),
+// kem gia tri cu de ben nghe bo phan dong gop cu.
+// beforeTransactionChange chay truoc khi truong bi doi: nem ngoai le de chan lan sua
+public interface TransactionChangeListener {
+    default void beforeTransactionChange(Transaction transaction) {
+    }
+
+    void onTransactionChanged(Transaction transaction, TransactionType oldType, long oldAmount,
+                              Category oldCategory);
+}
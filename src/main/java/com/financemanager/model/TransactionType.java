@@ -3,7 +3,11 @@ package com.financemanager.model;
 public enum TransactionType {
     INCOME("Thu nhập"),
     EXPENSE("Chi tiêu"),
-    TRANSFER("Chuyển khoản");
+    TRANSFER("Chuyển khoản"),
+    // Hai loai duoi chi do he thong tao (nap tien, so du luc mo tai khoan).
+    // Ordinal duoc luu tren dia: chi them hang so moi vao cuoi
+    DEPOSIT("Nạp tiền"),
+    OPENING_BALANCE("Số dư ban đầu");
 
     private final String vietnameseName;
 
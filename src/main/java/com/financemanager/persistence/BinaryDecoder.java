@@ -0,0 +1,103 @@
+package com.financemanager.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Doc du lieu do BinaryEncoder ghi, truc tiep tu ByteBuffer (mang byte hoac file map).
+// Du lieu hong nem IllegalStateException; ben goi kiem checksum truoc khi giai ma
+public final class BinaryDecoder {
+    private final ByteBuffer buffer;
+
+    public BinaryDecoder(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    public BinaryDecoder(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public int readByte() {
+        checkRemaining(1);
+        return buffer.get();
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public int readVarInt() {
+        long value = readVarLong();
+        if (value > 0xFFFFFFFFL) {
+            throw new IllegalStateException("Varint vuot qua 32 bit");
+        }
+        return (int) value;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            checkRemaining(1);
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint qua dai");
+    }
+
+    public long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public long readLong() {
+        checkRemaining(8);
+        return buffer.getLong();
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        checkRemaining(length);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    public LocalDateTime readEpochMillis() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(readSignedVarLong()), ZoneOffset.UTC);
+    }
+
+    public boolean hasRemaining() {
+        return buffer.hasRemaining();
+    }
+
+    public int position() {
+        return buffer.position();
+    }
+
+    private void checkRemaining(int length) {
+        if (length < 0 || buffer.remaining() < length) {
+            throw new IllegalStateException("Du lieu nhi phan bi cat ngang tai vi tri " + buffer.position());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.financemanager.persistence;
+
+// Che do ben vung cua nhat ky: doi do tre lay muc an toan du lieu
+public enum DurabilityMode {
+    PER_WRITE("Fsync sau moi ban ghi"),
+    PER_BATCH("Fsync mot lan cho moi lo ghi (group commit)"),
+    ASYNC("Ghi va fsync o nen, khong cho");
+
+    private final String description;
+
+    DurabilityMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    // Doc tu chuoi cau hinh, mac dinh PER_BATCH neu khong hop le
+    public static DurabilityMode fromString(String value) {
+        if (value != null) {
+            for (DurabilityMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value.trim().replace('-', '_'))) {
+                    return mode;
+                }
+            }
+        }
+        return PER_BATCH;
+    }
+}
@@ -0,0 +1,105 @@
+package com.financemanager.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Doc tuan tu cac khung trong file nhat ky.
+// Dung lai o khung dau tien bi cat ngang hoac sai checksum (duoi file khi bi crash)
+public class JournalReader implements AutoCloseable {
+    // Gioi han an toan cho mot payload, tranh cap phat qua lon khi doc rac.
+    // TransactionJournal tu choi ghi ban ghi lon hon, neu khong ban ghi do bi coi la duoi hong khi doc
+    static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    private final DataInputStream in;
+    private long validPosition;
+
+    public JournalReader(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    JournalReader(FileChannel channel) {
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+        this.validPosition = 0;
+    }
+
+    // Ban ghi tiep theo, hoac null neu het file hop le
+    public JournalRecord next() throws IOException {
+        int payloadLength;
+        try {
+            payloadLength = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (payloadLength < 0 || payloadLength > MAX_PAYLOAD_SIZE) {
+            return null;
+        }
+
+        byte[] frame = new byte[JournalRecord.HEADER_SIZE + payloadLength + JournalRecord.TRAILER_SIZE];
+        ByteBuffer.wrap(frame).putInt(payloadLength);
+        try {
+            in.readFully(frame, 4, frame.length - 4);
+        } catch (EOFException e) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        buffer.position(4);
+        JournalRecord.Type type = JournalRecord.Type.fromCode(buffer.get());
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        byte[] payload = new byte[payloadLength];
+        buffer.get(payload);
+        int storedChecksum = buffer.getInt();
+
+        int checksum = JournalRecord.checksum(frame, 4, JournalRecord.HEADER_SIZE - 4 + payloadLength);
+        if (type == null || checksum != storedChecksum) {
+            return null;
+        }
+
+        validPosition += frame.length;
+        return new JournalRecord(type, sequence, timestamp, payload);
+    }
+
+    // Vi tri ket thuc cua khung hop le cuoi cung da doc
+    public long getValidPosition() {
+        return validPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Quet file: tra ve sequence cuoi cung hop le va cat bo phan duoi hong
+    static long recover(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        long lastSequence = 0;
+        long validPosition;
+        try (JournalReader reader = new JournalReader(file)) {
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                lastSequence = record.getSequence();
+            }
+            validPosition = reader.getValidPosition();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (channel.size() > validPosition) {
+                channel.truncate(validPosition);
+                channel.force(true);
+            }
+        }
+        return lastSequence;
+    }
+}
@@ -0,0 +1,172 @@
+package com.financemanager.persistence;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Payment;
+import com.financemanager.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Mot ban ghi thay doi trong nhat ky.
+// Khung tren dia: [do dai payload][loai][sequence][timestamp][payload][crc32]
+public class JournalRecord {
+    // int length + byte type + long sequence + long timestamp
+    static final int HEADER_SIZE = 4 + 1 + 8 + 8;
+    static final int TRAILER_SIZE = 4;
+
+    public enum Type {
+        ACCOUNT_CREATED(1),
+        ACCOUNT_DELETED(2),
+        TRANSACTION_ADDED(3),
+        TRANSFER(4),
+        DEPOSIT(5),             // chi con doc: nap tien nay ghi TRANSACTION_ADDED (but toan DEPOSIT)
+        LOAN_CREATED(6),
+        LENDING_CREATED(7),
+        LOAN_PAYMENT(8),
+        LENDING_REPAYMENT(9),
+        TRANSACTION_BATCH(10),
+        TRANSACTION_EDITED(11);
+
+        private final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Type type;
+    private final long sequence;
+    private final long timestamp;
+    private final byte[] payload;
+
+    JournalRecord(Type type, long sequence, long timestamp, byte[] payload) {
+        this.type = type;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.payload = payload;
+    }
+
+    private JournalRecord(Type type, byte[] payload) {
+        this(type, 0, System.currentTimeMillis(), payload);
+    }
+
+    public Type getType() { return type; }
+    public long getSequence() { return sequence; }
+    public long getTimestamp() { return timestamp; }
+    public byte[] getPayload() { return payload; }
+
+    // Doc payload theo dung thu tu cac truong da ghi trong factory tuong ung
+    BinaryDecoder openPayload() {
+        return new BinaryDecoder(payload);
+    }
+
+    // ===== Cac ban ghi thay doi =====
+    // Moi ban ghi co ModelCodec rieng nen tham chieu luon duoc ghi day du
+
+    public static JournalRecord accountCreated(Account account) {
+        return build(Type.ACCOUNT_CREATED, (out, codec) -> codec.writeAccount(out, account));
+    }
+
+    public static JournalRecord accountDeleted(String accountId) {
+        return build(Type.ACCOUNT_DELETED, (out, codec) -> out.writeString(accountId));
+    }
+
+    public static JournalRecord transactionAdded(Transaction transaction) {
+        return build(Type.TRANSACTION_ADDED, (out, codec) -> codec.writeTransaction(out, transaction));
+    }
+
+    // Nhieu giao dich trong mot ban ghi; tham chieu tai khoan/danh muc lap lai chi ghi mot lan
+    public static JournalRecord transactionBatch(List<Transaction> transactions) {
+        return build(Type.TRANSACTION_BATCH, (out, codec) -> {
+            out.writeVarInt(transactions.size());
+            for (Transaction transaction : transactions) {
+                codec.writeTransaction(out, transaction);
+            }
+        });
+    }
+
+    // Gia tri moi cua mot giao dich thu/chi da sua (ID, tai khoan va thoi gian giu nguyen)
+    public static JournalRecord transactionEdited(Transaction transaction) {
+        return build(Type.TRANSACTION_EDITED, (out, codec) -> codec.writeTransaction(out, transaction));
+    }
+
+    // Hai ve cua mot but toan chuyen khoan nam trong cung mot ban ghi: khoi phuc ca hai hoac khong
+    public static JournalRecord transfer(Transaction debit, Transaction credit) {
+        return build(Type.TRANSFER, (out, codec) -> {
+            codec.writeTransaction(out, debit);
+            codec.writeTransaction(out, credit);
+        });
+    }
+
+    public static JournalRecord loanCreated(Loan loan) {
+        return build(Type.LOAN_CREATED, (out, codec) -> codec.writeLoan(out, loan));
+    }
+
+    public static JournalRecord lendingCreated(Lending lending) {
+        return build(Type.LENDING_CREATED, (out, codec) -> codec.writeLending(out, lending));
+    }
+
+    public static JournalRecord loanPayment(String loanId, Payment payment) {
+        return build(Type.LOAN_PAYMENT, (out, codec) -> {
+            out.writeString(loanId);
+            codec.writePayment(out, payment);
+        });
+    }
+
+    public static JournalRecord lendingRepayment(String lendingId, Payment payment) {
+        return build(Type.LENDING_REPAYMENT, (out, codec) -> {
+            out.writeString(lendingId);
+            codec.writePayment(out, payment);
+        });
+    }
+
+    // ===== Ma hoa khung =====
+
+    byte[] encode(long sequence) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length + TRAILER_SIZE);
+        frame.putInt(payload.length);
+        frame.put((byte) type.getCode());
+        frame.putLong(sequence);
+        frame.putLong(timestamp);
+        frame.put(payload);
+        frame.putInt(checksum(frame.array(), 4, HEADER_SIZE - 4 + payload.length));
+        return frame.array();
+    }
+
+    static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private interface PayloadWriter {
+        void write(BinaryEncoder out, ModelCodec codec);
+    }
+
+    private static JournalRecord build(Type type, PayloadWriter writer) {
+        BinaryEncoder out = new BinaryEncoder(64);
+        writer.write(out, new ModelCodec());
+        return new JournalRecord(type, out.toByteArray());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JournalRecord{seq=%d, type=%s, size=%d}", sequence, type, payload.length);
+    }
+}
@@ -0,0 +1,139 @@
+package com.financemanager.persistence;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+import com.financemanager.service.AccountService;
+import com.financemanager.service.LoanService;
+import com.financemanager.service.TransactionService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+// Ap dung lai cac ban ghi nhat ky (phan duoi sau snapshot) vao cac service.
+// Khong in ra man hinh va khong ghi lai vao nhat ky
+public class JournalReplayer {
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final LoanService loanService;
+
+    public JournalReplayer(AccountService accountService, TransactionService transactionService,
+                           LoanService loanService) {
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.loanService = loanService;
+    }
+
+    // Phat lai moi ban ghi co sequence > afterSequence. Tra ve sequence cuoi cung da ap dung
+    public long replay(Path directory, long afterSequence) throws IOException {
+        long lastApplied = afterSequence;
+        List<Path> segments = JournalSegments.list(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            // Bo qua ca doan neu doan tiep theo bat dau truoc phan can phat lai
+            if (i + 1 < segments.size()
+                    && JournalSegments.firstSequenceOf(segments.get(i + 1)) <= afterSequence + 1) {
+                continue;
+            }
+            try (JournalReader reader = new JournalReader(segments.get(i))) {
+                JournalRecord record;
+                while ((record = reader.next()) != null) {
+                    if (record.getSequence() <= lastApplied) {
+                        continue;
+                    }
+                    apply(record);
+                    lastApplied = record.getSequence();
+                }
+            }
+        }
+        return lastApplied;
+    }
+
+    // Cac truong duoc doc dung thu tu da ghi trong JournalRecord
+    void apply(JournalRecord record) throws IOException {
+        BinaryDecoder in = record.openPayload();
+        ModelCodec codec = new ModelCodec();
+        try {
+            switch (record.getType()) {
+                case ACCOUNT_CREATED:
+                    Account account = codec.readAccount(in);
+                    accountService.restoreAccount(account);
+                    transactionService.restoreOpeningBalance(account, timeOf(record));
+                    break;
+                case ACCOUNT_DELETED:
+                    accountService.restoreAccountDeletion(in.readString());
+                    break;
+                case TRANSACTION_ADDED:
+                    applyTransactionAdded(codec.readTransaction(in));
+                    break;
+                case TRANSACTION_BATCH:
+                    for (int count = in.readVarInt(); count > 0; count--) {
+                        applyTransactionAdded(codec.readTransaction(in));
+                    }
+                    break;
+                case TRANSACTION_EDITED:
+                    applyTransactionEdited(codec.readTransaction(in));
+                    break;
+                case TRANSFER:
+                    applyTransactionAdded(codec.readTransaction(in));
+                    applyTransactionAdded(codec.readTransaction(in));
+                    break;
+                case DEPOSIT:
+                    // Ban ghi cu, truoc khi nap tien thanh but toan (nay nap tien ghi TRANSACTION_ADDED)
+                    applyTransactionAdded(transactionService.createDepositLeg(codec.readAccountRef(in),
+                            in.readSignedVarLong(), timeOf(record)));
+                    break;
+                case LOAN_CREATED:
+                    loanService.restoreLoan(codec.readLoan(in));
+                    break;
+                case LENDING_CREATED:
+                    loanService.restoreLending(codec.readLending(in));
+                    break;
+                case LOAN_PAYMENT:
+                    loanService.restoreLoanPayment(in.readString(), codec.readPayment(in));
+                    break;
+                case LENDING_REPAYMENT:
+                    loanService.restoreLendingRepayment(in.readString(), codec.readPayment(in));
+                    break;
+                default:
+                    throw new IOException("Loai ban ghi khong ho tro: " + record.getType());
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException("Ban ghi nhat ky hong: " + record, e);
+        }
+    }
+
+    // Giao dich dung chung doi tuong danh muc dang co trong TransactionService
+    private void applyTransactionAdded(Transaction decoded) {
+        Category saved = decoded.getCategory();
+        Category category = transactionService.resolveCategory(saved.getCategoryId(), saved.getName(),
+                saved.getTransactionType());
+        Transaction transaction = new Transaction(decoded.getTransactionId(), decoded.getAccountId(),
+                decoded.getType(), decoded.getAmount(), decoded.getDescription(), category, decoded.getDate(),
+                decoded.getTransferId());
+        transactionService.restoreTransaction(transaction);
+        accountService.findAccountById(transaction.getAccountId())
+                .ifPresent(account -> account.updateBalance(transaction.getAmount(), transaction.getType()));
+    }
+
+    // Sua lai dong da co; so du doi theo phan chenh lech anh huong, nhu luc sua that
+    private void applyTransactionEdited(Transaction decoded) {
+        Category saved = decoded.getCategory();
+        Category category = transactionService.resolveCategory(saved.getCategoryId(), saved.getName(),
+                saved.getTransactionType());
+        long change = transactionService.restoreTransactionEdit(decoded.getAccountId(), decoded.getTransactionId(),
+                decoded.getType(), decoded.getAmount(), decoded.getDescription(), category);
+        // TRANSFER: cong so tien co dau
+        accountService.findAccountById(decoded.getAccountId())
+                .ifPresent(account -> account.updateBalance(change, TransactionType.TRANSFER));
+    }
+
+    // Thoi diem ghi theo dong ho may, giong LocalDateTime.now() luc ghi
+    private static LocalDateTime timeOf(JournalRecord record) {
+        return Instant.ofEpochMilli(record.getTimestamp()).atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
@@ -0,0 +1,66 @@
+package com.financemanager.persistence;
+
+import com.financemanager.util.Constants;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Nhat ky duoc chia thanh cac doan file "journal-<sequence dau tien>.log".
+// Sau moi snapshot, nhat ky chuyen sang doan moi de co the xoa cac doan cu
+final class JournalSegments {
+    // File nhat ky mot doan duy nhat cua phien ban truoc
+    private static final String LEGACY_JOURNAL_FILE = "journal.log";
+
+    private JournalSegments() {
+    }
+
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s",
+                Constants.JOURNAL_SEGMENT_PREFIX, firstSequence, Constants.JOURNAL_SEGMENT_SUFFIX));
+    }
+
+    // Sequence dau tien cua doan, hoac -1 neu khong phai file doan nhat ky
+    static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(Constants.JOURNAL_SEGMENT_PREFIX) || !name.endsWith(Constants.JOURNAL_SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        String number = name.substring(Constants.JOURNAL_SEGMENT_PREFIX.length(),
+                name.length() - Constants.JOURNAL_SEGMENT_SUFFIX.length());
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Cac doan nhat ky sap xep theo sequence dau tien
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (firstSequenceOf(file) > 0) {
+                    segments.add(file);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(JournalSegments::firstSequenceOf));
+        return segments;
+    }
+
+    // Doi ten file nhat ky cu thanh doan dau tien (ban ghi dau tien cua no co sequence 1)
+    static void migrateLegacyJournal(Path directory) throws IOException {
+        Path legacy = directory.resolve(LEGACY_JOURNAL_FILE);
+        if (Files.exists(legacy) && list(directory).isEmpty()) {
+            Files.move(legacy, segmentPath(directory, 1));
+        }
+    }
+}
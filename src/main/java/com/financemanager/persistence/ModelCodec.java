@@ -0,0 +1,264 @@
+package com.financemanager.persistence;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Payment;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ma hoa nhi phan viet tay cho cac lop model (khong dung Serializable hay reflection).
+// Tham chieu tai khoan va danh muc duoc ma hoa theo tu dien: lan dau ghi day du,
+// cac lan sau chi ghi ordinal. Moi luong du lieu dung mot ModelCodec rieng,
+// ben ghi va ben doc phai di qua cac ban ghi theo cung thu tu
+public class ModelCodec {
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+
+    private final Map<String, Integer> accountOrdinals = new HashMap<>();
+    private final List<String> accountIds = new ArrayList<>();
+    private final Map<String, Integer> categoryOrdinals = new HashMap<>();
+    private final List<Category> categories = new ArrayList<>();
+
+    // Dang ky truoc danh muc da biet (vd. da doc tu categories.dat) de khong ghi lai.
+    // Hai ben phai dang ky cung danh sach theo cung thu tu
+    public void registerCategories(List<Category> knownCategories) {
+        for (Category category : knownCategories) {
+            addCategory(category);
+        }
+    }
+
+    // ===== Tham chieu theo tu dien =====
+
+    public void writeAccountRef(BinaryEncoder out, String accountId) {
+        Integer ordinal = accountOrdinals.get(accountId);
+        if (ordinal != null) {
+            out.writeVarInt(ordinal + 1);
+            return;
+        }
+        out.writeVarInt(0);
+        out.writeString(accountId);
+        accountOrdinals.put(accountId, accountIds.size());
+        accountIds.add(accountId);
+    }
+
+    public String readAccountRef(BinaryDecoder in) {
+        int ref = in.readVarInt();
+        if (ref == 0) {
+            String accountId = in.readString();
+            accountIds.add(accountId);
+            return accountId;
+        }
+        if (ref > accountIds.size()) {
+            throw new IllegalStateException("Tham chieu tai khoan khong hop le: " + ref);
+        }
+        return accountIds.get(ref - 1);
+    }
+
+    public void writeCategoryRef(BinaryEncoder out, Category category) {
+        Integer ordinal = categoryOrdinals.get(category.getCategoryId());
+        if (ordinal != null) {
+            out.writeVarInt(ordinal + 1);
+            return;
+        }
+        out.writeVarInt(0);
+        writeCategory(out, category);
+        addCategory(category);
+    }
+
+    public Category readCategoryRef(BinaryDecoder in) {
+        int ref = in.readVarInt();
+        if (ref == 0) {
+            Category category = readCategory(in);
+            categories.add(category);
+            return category;
+        }
+        if (ref > categories.size()) {
+            throw new IllegalStateException("Tham chieu danh muc khong hop le: " + ref);
+        }
+        return categories.get(ref - 1);
+    }
+
+    // ===== Category =====
+
+    public void writeCategory(BinaryEncoder out, Category category) {
+        out.writeString(category.getCategoryId());
+        out.writeString(category.getName());
+        out.writeString(category.getDescription());
+        writeTransactionType(out, category.getTransactionType());
+    }
+
+    public Category readCategory(BinaryDecoder in) {
+        String categoryId = in.readString();
+        String name = in.readString();
+        String description = in.readString();
+        TransactionType type = readTransactionType(in);
+        return new Category(categoryId, name, description, type);
+    }
+
+    // ===== Account =====
+
+    public void writeAccount(BinaryEncoder out, Account account) {
+        writeAccountRef(out, account.getAccountId());
+        out.writeString(account.getAccountName());
+        out.writeString(account.getAccountType());
+        out.writeString(account.getAccountNumber());
+        out.writeSignedVarLong(account.getBalance());
+        out.writeString(account.getCurrency());
+    }
+
+    public Account readAccount(BinaryDecoder in) {
+        String accountId = readAccountRef(in);
+        String name = in.readString();
+        String type = in.readString();
+        String number = in.readString();
+        long balance = in.readSignedVarLong();
+        String currency = in.readString();
+        return new Account(accountId, name, type, number, balance, currency);
+    }
+
+    // ===== Transaction =====
+
+    public void writeTransaction(BinaryEncoder out, Transaction transaction) {
+        out.writeString(transaction.getTransactionId());
+        writeAccountRef(out, transaction.getAccountId());
+        writeTransactionType(out, transaction.getType());
+        out.writeSignedVarLong(transaction.getAmount());
+        out.writeString(transaction.getDescription());
+        writeCategoryRef(out, transaction.getCategory());
+        out.writeEpochMillis(transaction.getDate());
+        out.writeString(transaction.getTransferId());
+    }
+
+    public Transaction readTransaction(BinaryDecoder in) {
+        String transactionId = in.readString();
+        String accountId = readAccountRef(in);
+        TransactionType type = readTransactionType(in);
+        long amount = in.readSignedVarLong();
+        String description = in.readString();
+        Category category = readCategoryRef(in);
+        LocalDateTime date = in.readEpochMillis();
+        String transferId = in.readString();
+        return new Transaction(transactionId, accountId, type, amount, description, category, date, transferId);
+    }
+
+    // ===== Payment =====
+
+    public void writePayment(BinaryEncoder out, Payment payment) {
+        out.writeString(payment.getPaymentId());
+        out.writeSignedVarLong(payment.getAmount());
+        out.writeEpochMillis(payment.getPaymentDate());
+        out.writeString(payment.getPaymentMethod());
+    }
+
+    public Payment readPayment(BinaryDecoder in) {
+        String paymentId = in.readString();
+        long amount = in.readSignedVarLong();
+        LocalDateTime paymentDate = in.readEpochMillis();
+        String paymentMethod = in.readString();
+        return new Payment(paymentId, amount, paymentDate, paymentMethod);
+    }
+
+    public void writePayments(BinaryEncoder out, List<Payment> payments) {
+        out.writeVarInt(payments.size());
+        for (Payment payment : payments) {
+            writePayment(out, payment);
+        }
+    }
+
+    public List<Payment> readPayments(BinaryDecoder in) {
+        int count = in.readVarInt();
+        List<Payment> payments = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            payments.add(readPayment(in));
+        }
+        return payments;
+    }
+
+    // ===== Loan / Lending =====
+
+    public void writeLoan(BinaryEncoder out, Loan loan) {
+        out.writeString(loan.getLoanId());
+        out.writeString(loan.getLenderName());
+        out.writeSignedVarLong(loan.getPrincipalAmount());
+        out.writeDouble(loan.getInterestRate());
+        out.writeVarInt(loan.getLoanMonths());
+        out.writeSignedVarLong(loan.getRemainingAmount());
+        out.writeEpochMillis(loan.getStartDate());
+        out.writeEpochMillis(loan.getDueDate());
+        out.writeString(loan.getStatus());
+        out.writeString(loan.getDescription());
+        writePayments(out, loan.getPaymentHistory());
+    }
+
+    public Loan readLoan(BinaryDecoder in) {
+        String loanId = in.readString();
+        String lender = in.readString();
+        long principal = in.readSignedVarLong();
+        double interest = in.readDouble();
+        int months = in.readVarInt();
+        long remaining = in.readSignedVarLong();
+        LocalDateTime startDate = in.readEpochMillis();
+        LocalDateTime dueDate = in.readEpochMillis();
+        String status = in.readString();
+        String description = in.readString();
+        List<Payment> payments = readPayments(in);
+        return new Loan(loanId, lender, principal, interest, months, remaining,
+                startDate, dueDate, status, description, payments);
+    }
+
+    public void writeLending(BinaryEncoder out, Lending lending) {
+        out.writeString(lending.getLendingId());
+        out.writeString(lending.getBorrowerName());
+        out.writeSignedVarLong(lending.getPrincipalAmount());
+        out.writeDouble(lending.getInterestRate());
+        out.writeVarInt(lending.getLendingMonths());
+        out.writeSignedVarLong(lending.getRemainingAmount());
+        out.writeEpochMillis(lending.getStartDate());
+        out.writeEpochMillis(lending.getDueDate());
+        out.writeString(lending.getStatus());
+        out.writeString(lending.getDescription());
+        writePayments(out, lending.getRepaymentHistory());
+    }
+
+    public Lending readLending(BinaryDecoder in) {
+        String lendingId = in.readString();
+        String borrower = in.readString();
+        long principal = in.readSignedVarLong();
+        double interest = in.readDouble();
+        int months = in.readVarInt();
+        long remaining = in.readSignedVarLong();
+        LocalDateTime startDate = in.readEpochMillis();
+        LocalDateTime dueDate = in.readEpochMillis();
+        String status = in.readString();
+        String description = in.readString();
+        List<Payment> payments = readPayments(in);
+        return new Lending(lendingId, borrower, principal, interest, months, remaining,
+                startDate, dueDate, status, description, payments);
+    }
+
+    // ===== Noi bo =====
+
+    private void addCategory(Category category) {
+        categoryOrdinals.put(category.getCategoryId(), categories.size());
+        categories.add(category);
+    }
+
+    private static void writeTransactionType(BinaryEncoder out, TransactionType type) {
+        out.writeByte(type.ordinal());
+    }
+
+    private static TransactionType readTransactionType(BinaryDecoder in) {
+        int ordinal = in.readByte();
+        if (ordinal < 0 || ordinal >= TRANSACTION_TYPES.length) {
+            throw new IllegalStateException("Loai giao dich khong hop le: " + ordinal);
+        }
+        return TRANSACTION_TYPES[ordinal];
+    }
+}
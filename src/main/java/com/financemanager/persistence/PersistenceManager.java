@@ -0,0 +1,206 @@
+package com.financemanager.persistence;
+
+import com.financemanager.event.EventPublisher;
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.model.Account;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Transaction;
+import com.financemanager.service.AccountService;
+import com.financemanager.service.LoanService;
+import com.financemanager.service.TransactionService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Ket hop snapshot va nhat ky:
+// - khoi dong: nap snapshot moi nhat roi chi phat lai phan duoi nhat ky sau no
+// - chay: dinh ky chup trang thai, ghi snapshot o luong nen, xoa cac doan nhat ky da duoc bao phu
+public class PersistenceManager implements AutoCloseable {
+    private final Path directory;
+    private final DurabilityMode durabilityMode;
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final LoanService loanService;
+    private final SnapshotStore snapshotStore;
+    private final ScheduledExecutorService executor;
+
+    private TransactionJournal journal;
+    private long lastSnapshotSequence;
+    private EventPublisher events = new EventPublisher();
+
+    public PersistenceManager(Path directory, DurabilityMode durabilityMode, AccountService accountService,
+                              TransactionService transactionService, LoanService loanService) {
+        this.directory = directory;
+        this.durabilityMode = durabilityMode;
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.loanService = loanService;
+        this.snapshotStore = new SnapshotStore(directory);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lastSnapshotSequence = 0;
+    }
+
+    public void setEventPublisher(EventPublisher events) {
+        this.events = events;
+    }
+
+    // Khoi phuc trang thai va gan nhat ky vao cac service
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        long startTime = System.currentTimeMillis();
+
+        SnapshotImage image = snapshotStore.loadLatest();
+        if (image != null) {
+            install(image);
+            lastSnapshotSequence = image.getSequence();
+        }
+
+        journal = new TransactionJournal(directory, durabilityMode);
+        journal.advanceTo(lastSnapshotSequence);
+        long lastApplied = new JournalReplayer(accountService, transactionService, loanService)
+                .replay(directory, lastSnapshotSequence);
+
+        accountService.setJournal(journal);
+        transactionService.setJournal(journal);
+        loanService.setJournal(journal);
+
+        if (image != null || lastApplied > lastSnapshotSequence) {
+            events.publish(FinanceEvent.dataRestored(lastSnapshotSequence, lastApplied - lastSnapshotSequence,
+                    System.currentTimeMillis() - startTime));
+        }
+    }
+
+    // Chup trang thai hien tai va mo doan nhat ky moi.
+    // Ben goi phai chan moi thay doi trong luc goi (xem FinanceManager.checkpoint).
+    // Tra ve null neu khong co gi moi ke tu snapshot truoc
+    public SnapshotImage captureSnapshot() {
+        if (journal.getLastSequence() == lastSnapshotSequence) {
+            return null;
+        }
+        List<Account> accounts = new ArrayList<>();
+        for (Account account : accountService.getAllAccounts()) {
+            accounts.add(copyOf(account));
+        }
+        List<Loan> loans = new ArrayList<>();
+        for (Loan loan : loanService.getAllLoans()) {
+            loans.add(copyOf(loan));
+        }
+        List<Lending> lendings = new ArrayList<>();
+        for (Lending lending : loanService.getAllLendings()) {
+            lendings.add(copyOf(lending));
+        }
+        // Giao dich co the bi sua (editTransaction) trong luc ghi file o luong nen: sao chep nhu tai khoan
+        List<Transaction> transactions = new ArrayList<>();
+        for (Transaction transaction : transactionService.getAllTransactions()) {
+            transactions.add(copyOf(transaction));
+        }
+
+        long sequence = journal.rollover() - 1;
+        lastSnapshotSequence = sequence;
+        return new SnapshotImage(sequence, accounts, transactionService.getAllCategories(),
+                transactions, loans, lendings, accountService.getBalanceSeries().getFlowsByAccount());
+    }
+
+    // Ghi snapshot o luong nen; write chi tra ve sau khi thu muc du lieu da fsync phep doi ten,
+    // luc do moi xoa cac doan nhat ky da nam trong snapshot
+    public CompletableFuture<Long> writeSnapshotAsync(SnapshotImage image) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                snapshotStore.write(image);
+                journal.deleteSegmentsCoveredBy(image.getSequence());
+                return image.getSequence();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Loi ghi snapshot #" + image.getSequence(), e);
+            }
+        }, executor);
+    }
+
+    // Chay checkpoint dinh ky tren luong snapshot
+    public void scheduleSnapshots(long intervalSeconds, Runnable checkpoint) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint.run();
+            } catch (RuntimeException e) {
+                events.publish(FinanceEvent.rejected("Loi khi chup snapshot: " + e.getMessage()));
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal != null) {
+            journal.sync();
+            journal.close();
+            journal = null;
+        }
+    }
+
+    // ===== Noi bo =====
+
+    // Dua snapshot vao cac service; so du da nam trong tai khoan nen giao dich khong cap nhat lai.
+    // Chuoi so du theo ngay lay tu snapshot (gom ca nap tien), thay cho phan giao dich vua ghi vao
+    private void install(SnapshotImage image) {
+        transactionService.restoreCategories(image.getCategories());
+        for (Account account : image.getAccounts()) {
+            accountService.restoreAccount(account);
+        }
+        for (Transaction transaction : image.getTransactions()) {
+            transactionService.restoreTransaction(transaction);
+        }
+        for (Loan loan : image.getLoans()) {
+            loanService.restoreLoan(loan);
+        }
+        for (Lending lending : image.getLendings()) {
+            loanService.restoreLending(lending);
+        }
+        accountService.getBalanceSeries().restore(image.getBalanceFlows());
+    }
+
+    private static Account copyOf(Account account) {
+        return new Account(account.getAccountId(), account.getAccountName(), account.getAccountType(),
+                account.getAccountNumber(), account.getBalance(), account.getCurrency());
+    }
+
+    private static Transaction copyOf(Transaction transaction) {
+        return new Transaction(transaction.getTransactionId(), transaction.getAccountId(), transaction.getType(),
+                transaction.getAmount(), transaction.getDescription(), transaction.getCategory(),
+                transaction.getDate(), transaction.getTransferId());
+    }
+
+    private static Loan copyOf(Loan loan) {
+        return new Loan(loan.getLoanId(), loan.getLenderName(), loan.getPrincipalAmount(),
+                loan.getInterestRate(), loan.getLoanMonths(), loan.getRemainingAmount(),
+                loan.getStartDate(), loan.getDueDate(), loan.getStatus(), loan.getDescription(),
+                loan.getPaymentHistory());
+    }
+
+    private static Lending copyOf(Lending lending) {
+        return new Lending(lending.getLendingId(), lending.getBorrowerName(), lending.getPrincipalAmount(),
+                lending.getInterestRate(), lending.getLendingMonths(), lending.getRemainingAmount(),
+                lending.getStartDate(), lending.getDueDate(), lending.getStatus(), lending.getDescription(),
+                lending.getRepaymentHistory());
+    }
+}
@@ -0,0 +1,43 @@
+package com.financemanager.persistence;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Transaction;
+
+import java.util.List;
+import java.util.Map;
+
+// Ban chup trang thai tai mot vi tri nhat ky (sequence).
+// Tai khoan va khoan vay la ban sao; giao dich va danh muc dung chung doi tuong.
+// Dong tien theo ngay (DailyBalanceSeries) luu rieng vi co ca dong tien khong phai giao dich (nap tien)
+public class SnapshotImage {
+    private final long sequence;
+    private final List<Account> accounts;
+    private final List<Category> categories;
+    private final List<Transaction> transactions;
+    private final List<Loan> loans;
+    private final List<Lending> lendings;
+    private final Map<String, long[]> balanceFlows;
+
+    SnapshotImage(long sequence, List<Account> accounts, List<Category> categories,
+                  List<Transaction> transactions, List<Loan> loans, List<Lending> lendings,
+                  Map<String, long[]> balanceFlows) {
+        this.sequence = sequence;
+        this.accounts = accounts;
+        this.categories = categories;
+        this.transactions = transactions;
+        this.loans = loans;
+        this.lendings = lendings;
+        this.balanceFlows = balanceFlows;
+    }
+
+    public long getSequence() { return sequence; }
+    public List<Account> getAccounts() { return accounts; }
+    public List<Category> getCategories() { return categories; }
+    public List<Transaction> getTransactions() { return transactions; }
+    public List<Loan> getLoans() { return loans; }
+    public List<Lending> getLendings() { return lendings; }
+    public Map<String, long[]> getBalanceFlows() { return balanceFlows; }
+}
@@ -0,0 +1,500 @@
+package com.financemanager.persistence;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Transaction;
+import com.financemanager.service.DailyBalanceSeries;
+import com.financemanager.util.Constants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+// Luu snapshot nhi phan vao thu muc "snapshot-<sequence>" gom 5 file:
+// accounts.dat, transactions.dat, loans.dat, categories.dat, balance-flows.dat.
+// Moi file co header [magic][version][sequence], noi dung ma hoa bang ModelCodec
+// va checksum CRC32 o cuoi.
+// Thu muc duoc ghi duoi ten tam roi doi ten mot lan, nen snapshot luon day du.
+public class SnapshotStore {
+    private static final int MAGIC = 0x464D534E; // "FMSN"
+    private static final int VERSION = 5;
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    // ===== Ghi =====
+
+    // Ghi snapshot va xoa cac snapshot cu hon. Tra ve thu muc snapshot moi
+    public Path write(SnapshotImage image) throws IOException {
+        long sequence = image.getSequence();
+        Path temp = prepareTemp(sequence);
+
+        writeCategories(temp, sequence, image.getCategories());
+        writeAccounts(temp, sequence, image.getAccounts());
+        writeFile(temp.resolve(Constants.TRANSACTIONS_FILE), sequence, out -> {
+            // Danh muc da co trong categories.dat: giao dich chi ghi ordinal
+            ModelCodec codec = new ModelCodec();
+            codec.registerCategories(image.getCategories());
+            out.encoder().writeVarInt(image.getTransactions().size());
+            for (Transaction transaction : image.getTransactions()) {
+                codec.writeTransaction(out.encoder(), transaction);
+                out.flushIfFull();
+            }
+        });
+        writeLoans(temp, sequence, image.getLoans(), image.getLendings());
+        writeBalanceFlows(temp, sequence, image.getBalanceFlows());
+        return publish(temp, sequence);
+    }
+
+    // Ghi snapshot ma giao dich den dan (vd. du lieu sinh ra): moi giao dich duoc ma hoa
+    // va day xuong file ngay, khong can giu ca danh sach trong bo nho.
+    // Tai khoan va khoan vay (it) ghi luc commit, nen so du co the tinh xong sau cung.
+    // Dong tien theo ngay cong don tu cac giao dich da ghi
+    public StreamingWriter openStreaming(long sequence, List<Category> categories,
+                                         int transactionCount) throws IOException {
+        return new StreamingWriter(sequence, categories, transactionCount);
+    }
+
+    public final class StreamingWriter implements AutoCloseable {
+        private final long sequence;
+        private final List<Category> categories;
+        private final int transactionCount;
+        private final Path temp;
+        private final FileChannel channel;
+        private final ChunkedOutput out;
+        private final ModelCodec codec = new ModelCodec();
+        private final DailyBalanceSeries flows = new DailyBalanceSeries();
+        private int written;
+        private boolean finished;
+
+        private StreamingWriter(long sequence, List<Category> categories, int transactionCount) throws IOException {
+            if (transactionCount < 0) {
+                throw new IllegalArgumentException("So giao dich khong hop le: " + transactionCount);
+            }
+            this.sequence = sequence;
+            this.categories = List.copyOf(categories);
+            this.transactionCount = transactionCount;
+            this.temp = prepareTemp(sequence);
+            this.channel = FileChannel.open(temp.resolve(Constants.TRANSACTIONS_FILE),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.out = new ChunkedOutput(channel);
+            out.writeHeader(sequence);
+            codec.registerCategories(this.categories);
+            out.encoder().writeVarInt(transactionCount);
+        }
+
+        public void append(Transaction transaction) throws IOException {
+            if (written == transactionCount) {
+                throw new IllegalStateException("Da ghi du " + transactionCount + " giao dich");
+            }
+            codec.writeTransaction(out.encoder(), transaction);
+            out.flushIfFull();
+            flows.record(transaction.getAccountId(), transaction.getDate().toLocalDate(),
+                    transaction.getBalanceDelta());
+            written++;
+        }
+
+        public int getWrittenCount() {
+            return written;
+        }
+
+        // Ghi cac file con lai va doi ten thu muc tam thanh snapshot
+        public Path commit(List<Account> accounts, List<Loan> loans, List<Lending> lendings) throws IOException {
+            if (written != transactionCount) {
+                throw new IllegalStateException("Moi ghi " + written + "/" + transactionCount + " giao dich");
+            }
+            finished = true;
+            try (channel) {
+                out.finish();
+            }
+            writeCategories(temp, sequence, categories);
+            writeAccounts(temp, sequence, accounts);
+            writeLoans(temp, sequence, loans, lendings);
+            writeBalanceFlows(temp, sequence, flows.getFlowsByAccount());
+            return publish(temp, sequence);
+        }
+
+        // Dong khi chua commit thi bo thu muc tam
+        @Override
+        public void close() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            channel.close();
+            deleteRecursively(temp);
+        }
+    }
+
+    private Path prepareTemp(long sequence) throws IOException {
+        Path temp = directory.resolve(snapshotPath(sequence).getFileName() + TEMP_SUFFIX);
+        deleteRecursively(temp);
+        Files.createDirectories(temp);
+        return temp;
+    }
+
+    private Path publish(Path temp, long sequence) throws IOException {
+        Path target = snapshotPath(sequence);
+        deleteRecursively(target);
+        // Cac file da force; force ca thu muc tam (ten file) va thu muc du lieu (phep doi ten)
+        // truoc khi xoa snapshot cu, neu khong mat dien co the de lai thu muc du lieu khong co snapshot nao
+        syncDirectory(temp);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(directory);
+        deleteSnapshotsBefore(sequence);
+        return target;
+    }
+
+    static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows khong cho mo thu muc; NTFS tu ghi nhat ky metadata cua phep doi ten
+        }
+    }
+
+    private void writeCategories(Path temp, long sequence, List<Category> categories) throws IOException {
+        writeFile(temp.resolve(Constants.CATEGORIES_FILE), sequence, out -> {
+            ModelCodec codec = new ModelCodec();
+            out.encoder().writeVarInt(categories.size());
+            for (Category category : categories) {
+                codec.writeCategory(out.encoder(), category);
+            }
+        });
+    }
+
+    private void writeAccounts(Path temp, long sequence, List<Account> accounts) throws IOException {
+        writeFile(temp.resolve(Constants.ACCOUNTS_FILE), sequence, out -> {
+            ModelCodec codec = new ModelCodec();
+            out.encoder().writeVarInt(accounts.size());
+            for (Account account : accounts) {
+                codec.writeAccount(out.encoder(), account);
+                out.flushIfFull();
+            }
+        });
+    }
+
+    private void writeLoans(Path temp, long sequence, List<Loan> loans, List<Lending> lendings) throws IOException {
+        writeFile(temp.resolve(Constants.LOANS_FILE), sequence, out -> {
+            ModelCodec codec = new ModelCodec();
+            out.encoder().writeVarInt(loans.size());
+            for (Loan loan : loans) {
+                codec.writeLoan(out.encoder(), loan);
+                out.flushIfFull();
+            }
+            out.encoder().writeVarInt(lendings.size());
+            for (Lending lending : lendings) {
+                codec.writeLending(out.encoder(), lending);
+                out.flushIfFull();
+            }
+        });
+    }
+
+    // [so tai khoan] roi moi tai khoan: [ID][so ngay][ngay, dong tien]...; ngay ghi chenh lech voi ngay truoc
+    private void writeBalanceFlows(Path temp, long sequence, Map<String, long[]> flows) throws IOException {
+        writeFile(temp.resolve(Constants.BALANCE_FLOWS_FILE), sequence, out -> {
+            out.encoder().writeVarInt(flows.size());
+            for (Map.Entry<String, long[]> entry : flows.entrySet()) {
+                long[] packed = entry.getValue();
+                out.encoder().writeString(entry.getKey());
+                out.encoder().writeVarInt(packed.length / 2);
+                long previousDay = 0;
+                for (int i = 0; i + 1 < packed.length; i += 2) {
+                    out.encoder().writeSignedVarLong(packed[i] - previousDay);
+                    out.encoder().writeSignedVarLong(packed[i + 1]);
+                    previousDay = packed[i];
+                }
+                out.flushIfFull();
+            }
+        });
+    }
+
+    // ===== Doc =====
+
+    // Doc snapshot moi nhat, moi file tren mot luong rieng. Tra ve null neu chua co snapshot
+    public SnapshotImage loadLatest() throws IOException {
+        Path latest = findLatest();
+        if (latest == null) {
+            return null;
+        }
+        long sequence = sequenceOf(latest);
+
+        ExecutorService executor = Executors.newFixedThreadPool(5, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<List<Category>> categoriesFuture = CompletableFuture.supplyAsync(
+                    () -> readFile(latest.resolve(Constants.CATEGORIES_FILE), sequence, in -> {
+                        ModelCodec codec = new ModelCodec();
+                        int count = in.readVarInt();
+                        List<Category> categories = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            categories.add(codec.readCategory(in));
+                        }
+                        return categories;
+                    }), executor);
+            CompletableFuture<List<Account>> accountsFuture = CompletableFuture.supplyAsync(
+                    () -> readFile(latest.resolve(Constants.ACCOUNTS_FILE), sequence, in -> {
+                        ModelCodec codec = new ModelCodec();
+                        int count = in.readVarInt();
+                        List<Account> accounts = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            accounts.add(codec.readAccount(in));
+                        }
+                        return accounts;
+                    }), executor);
+            CompletableFuture<List<Transaction>> transactionsFuture = CompletableFuture.supplyAsync(
+                    () -> readFile(latest.resolve(Constants.TRANSACTIONS_FILE), sequence, in -> {
+                        // Ordinal danh muc tham chieu categories.dat, file nay rat nho
+                        ModelCodec codec = new ModelCodec();
+                        codec.registerCategories(categoriesFuture.join());
+                        int count = in.readVarInt();
+                        List<Transaction> transactions = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            transactions.add(codec.readTransaction(in));
+                        }
+                        return transactions;
+                    }), executor);
+            List<Loan> loans = new ArrayList<>();
+            List<Lending> lendings = new ArrayList<>();
+            CompletableFuture<Void> loansFuture = CompletableFuture.runAsync(
+                    () -> readFile(latest.resolve(Constants.LOANS_FILE), sequence, in -> {
+                        ModelCodec codec = new ModelCodec();
+                        int loanCount = in.readVarInt();
+                        for (int i = 0; i < loanCount; i++) {
+                            loans.add(codec.readLoan(in));
+                        }
+                        int lendingCount = in.readVarInt();
+                        for (int i = 0; i < lendingCount; i++) {
+                            lendings.add(codec.readLending(in));
+                        }
+                        return null;
+                    }), executor);
+
+            CompletableFuture<Map<String, long[]>> flowsFuture = CompletableFuture.supplyAsync(
+                    () -> readFile(latest.resolve(Constants.BALANCE_FLOWS_FILE), sequence, in -> {
+                        int accountCount = in.readVarInt();
+                        Map<String, long[]> flows = new HashMap<>();
+                        for (int i = 0; i < accountCount; i++) {
+                            String accountId = in.readString();
+                            long[] packed = new long[in.readVarInt() * 2];
+                            long day = 0;
+                            for (int j = 0; j < packed.length; j += 2) {
+                                day += in.readSignedVarLong();
+                                packed[j] = day;
+                                packed[j + 1] = in.readSignedVarLong();
+                            }
+                            flows.put(accountId, packed);
+                        }
+                        return flows;
+                    }), executor);
+
+            CompletableFuture.allOf(categoriesFuture, accountsFuture, transactionsFuture, loansFuture,
+                    flowsFuture).join();
+            return new SnapshotImage(sequence, accountsFuture.join(), categoriesFuture.join(),
+                    transactionsFuture.join(), loans, lendings, flowsFuture.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public Path findLatest() throws IOException {
+        Path latest = null;
+        long latestSequence = -1;
+        for (Path snapshot : listSnapshots()) {
+            long sequence = sequenceOf(snapshot);
+            if (sequence > latestSequence) {
+                latest = snapshot;
+                latestSequence = sequence;
+            }
+        }
+        return latest;
+    }
+
+    // ===== File =====
+
+    private interface BodyWriter {
+        void write(ChunkedOutput out) throws IOException;
+    }
+
+    private interface BodyReader<T> {
+        T read(BinaryDecoder in);
+    }
+
+    // Ma hoa vao bo dem, day xuong file tung khoi va tinh CRC32 tren moi byte da ghi
+    private static final class ChunkedOutput {
+        private final FileChannel channel;
+        private final BinaryEncoder encoder = new BinaryEncoder(BUFFER_SIZE + 1024);
+        private final CRC32 crc = new CRC32();
+
+        ChunkedOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        BinaryEncoder encoder() {
+            return encoder;
+        }
+
+        void flushIfFull() throws IOException {
+            if (encoder.size() >= BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            ByteBuffer chunk = ByteBuffer.wrap(encoder.toByteArray());
+            crc.update(chunk.duplicate());
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+            encoder.reset();
+        }
+
+        void writeHeader(long sequence) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(sequence);
+            encoder.writeBytes(header.array(), 0, HEADER_SIZE);
+        }
+
+        // Day phan con lai, ghi checksum o cuoi va fsync
+        void finish() throws IOException {
+            flush();
+            ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+    }
+
+    // [magic][version][sequence][noi dung][crc32 cua tat ca byte phia truoc]
+    private void writeFile(Path file, long sequence, BodyWriter body) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE)) {
+            ChunkedOutput out = new ChunkedOutput(channel);
+            out.writeHeader(sequence);
+            body.write(out);
+            out.finish();
+        }
+    }
+
+    // Map file vao bo nho, kiem checksum roi giai ma truc tiep tu vung map
+    private <T> T readFile(Path file, long expectedSequence, BodyReader<T> body) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Kich thuoc file snapshot khong hop le: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyEnd = (int) size - 4;
+
+            CRC32 crc = new CRC32();
+            ByteBuffer covered = mapped.duplicate();
+            covered.limit(bodyEnd);
+            crc.update(covered);
+            if (mapped.getInt(bodyEnd) != (int) crc.getValue()) {
+                throw new IOException("Sai checksum snapshot: " + file);
+            }
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("File snapshot khong hop le: " + file);
+            }
+            if (mapped.getLong(8) != expectedSequence) {
+                throw new IOException("Snapshot khong dong bo: " + file);
+            }
+
+            ByteBuffer content = mapped.duplicate();
+            content.position(HEADER_SIZE).limit(bodyEnd);
+            try {
+                return body.read(new BinaryDecoder(content));
+            } catch (IllegalStateException e) {
+                throw new IOException("Noi dung snapshot hong: " + file, e);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path snapshotPath(long sequence) {
+        return directory.resolve(String.format("%s%020d", Constants.SNAPSHOT_DIRECTORY_PREFIX, sequence));
+    }
+
+    private long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(Constants.SNAPSHOT_DIRECTORY_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                Constants.SNAPSHOT_DIRECTORY_PREFIX + "*")) {
+            for (Path path : stream) {
+                if (Files.isDirectory(path) && !path.toString().endsWith(TEMP_SUFFIX) && sequenceOf(path) >= 0) {
+                    snapshots.add(path);
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    private void deleteSnapshotsBefore(long sequence) throws IOException {
+        for (Path snapshot : listSnapshots()) {
+            if (sequenceOf(snapshot) < sequence) {
+                deleteRecursively(snapshot);
+            }
+        }
+    }
+
+    private void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                for (Path child : stream) {
+                    deleteRecursively(child);
+                }
+            }
+        }
+        Files.delete(path);
+    }
+}
@@ -0,0 +1,417 @@
+package com.financemanager.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Nhat ky ghi noi (append-only) cho moi thay doi trang thai.
+// Mot luong ghi rieng gom cac ban ghi dang cho thanh lo (group commit):
+// khi ingest nhieu, moi lo chi can mot lan fsync thay vi moi ban ghi mot lan.
+// Du lieu nam trong cac doan file (xem JournalSegments); rollover() mo doan moi.
+// Dong bo bang ReentrantLock + Condition thay cho monitor: luong ao cho ghi nhat ky
+// (may chu HTTP) nha luong mang thay vi bi ghim trong luc cho fsync.
+public class TransactionJournal implements AutoCloseable {
+    // Che do ASYNC: fsync toi da sau khoang thoi gian nay
+    private static final long ASYNC_FORCE_INTERVAL_MS = 200;
+
+    private final Path directory;
+    private FileChannel channel;       // chi luong ghi thay doi sau khi khoi tao
+    private final DurabilityMode durabilityMode;
+    private final Thread writerThread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private List<byte[]> pending;
+    private long lastSequence;      // sequence da cap phat gan nhat
+    private long durableSequence;   // da ghi xong theo che do ben vung
+    private long forcedSequence;    // da fsync xuong dia
+    private boolean syncRequested;
+    private boolean rolloverRequested;
+    private long segmentStart;          // sequence dau tien cua doan dang ghi
+    private boolean closed;
+    private IOException failure;
+
+    public TransactionJournal(Path directory, DurabilityMode durabilityMode) throws IOException {
+        Files.createDirectories(directory);
+        JournalSegments.migrateLegacyJournal(directory);
+        this.directory = directory;
+        this.durabilityMode = durabilityMode;
+
+        // Chi doan cuoi cung co the bi ghi do dang khi crash
+        List<Path> segments = JournalSegments.list(directory);
+        Path segment;
+        if (segments.isEmpty()) {
+            this.segmentStart = 1;
+            this.lastSequence = 0;
+            segment = JournalSegments.segmentPath(directory, segmentStart);
+        } else {
+            segment = segments.get(segments.size() - 1);
+            this.segmentStart = JournalSegments.firstSequenceOf(segment);
+            this.lastSequence = Math.max(JournalReader.recover(segment), segmentStart - 1);
+        }
+        this.durableSequence = lastSequence;
+        this.forcedSequence = lastSequence;
+        this.pending = new ArrayList<>();
+        this.channel = openSegment(segment);
+
+        this.writerThread = new Thread(this::writeLoop, "journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    // Ghi mot ban ghi. Voi PER_WRITE/PER_BATCH chi tra ve khi ban ghi da ben vung
+    public long append(JournalRecord record) {
+        long sequence = enqueue(record);
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    // Ghi nhieu ban ghi voi sequence lien tiep va chi cho ben vung mot lan (mot lan fsync
+    // cho ca lo). Tra ve sequence cua ban ghi cuoi
+    public long appendBatch(List<JournalRecord> records) {
+        long sequence = enqueueBatch(records);
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    // Cap sequence va dua ban ghi cho luong ghi, khong cho ben vung. Dung khi dang giu khoa cua
+    // service: thu tu trong nhat ky van theo thu tu thay doi, con fsync thi cho (awaitDurable)
+    // sau khi da nha khoa de cac luong khac khong phai xep hang sau lan ghi dia
+    public long enqueue(JournalRecord record) {
+        checkPayloadSize(record);
+        lock.lock();
+        try {
+            checkUsable();
+            long sequence = ++lastSequence;
+            pending.add(record.encode(sequence));
+            changed.signalAll();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long enqueueBatch(List<JournalRecord> records) {
+        for (JournalRecord record : records) {
+            checkPayloadSize(record);
+        }
+        lock.lock();
+        try {
+            checkUsable();
+            for (JournalRecord record : records) {
+                pending.add(record.encode(++lastSequence));
+            }
+            changed.signalAll();
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Cho den khi ban ghi sequence ben vung theo che do (ASYNC: tra ve ngay)
+    public void awaitDurable(long sequence) {
+        if (durabilityMode == DurabilityMode.ASYNC) {
+            return;
+        }
+        lock.lock();
+        try {
+            waitUntilDurable(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Cho den khi moi ban ghi da cap phat duoc fsync (ke ca che do ASYNC)
+    public void sync() {
+        lock.lock();
+        try {
+            checkUsable();
+            long target = lastSequence;
+            syncRequested = true;
+            changed.signalAll();
+            while (forcedSequence < target && failure == null && !closed) {
+                waitOnLock(0);
+            }
+            rethrowFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Dong doan hien tai va bat dau doan moi. Tra ve sequence dau tien cua doan moi.
+    // Goi khi khong con ai ghi (vd. trong luc chup snapshot) de ranh gioi doan chinh xac
+    public long rollover() {
+        lock.lock();
+        try {
+            checkUsable();
+            rolloverRequested = true;
+            changed.signalAll();
+            while (rolloverRequested && failure == null && !closed) {
+                waitOnLock(0);
+            }
+            rethrowFailure();
+            return segmentStart;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Snapshot moi hon nhat ky (vd. cac doan cu da bi xoa): bo qua den sequence do
+    // va mo doan moi, de ban ghi tiep theo khong trung sequence voi snapshot
+    public void advanceTo(long sequence) {
+        lock.lock();
+        try {
+            checkUsable();
+            if (lastSequence >= sequence) {
+                return;
+            }
+            lastSequence = sequence;
+            durableSequence = sequence;
+            forcedSequence = sequence;
+        } finally {
+            lock.unlock();
+        }
+        rollover();
+    }
+
+    // Xoa cac doan chi chua ban ghi co sequence <= sequence (da nam trong snapshot)
+    public void deleteSegmentsCoveredBy(long sequence) throws IOException {
+        long currentStart;
+        lock.lock();
+        try {
+            currentStart = segmentStart;
+        } finally {
+            lock.unlock();
+        }
+        List<Path> segments = JournalSegments.list(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long nextStart = JournalSegments.firstSequenceOf(segments.get(i + 1));
+            if (nextStart <= sequence + 1 && nextStart <= currentStart) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writerThread.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Loi dong nhat ky", e);
+        }
+    }
+
+    // ===== Luong ghi =====
+
+    private void writeLoop() {
+        long lastForceTime = System.currentTimeMillis();
+        while (true) {
+            List<byte[]> batch;
+            long batchEnd;
+            boolean forceNow;
+            boolean rollover;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed && !syncRequested && !rolloverRequested) {
+                    if (durabilityMode == DurabilityMode.ASYNC && forcedSequence < durableSequence) {
+                        long waitMs = ASYNC_FORCE_INTERVAL_MS - (System.currentTimeMillis() - lastForceTime);
+                        if (waitMs <= 0) {
+                            break;
+                        }
+                        waitOnLock(waitMs);
+                    } else {
+                        waitOnLock(0);
+                    }
+                }
+                if (pending.isEmpty() && closed && forcedSequence == durableSequence) {
+                    return;
+                }
+                batch = pending;
+                batchEnd = lastSequence;
+                pending = new ArrayList<>();
+                rollover = rolloverRequested && !closed;
+                forceNow = syncRequested || closed || rollover || durabilityMode != DurabilityMode.ASYNC
+                        || System.currentTimeMillis() - lastForceTime >= ASYNC_FORCE_INTERVAL_MS;
+                syncRequested = false;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (durabilityMode == DurabilityMode.PER_WRITE) {
+                    writePerRecord(batch, batchEnd - batch.size() + 1);
+                } else {
+                    writeBatch(batch);
+                    if (forceNow) {
+                        channel.force(false);
+                    }
+                }
+                if (rollover) {
+                    channel.close();
+                    channel = openSegment(JournalSegments.segmentPath(directory, batchEnd + 1));
+                }
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                durableSequence = batchEnd;
+                if (forceNow || durabilityMode == DurabilityMode.PER_WRITE) {
+                    forcedSequence = batchEnd;
+                    lastForceTime = System.currentTimeMillis();
+                }
+                if (rollover) {
+                    segmentStart = batchEnd + 1;
+                    rolloverRequested = false;
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Moi ban ghi mot lan fsync, bao cho nguoi ghi ngay khi ban ghi cua ho xong
+    private void writePerRecord(List<byte[]> batch, long firstSequence) throws IOException {
+        long sequence = firstSequence;
+        for (byte[] frame : batch) {
+            writeFully(ByteBuffer.wrap(frame));
+            channel.force(false);
+            lock.lock();
+            try {
+                durableSequence = sequence;
+                forcedSequence = sequence;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            sequence++;
+        }
+    }
+
+    private void writeBatch(List<byte[]> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i));
+        }
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    // Doan moi chi con sau mat dien khi ten cua no da vao thu muc: fsync thu muc ngay khi tao
+    private FileChannel openSegment(Path segment) throws IOException {
+        FileChannel opened = FileChannel.open(segment, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            SnapshotStore.syncDirectory(directory);
+        } catch (IOException e) {
+            opened.close();
+            throw e;
+        }
+        return opened;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // ===== Tien ich dong bo =====
+
+    private void waitUntilDurable(long sequence) {
+        while (durableSequence < sequence && failure == null) {
+            waitOnLock(0);
+        }
+        rethrowFailure();
+    }
+
+    private void waitOnLock(long timeoutMs) {
+        try {
+            if (timeoutMs == 0) {
+                changed.await();
+            } else {
+                changed.await(timeoutMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bi ngat khi cho ghi nhat ky", e);
+        }
+    }
+
+    // Kiem tra truoc khi cap sequence: ban ghi bi tu choi khong de lai lo hong trong nhat ky
+    private static void checkPayloadSize(JournalRecord record) {
+        if (record.getPayload().length > JournalReader.MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Ban ghi nhat ky qua lon (" + record.getPayload().length
+                    + " byte, toi da " + JournalReader.MAX_PAYLOAD_SIZE + "): " + record.getType());
+        }
+    }
+
+    private void checkUsable() {
+        if (closed) {
+            throw new IllegalStateException("Nhat ky da dong: " + directory);
+        }
+        rethrowFailure();
+    }
+
+    private void rethrowFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Loi ghi nhat ky: " + directory, failure);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.financemanager.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Khoa theo soc (striping): moi ID tai khoan roi vao mot trong so khoa co dinh theo hash,
+// nen tai khoan khac nhau thuong co khoa khac nhau va chay song song duoc.
+// Khi can hai tai khoan (chuyen khoan) luon khoa soc co chi so nho truoc de khong bi deadlock
+final class AccountLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    AccountLocks() {
+        this(Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    AccountLocks(int minStripes) {
+        int size = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    private int indexOf(String accountId) {
+        int h = accountId.hashCode();
+        // Tron bit cao xuong de ID chi khac o cuoi van phan bo deu
+        h ^= (h >>> 16);
+        h *= 0x45d9f3b;
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    ReentrantLock lockFor(String accountId) {
+        return stripes[indexOf(accountId)];
+    }
+
+    void lock(String accountId) {
+        lockFor(accountId).lock();
+    }
+
+    void unlock(String accountId) {
+        lockFor(accountId).unlock();
+    }
+
+    // Khoa hai tai khoan theo thu tu chi so soc; cung soc thi chi khoa mot lan
+    void lockBoth(String firstId, String secondId) {
+        int first = indexOf(firstId);
+        int second = indexOf(secondId);
+        if (first == second) {
+            stripes[first].lock();
+        } else if (first < second) {
+            stripes[first].lock();
+            stripes[second].lock();
+        } else {
+            stripes[second].lock();
+            stripes[first].lock();
+        }
+    }
+
+    void unlockBoth(String firstId, String secondId) {
+        int first = indexOf(firstId);
+        int second = indexOf(secondId);
+        stripes[first].unlock();
+        if (first != second) {
+            stripes[second].unlock();
+        }
+    }
+}
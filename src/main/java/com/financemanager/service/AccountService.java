@@ -1,70 +1,172 @@
 package com.financemanager.service;
 
+import com.financemanager.event.EventPublisher;
+import com.financemanager.event.FinanceEvent;
 import com.financemanager.model.Account;
+import com.financemanager.model.BalanceListener;
+import com.financemanager.model.Money;
+import com.financemanager.model.TransactionType;
 import com.financemanager.exception.AccountNotFoundException;
 import com.financemanager.exception.InsufficientBalanceException;
+import com.financemanager.jfr.ValidationFailureEvent;
+import com.financemanager.persistence.JournalRecord;
+import com.financemanager.persistence.TransactionJournal;
+import com.financemanager.util.Constants;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
-public class AccountService {
-    private List<Account> accounts;
+// An toan khi nhieu luong cung goi: moi thay doi so du giu khoa soc cua tai khoan (AccountLocks),
+// chuyen khoan khoa hai soc theo thu tu co dinh. Chuyen khoan giua cac cap tai khoan
+// khong chung soc chay song song tren nhieu nhan.
+// Che do lock-free (Constants.BALANCE_MODE_PROPERTY): nap tien va giao dich thu/chi tren mot
+// tai khoan chi dua vao CAS cua Account, khong giu khoa - hop voi vai tai khoan rat nong.
+// Khong in ra man hinh: ket qua phat qua EventPublisher sau khi da nha khoa
+public class AccountService implements BalanceListener {
+    // Chi muc theo ID tai khoan. ID Snowflake tang theo thoi gian nen duyet theo khoa
+    // van la thu tu tao tai khoan
+    private final Map<String, Account> accounts;
+    private final AccountLocks locks;
+    private final boolean lockFreeBalances;
+    private TransactionJournal journal;
+    private EventPublisher events = new EventPublisher();
+    // Tong so du cap nhat theo tung thay doi (qua BalanceListener); LongAdder de cac luong
+    // cap nhat khong tranh nhau mot o nho
+    private final LongAdder totalBalance;
+    // Dong tien theo ngay de ve so du theo thoi gian
+    private final DailyBalanceSeries balanceSeries;
 
     public AccountService() {
-        this.accounts = new ArrayList<>();
+        this(Constants.BALANCE_MODE_LOCK_FREE.equalsIgnoreCase(
+                System.getProperty(Constants.BALANCE_MODE_PROPERTY, "")));
+    }
+
+    public AccountService(boolean lockFreeBalances) {
+        this.accounts = new ConcurrentSkipListMap<>();
+        this.locks = new AccountLocks();
+        this.lockFreeBalances = lockFreeBalances;
+        this.totalBalance = new LongAdder();
+        this.balanceSeries = new DailyBalanceSeries();
+    }
+
+    // Gan nhat ky de ghi lai moi thay doi (null = chi luu trong bo nho)
+    public void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    // Gan noi phat su kien (mac dinh khong co listener = chay headless)
+    public void setEventPublisher(EventPublisher events) {
+        this.events = events;
+    }
+
+    // Xep ban ghi vao nhat ky khi con giu khoa tai khoan; tra ve sequence (0 neu khong co nhat ky)
+    private long journal(JournalRecord record) {
+        return journal != null ? journal.enqueue(record) : 0;
+    }
+
+    // Cho ben vung sau khi da nha khoa tai khoan
+    private void awaitDurable(long sequence) {
+        if (journal != null && sequence > 0) {
+            journal.awaitDurable(sequence);
+        }
     }
 
     // Them tai khoan
-    public void addAccount(Account account) {
+    public boolean addAccount(Account account) {
         if (account.isValid()) {
-            accounts.add(account);
-            System.out.println("Them tai khoan thanh cong: " + account.getAccountName());
-        } else {
-            System.out.println("Tai khoan khong hop le!");
+            long sequence;
+            locks.lock(account.getAccountId());
+            try {
+                track(account);
+                sequence = journal(JournalRecord.accountCreated(account));
+            } finally {
+                locks.unlock(account.getAccountId());
+            }
+            awaitDurable(sequence);
+            events.publish(FinanceEvent.accountAdded(account));
+            return true;
         }
+        ValidationFailureEvent.emit("addAccount", "Tai khoan khong hop le");
+        events.publish(FinanceEvent.rejected("Tai khoan khong hop le!"));
+        return false;
     }
 
-    // Tim kiem tai khoan qua ID
+    // Tim kiem tai khoan qua ID - O(1) qua chi muc
     public Optional<Account> findAccountById(String accountId) {
-        return accounts.stream()
-                .filter(account -> account.getAccountId().equals(accountId))
-                .findFirst();
+        if (accountId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(accounts.get(accountId));
+    }
+
+    public boolean existsAccount(String accountId) {
+        return accountId != null && accounts.containsKey(accountId);
     }
 
     //Xem danh sach tai khoan
     public void displayAllAccounts() {
-        if (accounts.isEmpty()) {
-            System.out.println("Khong co tai khoan nao!");
-            return;
-        }
+        displayAllAccounts(RenderSink.console());
+    }
 
-        System.out.println("\nDANH SACH TAI KHOAN (" + accounts.size() + " tai khoan)");
-        System.out.println("=========================================");
-        for (Account account : accounts) {
-            account.displayInfo();
-            System.out.println();
-        }
+    public void displayAllAccounts(RenderSink sink) {
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            if (accounts.isEmpty()) {
+                out.line("Khong co tai khoan nao!");
+                return;
+            }
+
+            out.newline().append("DANH SACH TAI KHOAN (").append(accounts.size()).line(" tai khoan)");
+            out.line("=========================================");
+            for (Account account : accounts.values()) {
+                account.render(out);
+                out.newline();
+            }
 
-        // Display total balance
-        double totalBalance = getTotalBalance();
-        System.out.printf("TONG SO DU TAT CA TAI KHOAN: %.2f VND\n", totalBalance);
+            // Display total balance
+            out.append("TONG SO DU TAT CA TAI KHOAN: ").money(getTotalBalance()).line(" VND");
+        }
     }
 
     // Xoa tai khoan
     public boolean deleteAccount(String accountId) {
-        Optional<Account> accountOpt = findAccountById(accountId);
-        if (accountOpt.isPresent()) {
-            accounts.remove(accountOpt.get());
-            System.out.println("Xoa tai khoan thanh cong!");
+        Account removed = null;
+        long sequence = 0;
+        if (accountId != null) {
+            locks.lock(accountId);
+            try {
+                removed = accounts.remove(accountId);
+                if (removed != null) {
+                    untrack(removed);
+                    balanceSeries.removeAccount(accountId);
+                    sequence = journal(JournalRecord.accountDeleted(accountId));
+                }
+            } finally {
+                locks.unlock(accountId);
+            }
+        }
+        awaitDurable(sequence);
+        if (removed != null) {
+            events.publish(FinanceEvent.accountDeleted(accountId));
             return true;
         } else {
-            System.out.println("Khong tim thay tai khoan voi ID: " + accountId);
+            events.publish(FinanceEvent.rejected("Khong tim thay tai khoan voi ID: " + accountId));
             return false;
         }
     }
 
-    //Chuyen khoan noi bo
-    public boolean transferBetweenAccounts(String fromAccountId, String toAccountId, double amount)
+    // Chuyen tien giua hai tai khoan khi dang giu khoa ca hai. posting chay ngay sau khi so du
+    // da doi, van trong khoa, de ghi but toan so cai va nhat ky cung thu tu voi so du.
+    // Goi tu TransactionService.transferBetweenAccounts
+    void moveFunds(String fromAccountId, String toAccountId, long amount, Runnable posting)
             throws AccountNotFoundException, InsufficientBalanceException {
 
         Optional<Account> fromAccountOpt = findAccountById(fromAccountId);
@@ -81,47 +183,212 @@ public class AccountService {
         Account fromAccount = fromAccountOpt.get();
         Account toAccount = toAccountOpt.get();
 
-        if (fromAccount.getBalance() < amount) {
-            throw new InsufficientBalanceException(
-                    "So du khong du! So du hien tai: " + fromAccount.getBalance());
+        // Kiem tra so du va chuyen tien trong cung mot lan giu khoa ca hai tai khoan
+        locks.lockBoth(fromAccountId, toAccountId);
+        try {
+            // Tai khoan co the vua bi xoa o luong khac truoc khi lay duoc khoa
+            if (accounts.get(fromAccountId) != fromAccount) {
+                throw new AccountNotFoundException("Khong tim thay tai khoan nguon: " + fromAccountId);
+            }
+            if (accounts.get(toAccountId) != toAccount) {
+                throw new AccountNotFoundException("Khong tim thay tai khoan dich: " + toAccountId);
+            }
+            // withdraw kiem tra lai trong CAS: o che do lock-free khoan chi khac co the
+            // tru tien ma khong lay khoa nay
+            if (fromAccount.getBalance() < amount || !fromAccount.withdraw(amount)) {
+                throw new InsufficientBalanceException(
+                        "So du khong du! So du hien tai: " + Money.format(fromAccount.getBalance()));
+            }
+
+            // Perform transfer (khong in gi khi dang giu khoa)
+            toAccount.updateBalance(amount, TransactionType.INCOME);
+            posting.run();
+        } finally {
+            locks.unlockBoth(fromAccountId, toAccountId);
         }
+    }
 
-        // Perform transfer
-        fromAccount.withdraw(amount);
-        toAccount.deposit(amount);
+    // Nap tien vao tai khoan. posting chay ngay sau khi so du tang (trong khoa tai khoan, tru che do
+    // lock-free) de ghi but toan so cai va nhat ky cung thu tu voi so du. Tra ve so du moi.
+    // Goi tu TransactionService.depositToAccount
+    long credit(String accountId, long amount, Runnable posting) throws AccountNotFoundException {
+        Account account = findAccountById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Khong tim thay tai khoan voi ID: " + accountId));
+        if (lockFreeBalances) {
+            long newBalance = account.deposit(amount);
+            posting.run();
+            return newBalance;
+        }
+        locks.lock(accountId);
+        try {
+            // Tai khoan co the vua bi xoa o luong khac truoc khi lay duoc khoa
+            if (accounts.get(accountId) != account) {
+                throw new AccountNotFoundException("Khong tim thay tai khoan voi ID: " + accountId);
+            }
+            long newBalance = account.deposit(amount);
+            posting.run();
+            return newBalance;
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
 
-        System.out.println("Chuyen khoan thanh cong!");
-        System.out.printf("Tu: %s -> Den: %s\n", fromAccount.getAccountName(), toAccount.getAccountName());
-        System.out.printf("So tien: %.2f VND\n", amount);
+    public long getTotalBalance() {
+        return totalBalance.sum();
+    }
 
-        return true;
+    // Tinh lai tu dau, dung de kiem tra tong dang chay
+    public long recomputeTotalBalance() {
+        return accounts.values().stream()
+                .mapToLong(Account::getBalance)
+                .sum();
+    }
+
+    // So du cuoi moi ngay trong [from, to]; accountId == null la tong moi tai khoan
+    public NavigableMap<LocalDate, Long> getDailyBalances(String accountId, LocalDate from, LocalDate to) {
+        long current;
+        if (accountId == null) {
+            current = totalBalance.sum();
+        } else {
+            Account account = accounts.get(accountId);
+            current = account != null ? account.getBalance() : 0;
+        }
+        return balanceSeries.balances(accountId, current, from, to);
     }
 
-    public boolean depositToAccount(String accountId, double amount) {
-        if (amount <= 0) {
-            System.out.println("So tien them phai lon hon 0!");
+    public DailyBalanceSeries getBalanceSeries() {
+        return balanceSeries;
+    }
+
+    // Giao dich lam thay doi so du vao ngay cua giao dich (goi tu TransactionService)
+    void recordBalanceFlow(String accountId, LocalDate day, long delta) {
+        balanceSeries.record(accountId, day, delta);
+    }
+
+    // Kiem tra so du va cap nhat cho mot giao dich thu/chi duoi khoa cua tai khoan
+    // (hoac chi bang CAS o che do lock-free). posting chay ngay sau khi so du doi, van trong khoa,
+    // de ghi but toan so cai va nhat ky cung thu tu voi so du (nhu credit).
+    // Tra ve false neu la khoan chi vuot so du
+    boolean applyTransaction(Account account, long amount, TransactionType type, Runnable posting)
+            throws AccountNotFoundException {
+        if (lockFreeBalances) {
+            return applyAndPost(account, amount, type, posting);
+        }
+        locks.lock(account.getAccountId());
+        try {
+            // Tai khoan co the vua bi xoa o luong khac truoc khi lay duoc khoa
+            if (accounts.get(account.getAccountId()) != account) {
+                throw new AccountNotFoundException("Khong tim thay tai khoan voi ID: " + account.getAccountId());
+            }
+            return applyAndPost(account, amount, type, posting);
+        } finally {
+            locks.unlock(account.getAccountId());
+        }
+    }
+
+    private boolean applyAndPost(Account account, long amount, TransactionType type, Runnable posting) {
+        if (!applyAtomically(account, amount, type)) {
             return false;
         }
+        posting.run();
+        return true;
+    }
 
-        Optional<Account> accountOpt = findAccountById(accountId);
-        if (accountOpt.isPresent()) {
-            Account account = accountOpt.get();
-            account.deposit(amount);
+    // Sua mot giao dich thu/chi da ghi so: change tinh phan chenh lech anh huong so du (moi - cu)
+    // ngay trong khoa, posting ap dung lan sua. Luon giu khoa cua tai khoan, ke ca o che do lock-free,
+    // de hai lan sua cung mot dong khong cung doc gia tri cu. Tra ve false neu phan chenh lech lam so du am
+    boolean applyEdit(Account account, LongSupplier change, Runnable posting) throws AccountNotFoundException {
+        locks.lock(account.getAccountId());
+        try {
+            if (accounts.get(account.getAccountId()) != account) {
+                throw new AccountNotFoundException("Khong tim thay tai khoan voi ID: " + account.getAccountId());
+            }
+            long delta = change.getAsLong();
+            boolean applied = delta < 0
+                    ? applyAtomically(account, -delta, TransactionType.EXPENSE)
+                    : applyAtomically(account, delta, TransactionType.INCOME);
+            if (!applied) {
+                return false;
+            }
+            posting.run();
             return true;
-        } else {
-            System.out.println("Khong tim thay tai khoan voi ID: " + accountId);
-            return false;
+        } finally {
+            locks.unlock(account.getAccountId());
         }
     }
 
-    public double getTotalBalance() {
-        return accounts.stream()
-                .mapToDouble(Account::getBalance)
-                .sum();
+    // Nhieu giao dich thu/chi cua cung mot tai khoan trong mot lan giu khoa, theo dung thu tu.
+    // Phan tu i cua ket qua la false neu khoan chi thu i vuot so du luc do. posting nhan ket qua
+    // va chay truoc khi nha khoa, de cac dong duoc nhan vao so cai va nhat ky cung thu tu voi so du
+    boolean[] applyTransactions(Account account, long[] amounts, TransactionType[] types,
+                                Consumer<boolean[]> posting) throws AccountNotFoundException {
+        boolean[] accepted = new boolean[amounts.length];
+        if (!lockFreeBalances) {
+            locks.lock(account.getAccountId());
+        }
+        try {
+            // Tai khoan co the vua bi xoa o luong khac truoc khi lay duoc khoa
+            if (!lockFreeBalances && accounts.get(account.getAccountId()) != account) {
+                throw new AccountNotFoundException("Khong tim thay tai khoan voi ID: " + account.getAccountId());
+            }
+            for (int i = 0; i < amounts.length; i++) {
+                accepted[i] = applyAtomically(account, amounts[i], types[i]);
+            }
+            posting.accept(accepted);
+        } finally {
+            if (!lockFreeBalances) {
+                locks.unlock(account.getAccountId());
+            }
+        }
+        return accepted;
+    }
+
+    private boolean applyAtomically(Account account, long amount, TransactionType type) {
+        if (type == TransactionType.EXPENSE) {
+            return account.withdraw(amount);
+        }
+        account.updateBalance(amount, type);
+        return true;
+    }
+
+    public boolean isLockFreeBalances() {
+        return lockFreeBalances;
+    }
+
+    @Override
+    public void onBalanceChanged(Account account, long oldBalance, long newBalance) {
+        totalBalance.add(newBalance - oldBalance);
+    }
+
+    private void track(Account account) {
+        Account previous = accounts.put(account.getAccountId(), account);
+        if (previous != null) {
+            untrack(previous);
+        }
+        account.setBalanceListener(this);
+        totalBalance.add(account.getBalance());
+    }
+
+    private void untrack(Account account) {
+        account.setBalanceListener(null);
+        totalBalance.add(-account.getBalance());
+    }
+
+    // ===== Khoi phuc du lieu (khong in, khong ghi nhat ky) =====
+    public void restoreAccount(Account account) {
+        track(account);
+    }
+
+    public void restoreAccountDeletion(String accountId) {
+        Account removed = accounts.remove(accountId);
+        if (removed != null) {
+            untrack(removed);
+            balanceSeries.removeAccount(accountId);
+        }
     }
 
     public List<Account> getAllAccounts() {
-        return new ArrayList<>(accounts);
+        return new ArrayList<>(accounts.values());
     }
 
     public int getAccountCount() {
@@ -0,0 +1,136 @@
+package com.financemanager.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Ket qua tung dong cua mot lo giao dich, theo dung thu tu dong dua vao.
+// Thay cho in ra man hinh tung giao dich; ben goi tu quyet dinh hien thi gi
+public class BatchResult {
+
+    public enum Status {
+        APPLIED,
+        INVALID,
+        ACCOUNT_NOT_FOUND,
+        INSUFFICIENT_BALANCE
+    }
+
+    public static final class Row {
+        private final int index;
+        private final Status status;
+        private final String transactionId;   // chi co khi APPLIED
+        private final String message;
+
+        Row(int index, Status status, String transactionId, String message) {
+            this.index = index;
+            this.status = status;
+            this.transactionId = transactionId;
+            this.message = message;
+        }
+
+        public int getIndex() { return index; }
+        public Status getStatus() { return status; }
+        public String getTransactionId() { return transactionId; }
+        public String getMessage() { return message; }
+
+        public boolean isApplied() {
+            return status == Status.APPLIED;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " " + status + (transactionId != null ? " " + transactionId : "")
+                    + (message != null ? " - " + message : "");
+        }
+    }
+
+    private final Row[] rows;
+    private final Map<Status, Integer> counts = new EnumMap<>(Status.class);
+    private final List<String> createdCategories = new ArrayList<>();
+
+    BatchResult(int size) {
+        this.rows = new Row[size];
+    }
+
+    void set(int index, Status status, String transactionId, String message) {
+        rows[index] = new Row(index, status, transactionId, message);
+        counts.merge(status, 1, Integer::sum);
+    }
+
+    void categoryCreated(String name) {
+        createdCategories.add(name);
+    }
+
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(Arrays.asList(rows));
+    }
+
+    public Row getRow(int index) {
+        return rows[index];
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public int count(Status status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    public int getAppliedCount() {
+        return count(Status.APPLIED);
+    }
+
+    public int getRejectedCount() {
+        return rows.length - getAppliedCount();
+    }
+
+    // Danh muc moi duoc tao trong lo (ten chua co trong danh sach)
+    public List<String> getCreatedCategories() {
+        return Collections.unmodifiableList(createdCategories);
+    }
+
+    public List<Row> getRejectedRows() {
+        List<Row> rejected = new ArrayList<>();
+        for (Row row : rows) {
+            if (!row.isApplied()) {
+                rejected.add(row);
+            }
+        }
+        return rejected;
+    }
+
+    // Mot dong tom tat, vd. "Lo giao dich: 980/1000 thanh cong, 20 bi tu choi (INVALID=5, ...)"
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder("Lo giao dich: ")
+                .append(getAppliedCount()).append('/').append(rows.length).append(" thanh cong");
+        int rejected = getRejectedCount();
+        if (rejected > 0) {
+            summary.append(", ").append(rejected).append(" bi tu choi (");
+            boolean first = true;
+            for (Map.Entry<Status, Integer> entry : counts.entrySet()) {
+                if (entry.getKey() == Status.APPLIED) {
+                    continue;
+                }
+                if (!first) {
+                    summary.append(", ");
+                }
+                summary.append(entry.getKey()).append('=').append(entry.getValue());
+                first = false;
+            }
+            summary.append(')');
+        }
+        if (!createdCategories.isEmpty()) {
+            summary.append(", danh muc moi: ").append(String.join(", ", createdCategories));
+        }
+        return summary.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+}
@@ -0,0 +1,110 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.TransactionType;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+// Danh muc giao dich: tra cuu theo ten da chuan hoa (bang bam) va theo ID,
+// moi danh muc co ordinal lien tiep 0..n-1 de loc va cong don bang so nguyen / mang.
+// Ordinal theo thu tu dang ky, nen giu nguyen qua snapshot (categories.dat luu cung thu tu).
+// Bao cao doc khong khoa (bang bam dong thoi, danh sach copy-on-write vi danh muc it va hiem khi them);
+// dang ky moi tuan tu hoa tren chinh registry de ordinal lien tiep
+public class CategoryRegistry {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final Map<String, Category> byKey;
+    private final Map<String, Category> byId;
+    private final List<Category> byOrdinal;
+
+    public CategoryRegistry() {
+        this.byKey = new ConcurrentHashMap<>();
+        this.byId = new ConcurrentHashMap<>();
+        this.byOrdinal = new CopyOnWriteArrayList<>();
+    }
+
+    // "  Ăn   Uống " -> "an uong": bo dau tieng Viet, gop khoang trang, chu thuong
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(name.trim(), Normalizer.Form.NFD)).replaceAll("");
+        stripped = stripped.replace('đ', 'd').replace('Đ', 'D');
+        return SPACES.matcher(stripped).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<Category> findByName(String name) {
+        return Optional.ofNullable(byKey.get(normalize(name)));
+    }
+
+    public Optional<Category> findById(String categoryId) {
+        return Optional.ofNullable(byId.get(categoryId));
+    }
+
+    // Ordinal cua danh muc co ten nay, -1 neu khong co
+    public int ordinalOf(String name) {
+        Category category = byKey.get(normalize(name));
+        return category == null ? -1 : category.getOrdinal();
+    }
+
+    public Category get(int ordinal) {
+        return byOrdinal.get(ordinal);
+    }
+
+    public int size() {
+        return byOrdinal.size();
+    }
+
+    // Danh muc theo ten; chua co thi tao moi (ten duoc giu nhu nguoi dung nhap, bo khoang trang thua)
+    public synchronized Category resolve(String name, TransactionType type) {
+        Category existing = byKey.get(normalize(name));
+        if (existing != null) {
+            return existing;
+        }
+        return register(new Category(SPACES.matcher(name.trim()).replaceAll(" "), "Mo ta", type));
+    }
+
+    // Dang ky danh muc (giu ID). Neu ID da co thi tra ve doi tuong dang dung
+    // (ban sao cung ID nhan cung ordinal).
+    // Ten trung voi danh muc khac (du lieu cu) van duoc dang ky theo ID, tra cuu theo ten tra ve danh muc dau tien
+    public synchronized Category register(Category category) {
+        Category existing = byId.get(category.getCategoryId());
+        if (existing != null) {
+            category.setOrdinal(existing.getOrdinal());
+            return existing;
+        }
+        category.setOrdinal(byOrdinal.size());
+        byOrdinal.add(category);
+        byId.put(category.getCategoryId(), category);
+        byKey.putIfAbsent(normalize(category.getName()), category);
+        return category;
+    }
+
+    // Danh muc phai da dang ky (vd. gan qua Transaction.setCategory) truoc khi dung ordinal
+    public synchronized Category adopt(Category category) {
+        if (category.getOrdinal() >= 0 && category.getOrdinal() < byOrdinal.size()
+                && byOrdinal.get(category.getOrdinal()) == category) {
+            return category;
+        }
+        return register(category);
+    }
+
+    public List<Category> getAll() {
+        return new ArrayList<>(byOrdinal);
+    }
+
+    public synchronized void clear() {
+        byKey.clear();
+        byId.clear();
+        byOrdinal.clear();
+    }
+}
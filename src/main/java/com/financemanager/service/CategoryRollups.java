@@ -0,0 +1,181 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Tong hop san theo (tai khoan, danh muc, loai, thang) -> tong tien / so giao dich.
+// TransactionService cap nhat moi khi luu hoac sua giao dich, nen bao cao phan loai
+// chi doc O(so thang x so danh muc) thay vi duyet lai toan bo lich su.
+// O tong hop nam trong mang danh theo ordinal danh muc (CategoryRegistry).
+// Cap nhat giu khoa ghi, bao cao giu khoa doc khi cong don ra ban sao
+public class CategoryRollups {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Mot o tong hop; khi tra ve cho ben goi la ban sao da cong don
+    public static final class Bucket {
+        private final Category category;
+        private long sum;
+        private long count;
+
+        Bucket(Category category) {
+            this.category = category;
+        }
+
+        public Category getCategory() { return category; }
+        public long getSum() { return sum; }
+        public long getCount() { return count; }
+    }
+
+    private final Map<String, NavigableMap<YearMonth, Map<TransactionType, Bucket[]>>> byAccount;
+
+    public CategoryRollups() {
+        this.byAccount = new HashMap<>();
+    }
+
+    void add(Transaction transaction) {
+        apply(transaction.getAccountId(), transaction.getCategory(), transaction.getType(),
+                transaction.getDate(), transaction.getAmount(), 1);
+    }
+
+    // Bo phan dong gop cu cua giao dich (truoc khi sua)
+    void remove(String accountId, Category category, TransactionType type, LocalDateTime date, long amount) {
+        apply(accountId, category, type, date, -amount, -1);
+    }
+
+    // Tong theo danh muc, sap xep giam dan theo tong tien.
+    // accountId == null: moi tai khoan; from/to (ca hai dau) == null: khong gioi han
+    public Map<String, Bucket> breakdown(String accountId, TransactionType type, YearMonth from, YearMonth to) {
+        Bucket[] merged = new Bucket[0];
+        lock.readLock().lock();
+        try {
+            for (NavigableMap<YearMonth, Map<TransactionType, Bucket[]>> months : accounts(accountId)) {
+                for (Map<TransactionType, Bucket[]> month : window(months, from, to).values()) {
+                    Bucket[] cells = month.get(type);
+                    if (cells == null) {
+                        continue;
+                    }
+                    if (merged.length < cells.length) {
+                        merged = Arrays.copyOf(merged, cells.length);
+                    }
+                    for (int ordinal = 0; ordinal < cells.length; ordinal++) {
+                        Bucket cell = cells[ordinal];
+                        if (cell == null || cell.count == 0) {
+                            continue;
+                        }
+                        if (merged[ordinal] == null) {
+                            merged[ordinal] = new Bucket(cell.category);
+                        }
+                        merged[ordinal].sum += cell.sum;
+                        merged[ordinal].count += cell.count;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Bucket> sorted = new ArrayList<>();
+        for (Bucket bucket : merged) {
+            if (bucket != null) {
+                sorted.add(bucket);
+            }
+        }
+        sorted.sort((b1, b2) -> Long.compare(b2.sum, b1.sum));
+        Map<String, Bucket> result = new LinkedHashMap<>();
+        for (Bucket bucket : sorted) {
+            result.merge(bucket.category.getName(), bucket, (existing, extra) -> {
+                existing.sum += extra.sum;
+                existing.count += extra.count;
+                return existing;
+            });
+        }
+        return result;
+    }
+
+    // Ten danh muc -> tong tien, giam dan
+    public Map<String, Long> sumsByCategory(String accountId, TransactionType type, YearMonth from, YearMonth to) {
+        Map<String, Long> sums = new LinkedHashMap<>();
+        breakdown(accountId, type, from, to).forEach((name, bucket) -> sums.put(name, bucket.sum));
+        return sums;
+    }
+
+    // limit danh muc co tong tien lon nhat
+    public List<Bucket> topCategories(String accountId, TransactionType type, YearMonth from, YearMonth to, int limit) {
+        List<Bucket> top = new ArrayList<>(breakdown(accountId, type, from, to).values());
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    public long total(String accountId, TransactionType type, YearMonth from, YearMonth to) {
+        long total = 0;
+        for (Bucket bucket : breakdown(accountId, type, from, to).values()) {
+            total += bucket.sum;
+        }
+        return total;
+    }
+
+    private void apply(String accountId, Category category, TransactionType type, LocalDateTime date,
+                       long amount, int count) {
+        int ordinal = category.getOrdinal();
+        if (ordinal < 0) {
+            throw new IllegalStateException("Danh muc chua dang ky: " + category.getName());
+        }
+        lock.writeLock().lock();
+        try {
+            Map<TransactionType, Bucket[]> month = byAccount
+                    .computeIfAbsent(accountId, id -> new TreeMap<>())
+                    .computeIfAbsent(YearMonth.from(date), m -> new EnumMap<>(TransactionType.class));
+            Bucket[] cells = month.get(type);
+            if (cells == null || cells.length <= ordinal) {
+                cells = cells == null ? new Bucket[ordinal + 1] : Arrays.copyOf(cells, ordinal + 1);
+                month.put(type, cells);
+            }
+            if (cells[ordinal] == null) {
+                cells[ordinal] = new Bucket(category);
+            }
+            cells[ordinal].sum += amount;
+            cells[ordinal].count += count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Collection<NavigableMap<YearMonth, Map<TransactionType, Bucket[]>>> accounts(String accountId) {
+        if (accountId == null) {
+            return byAccount.values();
+        }
+        NavigableMap<YearMonth, Map<TransactionType, Bucket[]>> months = byAccount.get(accountId);
+        return months == null ? new ArrayList<>() : List.of(months);
+    }
+
+    private static <V> NavigableMap<YearMonth, V> window(NavigableMap<YearMonth, V> months,
+                                                          YearMonth from, YearMonth to) {
+        if (from != null && to != null) {
+            if (from.isAfter(to)) {
+                return new TreeMap<>();
+            }
+            return months.subMap(from, true, to, true);
+        }
+        if (from != null) {
+            return months.tailMap(from, true);
+        }
+        if (to != null) {
+            return months.headMap(to, true);
+        }
+        return months;
+    }
+}
@@ -0,0 +1,212 @@
+package com.financemanager.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bien dong so du theo ngay cho tung tai khoan va cho tong, cap nhat moi khi so du thay doi.
+// Moi ngay la mot o "dong tien rong"; cay Fenwick tren cac o cho tong tien den het mot ngay
+// trong O(log n). So du cuoi ngay d = so du hien tai - tong dong tien sau ngay d,
+// nen phan so du co tu truoc khi co lich su (so du ban dau, du lieu cu) duoc giu nguyen.
+// Ve bieu do cho mot khoang bat ky chi mat O(so ngay), khong phai duyet lai giao dich.
+// An toan khi nhieu luong cung ghi: moi chuoi tu khoa rieng
+public class DailyBalanceSeries {
+
+    // Dong tien rong theo ngay cua mot tai khoan (hoac tong), danh chi so tu baseDay.
+    // Moi truy cap giu khoa cua chinh doi tuong Flows
+    private static final class Flows {
+        private long baseDay;
+        private long[] days;
+        private long[] tree;   // Fenwick, chi so tu 1
+        private long total;
+
+        synchronized void add(long epochDay, long delta) {
+            ensureCovers(epochDay);
+            int index = (int) (epochDay - baseDay);
+            days[index] += delta;
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+            total += delta;
+        }
+
+        synchronized void clear() {
+            baseDay = 0;
+            days = null;
+            tree = null;
+            total = 0;
+        }
+
+        // Cac ngay co dong tien khac 0: [ngay, dong tien, ngay, dong tien, ...]
+        synchronized long[] nonZeroDays() {
+            if (days == null) {
+                return new long[0];
+            }
+            int count = 0;
+            for (long flow : days) {
+                if (flow != 0) {
+                    count++;
+                }
+            }
+            long[] packed = new long[count * 2];
+            int next = 0;
+            for (int i = 0; i < days.length; i++) {
+                if (days[i] != 0) {
+                    packed[next++] = baseDay + i;
+                    packed[next++] = days[i];
+                }
+            }
+            return packed;
+        }
+
+        synchronized long flowOn(long epochDay) {
+            if (days == null || epochDay < baseDay || epochDay >= baseDay + days.length) {
+                return 0;
+            }
+            return days[(int) (epochDay - baseDay)];
+        }
+
+        // Tong dong tien tu dau den het ngay epochDay
+        synchronized long upTo(long epochDay) {
+            if (days == null || epochDay < baseDay) {
+                return 0;
+            }
+            if (epochDay >= baseDay + days.length) {
+                return total;
+            }
+            long sum = 0;
+            for (int i = (int) (epochDay - baseDay) + 1; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private void ensureCovers(long epochDay) {
+            if (days == null) {
+                baseDay = epochDay - 31;
+                days = new long[64];
+                rebuildTree();
+                return;
+            }
+            if (epochDay >= baseDay && epochDay < baseDay + days.length) {
+                return;
+            }
+            long newBase = Math.min(baseDay, epochDay - 31);
+            long newEnd = Math.max(baseDay + days.length, epochDay + 32);
+            int length = days.length;
+            while (length < newEnd - newBase) {
+                length *= 2;
+            }
+            long[] grown = new long[length];
+            System.arraycopy(days, 0, grown, (int) (baseDay - newBase), days.length);
+            baseDay = newBase;
+            days = grown;
+            rebuildTree();
+        }
+
+        // Dung lai cay Fenwick trong O(n) sau khi mo rong mang
+        private void rebuildTree() {
+            tree = new long[days.length + 1];
+            System.arraycopy(days, 0, tree, 1, days.length);
+            for (int i = 1; i < tree.length; i++) {
+                int parent = i + (i & -i);
+                if (parent < tree.length) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+    }
+
+    private final Map<String, Flows> byAccount;
+    private final Flows overall;
+
+    public DailyBalanceSeries() {
+        this.byAccount = new ConcurrentHashMap<>();
+        this.overall = new Flows();
+    }
+
+    // Ghi nhan so du tai khoan thay doi delta vao ngay day.
+    // Chuoi cua AccountService chi ghi qua service; ben ngoai dung cho chuoi rieng (vd. khi sinh snapshot)
+    public void record(String accountId, LocalDate day, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        long epochDay = day.toEpochDay();
+        byAccount.computeIfAbsent(accountId, id -> new Flows()).add(epochDay, delta);
+        overall.add(epochDay, delta);
+    }
+
+    // Tai khoan bi xoa: bo lich su cua no khoi chuoi tong
+    void removeAccount(String accountId) {
+        Flows removed = byAccount.remove(accountId);
+        if (removed == null) {
+            return;
+        }
+        synchronized (removed) {
+            if (removed.days == null) {
+                return;
+            }
+            for (int i = 0; i < removed.days.length; i++) {
+                if (removed.days[i] != 0) {
+                    overall.add(removed.baseDay + i, -removed.days[i]);
+                }
+            }
+        }
+    }
+
+    // Dong tien theo ngay cua tung tai khoan de luu vao snapshot:
+    // ID tai khoan -> [ngay (epoch day), dong tien, ngay, dong tien, ...].
+    // Chuoi tong la tong cua cac tai khoan con lai nen khong can luu rieng.
+    // Ben goi phai chan moi thay doi trong luc goi de cac tai khoan khop nhau
+    public Map<String, long[]> getFlowsByAccount() {
+        Map<String, long[]> flows = new HashMap<>();
+        byAccount.forEach((accountId, accountFlows) -> flows.put(accountId, accountFlows.nonZeroDays()));
+        return flows;
+    }
+
+    // Thay toan bo lich su bang ban da luu (nap snapshot)
+    public void restore(Map<String, long[]> flowsByAccount) {
+        byAccount.clear();
+        overall.clear();
+        flowsByAccount.forEach((accountId, packed) -> {
+            for (int i = 0; i + 1 < packed.length; i += 2) {
+                record(accountId, LocalDate.ofEpochDay(packed[i]), packed[i + 1]);
+            }
+        });
+    }
+
+    // So du cuoi moi ngay trong [from, to]; accountId == null la tong moi tai khoan.
+    // currentBalance la so du hien tai dung lam moc
+    public NavigableMap<LocalDate, Long> balances(String accountId, long currentBalance,
+                                                    LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Long> series = new TreeMap<>();
+        if (from.isAfter(to)) {
+            return series;
+        }
+        Flows flows = accountId == null ? overall : byAccount.getOrDefault(accountId, new Flows());
+
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        synchronized (flows) {
+            long balance = currentBalance - (flows.total - flows.upTo(first));
+            series.put(from, balance);
+            for (long day = first + 1; day <= last; day++) {
+                balance += flows.flowOn(day);
+                series.put(LocalDate.ofEpochDay(day), balance);
+            }
+        }
+        return series;
+    }
+
+    // Dong tien rong trong [from, to]
+    public long netFlow(String accountId, LocalDate from, LocalDate to) {
+        Flows flows = accountId == null ? overall : byAccount.get(accountId);
+        if (flows == null) {
+            return 0;
+        }
+        return flows.upTo(to.toEpochDay()) - flows.upTo(from.toEpochDay() - 1);
+    }
+}
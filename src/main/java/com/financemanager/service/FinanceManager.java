@@ -1,45 +1,211 @@
 package com.financemanager.service;
 
+import com.financemanager.event.EventPublisher;
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.event.FinanceEventListener;
 import com.financemanager.model.*;
 import com.financemanager.exception.*;
+import com.financemanager.jfr.ValidationFailureEvent;
+import com.financemanager.metrics.LedgerGauges;
+import com.financemanager.metrics.MetricsRegistry;
+import com.financemanager.metrics.Operation;
+import com.financemanager.persistence.DurabilityMode;
+import com.financemanager.persistence.PersistenceManager;
+import com.financemanager.persistence.SnapshotImage;
+import com.financemanager.util.Constants;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
 import com.financemanager.util.Validator;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class FinanceManager {
     private AccountService accountService;
     private TransactionService transactionService;
     private LoanService loanService;
     private ReportService reportService;
-
+    private PersistenceManager persistence;
+    // Ket qua cac thay doi di qua day; khong co listener thi chay headless, khong in gi
+    private final EventPublisher events = new EventPublisher();
+    // Thay doi giu khoa doc; chup snapshot giu khoa ghi trong thoi gian rat ngan
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    // So lan / do tre tung thao tac; that bai nhan qua su kien nen dang ky nhu listener
+    private final MetricsRegistry metrics = MetricsRegistry.fromSystemProperties();
+
+    // Chi luu trong bo nho
     public FinanceManager() {
+        this(new HeapTransactionStore());
+    }
+
+    // Chi luu trong bo nho, giao dich nam trong kho duoc chon
+    public FinanceManager(TransactionStore transactionStore) {
         this.accountService = new AccountService();
-        this.transactionService = new TransactionService(accountService);
+        this.transactionService = new TransactionService(accountService, transactionStore);
         this.loanService = new LoanService();
         this.reportService = new ReportService(accountService, transactionService, loanService);
+        accountService.setEventPublisher(events);
+        transactionService.setEventPublisher(events);
+        loanService.setEventPublisher(events);
+        metrics.setGauges(new LedgerGauges(accountService, transactionService, loanService));
+        if (metrics.isEnabled()) {
+            events.addListener(metrics);
+        }
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    // Dang ky nhan ket qua thay doi (vd. ConsoleRenderer cho giao dien dong lenh)
+    public void addEventListener(FinanceEventListener listener) {
+        events.addListener(listener);
+    }
+
+    public void removeEventListener(FinanceEventListener listener) {
+        events.removeListener(listener);
+    }
+
+    // Khoi phuc tu snapshot + nhat ky trong thu muc du lieu, ghi moi thay doi vao nhat ky.
+    // Listener truyen vao duoc dang ky truoc khi khoi phuc nen nhan ca su kien DATA_RESTORED
+    public static FinanceManager open(String dataDirectory, DurabilityMode durabilityMode,
+                                      FinanceEventListener... listeners) throws IOException {
+        return open(dataDirectory, durabilityMode, new HeapTransactionStore(), listeners);
+    }
+
+    // Lich chup snapshot bat dau sau khi doi tuong da khoi tao xong (checkpoint khong chay tren ban dang dung do)
+    public static FinanceManager open(String dataDirectory, DurabilityMode durabilityMode,
+                                      TransactionStore transactionStore, FinanceEventListener... listeners)
+            throws IOException {
+        FinanceManager manager = new FinanceManager(dataDirectory, durabilityMode, transactionStore, listeners);
+        manager.persistence.scheduleSnapshots(Constants.SNAPSHOT_INTERVAL_SECONDS, manager::checkpoint);
+        return manager;
+    }
+
+    private FinanceManager(String dataDirectory, DurabilityMode durabilityMode,
+                           TransactionStore transactionStore, FinanceEventListener... listeners) throws IOException {
+        this(transactionStore);
+        for (FinanceEventListener listener : listeners) {
+            events.addListener(listener);
+        }
+        this.persistence = new PersistenceManager(Paths.get(dataDirectory), durabilityMode,
+                accountService, transactionService, loanService);
+        persistence.setEventPublisher(events);
+        persistence.open();
+    }
+
+    // Chup snapshot: chi chan thay doi trong luc sao chep, ghi file o luong nen.
+    // Tra ve sequence cua snapshot, hoac null neu khong co gi moi
+    public CompletableFuture<Long> checkpoint() {
+        if (persistence == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        SnapshotImage image;
+        // Do tre chi tinh luc chan thay doi, phan ghi file chay nen
+        long start = metrics.start();
+        checkpointLock.writeLock().lock();
+        try {
+            image = persistence.captureSnapshot();
+        } finally {
+            checkpointLock.writeLock().unlock();
+            metrics.stop(Operation.CHECKPOINT, start);
+        }
+        if (image == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return persistence.writeSnapshotAsync(image);
+    }
+
+    // Chup snapshot cuoi cung va dong nhat ky, dam bao moi ban ghi da xuong dia
+    public void shutdown() {
+        if (persistence != null) {
+            try {
+                checkpoint().join();
+            } catch (RuntimeException e) {
+                events.publish(FinanceEvent.rejected("Khong the chup snapshot khi thoat: " + e.getMessage()));
+            }
+            persistence.close();
+            persistence = null;
+        }
+        transactionService.close();
+        metrics.close();
+    }
+
+    // Cac thay doi chay duoi khoa doc de snapshot luon nhat quan voi vi tri nhat ky
+    private void mutate(Runnable change) {
+        checkpointLock.readLock().lock();
+        try {
+            change.run();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
     }
 
     // UPDATE method generateFinancialReport để dùng ReportService
     public void generateFinancialReport() {
-        reportService.generateFinancialOverview();
+        generateFinancialReport(RenderSink.console());
+    }
+
+    // Cac bao cao co ban ghi ra sink bat ky (vd. phan hoi HTTP)
+    public void generateFinancialReport(RenderSink sink) {
+        long start = metrics.start();
+        try {
+            reportService.generateFinancialOverview(sink);
+        } finally {
+            metrics.stop(Operation.REPORT, start);
+        }
     }
 
     // THÊM CÁC METHOD MỚI CHO BÁO CÁO
     public void generateIncomeExpenseReport() {
-        reportService.generateIncomeExpenseReport(
-                java.time.LocalDate.now().minusMonths(1),
-                java.time.LocalDate.now()
-        );
+        generateIncomeExpenseReport(java.time.LocalDate.now().minusMonths(1), java.time.LocalDate.now(),
+                RenderSink.console());
+    }
+
+    public void generateIncomeExpenseReport(java.time.LocalDate startDate, java.time.LocalDate endDate,
+                                            RenderSink sink) {
+        long start = metrics.start();
+        try {
+            reportService.generateIncomeExpenseReport(startDate, endDate, sink);
+        } finally {
+            metrics.stop(Operation.REPORT, start);
+        }
+    }
+
+    public boolean verifyRunningTotals() {
+        return reportService.verifyRunningTotals();
     }
 
     public void generateLoanReport() {
-        reportService.generateLoanReport();
+        generateLoanReport(RenderSink.console());
+    }
+
+    public void generateLoanReport(RenderSink sink) {
+        long start = metrics.start();
+        try {
+            reportService.generateLoanReport(sink);
+        } finally {
+            metrics.stop(Operation.REPORT, start);
+        }
     }
 
     public void generateMonthlyReport() {
         int currentYear = java.time.LocalDate.now().getYear();
         int currentMonth = java.time.LocalDate.now().getMonthValue();
-        reportService.generateMonthlyReport(currentYear, currentMonth);
+        generateMonthlyReport(currentYear, currentMonth, RenderSink.console());
+    }
+
+    public void generateMonthlyReport(int year, int month, RenderSink sink) {
+        long start = metrics.start();
+        try {
+            reportService.generateMonthlyReport(year, month, sink);
+        } finally {
+            metrics.stop(Operation.REPORT, start);
+        }
     }
 
     public void exportToCSV() {
@@ -48,54 +214,136 @@ public class FinanceManager {
 
     // UPDATE method addAccount với validation
     public void addAccount(String name, String type, String number, double balance) {
-        Validator.ValidationResult result = Validator.validateAccount(name, type, number, balance);
-        if (!result.isValid()) {
-            result.printErrors();
-            return;
+        long start = metrics.start();
+        try {
+            Validator.ValidationResult result = Validator.validateAccount(name, type, number, balance);
+            if (!result.isValid()) {
+                ValidationFailureEvent.emit("addAccount", result.getErrors());
+                events.publish(FinanceEvent.validationFailed(result.getErrors()));
+                return;
+            }
+
+            // So tien nguoi dung nhap (double) doi sang don vi nho ngay tai bien API
+            Long openingBalance = toMinor("addAccount", balance);
+            if (openingBalance == null) {
+                return;
+            }
+            Account account = new Account(name, type, number, openingBalance);
+            mutate(() -> {
+                if (accountService.addAccount(account)) {
+                    transactionService.postOpeningBalance(account.getAccountId(), openingBalance);
+                }
+            });
+        } finally {
+            metrics.stop(Operation.ADD_ACCOUNT, start);
         }
-
-        Account account = new Account(name, type, number, balance);
-        accountService.addAccount(account);
     }
 
     // UPDATE method addTransaction với validation
     public void addTransaction(String accountId, String typeStr, double amount,
                                String description, String category) {
-        Validator.ValidationResult result = Validator.validateTransaction(accountId, typeStr, amount, description);
-        if (!result.isValid()) {
-            result.printErrors();
-            return;
+        long start = metrics.start();
+        try {
+            Validator.ValidationResult result = Validator.validateTransaction(accountId, typeStr, amount, description);
+            if (!result.isValid()) {
+                ValidationFailureEvent.emit("addTransaction", result.getErrors());
+                events.publish(FinanceEvent.validationFailed(result.getErrors()));
+                return;
+            }
+
+            TransactionType type;
+            if (typeStr.equalsIgnoreCase("income")) {
+                type = TransactionType.INCOME;
+            } else if (typeStr.equalsIgnoreCase("expense")) {
+                type = TransactionType.EXPENSE;
+            } else {
+                ValidationFailureEvent.emit("addTransaction", "Loai giao dich khong hop le");
+                events.publish(FinanceEvent.rejected(" Loai giao dich khong hop le!"));
+                return;
+            }
+
+            Long minor = toMinor("addTransaction", amount);
+            if (minor == null) {
+                return;
+            }
+            mutate(() -> transactionService.addTransaction(accountId, type, minor, description, category));
+        } finally {
+            metrics.stop(Operation.ADD_TRANSACTION, start);
+        }
+    }
+
+    // Sua giao dich thu/chi da ghi: so du, dong tien theo ngay va nhat ky cung doi theo
+    public void editTransaction(String accountId, String transactionId, String typeStr, double amount,
+                                String description, String category) {
+        long start = metrics.start();
+        try {
+            Validator.ValidationResult result = Validator.validateTransaction(accountId, typeStr, amount, description);
+            if (!result.isValid()) {
+                ValidationFailureEvent.emit("editTransaction", result.getErrors());
+                events.publish(FinanceEvent.validationFailed(result.getErrors()));
+                return;
+            }
+
+            TransactionType type;
+            if (typeStr.equalsIgnoreCase("income")) {
+                type = TransactionType.INCOME;
+            } else if (typeStr.equalsIgnoreCase("expense")) {
+                type = TransactionType.EXPENSE;
+            } else {
+                ValidationFailureEvent.emit("editTransaction", "Loai giao dich khong hop le");
+                events.publish(FinanceEvent.rejected(" Loai giao dich khong hop le!"));
+                return;
+            }
+
+            Long minor = toMinor("editTransaction", amount);
+            if (minor == null) {
+                return;
+            }
+            mutate(() -> transactionService.editTransaction(accountId, transactionId, type, minor, description,
+                    category));
+        } finally {
+            metrics.stop(Operation.EDIT_TRANSACTION, start);
         }
+    }
 
-        TransactionType type;
-        if (typeStr.equalsIgnoreCase("income")) {
-            type = TransactionType.INCOME;
-        } else if (typeStr.equalsIgnoreCase("expense")) {
-            type = TransactionType.EXPENSE;
-        } else {
-            System.out.println(" Loai giao dich khong hop le!");
-            return;
+    // Them nhieu giao dich trong mot lan (nhap sao ke): kiem tra ca lo, ap dung duoi mot lan
+    // giu khoa va mot lan ghi nhat ky. Khong in tung giao dich, tra ve ket qua tung dong
+    public BatchResult addTransactions(List<TransactionRequest> requests) {
+        long start = metrics.start();
+        try {
+            BatchResult[] result = new BatchResult[1];
+            mutate(() -> result[0] = transactionService.addTransactions(requests));
+            return result[0];
+        } finally {
+            metrics.stop(Operation.ADD_TRANSACTION_BATCH, start);
         }
+    }
 
-        transactionService.addTransaction(accountId, type, amount, description, category);
+    public BatchResult addTransactions(Stream<TransactionRequest> requests) {
+        return addTransactions(requests.collect(Collectors.toList()));
     }
 
     // THÊM method tìm kiếm và lọc
     public void findAccountByName(String name) {
-        accountService.getAllAccounts().stream()
-                .filter(acc -> acc.getAccountName().toLowerCase().contains(name.toLowerCase()))
-                .forEach(Account::displayInfo);
+        String query = name.toLowerCase();
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            accountService.getAllAccounts().stream()
+                    .filter(acc -> acc.getAccountName().toLowerCase().contains(query))
+                    .forEach(acc -> acc.render(out));
+        }
     }
 
     public void displayTransactionsByCategory(String category) {
         List<Transaction> transactions = transactionService.getTransactionsByCategory(category);
-        if (transactions.isEmpty()) {
-            System.out.println(" Khong co giao dich nao trong danh muc: " + category);
-            return;
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            if (transactions.isEmpty()) {
+                out.append(" Khong co giao dich nao trong danh muc: ").line(category);
+                return;
+            }
+
+            out.newline().append(" GIAO DICH DANH MUC: ").line(category);
+            transactions.forEach(transaction -> transaction.render(out));
         }
-
-        System.out.println("\n GIAO DICH DANH MUC: " + category);
-        transactions.forEach(Transaction::displayInfo);
     }
 
     // THÊM getter cho ReportService
@@ -109,14 +357,30 @@ public class FinanceManager {
     }
 
     public void deleteAccount(String accountId) {
-        accountService.deleteAccount(accountId);
+        long start = metrics.start();
+        try {
+            mutate(() -> accountService.deleteAccount(accountId));
+        } finally {
+            metrics.stop(Operation.DELETE_ACCOUNT, start);
+        }
     }
 
     public void transferBetweenAccounts(String fromId, String toId, double amount) {
+        long start = metrics.start();
         try {
-            accountService.transferBetweenAccounts(fromId, toId, amount);
-        } catch (AccountNotFoundException | InsufficientBalanceException e) {
-            System.out.println(e.getMessage());
+            Long minor = toMinor("transferBetweenAccounts", amount);
+            if (minor == null) {
+                return;
+            }
+            mutate(() -> {
+                try {
+                    transactionService.transferBetweenAccounts(fromId, toId, minor);
+                } catch (AccountNotFoundException | InsufficientBalanceException e) {
+                    events.publish(FinanceEvent.rejected(e.getMessage()));
+                }
+            });
+        } finally {
+            metrics.stop(Operation.TRANSFER, start);
         }
     }
 
@@ -131,41 +395,74 @@ public class FinanceManager {
     // Loan management - SỬA LẠI METHOD addLoan
     public void addLoan(String lender, double amount, double interest,
                         int months, String description) {
-        Validator.ValidationResult result = Validator.validateLoan(lender, amount, interest, description, months);
-        if (!result.isValid()) {
-            result.printErrors();
-            return;
+        long start = metrics.start();
+        try {
+            Validator.ValidationResult result = Validator.validateLoan(lender, amount, interest, description, months);
+            if (!result.isValid()) {
+                ValidationFailureEvent.emit("addLoan", result.getErrors());
+                events.publish(FinanceEvent.validationFailed(result.getErrors()));
+                return;
+            }
+
+            Long minor = toMinor("addLoan", amount);
+            if (minor == null) {
+                return;
+            }
+            mutate(() -> loanService.addLoan(lender, minor, interest, months, description));
+        } finally {
+            metrics.stop(Operation.ADD_LOAN, start);
         }
-
-        loanService.addLoan(lender, amount, interest, months, description);
     }
 
     public void addLending(String borrower, double amount, double interest,
                            int months, String description) {
-        Validator.ValidationResult result = Validator.validateLoan(borrower, amount, interest, description, months);
-        if (!result.isValid()) {
-            result.printErrors();
-            return;
+        long start = metrics.start();
+        try {
+            Validator.ValidationResult result = Validator.validateLoan(borrower, amount, interest, description, months);
+            if (!result.isValid()) {
+                ValidationFailureEvent.emit("addLending", result.getErrors());
+                events.publish(FinanceEvent.validationFailed(result.getErrors()));
+                return;
+            }
+
+            Long minor = toMinor("addLending", amount);
+            if (minor == null) {
+                return;
+            }
+            mutate(() -> loanService.addLending(borrower, minor, interest, months, description));
+        } finally {
+            metrics.stop(Operation.ADD_LENDING, start);
         }
-
-        loanService.addLending(borrower, amount, interest, months, description);
     }
 
     public void generateAccountReport(String accountId) {
         transactionService.generateAccountReport(accountId);
     }
 
+    // Bao cao tai khoan dung rollups cua ReportService, ghi ra sink
+    public void generateAccountReport(String accountId, RenderSink sink) {
+        long start = metrics.start();
+        try {
+            reportService.generateAccountReport(accountId, sink);
+        } finally {
+            metrics.stop(Operation.REPORT, start);
+        }
+    }
+
     public void displayAllAccountReports() {
         List<Account> accounts = accountService.getAllAccounts();
 
-        if (accounts.isEmpty()) {
-            System.out.println("Khong co tai khoan nao trong he thong!");
-            return;
-        }
-
-        for (Account account : accounts) {
-            account.generateAccountReport(transactionService.getAllTransactions());
-            System.out.println();
+        // Cac bao cao noi tiep trong cung bo dem man hinh, ghi ra mot lan
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            if (accounts.isEmpty()) {
+                out.line("Khong co tai khoan nao trong he thong!");
+                return;
+            }
+
+            for (Account account : accounts) {
+                transactionService.printAccountReport(account);
+                out.newline();
+            }
         }
     }
 
@@ -182,51 +479,58 @@ public class FinanceManager {
     public void displayAccountComparisonReport() {
         List<Account> accounts = accountService.getAllAccounts();
 
-        if (accounts.isEmpty()) {
-            System.out.println("Không có tài khoản nào!");
-            return;
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            if (accounts.isEmpty()) {
+                out.line("Không có tài khoản nào!");
+                return;
+            }
+
+            String header = "╔══════════════════════════════════════════════════════════════╗";
+            String separator = "╠══════════════════════════════════════════════════════════════╣";
+            String footer = "╚══════════════════════════════════════════════════════════════╝";
+
+            out.line(header);
+            out.append("║ \u001B[1;36m").pad("SO SÁNH TẤT CẢ TÀI KHOẢN", 60).line("\u001B[0m ║");
+            out.line(separator);
+
+            long totalBalance = 0;
+            for (Account account : accounts) {
+                List<Transaction> accountTransactions = transactionService.getTransactionsByAccount(account.getAccountId());
+                long accountIncome = calculateAccountIncome(accountTransactions);
+                long accountExpense = calculateAccountExpense(accountTransactions);
+                long balance = account.getBalance();
+
+                out.append("║ ").pad(account.getAccountName(), 60).line(" ║");
+                out.append("║ ");
+                int start = out.mark();
+                out.append("   Số dư: ").money(balance).append(' ').append(account.getCurrency())
+                        .append(" | Thu: ").money(accountIncome).append(" | Chi: ").money(accountExpense)
+                        .padTo(start, 60).line(" ║");
+                out.append("║   ").repeat('-', 56).repeat(' ', 2).line(" ║");
+
+                totalBalance += balance;
+            }
+
+            out.line(separator);
+            out.append("║ \u001B[1;32m");
+            int start = out.mark();
+            out.append("TỔNG SỐ DƯ TẤT CẢ TÀI KHOẢN: ").money(totalBalance).append(" VND")
+                    .padTo(start, 60).line("\u001B[0m ║");
+            out.line(footer);
         }
-
-        String header = "╔══════════════════════════════════════════════════════════════╗";
-        String separator = "╠══════════════════════════════════════════════════════════════╣";
-        String footer = "╚══════════════════════════════════════════════════════════════╝";
-
-        System.out.println(header);
-        System.out.printf("║ \u001B[1;36m%-60s\u001B[0m ║\n", "SO SÁNH TẤT CẢ TÀI KHOẢN");
-        System.out.println(separator);
-
-        double totalBalance = 0;
-        for (Account account : accounts) {
-            List<Transaction> accountTransactions = transactionService.getTransactionsByAccount(account.getAccountId());
-            double accountIncome = calculateAccountIncome(accountTransactions);
-            double accountExpense = calculateAccountExpense(accountTransactions);
-
-            System.out.printf("║ %-60s ║\n",account.getAccountName());
-            System.out.printf("║ %-60s ║\n",
-                    String.format("   Số dư: %,.2f %s | Thu: %,.2f | Chi: %,.2f",
-                            account.getBalance(), account.getCurrency(), accountIncome, accountExpense));
-            System.out.printf("║ %-60s ║\n", "  " + "-".repeat(56));
-
-            totalBalance += account.getBalance();
-        }
-
-        System.out.println(separator);
-        System.out.printf("║ \u001B[1;32m%-60s\u001B[0m ║\n",
-                String.format("TỔNG SỐ DƯ TẤT CẢ TÀI KHOẢN: %,.2f VND", totalBalance));
-        System.out.println(footer);
     }
 
-    private double calculateAccountIncome(List<Transaction> transactions) {
+    private long calculateAccountIncome(List<Transaction> transactions) {
         return transactions.stream()
                 .filter(t -> t.getType() == TransactionType.INCOME)
-                .mapToDouble(Transaction::getAmount)
+                .mapToLong(Transaction::getAmount)
                 .sum();
     }
 
-    private double calculateAccountExpense(List<Transaction> transactions) {
+    private long calculateAccountExpense(List<Transaction> transactions) {
         return transactions.stream()
                 .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .mapToDouble(Transaction::getAmount)
+                .mapToLong(Transaction::getAmount)
                 .sum();
     }
 
@@ -244,31 +548,65 @@ public class FinanceManager {
     public LoanService getLoanService() { return loanService; }
 
     public void repayLoan(String loanId, double amount) {
-        boolean success = loanService.repayLoan(loanId, amount);
-        if (!success) {
-            System.out.println("Tra no that bai!");
+        long start = metrics.start();
+        try {
+            Long minor = toMinor("repayLoan", amount);
+            if (minor == null) {
+                return;
+            }
+            mutate(() -> {
+                boolean success = loanService.repayLoan(loanId, minor);
+                if (!success) {
+                    events.publish(FinanceEvent.rejected("Tra no that bai!"));
+                }
+            });
+        } finally {
+            metrics.stop(Operation.LOAN_REPAYMENT, start);
         }
     }
 
     public void collectLending(String lendingId, double amount) {
-        boolean success = loanService.collectLending(lendingId, amount);
-        if (!success) {
-            System.out.println("Thu no that bai!");
+        long start = metrics.start();
+        try {
+            Long minor = toMinor("collectLending", amount);
+            if (minor == null) {
+                return;
+            }
+            mutate(() -> {
+                boolean success = loanService.collectLending(lendingId, minor);
+                if (!success) {
+                    events.publish(FinanceEvent.rejected("Thu no that bai!"));
+                }
+            });
+        } finally {
+            metrics.stop(Operation.LENDING_COLLECTION, start);
         }
     }
 
     public void depositToAccount(String accountId, double amount) {
-        // Validation sẽ được xử lý trong Main.java trước khi gọi phương thức này
-        Optional<Account> accountOpt = accountService.findAccountById(accountId);
-        if (accountOpt.isPresent()) {
-            Account account = accountOpt.get();
-            account.deposit(amount);
-            System.out.println("Them tien thanh cong!");
-            System.out.printf("Tai khoan: %s\n", account.getAccountName());
-            System.out.printf("So tien them: %,.2f %s\n", amount, account.getCurrency());
-            System.out.printf("So du moi: %,.2f %s\n", account.getBalance(), account.getCurrency());
-        } else {
-            System.out.println("Khong tim thay tai khoan voi ID: " + accountId);
+        long start = metrics.start();
+        try {
+            // Validation sẽ được xử lý trong Main.java trước khi gọi phương thức này
+            // Nap tien la mot but toan so cai, ghi vao nhat ky (ket qua phat qua su kien DEPOSITED)
+            Long minor = toMinor("depositToAccount", amount);
+            if (minor == null) {
+                return;
+            }
+            mutate(() -> transactionService.depositToAccount(accountId, minor));
+        } finally {
+            metrics.stop(Operation.DEPOSIT, start);
+        }
+    }
+
+    // So tien nguoi dung nhap -> don vi nho. NaN, vo cuc hay qua lon thi Money.of nem ngoai le:
+    // bao tu choi qua su kien thay vi de ngoai le lam dung vong lap menu, tra ve null
+    private Long toMinor(String operation, double amount) {
+        try {
+            return Money.of(amount);
+        } catch (IllegalArgumentException e) {
+            ValidationFailureEvent.emit(operation, e.getMessage());
+            events.publish(FinanceEvent.rejected(e.getMessage()));
+            return null;
         }
     }
 
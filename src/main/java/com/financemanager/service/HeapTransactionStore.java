@@ -0,0 +1,132 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionChangeListener;
+import com.financemanager.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Kho mac dinh: doi tuong Transaction tren heap, chi muc thoi gian toan cuc va theo tai khoan,
+// them danh sach theo thu tu them vao cho all().
+// TreeMap/HashMap khong an toan khi doc trong luc ghi: them giu khoa ghi, moi truy van giu khoa doc
+// va tra ve ban sao, nen con tro duyet tren ban sao sau khi nha khoa
+public class HeapTransactionStore implements TransactionStore {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TransactionTimeIndex transactions;
+    private final Map<String, TransactionTimeIndex> transactionsByAccount;
+    private final List<Transaction> inserted;
+
+    public HeapTransactionStore() {
+        this.transactions = new TransactionTimeIndex();
+        this.transactionsByAccount = new HashMap<>();
+        this.inserted = new ArrayList<>();
+    }
+
+    @Override
+    public void add(Transaction transaction, TransactionChangeListener changeListener) {
+        // Doi tuong song tren heap nen sua qua setter la sua thang ban trong kho
+        transaction.setChangeListener(changeListener);
+        lock.writeLock().lock();
+        try {
+            inserted.add(transaction);
+            transactions.add(transaction);
+            transactionsByAccount
+                    .computeIfAbsent(transaction.getAccountId(), id -> new TransactionTimeIndex())
+                    .add(transaction);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return transactions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Transaction> all() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(inserted);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Transaction> range(LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            return transactions.range(start, end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Transaction> byAccount(String accountId, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            TransactionTimeIndex accountIndex = transactionsByAccount.get(accountId);
+            if (accountIndex == null) {
+                return new ArrayList<>();
+            }
+            return accountIndex.range(start, end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TransactionCursor cursor(LocalDateTime start, LocalDateTime end) {
+        return new ListCursor(range(start, end));
+    }
+
+    @Override
+    public TransactionCursor cursor(String accountId, LocalDateTime start, LocalDateTime end) {
+        return new ListCursor(byAccount(accountId, start, end));
+    }
+
+    // Con tro tren danh sach doi tuong co san
+    private static final class ListCursor implements TransactionCursor {
+        private final List<Transaction> rows;
+        private int index = -1;
+        private Transaction current;
+
+        ListCursor(List<Transaction> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next() {
+            if (index + 1 >= rows.size()) {
+                current = null;
+                return false;
+            }
+            current = rows.get(++index);
+            return true;
+        }
+
+        @Override public TransactionType getType() { return current.getType(); }
+        @Override public long getAmount() { return current.getAmount(); }
+        @Override public long getEpochMillis() { return current.getDate().toInstant(ZoneOffset.UTC).toEpochMilli(); }
+        @Override public LocalDateTime getDate() { return current.getDate(); }
+        @Override public String getTransactionId() { return current.getTransactionId(); }
+        @Override public String getAccountId() { return current.getAccountId(); }
+        @Override public String getDescription() { return current.getDescription(); }
+        @Override public Category getCategory() { return current.getCategory(); }
+        @Override public Transaction toTransaction() { return current; }
+    }
+}
@@ -1,96 +1,171 @@
 package com.financemanager.service;
 
+import com.financemanager.event.EventPublisher;
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.jfr.LoanPaymentEvent;
+import com.financemanager.jfr.ValidationFailureEvent;
 import com.financemanager.model.Loan;
 import com.financemanager.model.Lending;
+import com.financemanager.model.Money;
 import com.financemanager.model.Payment;
+import com.financemanager.persistence.JournalRecord;
+import com.financemanager.persistence.TransactionJournal;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+// Thay doi khoan vay/cho vay khong in ra man hinh: ket qua phat qua EventPublisher.
+// Khoan vay it khi them: danh sach copy-on-write de doc khong can khoa,
+// moi thay doi (kiem tra con no roi tru) di qua mot khoa cua service. Ban ghi nhat ky duoc
+// xep hang trong luc giu khoa, con cho fsync thi sau khi nha khoa: ReentrantLock thay cho
+// synchronized de luong ao (may chu HTTP) dang cho khoa khong ghim luong mang
 public class LoanService {
+    private final ReentrantLock lock = new ReentrantLock();
     private List<Loan> loans;
     private List<Lending> lendings;
+    private TransactionJournal journal;
+    private EventPublisher events = new EventPublisher();
+    // Tong so con no cap nhat khi tao khoan va khi thanh toan, doc trong O(1)
+    private volatile long totalLoanRemaining;
+    private volatile long totalLendingRemaining;
 
     public LoanService() {
-        this.loans = new ArrayList<>();
-        this.lendings = new ArrayList<>();
+        this.loans = new CopyOnWriteArrayList<>();
+        this.lendings = new CopyOnWriteArrayList<>();
+    }
+
+    // Gan nhat ky de ghi lai moi thay doi (null = chi luu trong bo nho)
+    public void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    // Gan noi phat su kien (mac dinh khong co listener = chay headless)
+    public void setEventPublisher(EventPublisher events) {
+        this.events = events;
+    }
+
+    // Xep ban ghi vao nhat ky (goi khi dang giu khoa), tra ve sequence de cho sau khi nha khoa
+    private long journal(JournalRecord record) {
+        return journal != null ? journal.enqueue(record) : 0;
+    }
+
+    private void awaitDurable(long sequence) {
+        if (journal != null && sequence > 0) {
+            journal.awaitDurable(sequence);
+        }
+    }
+
+    private Payment lastPayment(List<Payment> history) {
+        return history.get(history.size() - 1);
     }
 
     // THÊM: Method tạo loan với số tháng
-    public void addLoan(String lender, double amount, double interest,
+    public void addLoan(String lender, long amount, double interest,
                         int months, String description) {
+        Loan loan;
         try {
-            Loan loan = new Loan(lender, amount, interest, months, description);
-            if (loan.isValid()) {
-                loans.add(loan);
-                System.out.println("Them khoan vay thanh cong!");
-                loan.displayInfo();
-            }
+            loan = new Loan(lender, amount, interest, months, description);
         } catch (IllegalArgumentException e) {
-            System.out.println("Loi: " + e.getMessage());
+            events.publish(FinanceEvent.rejected("Loi: " + e.getMessage()));
+            return;
         }
+        if (!loan.isValid()) {
+            return;
+        }
+        long sequence;
+        lock.lock();
+        try {
+            loans.add(loan);
+            totalLoanRemaining += loan.getRemainingAmount();
+            sequence = journal(JournalRecord.loanCreated(loan));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+        events.publish(FinanceEvent.loanAdded(loan));
     }
 
     // THÊM: Method tạo lending với số tháng
-    public void addLending(String borrower, double amount, double interest,
+    public void addLending(String borrower, long amount, double interest,
                            int months, String description) {
+        Lending lending;
         try {
-            Lending lending = new Lending(borrower, amount, interest, months, description);
-            if (lending.isValid()) {
-                lendings.add(lending);
-                System.out.println("Them khoan cho vay thanh cong!");
-                lending.displayInfo();
-            }
+            lending = new Lending(borrower, amount, interest, months, description);
         } catch (IllegalArgumentException e) {
-            System.out.println("Loi: " + e.getMessage());
+            events.publish(FinanceEvent.rejected("Loi: " + e.getMessage()));
+            return;
         }
+        if (!lending.isValid()) {
+            return;
+        }
+        long sequence;
+        lock.lock();
+        try {
+            lendings.add(lending);
+            totalLendingRemaining += lending.getRemainingAmount();
+            sequence = journal(JournalRecord.lendingCreated(lending));
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+        events.publish(FinanceEvent.lendingAdded(lending));
     }
 
     // THÊM: Hiển thị chi tiết khoản vay
     public void displayLoanDetails(String loanId) {
         Optional<Loan> loanOpt = findLoanById(loanId);
-        if (loanOpt.isPresent()) {
-            Loan loan = loanOpt.get();
-            System.out.println("\nCHI TIET KHOAN VAY");
-            System.out.println("=========================================");
-            loan.displayInfo();
-
-            // Hiển thị lịch sử thanh toán
-            if (!loan.getPaymentHistory().isEmpty()) {
-                System.out.println("\nLICH SU THANH TOAN:");
-                for (Payment payment : loan.getPaymentHistory()) {
-                    System.out.printf(" - %.2f VND vao %s\n",
-                            payment.getAmount(), payment.getFormattedDate());
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            if (loanOpt.isPresent()) {
+                Loan loan = loanOpt.get();
+                out.newline().line("CHI TIET KHOAN VAY");
+                out.line("=========================================");
+                loan.render(out);
+
+                // Hiển thị lịch sử thanh toán
+                if (!loan.getPaymentHistory().isEmpty()) {
+                    out.newline().line("LICH SU THANH TOAN:");
+                    renderPayments(out, loan.getPaymentHistory());
+                } else {
+                    out.newline().line("Chua co thanh toan nao.");
                 }
             } else {
-                System.out.println("\nChua co thanh toan nao.");
+                out.line("Khong tim thay khoan vay!");
             }
-        } else {
-            System.out.println("Khong tim thay khoan vay!");
         }
     }
 
     // THÊM: Hiển thị chi tiết khoản cho vay
     public void displayLendingDetails(String lendingId) {
         Optional<Lending> lendingOpt = findLendingById(lendingId);
-        if (lendingOpt.isPresent()) {
-            Lending lending = lendingOpt.get();
-            System.out.println("\nCHI TIET KHOAN CHO VAY");
-            System.out.println("=========================================");
-            lending.displayInfo();
-
-            if (!lending.getRepaymentHistory().isEmpty()) {
-                System.out.println("\nLICH SU TRA NO:");
-                for (Payment payment : lending.getRepaymentHistory()) {
-                    System.out.printf(" - %.2f VND vao %s\n",
-                            payment.getAmount(), payment.getFormattedDate());
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            if (lendingOpt.isPresent()) {
+                Lending lending = lendingOpt.get();
+                out.newline().line("CHI TIET KHOAN CHO VAY");
+                out.line("=========================================");
+                lending.render(out);
+
+                if (!lending.getRepaymentHistory().isEmpty()) {
+                    out.newline().line("LICH SU TRA NO:");
+                    renderPayments(out, lending.getRepaymentHistory());
+                } else {
+                    out.newline().line("Chua co tra no nao.");
                 }
             } else {
-                System.out.println("\nChua co tra no nao.");
+                out.line("Khong tim thay khoan cho vay!");
             }
-        } else {
-            System.out.println("Khong tim thay khoan cho vay!");
+        }
+    }
+
+    // " - %s VND vao %s"
+    private void renderPayments(RenderBuffer out, List<Payment> payments) {
+        for (Payment payment : payments) {
+            out.append(" - ").money(payment.getAmount()).append(" VND vao ")
+                    .dateTime(payment.getPaymentDate()).newline();
         }
     }
 
@@ -123,72 +198,76 @@ public class LoanService {
     }
 
     // THÊM: Tổng quan khoản vay
-    private void displayLoanSummary() {
-        double totalBorrowed = loans.stream().mapToDouble(Loan::getPrincipalAmount).sum();
-        double totalRemaining = loans.stream().mapToDouble(Loan::getRemainingAmount).sum();
-        double totalPaid = totalBorrowed - totalRemaining;
+    private void displayLoanSummary(RenderBuffer out) {
+        long totalBorrowed = loans.stream().mapToLong(Loan::getPrincipalAmount).sum();
+        long totalRemaining = loans.stream().mapToLong(Loan::getRemainingAmount).sum();
+        long totalPaid = totalBorrowed - totalRemaining;
         long overdueLoans = loans.stream().filter(Loan::isOverdue).count();
         long dueSoonLoans = loans.stream().filter(Loan::isDueSoon).count();
 
-        System.out.println("\nTONG QUAN KHOAN VAY:");
-        System.out.printf(" - Tong da vay: %.2f VND\n", totalBorrowed);
-        System.out.printf(" - Da tra: %.2f VND\n", totalPaid);
-        System.out.printf(" - Con no: %.2f VND\n", totalRemaining);
-        System.out.printf(" - Qua han: %d khoan\n", overdueLoans);
-        System.out.printf(" - Sap den han: %d khoan\n", dueSoonLoans);
+        out.newline().line("TONG QUAN KHOAN VAY:");
+        out.append(" - Tong da vay: ").money(totalBorrowed).line(" VND");
+        out.append(" - Da tra: ").money(totalPaid).line(" VND");
+        out.append(" - Con no: ").money(totalRemaining).line(" VND");
+        out.append(" - Qua han: ").append(overdueLoans).line(" khoan");
+        out.append(" - Sap den han: ").append(dueSoonLoans).line(" khoan");
     }
 
     // THÊM: Tổng quan khoản cho vay
-    private void displayLendingSummary() {
-        double totalLent = lendings.stream().mapToDouble(Lending::getPrincipalAmount).sum();
-        double totalRemaining = lendings.stream().mapToDouble(Lending::getRemainingAmount).sum();
-        double totalCollected = totalLent - totalRemaining;
+    private void displayLendingSummary(RenderBuffer out) {
+        long totalLent = lendings.stream().mapToLong(Lending::getPrincipalAmount).sum();
+        long totalRemaining = lendings.stream().mapToLong(Lending::getRemainingAmount).sum();
+        long totalCollected = totalLent - totalRemaining;
         long overdueLendings = lendings.stream().filter(Lending::isOverdue).count();
         long dueSoonLendings = lendings.stream().filter(Lending::isDueSoon).count();
 
-        System.out.println("\nTONG QUAN CHO VAY:");
-        System.out.printf(" - Tong da cho vay: %.2f VND\n", totalLent);
-        System.out.printf(" - Da thu: %.2f VND\n", totalCollected);
-        System.out.printf(" - Con phai thu: %.2f VND\n", totalRemaining);
-        System.out.printf(" - Qua han: %d khoan\n", overdueLendings);
-        System.out.printf(" - Sap den han: %d khoan\n", dueSoonLendings);
+        out.newline().line("TONG QUAN CHO VAY:");
+        out.append(" - Tong da cho vay: ").money(totalLent).line(" VND");
+        out.append(" - Da thu: ").money(totalCollected).line(" VND");
+        out.append(" - Con phai thu: ").money(totalRemaining).line(" VND");
+        out.append(" - Qua han: ").append(overdueLendings).line(" khoan");
+        out.append(" - Sap den han: ").append(dueSoonLendings).line(" khoan");
     }
 
     // Các method hiện có giữ nguyên...
     public void displayAllLoans() {
-        if (loans.isEmpty()) {
-            System.out.println("Khong co khoan vay nao!");
-            return;
-        }
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            if (loans.isEmpty()) {
+                out.line("Khong co khoan vay nao!");
+                return;
+            }
 
-        System.out.println("\nDANH SACH KHOAN VAY (" + loans.size() + " khoan)");
-        System.out.println("=========================================");
+            out.newline().append("DANH SACH KHOAN VAY (").append(loans.size()).line(" khoan)");
+            out.line("=========================================");
 
-        for (Loan loan : loans) {
-            loan.displayInfo();
-            System.out.println();
-        }
+            for (Loan loan : loans) {
+                loan.render(out);
+                out.newline();
+            }
 
-        // THÊM: Hiển thị tổng quan
-        displayLoanSummary();
+            // THÊM: Hiển thị tổng quan
+            displayLoanSummary(out);
+        }
     }
 
     public void displayAllLendings() {
-        if (lendings.isEmpty()) {
-            System.out.println("Khong co khoan cho vay nao!");
-            return;
-        }
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            if (lendings.isEmpty()) {
+                out.line("Khong co khoan cho vay nao!");
+                return;
+            }
 
-        System.out.println("\nDANH SACH CHO VAY (" + lendings.size() + " khoan)");
-        System.out.println("=========================================");
+            out.newline().append("DANH SACH CHO VAY (").append(lendings.size()).line(" khoan)");
+            out.line("=========================================");
 
-        for (Lending lending : lendings) {
-            lending.displayInfo();
-            System.out.println();
-        }
+            for (Lending lending : lendings) {
+                lending.render(out);
+                out.newline();
+            }
 
-        // THÊM: Hiển thị tổng quan
-        displayLendingSummary();
+            // THÊM: Hiển thị tổng quan
+            displayLendingSummary(out);
+        }
     }
 
     public Optional<Loan> findLoanById(String loanId) {
@@ -203,53 +282,121 @@ public class LoanService {
                 .findFirst();
     }
 
-    public boolean addPaymentToLoan(String loanId, double amount) {
+    public boolean addPaymentToLoan(String loanId, long amount) {
+        Optional<Loan> loanOpt = findLoanById(loanId);
+        if (loanOpt.isEmpty()) {
+            events.publish(FinanceEvent.rejected("Khong tim thay khoan vay!"));
+            return false;
+        }
+        Loan loan = loanOpt.get();
+        long sequence;
+        lock.lock();
         try {
-            Optional<Loan> loanOpt = findLoanById(loanId);
-            if (loanOpt.isPresent()) {
-                Loan loan = loanOpt.get();
-                loan.addPayment(amount);
-                return true;
-            } else {
-                System.out.println("Khong tim thay khoan vay!");
-                return false;
-            }
+            loan.addPayment(amount);
+            totalLoanRemaining -= amount;
+            sequence = journal(JournalRecord.loanPayment(loanId, lastPayment(loan.getPaymentHistory())));
         } catch (IllegalArgumentException e) {
-            System.out.println("Loi: " + e.getMessage());
+            events.publish(FinanceEvent.rejected("Loi: " + e.getMessage()));
             return false;
+        } finally {
+            lock.unlock();
         }
+        awaitDurable(sequence);
+        events.publish(FinanceEvent.loanPayment(loan, amount));
+        return true;
     }
 
-    public boolean addRepaymentToLending(String lendingId, double amount) {
+    public boolean addRepaymentToLending(String lendingId, long amount) {
+        Optional<Lending> lendingOpt = findLendingById(lendingId);
+        if (lendingOpt.isEmpty()) {
+            events.publish(FinanceEvent.rejected("Khong tim thay khoan cho vay!"));
+            return false;
+        }
+        Lending lending = lendingOpt.get();
+        long sequence;
+        lock.lock();
         try {
-            Optional<Lending> lendingOpt = findLendingById(lendingId);
-            if (lendingOpt.isPresent()) {
-                Lending lending = lendingOpt.get();
-                lending.addRepayment(amount);
-                return true;
-            } else {
-                System.out.println("Khong tim thay khoan cho vay!");
-                return false;
-            }
+            lending.addRepayment(amount);
+            totalLendingRemaining -= amount;
+            sequence = journal(JournalRecord.lendingRepayment(lendingId, lastPayment(lending.getRepaymentHistory())));
         } catch (IllegalArgumentException e) {
-            System.out.println("Loi: " + e.getMessage());
+            events.publish(FinanceEvent.rejected("Loi: " + e.getMessage()));
             return false;
+        } finally {
+            lock.unlock();
         }
+        awaitDurable(sequence);
+        events.publish(FinanceEvent.lendingRepayment(lending, amount));
+        return true;
     }
 
     // Get totals
-    public double getTotalLoanAmount() {
+    public long getTotalLoanAmount() {
+        return totalLoanRemaining;
+    }
+
+    public long getTotalLendingAmount() {
+        return totalLendingRemaining;
+    }
+
+    // Tinh lai tu dau, dung de kiem tra tong dang chay
+    public long recomputeTotalLoanAmount() {
         return loans.stream()
-                .mapToDouble(Loan::getRemainingAmount)
+                .mapToLong(Loan::getRemainingAmount)
                 .sum();
     }
 
-    public double getTotalLendingAmount() {
+    public long recomputeTotalLendingAmount() {
         return lendings.stream()
-                .mapToDouble(Lending::getRemainingAmount)
+                .mapToLong(Lending::getRemainingAmount)
                 .sum();
     }
 
+    // ===== Khoi phuc du lieu (khong in, khong ghi nhat ky) =====
+    public void restoreLoan(Loan loan) {
+        lock.lock();
+        try {
+            loans.add(loan);
+            totalLoanRemaining += loan.getRemainingAmount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void restoreLending(Lending lending) {
+        lock.lock();
+        try {
+            lendings.add(lending);
+            totalLendingRemaining += lending.getRemainingAmount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void restoreLoanPayment(String loanId, Payment payment) {
+        lock.lock();
+        try {
+            findLoanById(loanId).ifPresent(loan -> {
+                loan.recordPayment(payment);
+                totalLoanRemaining -= payment.getAmount();
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void restoreLendingRepayment(String lendingId, Payment payment) {
+        lock.lock();
+        try {
+            findLendingById(lendingId).ifPresent(lending -> {
+                lending.recordRepayment(payment);
+                totalLendingRemaining -= payment.getAmount();
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public List<Loan> getAllLoans() {
         return new ArrayList<>(loans);
     }
@@ -259,62 +406,100 @@ public class LoanService {
     }
 
     // THÊM vào LoanService.java (cuối class)
-    public boolean repayLoan(String loanId, double amount) {
+    public boolean repayLoan(String loanId, long amount) {
+        LoanPaymentEvent event = new LoanPaymentEvent();
+        event.begin();
+        boolean paid = applyLoanRepayment(loanId, amount);
+        event.commit(LoanPaymentEvent.LOAN, loanId, amount, paid);
+        return paid;
+    }
+
+    private boolean applyLoanRepayment(String loanId, long amount) {
         Optional<Loan> loanOpt = findLoanById(loanId);
-        if (loanOpt.isPresent()) {
-            Loan loan = loanOpt.get();
+        if (loanOpt.isEmpty()) {
+            events.publish(FinanceEvent.rejected("Khong tim thay khoan vay!"));
+            return false;
+        }
+        Loan loan = loanOpt.get();
 
-            if (amount <= 0) {
-                System.out.println("So tien tra no phai lon hon 0!");
-                return false;
-            }
+        if (amount <= 0) {
+            ValidationFailureEvent.emit("repayLoan", "So tien tra no phai lon hon 0");
+            events.publish(FinanceEvent.rejected("So tien tra no phai lon hon 0!"));
+            return false;
+        }
 
+        long sequence;
+        lock.lock();
+        try {
+            // Kiem tra con no va tru trong cung mot lan giu khoa
             if (amount > loan.getRemainingAmount()) {
-                System.out.println("So tien tra no vuot qua so tien con lai!");
+                ValidationFailureEvent.emit("repayLoan", "So tien tra no vuot qua so tien con lai");
+                events.publish(FinanceEvent.rejected("So tien tra no vuot qua so tien con lai!"));
                 return false;
             }
 
             if (loan.getStatus().equals("PAID")) {
-                System.out.println("Khoan vay da duoc tra het!");
+                events.publish(FinanceEvent.rejected("Khoan vay da duoc tra het!"));
                 return false;
             }
 
             loan.addPayment(amount);
-            System.out.printf("Tra no thanh cong! So tien con lai: %.2f VND\n", loan.getRemainingAmount());
-            return true;
-        } else {
-            System.out.println("Khong tim thay khoan vay!");
-            return false;
+            totalLoanRemaining -= amount;
+            sequence = journal(JournalRecord.loanPayment(loanId, lastPayment(loan.getPaymentHistory())));
+        } finally {
+            lock.unlock();
         }
+        awaitDurable(sequence);
+        events.publish(FinanceEvent.loanPayment(loan, amount));
+        return true;
+    }
+
+    public boolean collectLending(String lendingId, long amount) {
+        LoanPaymentEvent event = new LoanPaymentEvent();
+        event.begin();
+        boolean collected = applyLendingCollection(lendingId, amount);
+        event.commit(LoanPaymentEvent.LENDING, lendingId, amount, collected);
+        return collected;
     }
 
-    public boolean collectLending(String lendingId, double amount) {
+    private boolean applyLendingCollection(String lendingId, long amount) {
         Optional<Lending> lendingOpt = findLendingById(lendingId);
-        if (lendingOpt.isPresent()) {
-            Lending lending = lendingOpt.get();
+        if (lendingOpt.isEmpty()) {
+            events.publish(FinanceEvent.rejected("Khong tim thay khoan cho vay!"));
+            return false;
+        }
+        Lending lending = lendingOpt.get();
 
-            if (amount <= 0) {
-                System.out.println("So tien thu no phai lon hon 0!");
-                return false;
-            }
+        if (amount <= 0) {
+            ValidationFailureEvent.emit("collectLending", "So tien thu no phai lon hon 0");
+            events.publish(FinanceEvent.rejected("So tien thu no phai lon hon 0!"));
+            return false;
+        }
 
+        long sequence;
+        lock.lock();
+        try {
             if (amount > lending.getRemainingAmount()) {
-                System.out.println("So tien thu no vuot qua so tien con lai!");
+                ValidationFailureEvent.emit("collectLending", "So tien thu no vuot qua so tien con lai");
+                events.publish(FinanceEvent.rejected("So tien thu no vuot qua so tien con lai!"));
                 return false;
             }
 
             if (lending.getStatus().equals("PAID")) {
-                System.out.println("Khoan cho vay da duoc thu het!");
+                events.publish(FinanceEvent.rejected("Khoan cho vay da duoc thu het!"));
                 return false;
             }
 
             lending.addRepayment(amount);
-            System.out.printf("Thu no thanh cong! So tien con lai: %.2f VND\n", lending.getRemainingAmount());
-            return true;
-        } else {
-            System.out.println("Khong tim thay khoan cho vay!");
-            return false;
+            totalLendingRemaining -= amount;
+            sequence = journal(JournalRecord.lendingRepayment(lendingId,
+                    lastPayment(lending.getRepaymentHistory())));
+        } finally {
+            lock.unlock();
         }
+        awaitDurable(sequence);
+        events.publish(FinanceEvent.lendingRepayment(lending, amount));
+        return true;
     }
 
 }
\ No newline at end of file
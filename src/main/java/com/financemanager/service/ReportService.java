@@ -1,13 +1,20 @@
 package com.financemanager.service;
 
+import com.financemanager.jfr.ReportEvent;
 import com.financemanager.model.*;
+import com.financemanager.util.Constants;
 import com.financemanager.util.DateUtils;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
 
+// Moi bao cao dung trong mot RenderBuffer va ghi ra man hinh (hoac sink duoc truyen vao) mot lan.
+// Moi lan dung bao cao ghi mot ReportEvent (JFR) voi so dong du lieu da duyet
 public class ReportService {
     private AccountService accountService;
     private TransactionService transactionService;
@@ -22,209 +29,396 @@ public class ReportService {
 
     // Báo cáo tổng quan tài chính
     public void generateFinancialOverview() {
-        System.out.println("\nBAO CAO TONG QUAN TAI CHINH");
-        System.out.println("=========================================");
-
-        double totalBalance = accountService.getTotalBalance();
-        double totalIncome = transactionService.getTotalIncome();
-        double totalExpense = transactionService.getTotalExpense();
-        double netCashFlow = totalIncome - totalExpense;
-        double totalLoans = loanService.getTotalLoanAmount();
-        double totalLendings = loanService.getTotalLendingAmount();
-        double netWorth = totalBalance + totalLendings - totalLoans;
-
-        System.out.printf("TONG TAI SAN: %,.2f VND\n", totalBalance);
-        System.out.printf("TONG THU NHAP: %,.2f VND\n", totalIncome);
-        System.out.printf("TONG CHI TIEU: %,.2f VND\n", totalExpense);
-        System.out.printf("LUONG TIEN MAT RONG: %,.2f VND\n", netCashFlow);
-        System.out.printf("TONG NO PHAI TRA: %,.2f VND\n", totalLoans);
-        System.out.printf("TONG NO PHAI THU: %,.2f VND\n", totalLendings);
-        System.out.printf("GIA TRI TAI SAN RONG: %,.2f VND\n", netWorth);
-
-        // Phân tích tỷ lệ
-        if (totalIncome > 0) {
-    double expenseRatio = (totalExpense / totalIncome) * 100.0;
-    double savingsRatio = 100.0 - expenseRatio;
-    System.out.printf("TY LE CHI TIEU/THU NHAP: %.1f%%%n", expenseRatio);
-    System.out.printf("TY LE TIET KIEM: %.1f%%%n", savingsRatio);
-} else {
-    System.out.println("TY LE CHI TIEU/THU NHAP: N/A (khong co du lieu thu nhap)");
-    System.out.println("TY LE TIET KIEM: N/A (khong co du lieu thu nhap)");
+        generateFinancialOverview(RenderSink.console());
+    }
+
+    // Cac bao cao deu co ban nhan sink (vd. tra ve qua HTTP) ben canh ban in ra man hinh
+    public void generateFinancialOverview(RenderSink sink) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long rows = 0;
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            out.newline().line("BAO CAO TONG QUAN TAI CHINH");
+            out.line("=========================================");
+
+            long totalBalance = accountService.getTotalBalance();
+            long totalIncome = transactionService.getTotalIncome();
+            long totalExpense = transactionService.getTotalExpense();
+            long netCashFlow = totalIncome - totalExpense;
+            long totalLoans = loanService.getTotalLoanAmount();
+            long totalLendings = loanService.getTotalLendingAmount();
+            long netWorth = totalBalance + totalLendings - totalLoans;
+
+            amountLine(out, "TONG TAI SAN: ", totalBalance);
+            amountLine(out, "TONG THU NHAP: ", totalIncome);
+            amountLine(out, "TONG CHI TIEU: ", totalExpense);
+            amountLine(out, "LUONG TIEN MAT RONG: ", netCashFlow);
+            amountLine(out, "TONG NO PHAI TRA: ", totalLoans);
+            amountLine(out, "TONG NO PHAI THU: ", totalLendings);
+            amountLine(out, "GIA TRI TAI SAN RONG: ", netWorth);
+
+            // Phân tích tỷ lệ
+            if (totalIncome > 0) {
+                double expenseRatio = ((double) totalExpense / totalIncome) * 100.0;
+                double savingsRatio = 100.0 - expenseRatio;
+                out.append("TY LE CHI TIEU/THU NHAP: ").append(percent(expenseRatio)).line("%");
+                out.append("TY LE TIET KIEM: ").append(percent(savingsRatio)).line("%");
+            } else {
+                out.line("TY LE CHI TIEU/THU NHAP: N/A (khong co du lieu thu nhap)");
+                out.line("TY LE TIET KIEM: N/A (khong co du lieu thu nhap)");
+            }
+
+            if (Boolean.getBoolean(Constants.VERIFY_TOTALS_PROPERTY)) {
+                verifyRunningTotals(out);
+                // Tinh lai tu dau duyet toan bo so cai
+                rows = transactionService.getTransactionStore().size();
+            }
+        }
+        event.commit("overview", null, rows);
+    }
+
+    // Kiem tra cac tong dang chay bang cach tinh lai tu dau (dung khi debug)
+    public boolean verifyRunningTotals() {
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            return verifyRunningTotals(out);
+        }
+    }
+
+    private boolean verifyRunningTotals(RenderBuffer out) {
+        boolean consistent = true;
+        consistent &= checkTotal(out, "Tong so du", accountService.getTotalBalance(),
+                accountService.recomputeTotalBalance());
+        consistent &= checkTotal(out, "Tong thu nhap", transactionService.getTotalIncome(),
+                transactionService.recomputeTotal(TransactionType.INCOME));
+        consistent &= checkTotal(out, "Tong chi tieu", transactionService.getTotalExpense(),
+                transactionService.recomputeTotal(TransactionType.EXPENSE));
+        // Moi but toan chuyen khoan gom hai ve trai dau nen tong tren ca so cai bang 0
+        consistent &= checkTotal(out, "Tong chuyen khoan", 0,
+                transactionService.recomputeTotal(TransactionType.TRANSFER));
+        consistent &= checkTotal(out, "Tong no phai tra", loanService.getTotalLoanAmount(),
+                loanService.recomputeTotalLoanAmount());
+        consistent &= checkTotal(out, "Tong no phai thu", loanService.getTotalLendingAmount(),
+                loanService.recomputeTotalLendingAmount());
+        if (consistent) {
+            out.line("Kiem tra tong: khop voi tinh lai tu dau.");
+        }
+        return consistent;
+    }
+
+    // Tong tren so nguyen la chinh xac, nen phai bang nhau tuyet doi
+    private boolean checkTotal(RenderBuffer out, String name, long running, long recomputed) {
+        if (running == recomputed) {
+            return true;
+        }
+        out.append("Kiem tra tong: ").append(name).append(" lech! Dang chay: ").money(running)
+                .append(" | Tinh lai: ").money(recomputed).newline();
+        return false;
+    }
+
+    // "<nhan><so tien> VND"
+    private static void amountLine(RenderBuffer out, String label, long amount) {
+        out.append(label).money(amount).line(" VND");
+    }
+
+    // %.1f - chi dung cho vai dong ty le trong moi bao cao
+    private static String percent(double value) {
+        return String.format("%.1f", value);
     }
-}
 
     // Báo cáo thu nhập và chi tiêu theo khoảng thời gian
     public void generateIncomeExpenseReport(LocalDate startDate, LocalDate endDate) {
-        System.out.println("\nBAO CAO THU CHI (" + startDate + " - " + endDate + ")");
-        System.out.println("=========================================");
+        generateIncomeExpenseReport(startDate, endDate, RenderSink.console());
+    }
+
+    public void generateIncomeExpenseReport(LocalDate startDate, LocalDate endDate, RenderSink sink) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long rows;
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            rows = renderIncomeExpenseReport(out, startDate, endDate);
+        }
+        event.commit("incomeExpense", null, rows);
+    }
 
-        List<Transaction> transactions = transactionService.getAllTransactions().stream()
-                .filter(tx -> !tx.getDate().toLocalDate().isBefore(startDate) &&
-                        !tx.getDate().toLocalDate().isAfter(endDate))
-                .collect(Collectors.toList());
+    // Tra ve so giao dich da duyet (chi o cac ngay le, thang tron doc tu rollups)
+    private long renderIncomeExpenseReport(RenderBuffer out, LocalDate startDate, LocalDate endDate) {
+        out.newline().append("BAO CAO THU CHI (").append(startDate.toString()).append(" - ")
+                .append(endDate.toString()).line(")");
+        out.line("=========================================");
 
-        double periodIncome = transactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.INCOME)
-                .mapToDouble(Transaction::getAmount)
+        long[] scanned = new long[1];
+        Map<String, Long> incomeByCategory = categorySums(TransactionType.INCOME, startDate, endDate, scanned);
+        Map<String, Long> expenseByCategory = categorySums(TransactionType.EXPENSE, startDate, endDate, scanned);
+
+        long periodIncome = incomeByCategory.values().stream()
+                .mapToLong(Long::longValue)
                 .sum();
 
-        double periodExpense = transactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.EXPENSE)
-                .mapToDouble(Transaction::getAmount)
+        long periodExpense = expenseByCategory.values().stream()
+                .mapToLong(Long::longValue)
                 .sum();
 
-        System.out.printf("THU NHAP TRONG KY: %,.2f VND\n", periodIncome);
-        System.out.printf("CHI TIEU TRONG KY: %,.2f VND\n", periodExpense);
-        System.out.printf("CHENH LECH: %,.2f VND\n", periodIncome - periodExpense);
+        amountLine(out, "THU NHAP TRONG KY: ", periodIncome);
+        amountLine(out, "CHI TIEU TRONG KY: ", periodExpense);
+        amountLine(out, "CHENH LECH: ", periodIncome - periodExpense);
 
         // Phân tích theo danh mục
-        System.out.println("\nPHAN TICH THEO DANH MUC:");
-        Map<String, Double> expenseByCategory = transactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        tx -> tx.getCategory().getName(),
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
-
+        out.newline().line("PHAN TICH THEO DANH MUC:");
         expenseByCategory.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
                 .forEach(entry -> {
-                    double percentage = (entry.getValue() / periodExpense) * 100;
-                    System.out.printf("  ▸ %-15s: %,.2f VND (%.1f%%)\n",
-                            entry.getKey(), entry.getValue(), percentage);
+                    double percentage = ((double) entry.getValue() / periodExpense) * 100;
+                    out.append("  ▸ ").pad(entry.getKey(), 15).append(": ").money(entry.getValue())
+                            .append(" VND (").append(percent(percentage)).line("%)");
                 });
+        return scanned[0];
     }
 
-    // Báo cáo theo tài khoản
-    public void generateAccountReport(String accountId) {
-        Optional<Account> accountOpt = accountService.findAccountById(accountId);
-        if (accountOpt.isEmpty()) {
-            System.out.println("Khong tim thay tai khoan!");
-            return;
+    // Tong theo danh muc trong [startDate, endDate]: cac thang tron doc tu rollups,
+    // chi nhung ngay le o hai dau moi duyet giao dich qua chi muc thoi gian
+    private Map<String, Long> categorySums(TransactionType type, LocalDate startDate, LocalDate endDate,
+                                           long[] scanned) {
+        YearMonth firstFullMonth = startDate.getDayOfMonth() == 1
+                ? YearMonth.from(startDate) : YearMonth.from(startDate).plusMonths(1);
+        YearMonth lastFullMonth = endDate.getDayOfMonth() == endDate.lengthOfMonth()
+                ? YearMonth.from(endDate) : YearMonth.from(endDate).minusMonths(1);
+
+        if (firstFullMonth.isAfter(lastFullMonth)) {
+            return sumTransactionsByCategory(type, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(),
+                    new HashMap<>(), scanned);
         }
 
-        Account account = accountOpt.get();
-        List<Transaction> accountTransactions = transactionService.getAllTransactions().stream()
-                .filter(tx -> tx.getAccountId().equals(accountId))
-                .collect(Collectors.toList());
+        Map<String, Long> sums = new HashMap<>(transactionService.getRollups()
+                .sumsByCategory(null, type, firstFullMonth, lastFullMonth));
+        sumTransactionsByCategory(type, startDate.atStartOfDay(), firstFullMonth.atDay(1).atStartOfDay(), sums,
+                scanned);
+        sumTransactionsByCategory(type, lastFullMonth.plusMonths(1).atDay(1).atStartOfDay(),
+                endDate.plusDays(1).atStartOfDay(), sums, scanned);
+        return sums;
+    }
 
-        System.out.println("\nBAO CAO TAI KHOAN: " + account.getAccountName());
-        System.out.println("=========================================");
+    // Cong don theo ordinal danh muc vao mang, chi doi sang ten khi gop vao ket qua.
+    // scanned[0] cong them so giao dich da duyet
+    private Map<String, Long> sumTransactionsByCategory(TransactionType type, LocalDateTime start,
+                                                          LocalDateTime end, Map<String, Long> sums,
+                                                          long[] scanned) {
+        CategoryRegistry categories = transactionService.getCategoryRegistry();
+        long[] byOrdinal = new long[categories.size()];
+        boolean[] seen = new boolean[categories.size()];
+        TransactionCursor cursor = transactionService.getTransactionStore().cursor(start, end);
+        long rows = 0;
+        while (cursor.next()) {
+            rows++;
+            if (cursor.getType() == type) {
+                int ordinal = cursor.getCategory().getOrdinal();
+                // Danh muc moi co the duoc them trong luc duyet
+                if (ordinal >= byOrdinal.length) {
+                    byOrdinal = Arrays.copyOf(byOrdinal, ordinal + 1);
+                    seen = Arrays.copyOf(seen, ordinal + 1);
+                }
+                byOrdinal[ordinal] += cursor.getAmount();
+                seen[ordinal] = true;
+            }
+        }
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            if (seen[ordinal]) {
+                sums.merge(categories.get(ordinal).getName(), byOrdinal[ordinal], Long::sum);
+            }
+        }
+        scanned[0] += rows;
+        return sums;
+    }
 
-        account.displayInfo();
+    // Báo cáo theo tài khoản
+    public void generateAccountReport(String accountId) {
+        generateAccountReport(accountId, RenderSink.console());
+    }
 
-        double accountIncome = accountTransactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.INCOME)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    public void generateAccountReport(String accountId, RenderSink sink) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long rows;
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            rows = renderAccountReport(out, accountId);
+        }
+        event.commit("account", accountId, rows);
+    }
 
-        double accountExpense = accountTransactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.EXPENSE)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // Tra ve so giao dich cua tai khoan da duyet
+    private long renderAccountReport(RenderBuffer out, String accountId) {
+        Optional<Account> accountOpt = accountService.findAccountById(accountId);
+        if (accountOpt.isEmpty()) {
+            out.line("Khong tim thay tai khoan!");
+            return 0;
+        }
 
-        System.out.printf("\nTONG THU: %,.2f VND\n", accountIncome);
-        System.out.printf("TONG CHI: %,.2f VND\n", accountExpense);
-        System.out.printf("SO GIAO DICH: %d\n", accountTransactions.size());
+        Account account = accountOpt.get();
+        List<Transaction> accountTransactions = transactionService.getTransactionsByAccount(accountId);
+
+        out.newline().append("BAO CAO TAI KHOAN: ").line(account.getAccountName());
+        out.line("=========================================");
+
+        account.render(out);
+
+        CategoryRollups rollups = transactionService.getRollups();
+        long accountIncome = rollups.total(accountId, TransactionType.INCOME, null, null);
+        long accountExpense = rollups.total(accountId, TransactionType.EXPENSE, null, null);
+
+        out.newline();
+        amountLine(out, "TONG THU: ", accountIncome);
+        amountLine(out, "TONG CHI: ", accountExpense);
+        out.append("SO GIAO DICH: ").append(accountTransactions.size()).newline();
+
+        // Top danh mục chi tiêu (đọc từ rollups)
+        List<CategoryRollups.Bucket> topExpenses = rollups.topCategories(
+                accountId, TransactionType.EXPENSE, null, null, 3);
+        if (!topExpenses.isEmpty()) {
+            out.newline().line("TOP DANH MUC CHI TIEU:");
+            topExpenses.forEach(bucket -> out.append("  ▸ ").pad(bucket.getCategory().getName(), 15)
+                    .append(": ").money(bucket.getSum()).append(" VND (").append(bucket.getCount())
+                    .line(" giao dich)"));
+        }
 
         // Top 5 giao dịch lớn nhất
-        System.out.println("\nTOP 5 GIAO DICH LON NHAT:");
+        out.newline().line("TOP 5 GIAO DICH LON NHAT:");
         accountTransactions.stream()
-                .sorted((t1, t2) -> Double.compare(t2.getAmount(), t1.getAmount()))
+                .sorted((t1, t2) -> Long.compare(Math.abs(t2.getAmount()), Math.abs(t1.getAmount())))
                 .limit(5)
                 .forEach(tx -> {
-                    String symbol = tx.getType() == TransactionType.INCOME ? "↑" : "↓";
-                    System.out.printf("  %s %-12s: %,.2f VND - %s\n",
-                            symbol, tx.getCategory().getName(),
-                            tx.getAmount(), tx.getDescription());
+                    String symbol = tx.getBalanceDelta() > 0 ? "↑" : "↓";
+                    out.append("  ").append(symbol).append(' ').pad(tx.getCategory().getName(), 12)
+                            .append(": ").money(tx.getAmount()).append(" VND - ").line(tx.getDescription());
                 });
+        return accountTransactions.size();
     }
 
     // Báo cáo khoản vay và cho vay
     public void generateLoanReport() {
-        System.out.println("\nBAO CAO VAY & CHO VAY");
-        System.out.println("=========================================");
-
-        // Khoản vay
-        List<Loan> loans = loanService.getAllLoans();
-        System.out.println("KHOAN VAY (" + loans.size() + " khoan):");
-        loans.forEach(loan -> {
-            String statusIcon = loan.isOverdue() ? "🔴" : "🟢";
-            System.out.printf("  %s %-20s: %,.2f / %,.2f VND (Con no: %,.2f)\n",
-                    statusIcon, loan.getLenderName(),
-                    loan.getPrincipalAmount() - loan.getRemainingAmount(),
-                    loan.getPrincipalAmount(), loan.getRemainingAmount());
-        });
-
-        // Khoản cho vay
-        List<Lending> lendings = loanService.getAllLendings();
-        System.out.println("\nKHOAN CHO VAY (" + lendings.size() + " khoan):");
-        lendings.forEach(lending -> {
-            String statusIcon = lending.isOverdue() ? "🔴" : "🟢";
-            System.out.printf("  %s %-20s: %,.2f / %,.2f VND (Con thu: %,.2f)\n",
-                    statusIcon, lending.getBorrowerName(),
-                    lending.getPrincipalAmount() - lending.getRemainingAmount(),
-                    lending.getPrincipalAmount(), lending.getRemainingAmount());
-        });
-
-        // Tổng hợp
-        double totalDebt = loanService.getTotalLoanAmount();
-        double totalReceivable = loanService.getTotalLendingAmount();
-        System.out.printf("\nTONG NO PHAI TRA: %,.2f VND\n", totalDebt);
-        System.out.printf("TONG NO PHAI THU: %,.2f VND\n", totalReceivable);
-        System.out.printf("CHENH LECH: %,.2f VND\n", totalReceivable - totalDebt);
+        generateLoanReport(RenderSink.console());
+    }
+
+    public void generateLoanReport(RenderSink sink) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long rows;
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            out.newline().line("BAO CAO VAY & CHO VAY");
+            out.line("=========================================");
+
+            // Khoản vay
+            List<Loan> loans = loanService.getAllLoans();
+            out.append("KHOAN VAY (").append(loans.size()).line(" khoan):");
+            loans.forEach(loan -> debtLine(out, loan.isOverdue(), loan.getLenderName(),
+                    loan.getPrincipalAmount(), loan.getRemainingAmount(), "Con no: "));
+
+            // Khoản cho vay
+            List<Lending> lendings = loanService.getAllLendings();
+            out.newline().append("KHOAN CHO VAY (").append(lendings.size()).line(" khoan):");
+            lendings.forEach(lending -> debtLine(out, lending.isOverdue(), lending.getBorrowerName(),
+                    lending.getPrincipalAmount(), lending.getRemainingAmount(), "Con thu: "));
+
+            // Tổng hợp
+            long totalDebt = loanService.getTotalLoanAmount();
+            long totalReceivable = loanService.getTotalLendingAmount();
+            out.newline();
+            amountLine(out, "TONG NO PHAI TRA: ", totalDebt);
+            amountLine(out, "TONG NO PHAI THU: ", totalReceivable);
+            amountLine(out, "CHENH LECH: ", totalReceivable - totalDebt);
+            rows = loans.size() + lendings.size();
+        }
+        event.commit("loan", null, rows);
+    }
+
+    // "  %s %-20s: %s / %s VND (Con no: %s)"
+    private static void debtLine(RenderBuffer out, boolean overdue, String name, long principal,
+                                 long remaining, String remainingLabel) {
+        String statusIcon = overdue ? "🔴" : "🟢";
+        out.append("  ").append(statusIcon).append(' ').pad(name, 20).append(": ")
+                .money(principal - remaining).append(" / ").money(principal)
+                .append(" VND (").append(remainingLabel).money(remaining).line(")");
     }
 
     // Báo cáo hàng tháng
     public void generateMonthlyReport(int year, int month) {
+        generateMonthlyReport(year, month, RenderSink.console());
+    }
+
+    public void generateMonthlyReport(int year, int month, RenderSink sink) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long rows;
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
 
-        System.out.println("\nBAO CAO THANG " + month + "/" + year);
-        System.out.println("=========================================");
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            out.newline().append("BAO CAO THANG ").append(month).append('/').append(year).newline();
+            out.line("=========================================");
 
-        generateIncomeExpenseReport(startDate, endDate);
+            rows = renderIncomeExpenseReport(out, startDate, endDate);
 
-        // Thống kê hàng ngày
-        System.out.println("\nBIEN DONG HANG NGAY:");
-        Map<LocalDate, Double> dailyBalance = new TreeMap<>();
+            // Số dư cuối mỗi ngày, tính từ dòng tiền theo ngày
+            out.newline().line("BIEN DONG HANG NGAY:");
+            rows += renderDailyBalances(out, null, startDate, endDate);
+        }
+        event.commit("monthly", null, rows);
+    }
 
-        // Tính toán số dư hàng ngày (đơn giản)
-        double runningBalance = accountService.getTotalBalance();
-        for (int day = startDate.lengthOfMonth(); day >= 1; day--) {
-            LocalDate currentDate = LocalDate.of(year, month, day);
-            dailyBalance.put(currentDate, runningBalance);
-            // Giả lập biến động (trong thực tế cần tính toán chính xác)
-            runningBalance -= 100000; // Giả định mỗi ngày giảm 100k
+    // Số dư cuối ngày trong [startDate, endDate]; accountId == null là tổng mọi tài khoản.
+    // Chỉ in ngày đầu và những ngày số dư thay đổi
+    public void displayDailyBalances(String accountId, LocalDate startDate, LocalDate endDate) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long rows;
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            rows = renderDailyBalances(out, accountId, startDate, endDate);
         }
+        event.commit("dailyBalances", accountId, rows);
+    }
 
-        dailyBalance.entrySet().stream()
-                .limit(10) // Hiển thị 10 ngày đầu
-                .forEach(entry -> {
-                    System.out.printf("  %s: %,.2f VND\n", entry.getKey(), entry.getValue());
-                });
+    // Tra ve so ngay da duyet
+    private long renderDailyBalances(RenderBuffer out, String accountId, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Long> dailyBalance = accountService.getDailyBalances(accountId, startDate, endDate);
+        Long previous = null;
+        for (Map.Entry<LocalDate, Long> entry : dailyBalance.entrySet()) {
+            long balance = entry.getValue();
+            if (previous == null || balance != previous) {
+                out.append("  ").append(entry.getKey().toString()).append(": ").money(balance).line(" VND");
+            }
+            previous = balance;
+        }
+        return dailyBalance.size();
     }
 
     // Xuất dữ liệu đơn giản (có thể mở rộng để xuất file)
     public void exportToCSV() {
-        System.out.println("\nXUAT DU LIEU (CSV Format):");
-        System.out.println("=========================================");
-
-        // Xuất danh sách tài khoản
-        System.out.println("TAI_KHOAN_ID,TEN,LOAI,SO_DU");
-        accountService.getAllAccounts().forEach(acc -> {
-            System.out.printf("%s,%s,%s,%.2f\n",
-                    acc.getAccountId(), acc.getAccountName(),
-                    acc.getAccountType(), acc.getBalance());
-        });
-
-        // Xuất danh sách giao dịch
-        System.out.println("\nGIAO_DICH_ID,TAI_KHOAN,LOAI,SOTIEN,DANHMUC,NGAY");
-        transactionService.getAllTransactions().forEach(tx -> {
-            System.out.printf("%s,%s,%s,%.2f,%s,%s\n",
-                    tx.getTransactionId(), tx.getAccountId(),
-                    tx.getType().name(), tx.getAmount(),
-                    tx.getCategory().getName(), tx.getFormattedDate());
-        });
+        exportToCSV(RenderSink.console());
+    }
+
+    // Xuat ra sink bat ky (vd. RenderSink.of(Files.newBufferedWriter(path)) de ghi file)
+    public void exportToCSV(RenderSink sink) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long rows;
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            out.newline().line("XUAT DU LIEU (CSV Format):");
+            out.line("=========================================");
+
+            // Xuất danh sách tài khoản
+            out.line("TAI_KHOAN_ID,TEN,LOAI,SO_DU");
+            List<Account> accounts = accountService.getAllAccounts();
+            accounts.forEach(acc -> out.append(acc.getAccountId()).append(',')
+                    .append(acc.getAccountName()).append(',').append(acc.getAccountType()).append(',')
+                    .moneyPlain(acc.getBalance()).newline());
+
+            // Xuất danh sách giao dịch
+            out.newline().line("GIAO_DICH_ID,TAI_KHOAN,LOAI,SOTIEN,DANHMUC,NGAY");
+            List<Transaction> transactions = transactionService.getAllTransactions();
+            transactions.forEach(tx -> out.append(tx.getTransactionId()).append(',')
+                    .append(tx.getAccountId()).append(',').append(tx.getType().name()).append(',')
+                    .moneyPlain(tx.getAmount()).append(',').append(tx.getCategory().getName()).append(',')
+                    .dateTime(tx.getDate()).newline());
+            rows = accounts.size() + transactions.size();
+        }
+        event.commit("csv", null, rows);
     }
 }
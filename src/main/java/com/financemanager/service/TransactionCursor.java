@@ -0,0 +1,34 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+
+import java.time.LocalDateTime;
+
+// Con tro dang flyweight: cung mot doi tuong tro lan luot vao tung dong.
+// Chi goi getter sau khi next() tra ve true; getType/getAmount/getEpochMillis khong cap phat
+public interface TransactionCursor {
+
+    boolean next();
+
+    TransactionType getType();
+
+    // So tien theo don vi nho (Money)
+    long getAmount();
+
+    long getEpochMillis();
+
+    LocalDateTime getDate();
+
+    String getTransactionId();
+
+    String getAccountId();
+
+    String getDescription();
+
+    Category getCategory();
+
+    // Tao doi tuong Transaction cho dong hien tai
+    Transaction toTransaction();
+}
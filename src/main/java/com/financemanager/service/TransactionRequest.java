@@ -0,0 +1,32 @@
+package com.financemanager.service;
+
+// Mot dong giao dich dua vao lo (vd. mot dong sao ke ngan hang).
+// Cung cac tham so nhu FinanceManager.addTransaction, kiem tra khi ca lo duoc ap dung
+public class TransactionRequest {
+    private final String accountId;
+    private final String type;          // INCOME hoac EXPENSE
+    private final double amount;
+    private final String description;
+    private final String categoryName;
+
+    public TransactionRequest(String accountId, String type, double amount,
+                              String description, String categoryName) {
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.description = description;
+        this.categoryName = categoryName;
+    }
+
+    public String getAccountId() { return accountId; }
+    public String getType() { return type; }
+    public double getAmount() { return amount; }
+    public String getDescription() { return description; }
+    public String getCategoryName() { return categoryName; }
+
+    @Override
+    public String toString() {
+        return String.format("TransactionRequest{account=%s, type=%s, amount=%s, category=%s}",
+                accountId, type, amount, categoryName);
+    }
+}
@@ -1,115 +1,657 @@
 package com.financemanager.service;
 
+import com.financemanager.event.EventPublisher;
+import com.financemanager.event.FinanceEvent;
 import com.financemanager.model.*;
 import com.financemanager.exception.AccountNotFoundException;
+import com.financemanager.exception.InsufficientBalanceException;
+import com.financemanager.jfr.TransactionCommitEvent;
+import com.financemanager.jfr.TransferEvent;
+import com.financemanager.jfr.ValidationFailureEvent;
+import com.financemanager.util.Ids;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
+import com.financemanager.util.Validator;
+import com.financemanager.persistence.JournalRecord;
+import com.financemanager.persistence.TransactionJournal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-
-public class TransactionService {
-    private List<Transaction> transactions;
-    private List<Category> categories;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Khong in ra man hinh khi thay doi du lieu: ket qua phat qua EventPublisher
+// (cac ham display/report van in truc tiep)
+public class TransactionService implements TransactionChangeListener {
+    // Danh muc cua cac ve chuyen khoan (tao khi co chuyen khoan dau tien)
+    private static final String TRANSFER_CATEGORY = "Chuyen khoan";
+    // Danh muc cua but toan nap tien va so du ban dau (tao khi can lan dau)
+    private static final String DEPOSIT_CATEGORY = "Nap tien";
+    private static final String OPENING_BALANCE_CATEGORY = "So du ban dau";
+    // So giao dich toi da trong mot ban ghi nhat ky cua lo (giu ban ghi duoi gioi han kich thuoc)
+    private static final int BATCH_RECORD_ROWS = 4096;
+
+    // Kho giao dich (tren heap hoac theo cot), co chi muc thoi gian va theo tai khoan
+    private TransactionStore transactions;
+    // Tong thu/chi cap nhat moi khi luu giao dich (giu khoa so cai), doc trong O(1) khong khoa
+    private volatile long totalIncome;
+    private volatile long totalExpense;
+    // Tong theo (tai khoan, danh muc, loai, thang) cho bao cao phan loai
+    private CategoryRollups rollups;
+    // Danh muc: tra cuu theo ten chuan hoa, ordinal cho loc/cong don
+    private CategoryRegistry categories;
     private AccountService accountService;
+    private TransactionJournal journal;
+    private EventPublisher events = new EventPublisher();
+    // So cai (kho, tong, rollups, danh muc) chi mot luong ghi tai mot thoi diem;
+    // luon lay sau khoa tai khoan, khong bao gio nguoc lai.
+    // ReentrantLock thay vi synchronized: luong ao cho khoa (hoac cho khoa doc/ghi cua kho ben trong)
+    // duoc nha carrier, khong bi ghim
+    private final ReentrantLock ledgerLock = new ReentrantLock();
+    // Dong dang duoc editTransaction sua; chi doc/ghi khi giu ledgerLock
+    private Transaction editing;
 
     public TransactionService(AccountService accountService) {
-        this.transactions = new ArrayList<>();
-        this.categories = new ArrayList<>();
+        this(accountService, new HeapTransactionStore());
+    }
+
+    public TransactionService(AccountService accountService, TransactionStore transactionStore) {
+        this.transactions = transactionStore;
+        this.rollups = new CategoryRollups();
+        this.categories = new CategoryRegistry();
         this.accountService = accountService;
         initializeDefaultCategories();
     }
 
+    // Gan nhat ky de ghi lai moi thay doi (null = chi luu trong bo nho)
+    public void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    // Gan noi phat su kien (mac dinh khong co listener = chay headless)
+    public void setEventPublisher(EventPublisher events) {
+        this.events = events;
+    }
+
+    // Xep ban ghi vao nhat ky khi con giu khoa (thu tu nhat ky = thu tu so cai).
+    // Tra ve sequence de cho ben vung sau khi nha khoa; 0 neu khong co nhat ky
+    private long journal(JournalRecord record) {
+        return journal != null ? journal.enqueue(record) : 0;
+    }
+
+    // Ca lo vao nhat ky, sau do chi can mot lan cho ben vung
+    private long journalBatch(List<Transaction> applied) {
+        if (journal == null || applied.isEmpty()) {
+            return 0;
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        for (int from = 0; from < applied.size(); from += BATCH_RECORD_ROWS) {
+            int to = Math.min(applied.size(), from + BATCH_RECORD_ROWS);
+            records.add(JournalRecord.transactionBatch(applied.subList(from, to)));
+        }
+        return journal.enqueueBatch(records);
+    }
+
+    // Goi sau khi da nha moi khoa: fsync khong giu khoa so cai hay khoa tai khoan
+    private void awaitDurable(long sequence) {
+        if (journal != null && sequence > 0) {
+            journal.awaitDurable(sequence);
+        }
+    }
+
     private void initializeDefaultCategories() {
+        for (Category category : createDefaultCategories()) {
+            categories.register(category);
+        }
+    }
+
+    // Danh muc mac dinh (doi tuong moi moi lan goi), vd. de ghi snapshot khong qua service
+    public static List<Category> createDefaultCategories() {
+        List<Category> defaults = new ArrayList<>();
         // Income categories
-        categories.add(new Category("Luong", "Thu nhap tu luong", TransactionType.INCOME));
-        categories.add(new Category("Thuong", "Thuong", TransactionType.INCOME));
-        categories.add(new Category("Dau tu", "Thu nhap tu dau tu", TransactionType.INCOME));
+        defaults.add(new Category("Luong", "Thu nhap tu luong", TransactionType.INCOME));
+        defaults.add(new Category("Thuong", "Thuong", TransactionType.INCOME));
+        defaults.add(new Category("Dau tu", "Thu nhap tu dau tu", TransactionType.INCOME));
 
         // Expense categories
-        categories.add(new Category("An uong", "Chi phi an uong", TransactionType.EXPENSE));
-        categories.add(new Category("Di chuyen", "Chi phi di lai", TransactionType.EXPENSE));
-        categories.add(new Category("Giai tri", "Chi phi giai tri", TransactionType.EXPENSE));
-        categories.add(new Category("Mua sam", "Chi phi mua sam", TransactionType.EXPENSE));
+        defaults.add(new Category("An uong", "Chi phi an uong", TransactionType.EXPENSE));
+        defaults.add(new Category("Di chuyen", "Chi phi di lai", TransactionType.EXPENSE));
+        defaults.add(new Category("Giai tri", "Chi phi giai tri", TransactionType.EXPENSE));
+        defaults.add(new Category("Mua sam", "Chi phi mua sam", TransactionType.EXPENSE));
+        return defaults;
     }
 
-    public void addTransaction(String accountId, TransactionType type, double amount,
-                               String description, String categoryName) {
+    // Tra ve false neu giao dich bi tu choi (ly do phat qua su kien)
+    public boolean addTransaction(String accountId, TransactionType type, long amount,
+                                  String description, String categoryName) {
+        TransactionCommitEvent event = new TransactionCommitEvent();
+        event.begin();
+        boolean added = applyTransaction(accountId, type, amount, description, categoryName);
+        event.commit(accountId, type.name(), amount, 1, added ? 1 : 0);
+        return added;
+    }
 
+    private boolean applyTransaction(String accountId, TransactionType type, long amount,
+                                     String description, String categoryName) {
         Optional<Account> accountOpt = accountService.findAccountById(accountId);
         if (accountOpt.isEmpty()) {
-            System.out.println("Khong tim thay tai khoan!");
-            return;
+            events.publish(FinanceEvent.rejected("Khong tim thay tai khoan!"));
+            return false;
         }
 
-        Optional<Category> categoryOpt = categories.stream()
-                .filter(cat -> cat.getName().equalsIgnoreCase(categoryName))
-                .findFirst();
+        // Tra cuu theo ten da chuan hoa: "an uong", " An  Uong" va "Ăn uống" la cung mot danh muc
+        Optional<Category> categoryOpt = categories.findByName(categoryName);
 
         Category category;
         if (categoryOpt.isPresent()) {
             category = categoryOpt.get();
         } else {
-            // Create new category
-            category = new Category(categoryName, "Mo ta", type);
-            categories.add(category);
+            category = categories.resolve(categoryName, type);
+            events.publish(FinanceEvent.categoryCreated(category));
         }
 
         Transaction transaction = new Transaction(accountId, type, amount, description, category);
 
         if (transaction.isValid()) {
-            transactions.add(transaction);
-
             // Update account balance
             Account account = accountOpt.get();
-            if (type == TransactionType.EXPENSE) {
-                if (account.getBalance() < amount) {
-                    System.out.println(" So du khong du de thuc hien giao dich!");
-                    System.out.printf(" So du hien tai: %.2f VND\n", account.getBalance());
-                    System.out.printf(" So tien can chi: %.2f VND\n", amount);
-                    System.out.printf(" Con thieu: %.2f VND\n", amount - account.getBalance());
-                    return; // Dừng lại, không thực hiện giao dịch
+            // Kiem tra va tru so du, luu but toan va xep vao nhat ky trong cung mot lan giu khoa
+            // tai khoan: so du luon bang tong but toan, tai khoan da xoa khong nhan them dong nao
+            long[] sequence = new long[1];
+            try {
+                boolean applied = accountService.applyTransaction(account, amount, type, () -> {
+                    ledgerLock.lock();
+                    try {
+                        store(transaction);
+                        sequence[0] = journal(JournalRecord.transactionAdded(transaction));
+                    } finally {
+                        ledgerLock.unlock();
+                    }
+                });
+                if (!applied) {
+                    events.publish(FinanceEvent.insufficientBalance(account, amount, account.getBalance()));
+                    return false; // Dừng lại, không thực hiện giao dịch
                 }
+            } catch (AccountNotFoundException e) {
+                events.publish(FinanceEvent.rejected("Khong tim thay tai khoan!"));
+                return false;
             }
-            account.updateBalance(amount, type);
+            awaitDurable(sequence[0]);
 
-            System.out.println("Them giao dich thanh cong!");
-            transaction.displayInfo();
+            events.publish(FinanceEvent.transactionAdded(transaction));
+            return true;
+        }
+        ValidationFailureEvent.emit("addTransaction", "Giao dich khong hop le");
+        events.publish(FinanceEvent.rejected("Giao dich khong hop le!"));
+        return false;
+    }
+
+    // Them nhieu giao dich mot lan (vd. nhap sao ke), khong in tung giao dich.
+    // 1) kiem tra day du tung dong (nhu addTransaction: so tien sau khi lam tron > 0, co danh muc)
+    //    va tim tai khoan mot lan cho moi ID; 2) tim/tao danh muc cho moi ten truoc khi dong vao
+    //    so du nao; 3) moi tai khoan giu khoa mot lan: cap nhat so du theo dung thu tu dong, luu
+    //    cac dong thanh cong va xep chung vao nhat ky truoc khi nha khoa; 4) cho ben vung mot lan
+    //    cho ca lo sau khi nha moi khoa
+    public BatchResult addTransactions(List<TransactionRequest> requests) {
+        TransactionCommitEvent event = new TransactionCommitEvent();
+        event.begin();
+        int size = requests.size();
+        BatchResult result = new BatchResult(size);
+        TransactionType[] types = new TransactionType[size];
+        long[] amounts = new long[size];
+
+        // Cac dong hop le, gom theo tai khoan (giu thu tu xuat hien)
+        Map<String, List<Integer>> rowsByAccount = new LinkedHashMap<>();
+        Map<String, Account> accountsById = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            TransactionRequest request = requests.get(row);
+            Validator.ValidationResult validation = Validator.validateTransaction(request.getAccountId(),
+                    request.getType(), request.getAmount(), request.getDescription());
+            if (validation.isValid()) {
+                if (request.getCategoryName() == null || request.getCategoryName().trim().isEmpty()) {
+                    validation.addError("Danh muc khong duoc de trong");
+                } else if (!isPositiveMinor(request.getAmount())) {
+                    validation.addError("So tien khong hop le: sau khi lam tron phai lon hon 0");
+                }
+            }
+            if (!validation.isValid()) {
+                ValidationFailureEvent.emit("addTransactions", validation.getErrors());
+                result.set(row, BatchResult.Status.INVALID, null, String.join("; ", validation.getErrors()));
+                continue;
+            }
+            String accountId = request.getAccountId();
+            Account account = accountsById.get(accountId);
+            if (account == null && !accountsById.containsKey(accountId)) {
+                account = accountService.findAccountById(accountId).orElse(null);
+                accountsById.put(accountId, account);
+            }
+            if (account == null) {
+                result.set(row, BatchResult.Status.ACCOUNT_NOT_FOUND, null, "Khong tim thay tai khoan: " + accountId);
+                continue;
+            }
+            types[row] = TransactionType.valueOf(request.getType().toUpperCase());
+            amounts[row] = Money.of(request.getAmount());
+            rowsByAccount.computeIfAbsent(accountId, id -> new ArrayList<>()).add(row);
+        }
+
+        Category[] rowCategories = resolveBatchCategories(requests, types, rowsByAccount, result);
+
+        List<Transaction> stored = new ArrayList<>();
+        long sequence = 0;
+        for (Map.Entry<String, List<Integer>> entry : rowsByAccount.entrySet()) {
+            List<Integer> rows = entry.getValue();
+            long[] accountAmounts = new long[rows.size()];
+            TransactionType[] accountTypes = new TransactionType[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                accountAmounts[i] = amounts[rows.get(i)];
+                accountTypes[i] = types[rows.get(i)];
+            }
+            long[] accountSequence = new long[1];
+            try {
+                accountService.applyTransactions(accountsById.get(entry.getKey()), accountAmounts, accountTypes,
+                        applied -> {
+                            List<Transaction> accountStored = new ArrayList<>();
+                            ledgerLock.lock();
+                            try {
+                                for (int i = 0; i < rows.size(); i++) {
+                                    int row = rows.get(i);
+                                    if (!applied[i]) {
+                                        result.set(row, BatchResult.Status.INSUFFICIENT_BALANCE, null,
+                                                "So du khong du de chi " + Money.format(amounts[row]));
+                                        continue;
+                                    }
+                                    TransactionRequest request = requests.get(row);
+                                    Transaction transaction = new Transaction(request.getAccountId(), types[row],
+                                            amounts[row], request.getDescription(), rowCategories[row]);
+                                    store(transaction);
+                                    accountStored.add(transaction);
+                                    result.set(row, BatchResult.Status.APPLIED, transaction.getTransactionId(), null);
+                                }
+                                accountSequence[0] = journalBatch(accountStored);
+                            } finally {
+                                ledgerLock.unlock();
+                            }
+                            stored.addAll(accountStored);
+                        });
+            } catch (AccountNotFoundException e) {
+                for (int row : rows) {
+                    result.set(row, BatchResult.Status.ACCOUNT_NOT_FOUND, null,
+                            "Khong tim thay tai khoan: " + entry.getKey());
+                }
+            }
+            sequence = Math.max(sequence, accountSequence[0]);
+        }
+        awaitDurable(sequence);
+        long appliedAmount = 0;
+        for (Transaction transaction : stored) {
+            appliedAmount += transaction.getAmount();
+        }
+        event.commit(null, "BATCH", appliedAmount, size, stored.size());
+        return result;
+    }
+
+    // Money.of lam tron ve don vi nho nhat: 0.001 thanh 0, so qua lon thi nem ngoai le
+    private static boolean isPositiveMinor(double amount) {
+        try {
+            return Money.of(amount) > 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Tim danh muc cho moi dong hop le truoc khi dong vao so du. Ten chua co thi tao moi voi loai
+    // cua cac dong dung no; neu trong lo ten moi vua dung cho thu vua dung cho chi thi khong doan
+    // loai: cac dong do bi danh dau INVALID va bo khoi lo (tao danh muc truoc roi nhap lai)
+    private Category[] resolveBatchCategories(List<TransactionRequest> requests, TransactionType[] types,
+                                              Map<String, List<Integer>> rowsByAccount, BatchResult result) {
+        Category[] rowCategories = new Category[requests.size()];
+        Map<String, List<Integer>> newRowsByKey = new LinkedHashMap<>();
+        for (List<Integer> rows : rowsByAccount.values()) {
+            for (int row : rows) {
+                String name = requests.get(row).getCategoryName();
+                Optional<Category> existing = categories.findByName(name);
+                if (existing.isPresent()) {
+                    rowCategories[row] = existing.get();
+                } else {
+                    newRowsByKey.computeIfAbsent(CategoryRegistry.normalize(name), key -> new ArrayList<>()).add(row);
+                }
+            }
+        }
+
+        Set<Integer> conflicting = new HashSet<>();
+        for (List<Integer> rows : newRowsByKey.values()) {
+            TransactionType type = types[rows.get(0)];
+            boolean mixed = false;
+            for (int row : rows) {
+                mixed |= types[row] != type;
+            }
+            if (mixed) {
+                String message = "Danh muc moi '" + requests.get(rows.get(0)).getCategoryName()
+                        + "' duoc dung cho ca thu va chi trong cung lo";
+                ValidationFailureEvent.emit("addTransactions", message);
+                for (int row : rows) {
+                    result.set(row, BatchResult.Status.INVALID, null, message);
+                    conflicting.add(row);
+                }
+                continue;
+            }
+            Category created = categories.resolve(requests.get(rows.get(0)).getCategoryName(), type);
+            result.categoryCreated(created.getName());
+            for (int row : rows) {
+                rowCategories[row] = created;
+            }
+        }
+        if (!conflicting.isEmpty()) {
+            for (List<Integer> rows : rowsByAccount.values()) {
+                rows.removeAll(conflicting);
+            }
+            rowsByAccount.values().removeIf(List::isEmpty);
+        }
+        return rowCategories;
+    }
+
+    // Chuyen khoan noi bo ghi thanh but toan kep: ve tien ra (so am) o tai khoan nguon va
+    // ve tien vao (so duong) o tai khoan dich, chung mot ma chuyen khoan va thoi gian.
+    // Hai ve duoc luu va xep vao mot ban ghi nhat ky trong luc giu khoa ca hai tai khoan,
+    // nen so du luon bang tong cac but toan; cho ben vung sau khi nha khoa.
+    // Tra ve ma chuyen khoan, null neu so tien khong hop le (ly do phat qua su kien)
+    public String transferBetweenAccounts(String fromAccountId, String toAccountId, long amount)
+            throws AccountNotFoundException, InsufficientBalanceException {
+        if (amount <= 0) {
+            ValidationFailureEvent.emit("transfer", "So tien chuyen phai lon hon 0");
+            events.publish(FinanceEvent.rejected("So tien chuyen phai lon hon 0!"));
+            return null;
+        }
+        TransferEvent event = new TransferEvent();
+        event.begin();
+        String transferId = Ids.next("TRF_");
+        // Giu doi tuong tai khoan cho su kien, ke ca khi tai khoan bi xoa ngay sau chuyen khoan
+        Account from = accountService.findAccountById(fromAccountId).orElse(null);
+        Account to = accountService.findAccountById(toAccountId).orElse(null);
+        Transaction[] legs = new Transaction[2];
+        long[] sequence = new long[1];
+        try {
+            accountService.moveFunds(fromAccountId, toAccountId, amount, () -> {
+                LocalDateTime now = LocalDateTime.now();
+                ledgerLock.lock();
+                try {
+                    Category category = categories.resolve(TRANSFER_CATEGORY, TransactionType.TRANSFER);
+                    legs[0] = new Transaction(fromAccountId, -amount, transferId,
+                            "Chuyen den " + toAccountId, category, now);
+                    legs[1] = new Transaction(toAccountId, amount, transferId,
+                            "Nhan tu " + fromAccountId, category, now);
+                    store(legs[0]);
+                    store(legs[1]);
+                    sequence[0] = journal(JournalRecord.transfer(legs[0], legs[1]));
+                } finally {
+                    ledgerLock.unlock();
+                }
+            });
+        } finally {
+            event.commit(fromAccountId, toAccountId, amount, legs[0] != null ? transferId : null);
+        }
+        awaitDurable(sequence[0]);
+
+        events.publish(FinanceEvent.transferCompleted(from, to, amount, transferId));
+        return transferId;
+    }
+
+    // Nap tien thanh but toan DEPOSIT: luu va xep vao nhat ky ngay sau khi so du tang,
+    // van trong khoa tai khoan nhu ve chuyen khoan. Tra ve false neu bi tu choi (ly do phat qua su kien)
+    public boolean depositToAccount(String accountId, long amount) {
+        if (amount <= 0) {
+            ValidationFailureEvent.emit("deposit", "So tien them phai lon hon 0");
+            events.publish(FinanceEvent.rejected("So tien them phai lon hon 0!"));
+            return false;
+        }
+
+        // Nap tien ghi vao JFR nhu mot giao dich loai DEPOSIT
+        TransactionCommitEvent event = new TransactionCommitEvent();
+        event.begin();
+        Account account = accountService.findAccountById(accountId).orElse(null);
+        long[] sequence = new long[1];
+        long newBalance;
+        try {
+            newBalance = accountService.credit(accountId, amount, () -> {
+                ledgerLock.lock();
+                try {
+                    Transaction leg = new Transaction(accountId, TransactionType.DEPOSIT, amount, "Nap tien",
+                            categories.resolve(DEPOSIT_CATEGORY, TransactionType.DEPOSIT));
+                    store(leg);
+                    sequence[0] = journal(JournalRecord.transactionAdded(leg));
+                } finally {
+                    ledgerLock.unlock();
+                }
+            });
+        } catch (AccountNotFoundException e) {
+            event.commit(accountId, TransactionType.DEPOSIT.name(), amount, 1, 0);
+            events.publish(FinanceEvent.rejected("Khong tim thay tai khoan voi ID: " + accountId));
+            return false;
+        }
+        awaitDurable(sequence[0]);
+        event.commit(accountId, TransactionType.DEPOSIT.name(), amount, 1, 1);
+        events.publish(FinanceEvent.deposited(account, amount, newBalance));
+        return true;
+    }
+
+    // Sua loai, so tien, mo ta, danh muc cua mot giao dich thu/chi da ghi so.
+    // Phan chenh lech anh huong (moi - cu) vao so du tai khoan va vao dong tien ngay cua giao dich,
+    // ghi nhat ky TRANSACTION_EDITED, tat ca trong khoa cua tai khoan nhu khi them giao dich.
+    // Tra ve false neu bi tu choi (ly do phat qua su kien)
+    public boolean editTransaction(String accountId, String transactionId, TransactionType type, long amount,
+                                   String description, String categoryName) {
+        if ((type != TransactionType.INCOME && type != TransactionType.EXPENSE) || amount <= 0
+                || categoryName == null || categoryName.isBlank()) {
+            ValidationFailureEvent.emit("editTransaction", "Gia tri sua khong hop le");
+            events.publish(FinanceEvent.rejected("Gia tri sua khong hop le!"));
+            return false;
+        }
+        Account account = accountService.findAccountById(accountId).orElse(null);
+        Transaction transaction = account == null ? null : findPosted(accountId, transactionId);
+        if (transaction == null || (transaction.getType() != TransactionType.INCOME
+                && transaction.getType() != TransactionType.EXPENSE)) {
+            events.publish(FinanceEvent.rejected("Khong tim thay giao dich thu/chi: " + transactionId));
+            return false;
+        }
+
+        Optional<Category> categoryOpt = categories.findByName(categoryName);
+        Category category;
+        if (categoryOpt.isPresent()) {
+            category = categoryOpt.get();
         } else {
-            System.out.println("Giao dich khong hop le!");
+            category = categories.resolve(categoryName, type);
+            events.publish(FinanceEvent.categoryCreated(category));
         }
+
+        long newDelta = type == TransactionType.EXPENSE ? -amount : amount;
+        // Doc lai dong trong khoa tai khoan: kho theo cot tra ve ban moi moi lan tim,
+        // ban tim o tren co the da cu neu co lan sua khac chen vao
+        Transaction[] row = {transaction};
+        long[] sequence = new long[1];
+        try {
+            boolean applied = accountService.applyEdit(account, () -> {
+                row[0] = findPosted(accountId, transactionId);
+                return newDelta - row[0].getBalanceDelta();
+            }, () -> {
+                ledgerLock.lock();
+                try {
+                    applyEdit(row[0], type, amount, description, category);
+                    sequence[0] = journal(JournalRecord.transactionEdited(row[0]));
+                } finally {
+                    ledgerLock.unlock();
+                }
+            });
+            if (!applied) {
+                events.publish(FinanceEvent.insufficientBalance(account,
+                        row[0].getBalanceDelta() - newDelta, account.getBalance()));
+                return false;
+            }
+        } catch (AccountNotFoundException e) {
+            events.publish(FinanceEvent.rejected("Khong tim thay tai khoan!"));
+            return false;
+        }
+        awaitDurable(sequence[0]);
+
+        events.publish(FinanceEvent.transactionEdited(row[0]));
+        return true;
     }
 
-    public void displayAllTransactions() {
-        if (transactions.isEmpty()) {
-            System.out.println("Khong co giao dich nao!");
-            return;
+    // Phat lai ban ghi TRANSACTION_EDITED: sua dong trong so cai, tra ve phan chenh lech so du
+    // de ben goi cong vao tai khoan (nhu restoreTransaction)
+    public long restoreTransactionEdit(String accountId, String transactionId, TransactionType type, long amount,
+                                       String description, Category category) {
+        Transaction transaction = findPosted(accountId, transactionId);
+        if (transaction == null) {
+            throw new IllegalStateException("Khong tim thay giao dich da sua: " + transactionId);
         }
+        ledgerLock.lock();
+        try {
+            return applyEdit(transaction, type, amount, description, category);
+        } finally {
+            ledgerLock.unlock();
+        }
+    }
 
-        System.out.println("\nLICH SU GIAO DICH (" + transactions.size() + " giao dich)");
-        System.out.println("=========================================");
+    // Goi khi giu ledgerLock. Cac setter bao ve onTransactionChanged (tong, rollups, kho theo cot);
+    // dong tien theo ngay cap nhat o day vi ngay cua giao dich khong doi
+    private long applyEdit(Transaction transaction, TransactionType type, long amount, String description,
+                           Category category) {
+        long oldDelta = transaction.getBalanceDelta();
+        editing = transaction;
+        try {
+            transaction.setType(type);
+            transaction.setAmount(amount);
+            transaction.setDescription(description);
+            transaction.setCategory(category);
+        } finally {
+            editing = null;
+        }
+        long change = transaction.getBalanceDelta() - oldDelta;
+        accountService.recordBalanceFlow(transaction.getAccountId(), transaction.getDate().toLocalDate(), change);
+        return change;
+    }
 
-        for (Transaction transaction : transactions) {
-            transaction.displayInfo();
-            System.out.println();
+    private Transaction findPosted(String accountId, String transactionId) {
+        for (Transaction transaction : transactions.byAccount(accountId, null, null)) {
+            if (transaction.getTransactionId().equals(transactionId)) {
+                return transaction;
+            }
         }
+        return null;
     }
 
-    public void displayTransactionsByAccount(String accountId) {
-        List<Transaction> accountTransactions = transactions.stream()
-                .filter(transaction -> transaction.getAccountId().equals(accountId))
-                .collect(Collectors.toList());
+    // So du luc mo tai khoan thanh but toan OPENING_BALANCE, de so du luon bang tong but toan.
+    // Khong ghi nhat ky rieng: ban ghi ACCOUNT_CREATED da co so du nay va phat lai se dung lai
+    // but toan (cung ID) qua restoreOpeningBalance
+    public void postOpeningBalance(String accountId, long openingBalance) {
+        storeOpeningBalance(accountId, openingBalance, LocalDateTime.now());
+    }
 
-        if (accountTransactions.isEmpty()) {
-            System.out.println("Khong co giao dich nao cho tai khoan nay!");
+    private void storeOpeningBalance(String accountId, long openingBalance, LocalDateTime date) {
+        if (openingBalance <= 0) {
             return;
         }
+        ledgerLock.lock();
+        try {
+            Category category = categories.resolve(OPENING_BALANCE_CATEGORY, TransactionType.OPENING_BALANCE);
+            store(new Transaction("OPEN_" + accountId, accountId, TransactionType.OPENING_BALANCE,
+                    openingBalance, "So du ban dau", category, date));
+        } finally {
+            ledgerLock.unlock();
+        }
+    }
+
+    // Hai ve cua mot chuyen khoan, theo thu tu [tien ra, tien vao]; rong neu khong tim thay.
+    // Tim ve cua accountId qua chi muc tai khoan, roi lay ve con lai qua chi muc thoi gian:
+    // hai ve cung thoi diem nen chi duyet cac but toan trong cung mili giay do
+    public List<Transaction> getTransferLegs(String accountId, String transferId) {
+        List<Transaction> legs = new ArrayList<>();
+        LocalDateTime date = null;
+        TransactionCursor cursor = transactions.cursor(accountId, null, null);
+        while (cursor.next()) {
+            if (cursor.getType() == TransactionType.TRANSFER
+                    && transferId.equals(cursor.toTransaction().getTransferId())) {
+                date = cursor.getDate();
+                break;
+            }
+        }
+        if (date == null) {
+            return legs;
+        }
+        LocalDateTime start = date.truncatedTo(ChronoUnit.MILLIS);
+        TransactionCursor sameTime = transactions.cursor(start, start.plus(1, ChronoUnit.MILLIS));
+        while (sameTime.next()) {
+            if (sameTime.getType() == TransactionType.TRANSFER) {
+                Transaction leg = sameTime.toTransaction();
+                if (transferId.equals(leg.getTransferId())) {
+                    legs.add(leg);
+                }
+            }
+        }
+        legs.sort((a, b) -> Long.compare(a.getAmount(), b.getAmount()));
+        return legs;
+    }
+
+    // Dong tien rong cua tai khoan tu so cai (so du ban dau, nap tien, thu, chi va chuyen khoan)
+    // den het thoi diem asOf (null = toan bo). Voi tai khoan mo tu ban nay, bang so du tai khoan
+    public long getLedgerNet(String accountId, LocalDateTime asOf) {
+        long net = 0;
+        TransactionCursor cursor = transactions.cursor(accountId, null, asOf);
+        while (cursor.next()) {
+            long amount = cursor.getAmount();
+            net += cursor.getType() == TransactionType.EXPENSE ? -amount : amount;
+        }
+        return net;
+    }
+
+    public void displayAllTransactions() {
+        displayAllTransactions(RenderSink.console());
+    }
+
+    // Ca danh sach dung trong mot bo dem va ghi ra sink mot lan (danh sach rat dai thi theo khoi)
+    public void displayAllTransactions(RenderSink sink) {
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            if (transactions.isEmpty()) {
+                out.line("Khong co giao dich nao!");
+                return;
+            }
+
+            out.newline().append("LICH SU GIAO DICH (").append(transactions.size()).line(" giao dich)");
+            out.line("=========================================");
+
+            for (Transaction transaction : transactions.all()) {
+                transaction.render(out);
+                out.newline();
+            }
+        }
+    }
 
-        System.out.println("\nGIAO DICH TAI KHOAN " + accountId);
-        System.out.println("=========================================");
+    public void displayTransactionsByAccount(String accountId) {
+        displayTransactionsByAccount(accountId, RenderSink.console());
+    }
 
-        for (Transaction transaction : accountTransactions) {
-            transaction.displayInfo();
-            System.out.println();
+    public void displayTransactionsByAccount(String accountId, RenderSink sink) {
+        List<Transaction> accountTransactions = getTransactionsByAccount(accountId);
+
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            if (accountTransactions.isEmpty()) {
+                out.line("Khong co giao dich nao cho tai khoan nay!");
+                return;
+            }
+
+            out.newline().append("GIAO DICH TAI KHOAN ").line(accountId);
+            out.line("=========================================");
+
+            for (Transaction transaction : accountTransactions) {
+                transaction.render(out);
+                out.newline();
+            }
         }
     }
 
@@ -118,23 +660,91 @@ public class TransactionService {
     }
 
     public List<Transaction> getTransactionsByCategory(String categoryName) {
-        return transactions.stream()
-                .filter(transaction -> transaction.getCategory().getName().equalsIgnoreCase(categoryName))
-                .collect(Collectors.toList());
+        List<Transaction> result = new ArrayList<>();
+        int ordinal = categories.ordinalOf(categoryName);
+        if (ordinal < 0) {
+            return result;
+        }
+        TransactionCursor cursor = transactions.cursor(null, null);
+        while (cursor.next()) {
+            if (cursor.getCategory().getOrdinal() == ordinal) {
+                result.add(cursor.toTransaction());
+            }
+        }
+        return result;
+    }
+
+    public long getTotalIncome() {
+        return totalIncome;
+    }
+
+    public long getTotalExpense() {
+        return totalExpense;
+    }
+
+    private void store(Transaction transaction) {
+        transactions.add(transaction, this);
+        addToTotals(transaction.getType(), transaction.getAmount());
+        categories.adopt(transaction.getCategory());
+        rollups.add(transaction);
+        recordBalanceFlow(transaction);
+    }
+
+    // Moi but toan (thu, chi, ve chuyen khoan) lam so du thay doi vao ngay cua no
+    private void recordBalanceFlow(Transaction transaction) {
+        accountService.recordBalanceFlow(transaction.getAccountId(), transaction.getDate().toLocalDate(),
+                transaction.getBalanceDelta());
+    }
+
+    private void addToTotals(TransactionType type, long amount) {
+        if (type == TransactionType.INCOME) {
+            totalIncome += amount;
+        } else if (type == TransactionType.EXPENSE) {
+            totalExpense += amount;
+        }
     }
 
-    public double getTotalIncome() {
-        return transactions.stream()
-                .filter(transaction -> transaction.getType() == TransactionType.INCOME)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // Chi editTransaction (dang giu ledgerLock) moi duoc sua giao dich da ghi so: lan sua qua setter
+    // tu noi khac se khong vao so du, dong tien theo ngay va nhat ky
+    @Override
+    public void beforeTransactionChange(Transaction transaction) {
+        if (!ledgerLock.isHeldByCurrentThread() || editing != transaction) {
+            throw new IllegalStateException("Giao dich da ghi so chi sua qua editTransaction: "
+                    + transaction.getTransactionId());
+        }
     }
 
-    public double getTotalExpense() {
-        return transactions.stream()
-                .filter(transaction -> transaction.getType() == TransactionType.EXPENSE)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // Giao dich bi sua qua setter (trong editTransaction): bo dong gop cu, them dong gop moi
+    @Override
+    public void onTransactionChanged(Transaction transaction, TransactionType oldType, long oldAmount,
+                                     Category oldCategory) {
+        ledgerLock.lock();
+        try {
+            addToTotals(oldType, -oldAmount);
+            addToTotals(transaction.getType(), transaction.getAmount());
+            rollups.remove(transaction.getAccountId(), oldCategory, oldType, transaction.getDate(), oldAmount);
+            categories.adopt(transaction.getCategory());
+            rollups.add(transaction);
+        } finally {
+            ledgerLock.unlock();
+        }
+    }
+
+    public CategoryRollups getRollups() {
+        return rollups;
+    }
+
+    // Tinh lai tu dau, dung de kiem tra tong dang chay.
+    // Duyet cot so tien va loai, khong tao doi tuong Transaction
+    public long recomputeTotal(TransactionType type) {
+        long total = 0;
+        TransactionCursor cursor = transactions.cursor(null, null);
+        while (cursor.next()) {
+            if (cursor.getType() == type) {
+                total += cursor.getAmount();
+            }
+        }
+        return total;
     }
 
     public void generateAccountReport(String accountId) {
@@ -142,50 +752,118 @@ public class TransactionService {
 
         if (accountOpt.isEmpty()) {
             // HIỂN THỊ ID NGAY CẢ KHI KHÔNG TÌM THẤY
-            String errorHeader = "=".repeat(80);
-            System.out.println(errorHeader);
-            System.out.println("TAI KHOAN ID: " + accountId + " - KHONG TIM THAY");
-            System.out.println(errorHeader);
-            System.out.println("Khong tim thay tai khoan voi ID: " + accountId);
-            System.out.println(errorHeader);
+            try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+                out.repeat('=', 80).newline();
+                out.append("TAI KHOAN ID: ").append(accountId).line(" - KHONG TIM THAY");
+                out.repeat('=', 80).newline();
+                out.append("Khong tim thay tai khoan voi ID: ").line(accountId);
+                out.repeat('=', 80).newline();
+            }
             return;
         }
 
-        Account account = accountOpt.get();
-        account.generateAccountReport(transactions);
+        printAccountReport(accountOpt.get());
     }
 
+    // Phan loai theo danh muc doc tu rollups; danh sach giao dich chi dung cho phan "gan day"
+    public void printAccountReport(Account account) {
+        String accountId = account.getAccountId();
+        account.generateAccountReport(getTransactionsByAccount(accountId),
+                rollups.sumsByCategory(accountId, TransactionType.INCOME, null, null),
+                rollups.sumsByCategory(accountId, TransactionType.EXPENSE, null, null));
+    }
+
+    // Cac bao cao tai khoan noi tiep trong cung bo dem, ghi ra man hinh mot lan
     public void displayAllAccountReports() {
         List<Account> accounts = accountService.getAllAccounts();
 
-        if (accounts.isEmpty()) {
-            System.out.println("Không có tài khoản nào trong hệ thống!");
-            return;
-        }
+        try (RenderBuffer out = RenderBuffer.open(RenderSink.console())) {
+            if (accounts.isEmpty()) {
+                out.line("Không có tài khoản nào trong hệ thống!");
+                return;
+            }
 
-        for (Account account : accounts) {
-            System.out.println("\n" + "=".repeat(80));
-            account.generateAccountReport(transactions);
-            System.out.println("=".repeat(80));
+            for (Account account : accounts) {
+                out.newline().repeat('=', 80).newline();
+                printAccountReport(account);
+                out.repeat('=', 80).newline();
+            }
         }
     }
 
-    // Thêm method để lấy transactions theo account
+    // Thêm method để lấy transactions theo account - O(so giao dich cua tai khoan)
     public List<Transaction> getTransactionsByAccount(String accountId) {
-        return transactions.stream()
-                .filter(transaction -> transaction.getAccountId().equals(accountId))
-                .collect(Collectors.toList());
+        return transactions.byAccount(accountId, null, null);
+    }
+
+    // Giao dich trong khoang [start, end), tang dan theo ngay - O(log n + k)
+    public List<Transaction> getTransactionsBetween(LocalDateTime start, LocalDateTime end) {
+        return transactions.range(start, end);
+    }
+
+    // Giao dich cua mot tai khoan trong khoang [start, end)
+    public List<Transaction> getTransactionsBetween(String accountId, LocalDateTime start, LocalDateTime end) {
+        return transactions.byAccount(accountId, start, end);
     }
 
     public List<Transaction> getAllTransactions() {
-        return new ArrayList<>(transactions);
+        return transactions.all();
+    }
+
+    // ===== Khoi phuc du lieu (khong in, khong ghi nhat ky) =====
+
+    // Thay danh muc mac dinh bang danh muc da luu trong snapshot
+    public void restoreCategories(List<Category> restoredCategories) {
+        categories.clear();
+        for (Category category : restoredCategories) {
+            categories.register(category);
+        }
+    }
+
+    // Tim danh muc theo ID, roi theo ten; neu khong co thi tao lai voi ID cu
+    public Category resolveCategory(String categoryId, String name, TransactionType type) {
+        Optional<Category> category = categories.findById(categoryId);
+        if (category.isEmpty()) {
+            category = categories.findByName(name);
+        }
+        return category.orElseGet(() -> categories.register(new Category(categoryId, name, "Mo ta", type)));
+    }
+
+    // Them giao dich da luu vao cac chi muc, so du tai khoan do ben goi xu ly
+    public void restoreTransaction(Transaction transaction) {
+        store(transaction);
+    }
+
+    // Dung lai but toan so du ban dau khi phat lai ban ghi tao tai khoan (so du da nam trong tai khoan)
+    public void restoreOpeningBalance(Account account, LocalDateTime date) {
+        storeOpeningBalance(account.getAccountId(), account.getBalance(), date);
+    }
+
+    // Ban ghi nap tien kieu cu (chi co tai khoan va so tien): tao but toan DEPOSIT tuong ung
+    // de phat lai nhu moi giao dich khac
+    public Transaction createDepositLeg(String accountId, long amount, LocalDateTime date) {
+        return new Transaction(Ids.next("TRX_"), accountId, TransactionType.DEPOSIT, amount, "Nap tien",
+                categories.resolve(DEPOSIT_CATEGORY, TransactionType.DEPOSIT), date);
     }
 
     public List<Category> getAllCategories() {
-        return new ArrayList<>(categories);
+        return categories.getAll();
     }
 
     public void addCategory(Category category) {
-        categories.add(category);
+        categories.register(category);
+    }
+
+    public CategoryRegistry getCategoryRegistry() {
+        return categories;
+    }
+
+    public TransactionStore getTransactionStore() {
+        return transactions;
+    }
+
+    // Giai phong kho giao dich (file map cua kho theo cot)
+    public void close() {
+        transactions.close();
     }
 }
\ No newline at end of file
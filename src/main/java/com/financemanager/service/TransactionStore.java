@@ -0,0 +1,41 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionChangeListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Noi luu giao dich cua TransactionService.
+// HeapTransactionStore giu doi tuong tren heap; ColumnarTransactionStore luu theo cot
+// trong file map vao bo nho. all() giu thu tu them vao (nhu danh sach truoc day);
+// cac truy van khoang va cursor tang dan theo ngay,
+// start hoac end bang null nghia la khong gioi han o dau do
+public interface TransactionStore extends AutoCloseable {
+
+    // changeListener nhan thong bao khi giao dich nay bi sua qua setter,
+    // ke ca qua cac ban lay ra tu kho sau nay
+    void add(Transaction transaction, TransactionChangeListener changeListener);
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Moi giao dich theo thu tu them vao
+    List<Transaction> all();
+
+    List<Transaction> range(LocalDateTime start, LocalDateTime end);
+
+    List<Transaction> byAccount(String accountId, LocalDateTime start, LocalDateTime end);
+
+    // Duyet khong tao doi tuong Transaction, dung cho cac phep tong hop
+    TransactionCursor cursor(LocalDateTime start, LocalDateTime end);
+
+    TransactionCursor cursor(String accountId, LocalDateTime start, LocalDateTime end);
+
+    @Override
+    default void close() {
+    }
+}
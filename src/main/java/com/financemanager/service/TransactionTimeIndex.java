@@ -0,0 +1,67 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Chi muc giao dich theo thoi gian (Transaction.getDate()).
+// Truy van khoang [start, end) nhay thang vao cua so can lay: O(log n + k).
+// Khong tu dong bo: ben so huu (HeapTransactionStore) giu khoa doc/ghi
+class TransactionTimeIndex {
+    private final NavigableMap<LocalDateTime, List<Transaction>> byDate;
+    private int size;
+
+    TransactionTimeIndex() {
+        this.byDate = new TreeMap<>();
+        this.size = 0;
+    }
+
+    void add(Transaction transaction) {
+        byDate.computeIfAbsent(transaction.getDate(), date -> new ArrayList<>(1))
+                .add(transaction);
+        size++;
+    }
+
+    // Giao dich trong khoang [start, end), sap xep tang dan theo ngay.
+    // start hoac end bang null nghia la khong gioi han o dau do
+    List<Transaction> range(LocalDateTime start, LocalDateTime end) {
+        return flatten(window(start, end).values());
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private NavigableMap<LocalDateTime, List<Transaction>> window(LocalDateTime start, LocalDateTime end) {
+        if (start != null && end != null) {
+            if (!start.isBefore(end)) {
+                return new TreeMap<>();
+            }
+            return byDate.subMap(start, true, end, false);
+        }
+        if (start != null) {
+            return byDate.tailMap(start, true);
+        }
+        if (end != null) {
+            return byDate.headMap(end, false);
+        }
+        return byDate;
+    }
+
+    private List<Transaction> flatten(Collection<List<Transaction>> buckets) {
+        List<Transaction> result = new ArrayList<>();
+        for (List<Transaction> bucket : buckets) {
+            result.addAll(bucket);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,465 @@
+package com.financemanager.storage;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionChangeListener;
+import com.financemanager.model.TransactionType;
+import com.financemanager.service.TransactionCursor;
+import com.financemanager.service.TransactionStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Kho giao dich theo cot trong cac file map vao bo nho (ngoai heap):
+// so tien va thoi gian la long, tai khoan va danh muc la ordinal int, loai la byte,
+// ma giao dich va mo ta nam trong StringHeap. Tren heap chi con tu dien tai khoan/danh muc
+// va danh sach dong theo tai khoan (4 byte moi dong).
+// Day la bo nho lam viec: snapshot + nhat ky van la nguon du lieu goc va duoc nap lai khi khoi dong.
+// Them dong va sua dong giu khoa ghi; tinh khung nhin (tu dien, danh sach dong) giu khoa doc.
+// Cac dong da nam trong khung nhin khong bao gio bi doi cho, nen con tro doc cot sau khi nha khoa.
+// Giao dich tra ve la ban dung tu cot: sua qua setter duoc ghi lai vao cot roi bao cho listener
+public class ColumnarTransactionStore implements TransactionStore {
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+
+    private final Path directory;
+    private final MappedColumn ids;           // vi tri trong StringHeap
+    private final MappedColumn accounts;      // ordinal tai khoan
+    private final MappedColumn types;         // ordinal TransactionType
+    private final MappedColumn amounts;       // so tien theo don vi nho (Money)
+    private final MappedColumn times;         // epoch millis (UTC)
+    private final MappedColumn categories;    // ordinal danh muc
+    private final MappedColumn descriptions;  // vi tri trong StringHeap
+    private final MappedColumn transfers;     // ma chuyen khoan trong StringHeap, -1 neu khong co
+    private final StringHeap strings;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Map va danh sach dong chi doc/ghi khi giu khoa; danh sach ID/danh muc doc ca ngoai khoa (con tro)
+    private final Map<String, Integer> accountOrdinals = new HashMap<>();
+    private final List<String> accountIds = new CopyOnWriteArrayList<>();
+    private final List<IntList> rowsByAccount = new ArrayList<>();
+    private final Map<String, Integer> categoryOrdinals = new HashMap<>();
+    private final List<Category> categoryList = new CopyOnWriteArrayList<>();
+    // Listener cua ben luu (TransactionService), gan lai o moi lan them
+    private volatile TransactionChangeListener changeListener;
+
+    private volatile int size;
+    // Giao dich thuong duoc them theo thu tu thoi gian: khi do thu tu dong chinh la thu tu ngay
+    private boolean timeOrdered = true;
+    private long lastTime = Long.MIN_VALUE;
+    // Chi dung khi !timeOrdered: thu tu theo thoi gian cua sortedRows.length dong dau,
+    // con dung duoc khi chua co dong moi. Chi gan duoi khoa ghi, mang da gan khong bi sua
+    private int[] sortedRows;
+
+    public ColumnarTransactionStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.ids = new MappedColumn(directory.resolve("tx-id.col"), 8);
+        this.accounts = new MappedColumn(directory.resolve("tx-account.col"), 4);
+        this.types = new MappedColumn(directory.resolve("tx-type.col"), 1);
+        this.amounts = new MappedColumn(directory.resolve("tx-amount.col"), 8);
+        this.times = new MappedColumn(directory.resolve("tx-time.col"), 8);
+        this.categories = new MappedColumn(directory.resolve("tx-category.col"), 4);
+        this.descriptions = new MappedColumn(directory.resolve("tx-description.col"), 8);
+        this.transfers = new MappedColumn(directory.resolve("tx-transfer.col"), 8);
+        this.strings = new StringHeap(directory.resolve("tx-strings.heap"));
+    }
+
+    @Override
+    public void add(Transaction transaction, TransactionChangeListener changeListener) {
+        int row;
+        lock.writeLock().lock();
+        try {
+            this.changeListener = changeListener;
+            row = size;
+            int accountOrdinal = accountOrdinal(transaction.getAccountId());
+            long time = toEpochMillis(transaction.getDate());
+
+            ids.putLong(row, strings.append(transaction.getTransactionId()));
+            accounts.putInt(row, accountOrdinal);
+            types.putByte(row, (byte) transaction.getType().ordinal());
+            amounts.putLong(row, transaction.getAmount());
+            times.putLong(row, time);
+            categories.putInt(row, categoryOrdinal(transaction.getCategory()));
+            descriptions.putLong(row, strings.append(transaction.getDescription()));
+            transfers.putLong(row, strings.append(transaction.getTransferId()));
+
+            rowsByAccount.get(accountOrdinal).add(row);
+            if (time < lastTime) {
+                timeOrdered = false;
+            }
+            lastTime = Math.max(lastTime, time);
+            size = row + 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Doi tuong cua ben goi cung sua qua cot, nhu moi ban dung lai sau nay
+        transaction.setChangeListener(new RowWriter(row));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Transaction> all() {
+        // Thu tu dong chinh la thu tu them vao
+        return new RowList(new View(null, 0, size));
+    }
+
+    @Override
+    public List<Transaction> range(LocalDateTime start, LocalDateTime end) {
+        return new RowList(globalView(start, end));
+    }
+
+    @Override
+    public List<Transaction> byAccount(String accountId, LocalDateTime start, LocalDateTime end) {
+        return new RowList(accountView(accountId, start, end));
+    }
+
+    @Override
+    public TransactionCursor cursor(LocalDateTime start, LocalDateTime end) {
+        return new ColumnCursor(globalView(start, end));
+    }
+
+    @Override
+    public TransactionCursor cursor(String accountId, LocalDateTime start, LocalDateTime end) {
+        return new ColumnCursor(accountView(accountId, start, end));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Dung luong da dung ngoai heap (byte), de so sanh voi kho tren heap
+    public long getMappedBytes() {
+        return (long) size * (8 + 4 + 1 + 8 + 8 + 4 + 8 + 8) + strings.sizeInBytes();
+    }
+
+    @Override
+    public void close() {
+        try {
+            for (Closeable file : new Closeable[]{ids, accounts, types, amounts, times,
+                    categories, descriptions, transfers, strings}) {
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Loi dong kho giao dich theo cot", e);
+        }
+    }
+
+    // ===== Doc cot =====
+
+    private Transaction materialize(int row) {
+        Transaction transaction = new Transaction(strings.get(ids.getLong(row)),
+                accountIds.get(accounts.getInt(row)), typeAt(row), amountAt(row),
+                strings.get(descriptions.getLong(row)), categoryList.get(categories.getInt(row)),
+                toDateTime(times.getLong(row)), strings.get(transfers.getLong(row)));
+        transaction.setChangeListener(new RowWriter(row));
+        return transaction;
+    }
+
+    // Ghi gia tri moi sau setter vao dong cua giao dich, roi bao cho TransactionService
+    // (tong, rollups) nhu voi doi tuong tren heap
+    private final class RowWriter implements TransactionChangeListener {
+        private final int row;
+
+        RowWriter(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public void beforeTransactionChange(Transaction transaction) {
+            TransactionChangeListener listener = changeListener;
+            if (listener != null) {
+                listener.beforeTransactionChange(transaction);
+            }
+        }
+
+        @Override
+        public void onTransactionChanged(Transaction transaction, TransactionType oldType, long oldAmount,
+                                         Category oldCategory) {
+            lock.writeLock().lock();
+            try {
+                types.putByte(row, (byte) transaction.getType().ordinal());
+                amounts.putLong(row, transaction.getAmount());
+                categories.putInt(row, categoryOrdinal(transaction.getCategory()));
+                String description = transaction.getDescription();
+                if (description == null ? descriptions.getLong(row) != StringHeap.NULL_OFFSET
+                        : !description.equals(strings.get(descriptions.getLong(row)))) {
+                    descriptions.putLong(row, strings.append(description));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            TransactionChangeListener listener = changeListener;
+            if (listener != null) {
+                listener.onTransactionChanged(transaction, oldType, oldAmount, oldCategory);
+            }
+        }
+    }
+
+    private TransactionType typeAt(int row) {
+        return TRANSACTION_TYPES[types.getByte(row)];
+    }
+
+    private long amountAt(int row) {
+        return amounts.getLong(row);
+    }
+
+    // ===== Khung nhin theo thoi gian =====
+
+    // Mot day dong: rows == null nghia la cac dong lien tiep [from, to)
+    private static final class View {
+        final int[] rows;
+        final int from;
+        final int to;
+
+        View(int[] rows, int from, int to) {
+            this.rows = rows;
+            this.from = from;
+            this.to = Math.max(from, to);
+        }
+
+        int size() {
+            return to - from;
+        }
+
+        int rowAt(int index) {
+            return rows == null ? from + index : rows[from + index];
+        }
+    }
+
+    // Thu tu sap xep con dung thi dung ngay duoi khoa doc. Neu phai sap xep lai thi lam duoi khoa ghi:
+    // chi mot luong sap xep, cac luong doc khac cho roi dung chung mang do
+    private View globalView(LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            int[] rows = sortedRows;
+            if (timeOrdered || (rows != null && rows.length == size)) {
+                return window(timeOrdered ? null : rows, 0, size, start, end);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            int count = size;
+            int[] rows = null;
+            if (!timeOrdered) {
+                rows = sortedRows;
+                if (rows == null || rows.length != count) {
+                    int[] all = new int[count];
+                    for (int i = 0; i < count; i++) {
+                        all[i] = i;
+                    }
+                    rows = sortByTime(all, count);
+                    sortedRows = rows;
+                }
+            }
+            return window(rows, 0, count, start, end);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private View accountView(String accountId, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = accountOrdinals.get(accountId);
+            if (ordinal == null) {
+                return new View(null, 0, 0);
+            }
+            IntList accountRows = rowsByAccount.get(ordinal);
+            int[] rows = accountRows.sorted;
+            if (timeOrdered) {
+                return window(accountRows.values, 0, accountRows.size, start, end);
+            }
+            if (rows != null && rows.length == accountRows.size) {
+                return window(rows, 0, rows.length, start, end);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            IntList accountRows = rowsByAccount.get(accountOrdinals.get(accountId));
+            int count = accountRows.size;
+            int[] rows = accountRows.values;
+            if (!timeOrdered) {
+                rows = accountRows.sorted;
+                if (rows == null || rows.length != count) {
+                    rows = sortByTime(accountRows.values, count);
+                    accountRows.sorted = rows;
+                }
+            }
+            return window(rows, 0, count, start, end);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Tim khoang [start, end) bang tim kiem nhi phan tren cot thoi gian
+    private View window(int[] rows, int from, int to, LocalDateTime start, LocalDateTime end) {
+        int low = start == null ? from : lowerBound(rows, from, to, toEpochMillis(start));
+        int high = end == null ? to : lowerBound(rows, from, to, toEpochMillis(end));
+        return new View(rows, low, high);
+    }
+
+    private int lowerBound(int[] rows, int from, int to, long millis) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long time = times.getLong(rows == null ? mid : rows[mid]);
+            if (time < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Merge sort on dinh theo cot thoi gian, khong boxing
+    private int[] sortByTime(int[] rows, int length) {
+        int[] source = Arrays.copyOf(rows, length);
+        int[] target = new int[length];
+        for (int width = 1; width < length; width *= 2) {
+            for (int low = 0; low < length; low += 2 * width) {
+                int mid = Math.min(low + width, length);
+                int high = Math.min(low + 2 * width, length);
+                int left = low;
+                int right = mid;
+                for (int k = low; k < high; k++) {
+                    if (left < mid && (right >= high
+                            || times.getLong(source[left]) <= times.getLong(source[right]))) {
+                        target[k] = source[left++];
+                    } else {
+                        target[k] = source[right++];
+                    }
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    // ===== Tu dien (goi khi giu khoa ghi) =====
+
+    private int accountOrdinal(String accountId) {
+        Integer ordinal = accountOrdinals.get(accountId);
+        if (ordinal == null) {
+            ordinal = accountIds.size();
+            accountOrdinals.put(accountId, ordinal);
+            accountIds.add(accountId);
+            rowsByAccount.add(new IntList());
+        }
+        return ordinal;
+    }
+
+    private int categoryOrdinal(Category category) {
+        Integer ordinal = categoryOrdinals.get(category.getCategoryId());
+        if (ordinal == null) {
+            ordinal = categoryList.size();
+            categoryOrdinals.put(category.getCategoryId(), ordinal);
+            categoryList.add(category);
+        }
+        return ordinal;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    // ===== Khung nhin tra ve cho ben goi =====
+
+    // Danh sach chi tao Transaction khi get(i) duoc goi
+    private final class RowList extends AbstractList<Transaction> implements RandomAccess {
+        private final View view;
+
+        RowList(View view) {
+            this.view = view;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= view.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + view.size());
+            }
+            return materialize(view.rowAt(index));
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+    }
+
+    private final class ColumnCursor implements TransactionCursor {
+        private final View view;
+        private int index = -1;
+        private int row;
+
+        ColumnCursor(View view) {
+            this.view = view;
+        }
+
+        @Override
+        public boolean next() {
+            if (index + 1 >= view.size()) {
+                return false;
+            }
+            row = view.rowAt(++index);
+            return true;
+        }
+
+        @Override public TransactionType getType() { return typeAt(row); }
+        @Override public long getAmount() { return amountAt(row); }
+        @Override public long getEpochMillis() { return times.getLong(row); }
+        @Override public LocalDateTime getDate() { return toDateTime(times.getLong(row)); }
+        @Override public String getTransactionId() { return strings.get(ids.getLong(row)); }
+        @Override public String getAccountId() { return accountIds.get(accounts.getInt(row)); }
+        @Override public String getDescription() { return strings.get(descriptions.getLong(row)); }
+        @Override public Category getCategory() { return categoryList.get(categories.getInt(row)); }
+        @Override public Transaction toTransaction() { return materialize(row); }
+    }
+
+    // Mang int tu gian, tranh boxing Integer cho danh sach dong theo tai khoan.
+    // Mang cu khong bi sua o phan da co, nen khung nhin giu mang cu van dung
+    private static final class IntList {
+        int[] values = new int[8];
+        int size;
+        // Thu tu theo thoi gian cua sorted.length dong dau (khi kho khong con theo thu tu),
+        // chi gan duoi khoa ghi cua kho
+        int[] sorted;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.financemanager.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Mot cot co do rong co dinh (1, 4 hoac 8 byte) trong file map vao bo nho.
+// File duoc map theo tung khoi ROWS_PER_CHUNK dong, them khoi moi khi cot dai ra,
+// nen khong bao gio phai map lai phan da co
+final class MappedColumn implements Closeable {
+    static final int CHUNK_SHIFT = 16;
+    static final int ROWS_PER_CHUNK = 1 << CHUNK_SHIFT;
+    private static final int ROW_MASK = ROWS_PER_CHUNK - 1;
+
+    private final FileChannel channel;
+    private final int width;
+    private final List<MappedByteBuffer> chunks;
+
+    MappedColumn(Path file, int width) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.width = width;
+        // Luong ghi snapshot doc cac dong cu trong khi luong chinh them khoi moi
+        this.chunks = new CopyOnWriteArrayList<>();
+    }
+
+    void putLong(int row, long value) {
+        writable(row).putLong(offset(row), value);
+    }
+
+    long getLong(int row) {
+        return chunks.get(row >>> CHUNK_SHIFT).getLong(offset(row));
+    }
+
+    void putInt(int row, int value) {
+        writable(row).putInt(offset(row), value);
+    }
+
+    int getInt(int row) {
+        return chunks.get(row >>> CHUNK_SHIFT).getInt(offset(row));
+    }
+
+    void putByte(int row, byte value) {
+        writable(row).put(offset(row), value);
+    }
+
+    byte getByte(int row) {
+        return chunks.get(row >>> CHUNK_SHIFT).get(offset(row));
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        channel.close();
+    }
+
+    private int offset(int row) {
+        return (row & ROW_MASK) * width;
+    }
+
+    // Map them khoi moi neu dong nam ngoai phan da map (file tu dai ra)
+    private MappedByteBuffer writable(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        while (chunks.size() <= chunk) {
+            long chunkBytes = (long) ROWS_PER_CHUNK * width;
+            try {
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, chunks.size() * chunkBytes, chunkBytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Khong the mo rong cot " + width + " byte", e);
+            }
+        }
+        return chunks.get(chunk);
+    }
+}
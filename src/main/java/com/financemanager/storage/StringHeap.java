@@ -0,0 +1,88 @@
+package com.financemanager.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Vung chuoi dung chung cho cac cot chuoi: moi chuoi la [int do dai][UTF-8].
+// Cot chi luu vi tri (long) cua chuoi trong vung nay; -1 nghia la null.
+// Mot chuoi khong bao gio nam vat qua hai khoi
+final class StringHeap implements Closeable {
+    static final long NULL_OFFSET = -1;
+    private static final int CHUNK_SHIFT = 22;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;   // 4 MB
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks;
+    private long end;
+
+    StringHeap(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        // Luong ghi snapshot doc cac dong cu trong khi luong chinh them khoi moi
+        this.chunks = new CopyOnWriteArrayList<>();
+        this.end = 0;
+    }
+
+    long append(String value) {
+        if (value == null) {
+            return NULL_OFFSET;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int entrySize = 4 + bytes.length;
+        if (entrySize > CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chuoi qua dai de luu: " + bytes.length + " byte");
+        }
+        int position = (int) (end & CHUNK_MASK);
+        if (position + entrySize > CHUNK_SIZE) {
+            end += CHUNK_SIZE - position;
+            position = 0;
+        }
+        long offset = end;
+        MappedByteBuffer chunk = writable((int) (offset >>> CHUNK_SHIFT));
+        chunk.putInt(position, bytes.length);
+        chunk.put(position + 4, bytes);
+        end += entrySize;
+        return offset;
+    }
+
+    String get(long offset) {
+        if (offset == NULL_OFFSET) {
+            return null;
+        }
+        MappedByteBuffer chunk = chunks.get((int) (offset >>> CHUNK_SHIFT));
+        int position = (int) (offset & CHUNK_MASK);
+        byte[] bytes = new byte[chunk.getInt(position)];
+        chunk.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long sizeInBytes() {
+        return end;
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        channel.close();
+    }
+
+    private MappedByteBuffer writable(int chunk) {
+        while (chunks.size() <= chunk) {
+            try {
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * CHUNK_SIZE, CHUNK_SIZE));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Khong the mo rong vung chuoi", e);
+            }
+        }
+        return chunks.get(chunk);
+    }
+}
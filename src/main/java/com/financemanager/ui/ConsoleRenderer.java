@@ -0,0 +1,106 @@
+package com.financemanager.ui;
+
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.event.FinanceEventListener;
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+
+import java.io.PrintStream;
+
+// In ket qua cac thay doi ra man hinh cho giao dien dong lenh (Main).
+// Noi dung giong het truoc khi cac service chuyen sang phat su kien
+public class ConsoleRenderer implements FinanceEventListener {
+    private final PrintStream out;
+
+    public ConsoleRenderer() {
+        this(System.out);
+    }
+
+    public ConsoleRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onEvent(FinanceEvent event) {
+        switch (event.getType()) {
+            case ACCOUNT_ADDED:
+                out.println("Them tai khoan thanh cong: " + ((Account) event.getSubject()).getAccountName());
+                break;
+            case ACCOUNT_DELETED:
+                out.println("Xoa tai khoan thanh cong!");
+                break;
+            case DEPOSITED:
+                renderDeposit((Account) event.getSubject(), event.getAmount(), event.getBalance());
+                break;
+            case CATEGORY_CREATED:
+                out.println("Tao danh muc moi: " + ((Category) event.getSubject()).getName());
+                break;
+            case TRANSACTION_ADDED:
+                out.println("Them giao dich thanh cong!");
+                ((Transaction) event.getSubject()).displayInfo();
+                break;
+            case TRANSACTION_EDITED:
+                out.println("Sua giao dich thanh cong!");
+                ((Transaction) event.getSubject()).displayInfo();
+                break;
+            case INSUFFICIENT_BALANCE:
+                out.println(" So du khong du de thuc hien giao dich!");
+                out.println(" So du hien tai: " + Money.format(event.getBalance()) + " VND");
+                out.println(" So tien can chi: " + Money.format(event.getAmount()) + " VND");
+                out.println(" Con thieu: " + Money.format(event.getAmount() - event.getBalance()) + " VND");
+                break;
+            case TRANSFER_COMPLETED:
+                out.println("Chuyen khoan thanh cong!");
+                out.printf("Tu: %s -> Den: %s\n", accountName((Account) event.getSubject()),
+                        accountName((Account) event.getRelated()));
+                out.println("So tien: " + Money.format(event.getAmount()) + " VND");
+                out.println("Ma chuyen khoan: " + event.getMessage());
+                break;
+            case LOAN_ADDED:
+                out.println("Them khoan vay thanh cong!");
+                ((Loan) event.getSubject()).displayInfo();
+                break;
+            case LENDING_ADDED:
+                out.println("Them khoan cho vay thanh cong!");
+                ((Lending) event.getSubject()).displayInfo();
+                break;
+            case LOAN_PAYMENT:
+                out.println("Da thanh toan: " + Money.format(event.getAmount()) + " VND. Con no: "
+                        + Money.format(event.getBalance()) + " VND");
+                out.println("Tra no thanh cong! So tien con lai: " + Money.format(event.getBalance()) + " VND");
+                break;
+            case LENDING_REPAYMENT:
+                out.println("Da nhan tra no: " + Money.format(event.getAmount()) + " VND. Con no: "
+                        + Money.format(event.getBalance()) + " VND");
+                out.println("Thu no thanh cong! So tien con lai: " + Money.format(event.getBalance()) + " VND");
+                break;
+            case VALIDATION_FAILED:
+                out.println("LOI XAC THUC:");
+                event.getErrors().forEach(error -> out.println("   • " + error));
+                break;
+            case REJECTED:
+            case DATA_RESTORED:
+                out.println(event.getMessage());
+                break;
+        }
+    }
+
+    private void renderDeposit(Account account, long amount, long newBalance) {
+        String currency = account.getCurrency();
+        out.println("Da them " + Money.formatWhole(amount) + " " + currency + " vao tai khoan");
+        out.println("So du cu: " + Money.formatWhole(newBalance - amount) + " " + currency);
+        out.println("So du moi: " + Money.formatWhole(newBalance) + " " + currency);
+        out.println("Them tien thanh cong!");
+        out.printf("Tai khoan: %s\n", account.getAccountName());
+        out.printf("So tien them: %s %s\n", Money.format(amount), currency);
+        out.printf("So du moi: %s %s\n", Money.format(newBalance), currency);
+    }
+
+    private static String accountName(Account account) {
+        return account != null ? account.getAccountName() : "?";
+    }
+}
@@ -13,6 +13,38 @@ public class Constants {
     public static final String TRANSACTIONS_FILE = "transactions.dat";
     public static final String LOANS_FILE = "loans.dat";
     public static final String CATEGORIES_FILE = "categories.dat";
+    public static final String BALANCE_FLOWS_FILE = "balance-flows.dat";
+    public static final String JOURNAL_SEGMENT_PREFIX = "journal-";
+    public static final String JOURNAL_SEGMENT_SUFFIX = ".log";
+    public static final String SNAPSHOT_DIRECTORY_PREFIX = "snapshot-";
+
+    // Chu ky chup snapshot nen (giay)
+    public static final int SNAPSHOT_INTERVAL_SECONDS = 300;
+
+    // Che do ben vung cua nhat ky: PER_WRITE, PER_BATCH, ASYNC
+    public static final String DURABILITY_PROPERTY = "financemanager.durability";
+
+    // Kho giao dich: "heap" (mac dinh) hoac "columnar" (file map vao bo nho)
+    public static final String STORE_PROPERTY = "financemanager.store";
+    public static final String STORE_COLUMNAR = "columnar";
+    public static final String COLUMNS_DIRECTORY = "columns";
+
+    // Dat true de bao cao tong quan kiem tra cac tong dang chay voi tinh lai tu dau
+    public static final String VERIFY_TOTALS_PROPERTY = "financemanager.verifyTotals";
+
+    // Cap nhat so du: "locked" (mac dinh, khoa theo tai khoan) hoac "lockfree" (chi CAS tren so du)
+    public static final String BALANCE_MODE_PROPERTY = "financemanager.balanceMode";
+    public static final String BALANCE_MODE_LOCK_FREE = "lockfree";
+
+    // Ma may (0..1022) ghi trong ID, khac nhau neu nhieu tien trinh cung sinh ID.
+    // 1023 danh rieng cho du lieu sinh lai (WorkloadGenerator)
+    public static final String NODE_ID_PROPERTY = "financemanager.nodeId";
+
+    // Dat "off" de tat do so lan / do tre cac thao tac (mac dinh bat)
+    public static final String METRICS_PROPERTY = "financemanager.metrics";
+    // Chu ky (giay) in bang chi so ra stderr; 0 = khong in
+    public static final String METRICS_DUMP_PROPERTY = "financemanager.metricsDumpSeconds";
+    public static final String METRICS_JMX_DOMAIN = "com.financemanager";
 
     // Account types
     public static final String ACCOUNT_TYPE_BANK = "BANK";
@@ -13,6 +13,11 @@ public class DateUtils {
             DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
     private static final DateTimeFormatter MONTH_YEAR_FORMATTER =
             DateTimeFormatter.ofPattern("MM/yyyy");
+    private static final DateTimeFormatter YEAR_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy");
+
+    // Do dai cua "dd/MM/yyyy HH:mm:ss" (nam 4 chu so)
+    public static final int DATE_TIME_LENGTH = 19;
 
     public static String formatDate(LocalDate date) {
         return date != null ? date.format(DATE_FORMATTER) : "N/A";
@@ -26,6 +31,47 @@ public class DateUtils {
         return date != null ? date.format(MONTH_YEAR_FORMATTER) : "N/A";
     }
 
+    // Ghi "dd/MM/yyyy" thang vao bo dem, khong qua DateTimeFormatter (dung khi in hang loat)
+    public static void appendDate(StringBuilder out, LocalDate date) {
+        if (date == null) {
+            out.append("N/A");
+            return;
+        }
+        appendTwoDigits(out, date.getDayOfMonth());
+        out.append('/');
+        appendTwoDigits(out, date.getMonthValue());
+        out.append('/');
+        appendYear(out, date.getYear());
+    }
+
+    // Ghi "dd/MM/yyyy HH:mm:ss" thang vao bo dem
+    public static void appendDateTime(StringBuilder out, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            out.append("N/A");
+            return;
+        }
+        appendDate(out, dateTime.toLocalDate());
+        out.append(' ');
+        appendTwoDigits(out, dateTime.getHour());
+        out.append(':');
+        appendTwoDigits(out, dateTime.getMinute());
+        out.append(':');
+        appendTwoDigits(out, dateTime.getSecond());
+    }
+
+    private static void appendTwoDigits(StringBuilder out, int value) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static void appendYear(StringBuilder out, int year) {
+        // Nam ngoai 1000..9999 hiem gap, de DateTimeFormatter xu ly dau va so chu so
+        if (year < 1000 || year > 9999) {
+            out.append(LocalDate.of(year, 1, 1).format(YEAR_FORMATTER));
+            return;
+        }
+        out.append(year);
+    }
+
     public static LocalDate parseDate(String dateString) {
         try {
             return LocalDate.parse(dateString, DATE_FORMATTER);
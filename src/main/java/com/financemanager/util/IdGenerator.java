@@ -0,0 +1,16 @@
+package com.financemanager.util;
+
+// Sinh ID cho cac doi tuong model. Cai dat mac dinh la SnowflakeIdGenerator,
+// co the thay qua Ids.setGenerator (vd. ID co dinh khi chay thu)
+public interface IdGenerator {
+
+    // ID 64 bit, tang dan theo thoi diem tao
+    long nextId();
+
+    // Dang chuoi ngan cua ID, sap xep theo chuoi cung thu tu voi so
+    String format(long id);
+
+    default String nextId(String prefix) {
+        return prefix + format(nextId());
+    }
+}
@@ -0,0 +1,22 @@
+package com.financemanager.util;
+
+// Diem truy cap chung cho viec sinh ID cua cac lop model
+public final class Ids {
+    private static volatile IdGenerator generator =
+            new SnowflakeIdGenerator(Long.getLong(Constants.NODE_ID_PROPERTY, 0L));
+
+    private Ids() {
+    }
+
+    public static String next(String prefix) {
+        return generator.nextId(prefix);
+    }
+
+    public static IdGenerator getGenerator() {
+        return generator;
+    }
+
+    public static void setGenerator(IdGenerator idGenerator) {
+        generator = idGenerator;
+    }
+}
@@ -0,0 +1,168 @@
+package com.financemanager.util;
+
+import com.financemanager.model.Money;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Bo dem dung noi dung hien thi truoc khi ghi ra RenderSink trong mot lan.
+// Thay cho printf tung dong: can le bang cach chen khoang trang truc tiep (khong dung
+// chuoi dinh dang "%-" + width + "s"), so tien va ngay ghi thang vao bo dem.
+// Moi luong dung lai mot StringBuilder rieng; bao cao rat lon duoc day ra sink theo
+// tung khoi FLUSH_THRESHOLD ky tu de bo nho khong tang theo so dong.
+// Cach dung: try (RenderBuffer out = RenderBuffer.open(sink)) { ... } - close() ghi phan con lai.
+// Mo long nhau voi cung sink (vd. displayInfo trong mot danh sach) thi noi tiep vao bo dem ngoai
+public final class RenderBuffer implements AutoCloseable {
+    static final int FLUSH_THRESHOLD = 1 << 16;
+    // Bo dem lon hon muc nay sau khi dung xong thi thu nho lai, khong giu mai theo luong
+    private static final int MAX_RETAINED = FLUSH_THRESHOLD * 2;
+
+    private static final ThreadLocal<RenderBuffer> CURRENT = ThreadLocal.withInitial(RenderBuffer::new);
+
+    private final StringBuilder text = new StringBuilder(1024);
+    private RenderSink sink;   // null = bo dem dang ranh
+    private int depth;         // so lan open chua close
+
+    private RenderBuffer() {
+    }
+
+    // Lay bo dem cua luong hien tai. Dang dung cho cung sink thi dung chung (giu thu tu noi dung);
+    // dang dung cho sink khac thi tao bo dem rieng
+    public static RenderBuffer open(RenderSink sink) {
+        Objects.requireNonNull(sink, "sink");
+        RenderBuffer buffer = CURRENT.get();
+        if (buffer.sink == sink) {
+            buffer.depth++;
+            return buffer;
+        }
+        if (buffer.sink != null) {
+            buffer = new RenderBuffer();
+        }
+        buffer.sink = sink;
+        buffer.depth = 1;
+        return buffer;
+    }
+
+    public RenderBuffer append(String value) {
+        text.append(value);
+        return this;
+    }
+
+    public RenderBuffer append(char value) {
+        text.append(value);
+        return this;
+    }
+
+    public RenderBuffer append(long value) {
+        text.append(value);
+        return this;
+    }
+
+    public RenderBuffer money(long minor) {
+        Money.appendTo(text, minor);
+        return this;
+    }
+
+    public RenderBuffer moneyPlain(long minor) {
+        Money.appendPlainTo(text, minor);
+        return this;
+    }
+
+    public RenderBuffer dateTime(LocalDateTime dateTime) {
+        DateUtils.appendDateTime(text, dateTime);
+        return this;
+    }
+
+    public RenderBuffer date(LocalDateTime dateTime) {
+        DateUtils.appendDate(text, dateTime != null ? dateTime.toLocalDate() : null);
+        return this;
+    }
+
+    public RenderBuffer repeat(char value, int count) {
+        for (int i = 0; i < count; i++) {
+            text.append(value);
+        }
+        return this;
+    }
+
+    // Vi tri hien tai, dung voi padTo/truncateTo de can le mot o gom nhieu phan
+    public int mark() {
+        return text.length();
+    }
+
+    // Chen khoang trang cho den khi tu mark co du width ky tu (nhu %-{width}s)
+    public RenderBuffer padTo(int mark, int width) {
+        return repeat(' ', width - (text.length() - mark));
+    }
+
+    // Cat phan tu mark con maxLength ky tu neu dai hon, thay doan cuoi bang "..."
+    public RenderBuffer truncateTo(int mark, int maxLength) {
+        if (text.length() - mark > maxLength) {
+            text.setLength(mark + maxLength - 3);
+            text.append("...");
+        }
+        return this;
+    }
+
+    // %-{width}s
+    public RenderBuffer pad(String value, int width) {
+        int start = mark();
+        text.append(value);
+        return padTo(start, width);
+    }
+
+    // Mot dong trong khung: "│ " + noi dung can trai width ky tu + " │"
+    public RenderBuffer boxRow(String label, String value, int width) {
+        text.append("│ ");
+        int start = mark();
+        text.append(label).append(value);
+        return padTo(start, width).line(" │");
+    }
+
+    // Duong ke khung: left + fill x (width + 2) + right
+    public RenderBuffer rule(char left, char fill, char right, int width) {
+        text.append(left);
+        repeat(fill, width + 2);
+        text.append(right);
+        return newline();
+    }
+
+    public RenderBuffer line(String value) {
+        text.append(value);
+        return newline();
+    }
+
+    // Ket thuc dong; day ra sink khi bo dem da lon (chi cat giua cac dong)
+    public RenderBuffer newline() {
+        text.append('\n');
+        if (text.length() >= FLUSH_THRESHOLD) {
+            drain();
+        }
+        return this;
+    }
+
+    private void drain() {
+        if (text.length() > 0) {
+            sink.write(text);
+            text.setLength(0);
+        }
+    }
+
+    // Lan close ngoai cung: ghi phan con lai trong mot lan, flush sink va tra bo dem cho luong
+    @Override
+    public void close() {
+        if (--depth > 0) {
+            return;
+        }
+        try {
+            drain();
+            sink.flush();
+        } finally {
+            sink = null;
+            text.setLength(0);
+            if (text.capacity() > MAX_RETAINED) {
+                text.trimToSize();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.financemanager.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Noi nhan noi dung da dung xong cua RenderBuffer: man hinh, file hoac socket.
+// Moi lan write la mot khoi lon (ca bao cao), khong phai tung dong
+public interface RenderSink {
+
+    void write(CharSequence text);
+
+    void flush();
+
+    // Man hinh: doc System.out luc ghi de System.setOut van co tac dung.
+    // Luon la cung mot doi tuong, nen cac lan mo bo dem long nhau ra man hinh dung chung bo dem
+    RenderSink CONSOLE = new RenderSink() {
+        @Override
+        public void write(CharSequence text) {
+            System.out.append(text);
+        }
+
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
+    };
+
+    static RenderSink console() {
+        return CONSOLE;
+    }
+
+    // Bo noi dung (vd. bao cao chay trong load test chi de do thoi gian)
+    RenderSink DISCARD = new RenderSink() {
+        @Override
+        public void write(CharSequence text) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+
+    static RenderSink discard() {
+        return DISCARD;
+    }
+
+    static RenderSink of(PrintStream out) {
+        return new RenderSink() {
+            @Override
+            public void write(CharSequence text) {
+                out.append(text);
+            }
+
+            @Override
+            public void flush() {
+                out.flush();
+            }
+        };
+    }
+
+    // File (vd. Files.newBufferedWriter). Ben goi tu dong writer
+    static RenderSink of(Writer writer) {
+        return new RenderSink() {
+            @Override
+            public void write(CharSequence text) {
+                try {
+                    writer.append(text);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void flush() {
+                try {
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    // Luong byte (vd. socket.getOutputStream()), ma hoa UTF-8 qua bo dem
+    static RenderSink of(OutputStream out) {
+        return of(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+    }
+}
@@ -0,0 +1,84 @@
+package com.financemanager.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ID 64 bit kieu Snowflake: [41 bit mili giay tu EPOCH][12 bit so thu tu][10 bit ma may].
+// "Nhip" = (mili giay << 12 | so thu tu) tang don dieu; het 4096 ID trong mot mili giay thi
+// muon sang mili giay ke tiep, dong ho chay lui cung khong sinh trung.
+// Moi ID mot lan CAS tren nhip chung, khong giu khoi rieng theo luong: luong ao (moi yeu cau
+// mot luong) chi lay dung so ID can dung, nhip khong chay vuot dong ho
+public class SnowflakeIdGenerator implements IdGenerator {
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    public static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+    // Ma may lon nhat danh cho du lieu sinh lai qua idAt (WorkloadGenerator), khong cau hinh duoc
+    public static final long RESERVED_NODE = MAX_NODE;
+
+    // Crockford base32 chu thuong (khong co i, l, o, u), 13 ky tu cho 64 bit
+    private static final char[] DIGITS = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+    private static final int FORMATTED_LENGTH = 13;
+
+    private final long node;
+    private final AtomicLong nextTick = new AtomicLong();   // nhip ke tiep chua cap
+
+    public SnowflakeIdGenerator(long node) {
+        if (node < 0 || node >= RESERVED_NODE) {
+            throw new IllegalArgumentException("Ma may phai trong khoang 0.." + (RESERVED_NODE - 1) + ": " + node);
+        }
+        this.node = node;
+    }
+
+    @Override
+    public long nextId() {
+        long nowTick = currentTick();
+        long tick = nextTick.updateAndGet(next -> Math.max(next, nowTick) + 1) - 1;
+        return (tick << NODE_BITS) | node;
+    }
+
+    @Override
+    public String format(long id) {
+        return formatId(id);
+    }
+
+    public static String formatId(long id) {
+        char[] chars = new char[FORMATTED_LENGTH];
+        encode(id, chars, 0);
+        return new String(chars);
+    }
+
+    @Override
+    public String nextId(String prefix) {
+        char[] chars = new char[prefix.length() + FORMATTED_LENGTH];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        encode(nextId(), chars, prefix.length());
+        return new String(chars);
+    }
+
+    // ID cho mot thoi diem cho truoc (vd. du lieu sinh lai voi ngay trong qua khu).
+    // Ben goi tu dam bao khong trung: so thu tu khac nhau trong cung mili giay va ma may rieng
+    public static long idAt(long epochMillis, int sequence, long node) {
+        long tick = ((epochMillis - EPOCH_MILLIS) << SEQUENCE_BITS) | (sequence & MAX_SEQUENCE);
+        return (tick << NODE_BITS) | (node & MAX_NODE);
+    }
+
+    // Thoi diem (epoch millis) ghi trong ID
+    public static long epochMillisOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    private static long currentTick() {
+        return (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+    }
+
+    // 5 bit moi ky tu tu bit cao xuong, do dai co dinh de so sanh chuoi dung thu tu
+    private static void encode(long id, char[] chars, int offset) {
+        for (int i = FORMATTED_LENGTH - 1; i >= 0; i--) {
+            chars[offset + i] = DIGITS[(int) (id & 31)];
+            id >>>= 5;
+        }
+    }
+}
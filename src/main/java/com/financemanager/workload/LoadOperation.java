@@ -0,0 +1,35 @@
+package com.financemanager.workload;
+
+// Cac loai thao tac trong mot lan chay tai, voi ten dung trong tham so "mix" va ti trong mac dinh
+public enum LoadOperation {
+    DEPOSIT("deposit", 20),
+    EXPENSE("expense", 40),
+    TRANSFER("transfer", 20),
+    LOAN_REPAYMENT("loan", 5),
+    REPORT("report", 15);
+
+    private final String key;
+    private final int defaultWeight;
+
+    LoadOperation(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    public static LoadOperation fromKey(String key) {
+        for (LoadOperation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key.trim()) || operation.name().equalsIgnoreCase(key.trim())) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Thao tac khong hop le: " + key);
+    }
+}
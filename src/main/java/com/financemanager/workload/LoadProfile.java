@@ -0,0 +1,187 @@
+package com.financemanager.workload;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Cau hinh mot lan chay tai: so luong ao, toc do, thoi gian, ti trong thao tac va du lieu mau.
+// Doc tu tham so dong lenh dang key=value, vd.
+//   threads=2000 rate=50000 duration=60 warmup=10 mix=deposit:20,expense:40,transfer:20,loan:5,report:15
+// Kho giao dich va che do so du chon qua system property nhu ung dung (financemanager.store,
+// financemanager.balanceMode, financemanager.durability)
+public class LoadProfile {
+    private int threads = 1000;
+    private double rate;                 // tong thao tac / giay, 0 = khong gioi han (vong kin)
+    private int durationSeconds = 30;
+    private int warmupSeconds = 5;
+    private final Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+    private int accounts = 1000;         // du lieu mau khi chua co tai khoan
+    private int transactions = 100_000;
+    private long seed = WorkloadGenerator.DEFAULT_SEED;
+    private double skew = 1.0;           // 1 = chon tai khoan deu, lon hon = don ve it tai khoan "nong"
+    private String dataDirectory;        // null = chi trong bo nho
+
+    public LoadProfile() {
+        for (LoadOperation operation : LoadOperation.values()) {
+            mix.put(operation, operation.getDefaultWeight());
+        }
+    }
+
+    public static LoadProfile parse(String[] args) {
+        LoadProfile profile = new LoadProfile();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Tham so phai co dang key=value: " + arg);
+            }
+            String key = arg.substring(0, separator).trim();
+            String value = arg.substring(separator + 1).trim();
+            switch (key) {
+                case "threads":
+                    profile.setThreads(Integer.parseInt(value));
+                    break;
+                case "rate":
+                    profile.setRate(Double.parseDouble(value));
+                    break;
+                case "duration":
+                    profile.setDurationSeconds(Integer.parseInt(value));
+                    break;
+                case "warmup":
+                    profile.setWarmupSeconds(Integer.parseInt(value));
+                    break;
+                case "mix":
+                    profile.setMix(value);
+                    break;
+                case "accounts":
+                    profile.setAccounts(Integer.parseInt(value));
+                    break;
+                case "transactions":
+                    profile.setTransactions(Integer.parseInt(value));
+                    break;
+                case "seed":
+                    profile.setSeed(Long.parseLong(value));
+                    break;
+                case "skew":
+                    profile.setSkew(Double.parseDouble(value));
+                    break;
+                case "dir":
+                    profile.setDataDirectory(value.isEmpty() ? null : value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Tham so khong hop le: " + key);
+            }
+        }
+        return profile;
+    }
+
+    public int getThreads() { return threads; }
+    public double getRate() { return rate; }
+    public int getDurationSeconds() { return durationSeconds; }
+    public int getWarmupSeconds() { return warmupSeconds; }
+    public int getWeight(LoadOperation operation) { return mix.get(operation); }
+    public int getAccounts() { return accounts; }
+    public int getTransactions() { return transactions; }
+    public long getSeed() { return seed; }
+    public double getSkew() { return skew; }
+    public String getDataDirectory() { return dataDirectory; }
+
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("So luong phai lon hon 0");
+        }
+        this.threads = threads;
+    }
+
+    public void setRate(double rate) {
+        if (rate < 0) {
+            throw new IllegalArgumentException("Toc do khong duoc am");
+        }
+        this.rate = rate;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Thoi gian chay phai lon hon 0");
+        }
+        this.durationSeconds = durationSeconds;
+    }
+
+    public void setWarmupSeconds(int warmupSeconds) {
+        if (warmupSeconds < 0) {
+            throw new IllegalArgumentException("Thoi gian khoi dong khong duoc am");
+        }
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    public void setWeight(LoadOperation operation, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Ti trong khong duoc am: " + operation);
+        }
+        mix.put(operation, weight);
+    }
+
+    // "deposit:20,expense:40,...": thao tac khong nhac den co ti trong 0
+    public void setMix(String spec) {
+        Map<LoadOperation, Integer> parsed = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : LoadOperation.values()) {
+            parsed.put(operation, 0);
+        }
+        for (String part : spec.split(",")) {
+            String[] pair = part.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Ti trong phai co dang ten:so: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Ti trong khong duoc am: " + part);
+            }
+            parsed.put(LoadOperation.fromKey(pair[0]), weight);
+        }
+        if (parsed.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Can it nhat mot thao tac co ti trong lon hon 0");
+        }
+        mix.putAll(parsed);
+    }
+
+    public void setAccounts(int accounts) {
+        this.accounts = accounts;
+    }
+
+    public void setTransactions(int transactions) {
+        this.transactions = transactions;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setSkew(double skew) {
+        if (skew <= 0) {
+            throw new IllegalArgumentException("Do lech phai lon hon 0");
+        }
+        this.skew = skew;
+    }
+
+    public void setDataDirectory(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder()
+                .append("threads=").append(threads)
+                .append(" rate=").append(rate > 0 ? String.valueOf((long) rate) : "max")
+                .append(" duration=").append(durationSeconds).append('s')
+                .append(" warmup=").append(warmupSeconds).append('s')
+                .append(" skew=").append(skew)
+                .append(" mix=");
+        boolean first = true;
+        for (Map.Entry<LoadOperation, Integer> entry : mix.entrySet()) {
+            if (!first) {
+                text.append(',');
+            }
+            text.append(entry.getKey().getKey()).append(':').append(entry.getValue());
+            first = false;
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package com.financemanager.workload;
+
+import com.financemanager.util.LatencyHistogram;
+import com.financemanager.util.RenderBuffer;
+import com.financemanager.util.RenderSink;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Ket qua mot lan chay tai (chi tinh phan sau khoi dong): do tre tung loai thao tac,
+// so thao tac bi tu choi, so thao tac nem ngoai le va thong luong
+public class LoadReport {
+    private static final int NAME_WIDTH = 16;
+    private static final int COLUMN_WIDTH = 12;
+    private static final int TABLE_WIDTH = NAME_WIDTH + COLUMN_WIDTH * 8;
+
+    private final String description;
+    private final Map<LoadOperation, LatencyHistogram> latencies;
+    private final Map<LoadOperation, Long> failures;
+    private final Map<LoadOperation, Long> errors;
+    private final RuntimeException firstError;
+    private final long measuredNanos;
+
+    LoadReport(String description, Map<LoadOperation, LatencyHistogram> latencies,
+               Map<LoadOperation, Long> failures, Map<LoadOperation, Long> errors,
+               RuntimeException firstError, long measuredNanos) {
+        this.description = description;
+        this.latencies = new EnumMap<>(latencies);
+        this.failures = new EnumMap<>(failures);
+        this.errors = new EnumMap<>(errors);
+        this.firstError = firstError;
+        this.measuredNanos = measuredNanos;
+    }
+
+    public LatencyHistogram getLatency(LoadOperation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getFailures(LoadOperation operation) {
+        return failures.getOrDefault(operation, 0L);
+    }
+
+    // So lan thao tac nem ngoai le (tinh ca luc khoi dong)
+    public long getErrors(LoadOperation operation) {
+        return errors.getOrDefault(operation, 0L);
+    }
+
+    // Ngoai le dau tien, null neu khong co
+    public RuntimeException getFirstError() {
+        return firstError;
+    }
+
+    public long getMeasuredNanos() {
+        return measuredNanos;
+    }
+
+    // Thao tac / giay trong khoang do
+    public double getThroughput(LoadOperation operation) {
+        return measuredNanos == 0 ? 0 : latencies.get(operation).getCount() * 1e9 / measuredNanos;
+    }
+
+    public LatencyHistogram getTotalLatency() {
+        LatencyHistogram total = new LatencyHistogram();
+        for (LatencyHistogram histogram : latencies.values()) {
+            total.add(histogram);
+        }
+        return total;
+    }
+
+    public double getTotalThroughput() {
+        return measuredNanos == 0 ? 0 : getTotalLatency().getCount() * 1e9 / measuredNanos;
+    }
+
+    public void print() {
+        print(RenderSink.console());
+    }
+
+    // Bang do tre theo micro giay: p50 / p99 / p999 / max, them dong tong
+    public void print(RenderSink sink) {
+        try (RenderBuffer out = RenderBuffer.open(sink)) {
+            out.repeat('=', TABLE_WIDTH).newline();
+            out.append("KET QUA CHAY TAI: ").line(description);
+            out.append("Thoi gian do: ").append(measuredNanos / 1_000_000).line(" ms");
+            out.repeat('=', TABLE_WIDTH).newline();
+            out.pad("Thao tac", NAME_WIDTH);
+            for (String header : new String[]{"So lan", "Tu choi", "Loi", "Lan/giay", "p50 (us)", "p99 (us)",
+                    "p999 (us)"}) {
+                out.pad(header, COLUMN_WIDTH);
+            }
+            out.line("max (us)");
+            out.repeat('-', TABLE_WIDTH).newline();
+
+            long totalFailures = 0;
+            long totalErrors = 0;
+            for (LoadOperation operation : LoadOperation.values()) {
+                LatencyHistogram histogram = latencies.get(operation);
+                long errored = getErrors(operation);
+                if (histogram.getCount() == 0 && errored == 0) {
+                    continue;
+                }
+                long failed = getFailures(operation);
+                totalFailures += failed;
+                totalErrors += errored;
+                row(out, operation.name(), histogram, failed, errored, getThroughput(operation));
+            }
+            out.repeat('-', TABLE_WIDTH).newline();
+            row(out, "TONG", getTotalLatency(), totalFailures, totalErrors, getTotalThroughput());
+            if (firstError != null) {
+                out.append("Loi dau tien: ").line(firstError.toString());
+            }
+        }
+    }
+
+    private static void row(RenderBuffer out, String name, LatencyHistogram histogram, long failed,
+                            long errored, double throughput) {
+        out.pad(name, NAME_WIDTH);
+        cell(out, histogram.getCount());
+        cell(out, failed);
+        cell(out, errored);
+        cell(out, Math.round(throughput));
+        cell(out, histogram.valueAtPercentile(50) / 1_000);
+        cell(out, histogram.valueAtPercentile(99) / 1_000);
+        cell(out, histogram.valueAtPercentile(99.9) / 1_000);
+        out.append(histogram.getMaxNanos() / 1_000).newline();
+    }
+
+    private static void cell(RenderBuffer out, long value) {
+        int start = out.mark();
+        out.append(value).padTo(start, COLUMN_WIDTH);
+    }
+}
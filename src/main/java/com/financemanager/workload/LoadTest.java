@@ -0,0 +1,307 @@
+package com.financemanager.workload;
+
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.event.FinanceEventListener;
+import com.financemanager.model.Account;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.persistence.DurabilityMode;
+import com.financemanager.service.FinanceManager;
+import com.financemanager.service.HeapTransactionStore;
+import com.financemanager.service.TransactionStore;
+import com.financemanager.storage.ColumnarTransactionStore;
+import com.financemanager.util.Constants;
+import com.financemanager.util.LatencyHistogram;
+import com.financemanager.util.RenderSink;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+// Chay hon hop thao tac (nap tien, chi tieu, chuyen khoan, tra no, doc bao cao) vao FinanceManager
+// tu nhieu luong ao, ghi do tre tung loai vao LatencyHistogram.
+// - rate > 0 (vong mo): moi luong co lich bat dau co dinh; do tre tinh tu thoi diem le ra phai
+//   bat dau, nen khi he thong cham, thoi gian xep hang cung duoc tinh (khong bi "coordinated omission")
+// - rate = 0 (vong kin): moi luong chay lien tuc, do tre tinh tu luc goi
+// Thao tac bi tu choi (su kien that bai, vd. khong du so du) van tinh do tre va dem rieng.
+// Thao tac nem ngoai le duoc dem theo loai (ca luc khoi dong) va in kem loi dau tien, khong lam dung luong.
+// Chay headless: khong dang ky listener in ra man hinh, bao cao ghi vao RenderSink.discard().
+// Chay: java com.financemanager.workload.LoadTest threads=2000 rate=50000 duration=60 ...
+public class LoadTest {
+    private static final String EXPENSE_CATEGORY = Constants.ExpenseCategories.FOOD;
+    private static final int REPORT_DAYS = 30;
+
+    private final FinanceManager manager;
+    private final LoadProfile profile;
+    private final String[] accountIds;
+    private final String[] loanIds;
+    private final String[] lendingIds;
+    private final LoadOperation[] operations = LoadOperation.values();
+    private final int[] cumulativeWeights = new int[operations.length];
+    // Su kien phat tren luong goi: danh dau thao tac hien tai cua luong do bi tu choi
+    private final ThreadLocal<boolean[]> rejected = ThreadLocal.withInitial(() -> new boolean[1]);
+    private final AtomicReference<RuntimeException> firstError = new AtomicReference<>();
+
+    public LoadTest(FinanceManager manager, LoadProfile profile) {
+        this.manager = manager;
+        this.profile = profile;
+        this.accountIds = manager.getAccountService().getAllAccounts().stream()
+                .map(Account::getAccountId).toArray(String[]::new);
+        this.loanIds = manager.getLoanService().getAllLoans().stream()
+                .map(Loan::getLoanId).toArray(String[]::new);
+        this.lendingIds = manager.getLoanService().getAllLendings().stream()
+                .map(Lending::getLendingId).toArray(String[]::new);
+        if (accountIds.length < 2) {
+            throw new IllegalStateException("Can it nhat 2 tai khoan de chay tai");
+        }
+
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            int weight = profile.getWeight(operations[i]);
+            // Khong co khoan vay nao thi bo thao tac tra no
+            if (operations[i] == LoadOperation.LOAN_REPAYMENT && loanIds.length + lendingIds.length == 0) {
+                weight = 0;
+            }
+            total += weight;
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalStateException("Khong co thao tac nao de chay");
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        Map<LoadOperation, LatencyHistogram> latencies = new EnumMap<>(LoadOperation.class);
+        Map<LoadOperation, LongAdder> failures = new EnumMap<>(LoadOperation.class);
+        Map<LoadOperation, LongAdder> errors = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : operations) {
+            latencies.put(operation, new LatencyHistogram());
+            failures.put(operation, new LongAdder());
+            errors.put(operation, new LongAdder());
+        }
+
+        int threads = profile.getThreads();
+        // Khoang cach giua hai lan bat dau cua cung mot luong de tong toc do dung bang rate
+        long intervalNanos = profile.getRate() > 0 ? (long) (threads * 1e9 / profile.getRate()) : 0;
+        SplittableRandom root = new SplittableRandom(profile.getSeed());
+        SplittableRandom[] randoms = new SplittableRandom[threads];
+        for (int i = 0; i < threads; i++) {
+            randoms[i] = root.split();
+        }
+
+        FinanceEventListener listener = this::onEvent;
+        manager.addEventListener(listener);
+        long startNanos = System.nanoTime();
+        long measureStart = startNanos + profile.getWarmupSeconds() * 1_000_000_000L;
+        long endNanos = measureStart + profile.getDurationSeconds() * 1_000_000_000L;
+        List<Future<?>> workers = new ArrayList<>(threads);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = randoms[i];
+                workers.add(executor.submit(() -> runWorker(random, startNanos, measureStart, endNanos,
+                        intervalNanos, latencies, failures, errors)));
+            }
+        } finally {
+            manager.removeEventListener(listener);
+        }
+        long measuredNanos = Math.min(System.nanoTime(), endNanos) - measureStart;
+
+        // Executor da dong nen moi luong da xong; luong chet giua chung thi ket qua khong dang tin
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Luong chay tai dung bat thuong", e.getCause());
+            }
+        }
+
+        return new LoadReport(profile.toString(), latencies, sums(failures), sums(errors),
+                firstError.get(), Math.max(0, measuredNanos));
+    }
+
+    private static Map<LoadOperation, Long> sums(Map<LoadOperation, LongAdder> counters) {
+        Map<LoadOperation, Long> sums = new EnumMap<>(LoadOperation.class);
+        counters.forEach((operation, count) -> sums.put(operation, count.sum()));
+        return sums;
+    }
+
+    private void runWorker(SplittableRandom random, long startNanos, long measureStart, long endNanos,
+                           long intervalNanos, Map<LoadOperation, LatencyHistogram> latencies,
+                           Map<LoadOperation, LongAdder> failures, Map<LoadOperation, LongAdder> errors) {
+        // Rai thoi diem bat dau cua cac luong trong mot chu ky de khong don cuc
+        long intended = startNanos + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+        boolean[] failed = rejected.get();
+        while (true) {
+            long begin;
+            if (intervalNanos > 0) {
+                if (intended >= endNanos) {
+                    break;
+                }
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                begin = intended;
+                intended += intervalNanos;
+            } else {
+                begin = System.nanoTime();
+                if (begin >= endNanos) {
+                    break;
+                }
+            }
+
+            LoadOperation operation = pickOperation(random);
+            failed[0] = false;
+            try {
+                execute(operation, random);
+            } catch (RuntimeException e) {
+                errors.get(operation).increment();
+                firstError.compareAndSet(null, e);
+                failed[0] = true;
+            }
+            long latency = System.nanoTime() - begin;
+            if (begin >= measureStart) {
+                latencies.get(operation).record(latency);
+                if (failed[0]) {
+                    failures.get(operation).increment();
+                }
+            }
+        }
+    }
+
+    private void onEvent(FinanceEvent event) {
+        if (event.isFailure()) {
+            rejected.get()[0] = true;
+        }
+    }
+
+    private LoadOperation pickOperation(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(LoadOperation operation, SplittableRandom random) {
+        switch (operation) {
+            case DEPOSIT:
+                manager.depositToAccount(pickAccount(random), amount(random, 100, 5_000));
+                break;
+            case EXPENSE:
+                manager.addTransaction(pickAccount(random), "expense", amount(random, 20, 500),
+                        "Chi tieu chay tai", EXPENSE_CATEGORY);
+                break;
+            case TRANSFER:
+                String from = pickAccount(random);
+                String to = pickAccount(random);
+                while (to.equals(from)) {
+                    to = accountIds[random.nextInt(accountIds.length)];
+                }
+                manager.transferBetweenAccounts(from, to, amount(random, 50, 2_000));
+                break;
+            case LOAN_REPAYMENT:
+                int pick = random.nextInt(loanIds.length + lendingIds.length);
+                if (pick < loanIds.length) {
+                    manager.repayLoan(loanIds[pick], amount(random, 100, 1_000));
+                } else {
+                    manager.collectLending(lendingIds[pick - loanIds.length], amount(random, 100, 1_000));
+                }
+                break;
+            case REPORT:
+                if (random.nextBoolean()) {
+                    manager.generateFinancialReport(RenderSink.discard());
+                } else {
+                    LocalDate today = LocalDate.now();
+                    manager.generateIncomeExpenseReport(today.minusDays(REPORT_DAYS), today, RenderSink.discard());
+                }
+                break;
+        }
+    }
+
+    // skew = 1: deu; lon hon: don ve cac tai khoan dau (tranh chap khoa / CAS nhieu hon)
+    private String pickAccount(SplittableRandom random) {
+        double u = random.nextDouble();
+        double skew = profile.getSkew();
+        return accountIds[(int) (accountIds.length * (skew == 1.0 ? u : Math.pow(u, skew)))];
+    }
+
+    // So tien VND trong [min, max] nghin dong, chan nghin
+    private static double amount(SplittableRandom random, int minThousands, int maxThousands) {
+        return 1_000.0 * (minThousands + random.nextInt(maxThousands - minThousands + 1));
+    }
+
+    // ===== Chay tu dong lenh =====
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadProfile profile = LoadProfile.parse(args);
+        FinanceManager manager = openManager(profile);
+        try {
+            if (manager.getAccountService().getAccountCount() == 0) {
+                generate(profile, new ServiceWorkloadSink(manager));
+            }
+            System.out.println("Kho giao dich: " + manager.getTransactionService().getTransactionStore()
+                    .getClass().getSimpleName() + ", so du: "
+                    + (manager.getAccountService().isLockFreeBalances() ? "lock-free" : "khoa theo tai khoan"));
+            new LoadTest(manager, profile).run().print();
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    // Giong Main: kho va che do ben vung theo system property; khong co dir thi chi trong bo nho.
+    // Thu muc du lieu moi thi sinh du lieu mau thanh snapshot truoc khi mo
+    private static FinanceManager openManager(LoadProfile profile) throws IOException {
+        boolean columnar = Constants.STORE_COLUMNAR.equalsIgnoreCase(System.getProperty(Constants.STORE_PROPERTY));
+        String directory = profile.getDataDirectory();
+        if (directory == null) {
+            TransactionStore store = columnar
+                    ? new ColumnarTransactionStore(Files.createTempDirectory("load-columns"))
+                    : new HeapTransactionStore();
+            return new FinanceManager(store);
+        }
+
+        Path path = Paths.get(directory);
+        if (!Files.isDirectory(path) || isEmpty(path)) {
+            try (SnapshotWorkloadSink sink = new SnapshotWorkloadSink(path)) {
+                generate(profile, sink);
+            }
+        }
+        DurabilityMode mode = DurabilityMode.fromString(System.getProperty(Constants.DURABILITY_PROPERTY));
+        if (columnar) {
+            return FinanceManager.open(directory, mode,
+                    new ColumnarTransactionStore(path.resolve(Constants.COLUMNS_DIRECTORY)));
+        }
+        return FinanceManager.open(directory, mode);
+    }
+
+    private static void generate(LoadProfile profile, WorkloadSink sink) throws IOException {
+        long startTime = System.currentTimeMillis();
+        new WorkloadGenerator(profile.getSeed(), profile.getAccounts(), profile.getTransactions()).generate(sink);
+        System.out.printf("Da sinh du lieu mau: %d tai khoan, %d giao dich (%d ms)%n",
+                profile.getAccounts(), profile.getTransactions(), System.currentTimeMillis() - startTime);
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.findAny().isEmpty();
+        }
+    }
+}
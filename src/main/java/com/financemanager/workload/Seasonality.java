@@ -0,0 +1,71 @@
+package com.financemanager.workload;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.random.RandomGenerator;
+
+// He so mua vu cho du lieu sinh ra: so giao dich moi ngay theo thang, thu trong tuan
+// va ngay trong thang; phan bo theo gio trong ngay; ky luong dau thang
+final class Seasonality {
+    // Thang 1..12: Tet (thang 1-2) va cuoi nam chi tieu nhieu hon
+    private static final double[] MONTH = {1.25, 1.15, 0.95, 0.95, 1.0, 0.95, 1.0, 1.0, 0.95, 1.0, 1.05, 1.3};
+    // Thu 2 .. Chu nhat
+    private static final double[] WEEKDAY = {0.9, 0.9, 0.9, 0.95, 1.05, 1.3, 1.2};
+    // 0h..23h: rat it ve dem, dinh vao bua trua va buoi toi
+    private static final double[] HOUR = {
+            0.2, 0.1, 0.05, 0.05, 0.1, 0.3, 0.8, 1.5, 1.8, 1.5, 1.4, 2.2,
+            2.5, 1.6, 1.2, 1.2, 1.4, 1.8, 2.4, 2.6, 2.2, 1.6, 0.9, 0.5};
+    private static final double[] HOUR_CUMULATIVE = cumulative(HOUR);
+    private static final int PAYDAY_LAST = 5;
+    private static final int MILLIS_PER_HOUR = 3_600_000;
+
+    private Seasonality() {
+    }
+
+    // Trong so tuong doi cua so giao dich trong ngay
+    static double dayWeight(LocalDate day) {
+        double weight = MONTH[day.getMonthValue() - 1] * WEEKDAY[day.getDayOfWeek().ordinal()];
+        if (isPayday(day)) {
+            weight *= 1.3;
+        } else if (day.getDayOfMonth() > day.lengthOfMonth() - 3) {
+            weight *= 1.1;
+        }
+        return weight;
+    }
+
+    // Luong ve trong nhung ngay dau thang
+    static boolean isPayday(LocalDate day) {
+        return day.getDayOfMonth() <= PAYDAY_LAST;
+    }
+
+    static boolean isWeekend(LocalDate day) {
+        DayOfWeek dayOfWeek = day.getDayOfWeek();
+        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+    }
+
+    // Thang 12 va thang 1: thuong cuoi nam, mua sam Tet
+    static boolean isHoliday(LocalDate day) {
+        int month = day.getMonthValue();
+        return month == 12 || month == 1;
+    }
+
+    // Mili giay trong ngay, chon gio theo HOUR roi chon deu trong gio do
+    static int millisOfDay(RandomGenerator random) {
+        double pick = random.nextDouble() * HOUR_CUMULATIVE[HOUR_CUMULATIVE.length - 1];
+        int hour = 0;
+        while (hour < HOUR_CUMULATIVE.length - 1 && pick >= HOUR_CUMULATIVE[hour]) {
+            hour++;
+        }
+        return hour * MILLIS_PER_HOUR + random.nextInt(MILLIS_PER_HOUR);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] sums = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            sums[i] = total;
+        }
+        return sums;
+    }
+}
@@ -0,0 +1,67 @@
+package com.financemanager.workload;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Transaction;
+import com.financemanager.service.AccountService;
+import com.financemanager.service.FinanceManager;
+import com.financemanager.service.LoanService;
+import com.financemanager.service.TransactionService;
+
+import java.util.List;
+
+// Nap du lieu sinh ra thang vao cac service qua duong khoi phuc (restore*):
+// khong in, khong phat su kien, khong ghi nhat ky. Muon luu xuong dia thi goi
+// FinanceManager.checkpoint() sau khi sinh xong
+public class ServiceWorkloadSink implements WorkloadSink {
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final LoanService loanService;
+
+    public ServiceWorkloadSink(FinanceManager manager) {
+        this(manager.getAccountService(), manager.getTransactionService(), manager.getLoanService());
+    }
+
+    public ServiceWorkloadSink(AccountService accountService, TransactionService transactionService,
+                               LoanService loanService) {
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.loanService = loanService;
+    }
+
+    @Override
+    public List<Category> categories() {
+        return transactionService.getAllCategories();
+    }
+
+    @Override
+    public void begin(int accountCount, int transactionCount) {
+    }
+
+    // Tai khoan duoc theo doi tu day, so du cuoi dat sau bao qua listener nhu moi thay doi khac
+    @Override
+    public void account(Account account) {
+        accountService.restoreAccount(account);
+    }
+
+    @Override
+    public void transaction(Transaction transaction) {
+        transactionService.restoreTransaction(transaction);
+    }
+
+    @Override
+    public void loan(Loan loan) {
+        loanService.restoreLoan(loan);
+    }
+
+    @Override
+    public void lending(Lending lending) {
+        loanService.restoreLending(lending);
+    }
+
+    @Override
+    public void finish() {
+    }
+}
@@ -0,0 +1,93 @@
+package com.financemanager.workload;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Transaction;
+import com.financemanager.persistence.SnapshotStore;
+import com.financemanager.service.TransactionService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Ghi du lieu sinh ra thanh snapshot trong thu muc du lieu, mo duoc bang
+// FinanceManager(dataDirectory, ...). Giao dich duoc ma hoa xuong file ngay khi sinh;
+// chi tai khoan va khoan vay (it) duoc giu lai den luc ghi xong.
+// Thu muc phai trong (hoac chua co) de khong tron voi nhat ky / snapshot cu
+public class SnapshotWorkloadSink implements WorkloadSink, AutoCloseable {
+    // Snapshot o vi tri nhat ky 0: ban ghi dau tien sau khi mo co sequence 1
+    private static final long SEQUENCE = 0;
+
+    private final Path directory;
+    private final List<Category> categories = TransactionService.createDefaultCategories();
+    private final List<Account> accounts = new ArrayList<>();
+    private final List<Loan> loans = new ArrayList<>();
+    private final List<Lending> lendings = new ArrayList<>();
+    private SnapshotStore.StreamingWriter writer;
+    private Path snapshotPath;
+
+    public SnapshotWorkloadSink(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public List<Category> categories() {
+        return categories;
+    }
+
+    @Override
+    public void begin(int accountCount, int transactionCount) throws IOException {
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> entries = Files.list(directory)) {
+                if (entries.findAny().isPresent()) {
+                    throw new IOException("Thu muc du lieu khong trong: " + directory);
+                }
+            }
+        }
+        Files.createDirectories(directory);
+        writer = new SnapshotStore(directory).openStreaming(SEQUENCE, categories, transactionCount);
+    }
+
+    @Override
+    public void account(Account account) {
+        accounts.add(account);
+    }
+
+    @Override
+    public void transaction(Transaction transaction) throws IOException {
+        writer.append(transaction);
+    }
+
+    @Override
+    public void loan(Loan loan) {
+        loans.add(loan);
+    }
+
+    @Override
+    public void lending(Lending lending) {
+        lendings.add(lending);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        snapshotPath = writer.commit(accounts, loans, lendings);
+    }
+
+    // Thu muc snapshot da ghi (null neu chua xong)
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    // Dung giua chung (loi) thi xoa phan snapshot dang ghi do
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
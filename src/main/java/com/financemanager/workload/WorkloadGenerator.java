@@ -0,0 +1,481 @@
+package com.financemanager.workload;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Money;
+import com.financemanager.model.Payment;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+import com.financemanager.service.CategoryRegistry;
+import com.financemanager.util.Constants;
+import com.financemanager.util.SnowflakeIdGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Sinh du lieu gia lap co dinh theo seed: cung seed va cung tham so (ke ca khoang ngay)
+// cho ra cung tai khoan, giao dich, khoan vay va ID.
+// Giao dich sinh theo thu tu thoi gian, tung ngay mot, va duoc day ngay vao sink:
+// bo nho chi giu tai khoan va thoi diem cua mot ngay, khong tang theo so giao dich.
+// Tai khoan, giao dich va khoan vay dung cac luong ngau nhien rieng (SplittableRandom.split),
+// nen doi so khoan vay khong lam thay doi giao dich.
+// Chay: java com.financemanager.workload.WorkloadGenerator <thu muc> <so tai khoan> <so giao dich> [seed]
+public class WorkloadGenerator {
+    // Ma may danh rieng cho ID sinh ra, ung dung khong duoc cau hinh ma nay nen khong trung ID
+    public static final long NODE_ID = SnowflakeIdGenerator.RESERVED_NODE;
+    public static final long DEFAULT_SEED = 42;
+    public static final int DEFAULT_DAYS = 365;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long ROUNDING = Money.of(1_000);   // lam tron den 1.000 VND
+    private static final long MIN_AMOUNT = Money.of(Constants.MIN_TRANSACTION_AMOUNT);
+    private static final long MAX_AMOUNT = Money.of(Constants.MAX_TRANSACTION_AMOUNT);
+    private static final LocalDate FIRST_DATE =
+            LocalDate.ofEpochDay(Math.floorDiv(SnowflakeIdGenerator.EPOCH_MILLIS, MILLIS_PER_DAY) + 1);
+
+    // Ti le giao dich la khoan thu: cao trong ky luong, con lai gan nhu chi la chi tieu
+    private static final double PAYDAY_INCOME_SHARE = 0.12;
+    private static final double INCOME_SHARE = 0.015;
+
+    private static final String[] ACCOUNT_TYPES = {
+            Constants.ACCOUNT_TYPE_BANK, Constants.ACCOUNT_TYPE_WALLET, Constants.ACCOUNT_TYPE_CASH,
+            Constants.ACCOUNT_TYPE_SAVINGS, Constants.ACCOUNT_TYPE_CREDIT};
+    private static final String[] ACCOUNT_LABELS = {"Ngan hang", "Vi dien tu", "Tien mat", "Tiet kiem", "The tin dung"};
+    private static final double[] ACCOUNT_TYPE_WEIGHTS = {40, 25, 15, 10, 10};
+    // So du ban dau (trung vi, VND) theo loai tai khoan
+    private static final double[] ACCOUNT_BALANCES = {30_000_000, 2_000_000, 3_000_000, 100_000_000, 10_000_000};
+
+    // Theo danh muc mac dinh cua TransactionService, cung thu tu
+    private static final int SALARY = 0;
+    private static final int BONUS = 1;
+    private static final int INVESTMENT = 2;
+    private static final int FOOD = 3;
+    private static final int TRANSPORT = 4;
+    private static final int ENTERTAINMENT = 5;
+    private static final int SHOPPING = 6;
+    private static final CategoryProfile[] PROFILES = {
+            new CategoryProfile(Constants.IncomeCategories.SALARY, TransactionType.INCOME, 15_000_000, 0.35,
+                    "Luong thang", "Luong ky 1", "Luong ky 2"),
+            new CategoryProfile(Constants.IncomeCategories.BONUS, TransactionType.INCOME, 5_000_000, 0.6,
+                    "Thuong du an", "Thuong le", "Thuong Tet"),
+            new CategoryProfile(Constants.IncomeCategories.INVESTMENT, TransactionType.INCOME, 2_000_000, 0.9,
+                    "Co tuc", "Lai tiet kiem", "Ban chung khoan"),
+            new CategoryProfile(Constants.ExpenseCategories.FOOD, TransactionType.EXPENSE, 80_000, 0.6,
+                    "An sang", "An trua", "An toi", "Ca phe", "Di cho"),
+            new CategoryProfile(Constants.ExpenseCategories.TRANSPORT, TransactionType.EXPENSE, 40_000, 0.7,
+                    "Do xang", "Grab", "Gui xe", "Ve xe buyt"),
+            new CategoryProfile(Constants.ExpenseCategories.ENTERTAINMENT, TransactionType.EXPENSE, 250_000, 0.8,
+                    "Xem phim", "Karaoke", "Du lich", "Game"),
+            new CategoryProfile(Constants.ExpenseCategories.SHOPPING, TransactionType.EXPENSE, 600_000, 0.9,
+                    "Quan ao", "Sieu thi", "Do gia dung", "Mua online")};
+
+    private static final int[] LOAN_MONTHS = {6, 12, 18, 24, 36};
+    private static final String[] LENDERS = {"Vietcombank", "Techcombank", "BIDV", "VPBank", "MB Bank", "Gia dinh"};
+    private static final String[] BORROWERS = {
+            "Nguyen Van An", "Tran Thi Binh", "Le Van Cuong", "Pham Thi Dung", "Hoang Van Em", "Vu Thi Giang"};
+    private static final String[] LOAN_PURPOSES = {"Vay mua nha", "Vay mua xe", "Vay tieu dung", "Vay kinh doanh"};
+    private static final String[] LENDING_PURPOSES = {"Cho ban vay", "Cho nguoi than vay", "Ho tro kinh doanh"};
+    private static final String[] PAYMENT_METHODS = {
+            Constants.PAYMENT_CASH, Constants.PAYMENT_BANK_TRANSFER, Constants.PAYMENT_EWALLET,
+            Constants.PAYMENT_CREDIT_CARD};
+
+
+    private final long seed;
+    private final int accountCount;
+    private final int transactionCount;
+    private final int loanCount;
+    private final int lendingCount;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    // DEFAULT_DAYS ngay ket thuc hom qua, moi 5 tai khoan mot khoan vay va mot khoan cho vay.
+    // Ngay phu thuoc hom nay: muon lap lai y het o ngay khac thi dung constructor day du
+    public WorkloadGenerator(long seed, int accountCount, int transactionCount) {
+        this(seed, accountCount, transactionCount, Math.max(1, accountCount / 5), Math.max(1, accountCount / 5),
+                LocalDate.now().minusDays(DEFAULT_DAYS), LocalDate.now().minusDays(1));
+    }
+
+    public WorkloadGenerator(long seed, int accountCount, int transactionCount, int loanCount, int lendingCount,
+                             LocalDate startDate, LocalDate endDate) {
+        if (accountCount <= 0 || accountCount > MILLIS_PER_DAY) {
+            throw new IllegalArgumentException("So tai khoan khong hop le: " + accountCount);
+        }
+        if (transactionCount < 0 || loanCount < 0 || lendingCount < 0) {
+            throw new IllegalArgumentException("So luong khong duoc am");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Ngay bat dau sau ngay ket thuc");
+        }
+        if (startDate.isBefore(FIRST_DATE)) {
+            throw new IllegalArgumentException("Ngay bat dau phai tu " + FIRST_DATE + " (moc thoi gian cua ID)");
+        }
+        this.seed = seed;
+        this.accountCount = accountCount;
+        this.transactionCount = transactionCount;
+        this.loanCount = loanCount;
+        this.lendingCount = lendingCount;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public void generate(WorkloadSink sink) throws IOException {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom accountRandom = root.split();
+        SplittableRandom transactionRandom = root.split();
+        SplittableRandom loanRandom = root.split();
+        Category[] categories = resolveCategories(sink.categories());
+
+        sink.begin(accountCount, transactionCount);
+
+        Account[] accounts = new Account[accountCount];
+        long[] balances = new long[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = generateAccount(i, accountRandom);
+            balances[i] = accounts[i].getBalance();
+            sink.account(accounts[i]);
+        }
+
+        generateTransactions(sink, accounts, balances, categories, transactionRandom);
+
+        IdClock ids = new IdClock();
+        for (int i = 0; i < loanCount; i++) {
+            sink.loan(generateLoan(loanRandom, ids));
+        }
+        for (int i = 0; i < lendingCount; i++) {
+            sink.lending(generateLending(loanRandom, ids));
+        }
+
+        // So du cuoi = ban dau + moi khoan thu - moi khoan chi da sinh
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i].setBalance(balances[i]);
+        }
+        sink.finish();
+    }
+
+    // ===== Tai khoan =====
+
+    // Tao trong ngay truoc ngay bat dau, cach deu nhau theo mili giay nen ID khong trung
+    private Account generateAccount(int index, SplittableRandom random) {
+        int type = pickWeighted(ACCOUNT_TYPE_WEIGHTS, random);
+        long createdMillis = epochMillis(startDate.minusDays(1)) + index * MILLIS_PER_DAY / accountCount;
+        String accountId = "ACC_"
+                + SnowflakeIdGenerator.formatId(SnowflakeIdGenerator.idAt(createdMillis, 0, NODE_ID));
+        // 3 chu so ngau nhien + so thu tu: khong trung nhau
+        String accountNumber = String.format("%03d%07d", random.nextInt(1000), index);
+        long balance = amount(random, ACCOUNT_BALANCES[type], 0.8, MIN_AMOUNT);
+        return new Account(accountId, ACCOUNT_LABELS[type] + " " + (index + 1), ACCOUNT_TYPES[type],
+                accountNumber, balance, Constants.DEFAULT_CURRENCY);
+    }
+
+    // ===== Giao dich =====
+
+    // Chia tong so giao dich cho tung ngay theo trong so mua vu (lam tron cong don, tong dung bang
+    // transactionCount), sinh thoi diem trong ngay roi sap xep de day ra theo thu tu thoi gian
+    private void generateTransactions(WorkloadSink sink, Account[] accounts, long[] balances,
+                                      Category[] categories, SplittableRandom random) throws IOException {
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        double[] weights = new double[days];
+        double totalWeight = 0;
+        for (int d = 0; d < days; d++) {
+            weights[d] = Seasonality.dayWeight(startDate.plusDays(d));
+            totalWeight += weights[d];
+        }
+
+        int[] times = new int[0];
+        long emitted = 0;
+        double cumulative = 0;
+        long lastMillis = Long.MIN_VALUE;
+        int sequence = 0;
+        for (int d = 0; d < days; d++) {
+            cumulative += weights[d];
+            long target = d == days - 1 ? transactionCount : Math.round(transactionCount * (cumulative / totalWeight));
+            int count = (int) (target - emitted);
+            emitted = target;
+            if (count <= 0) {
+                continue;
+            }
+
+            LocalDate day = startDate.plusDays(d);
+            if (times.length < count) {
+                times = new int[count];
+            }
+            for (int i = 0; i < count; i++) {
+                times[i] = Seasonality.millisOfDay(random);
+            }
+            Arrays.sort(times, 0, count);
+
+            long dayMillis = epochMillis(day);
+            boolean payday = Seasonality.isPayday(day);
+            boolean weekend = Seasonality.isWeekend(day);
+            boolean holiday = Seasonality.isHoliday(day);
+            for (int i = 0; i < count; i++) {
+                // Thoi diem tang dan; trung mili giay thi tang so thu tu trong ID
+                long millis = dayMillis + times[i];
+                if (millis <= lastMillis) {
+                    millis = lastMillis;
+                    if (++sequence > SnowflakeIdGenerator.MAX_SEQUENCE) {
+                        millis++;
+                        sequence = 0;
+                    }
+                } else {
+                    sequence = 0;
+                }
+                lastMillis = millis;
+
+                int account = pickAccount(random, accounts.length);
+                boolean income = random.nextDouble() < (payday ? PAYDAY_INCOME_SHARE : INCOME_SHARE);
+                int profile = income ? pickIncome(random, payday, holiday) : pickExpense(random, weekend, holiday);
+                long amount = PROFILES[profile].amount(random);
+                if (!income && amount > balances[account]) {
+                    // Khong chi qua so du: thay bang mot khoan luong
+                    profile = SALARY;
+                    amount = PROFILES[SALARY].amount(random);
+                    income = true;
+                }
+                balances[account] += income ? amount : -amount;
+
+                String transactionId = "TRX_"
+                        + SnowflakeIdGenerator.formatId(SnowflakeIdGenerator.idAt(millis, sequence, NODE_ID));
+                sink.transaction(new Transaction(transactionId, accounts[account].getAccountId(),
+                        PROFILES[profile].type, amount, PROFILES[profile].description(random),
+                        categories[profile], dateTimeOf(millis), null));
+            }
+        }
+    }
+
+    // Lech ve cac tai khoan dau: mot so it tai khoan "nong" co phan lon giao dich
+    private static int pickAccount(SplittableRandom random, int count) {
+        double u = random.nextDouble();
+        return (int) (count * u * u);
+    }
+
+    private static int pickIncome(SplittableRandom random, boolean payday, boolean holiday) {
+        double salary = payday ? 8 : 2;
+        double bonus = holiday ? 3 : 1;
+        double investment = payday ? 1 : 3;
+        double pick = random.nextDouble() * (salary + bonus + investment);
+        if (pick < salary) {
+            return SALARY;
+        }
+        return pick < salary + bonus ? BONUS : INVESTMENT;
+    }
+
+    // Cuoi tuan giai tri va mua sam nhieu hon, dip Tet / cuoi nam mua sam nhieu hon nua
+    private static int pickExpense(SplittableRandom random, boolean weekend, boolean holiday) {
+        double food = 45;
+        double transport = 25;
+        double entertainment = weekend ? 24 : 15;
+        double shopping = 15 * (weekend ? 1.3 : 1) * (holiday ? 1.5 : 1);
+        double pick = random.nextDouble() * (food + transport + entertainment + shopping);
+        if (pick < food) {
+            return FOOD;
+        }
+        if (pick < food + transport) {
+            return TRANSPORT;
+        }
+        return pick < food + transport + entertainment ? ENTERTAINMENT : SHOPPING;
+    }
+
+    // Danh muc cua sink theo ten; khong co (vd. da doi ten) thi dung danh muc dau tien cung loai
+    private static Category[] resolveCategories(List<Category> available) {
+        Category[] resolved = new Category[PROFILES.length];
+        for (int i = 0; i < PROFILES.length; i++) {
+            String key = CategoryRegistry.normalize(PROFILES[i].name);
+            Category fallback = null;
+            for (Category category : available) {
+                if (category.getTransactionType() != PROFILES[i].type) {
+                    continue;
+                }
+                if (CategoryRegistry.normalize(category.getName()).equals(key)) {
+                    resolved[i] = category;
+                    break;
+                }
+                if (fallback == null) {
+                    fallback = category;
+                }
+            }
+            if (resolved[i] == null) {
+                if (fallback == null) {
+                    throw new IllegalStateException("Khong co danh muc " + PROFILES[i].type + " de sinh giao dich");
+                }
+                resolved[i] = fallback;
+            }
+        }
+        return resolved;
+    }
+
+    // ===== Khoan vay / cho vay =====
+
+    private Loan generateLoan(SplittableRandom random, IdClock ids) {
+        LocalDateTime start = randomDateTime(random);
+        int months = LOAN_MONTHS[random.nextInt(LOAN_MONTHS.length)];
+        long principal = amount(random, 50_000_000, 0.7, Money.of(1_000_000));
+        Loan loan = new Loan(ids.next("LOAN_", epochMillis(start)), LENDERS[random.nextInt(LENDERS.length)],
+                principal, interestRate(random), months, principal, start, start.plusMonths(months),
+                Constants.LOAN_STATUS_ACTIVE, LOAN_PURPOSES[random.nextInt(LOAN_PURPOSES.length)], List.of());
+        for (Payment payment : generatePayments(random, ids, start, loan.calculateMonthlyPayment(), principal)) {
+            loan.recordPayment(payment);
+        }
+        loan.updateStatus();
+        return loan;
+    }
+
+    private Lending generateLending(SplittableRandom random, IdClock ids) {
+        LocalDateTime start = randomDateTime(random);
+        int months = LOAN_MONTHS[random.nextInt(LOAN_MONTHS.length)];
+        long principal = amount(random, 10_000_000, 0.8, Money.of(1_000_000));
+        Lending lending = new Lending(ids.next("LEND_", epochMillis(start)),
+                BORROWERS[random.nextInt(BORROWERS.length)], principal, interestRate(random), months, principal,
+                start, start.plusMonths(months), Constants.LOAN_STATUS_ACTIVE,
+                LENDING_PURPOSES[random.nextInt(LENDING_PURPOSES.length)], List.of());
+        for (Payment payment : generatePayments(random, ids, start, lending.calculateMonthlyCollection(), principal)) {
+            lending.recordRepayment(payment);
+        }
+        lending.updateStatus();
+        return lending;
+    }
+
+    // Tra hang thang tu thang sau ngay vay den ngay ket thuc; khoang 1/10 ky bi lo (tre han),
+    // ky cuoi chi tra phan con lai
+    private List<Payment> generatePayments(SplittableRandom random, IdClock ids, LocalDateTime start,
+                                           long monthly, long principal) {
+        List<Payment> payments = new ArrayList<>();
+        long remaining = principal;
+        LocalDateTime lastMoment = endDate.plusDays(1).atStartOfDay();
+        for (LocalDateTime due = start.plusMonths(1); remaining > 0; due = due.plusMonths(1)) {
+            LocalDateTime paidAt = due.plusDays(random.nextInt(5));
+            if (!paidAt.isBefore(lastMoment)) {
+                break;
+            }
+            if (random.nextInt(10) == 0) {
+                continue;
+            }
+            long amount = Math.min(monthly, remaining);
+            payments.add(new Payment(ids.next("PAY_", epochMillis(paidAt)), amount, paidAt,
+                    PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]));
+            remaining -= amount;
+        }
+        return payments;
+    }
+
+    // 6% .. 14%, mot chu so thap phan
+    private static double interestRate(SplittableRandom random) {
+        return Math.round((6 + random.nextDouble() * 8) * 10) / 10.0;
+    }
+
+    private LocalDateTime randomDateTime(SplittableRandom random) {
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long millis = epochMillis(startDate.plusDays(random.nextInt(days))) + Seasonality.millisOfDay(random);
+        return dateTimeOf(millis);
+    }
+
+    // ===== Tien va thoi gian =====
+
+    // Phan phoi log-normal quanh trung vi (VND), lam tron 1.000 VND, trong [min, MAX_AMOUNT]
+    private static long amount(SplittableRandom random, double median, double sigma, long min) {
+        long minor = Money.of(median * Math.exp(sigma * random.nextGaussian()));
+        minor = minor / ROUNDING * ROUNDING;
+        return Math.max(min, Math.min(MAX_AMOUNT, minor));
+    }
+
+    // Cung quy uoc UTC voi BinaryEncoder.writeEpochMillis
+    private static long epochMillis(LocalDate day) {
+        return day.toEpochDay() * MILLIS_PER_DAY;
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime dateTimeOf(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static int pickWeighted(double[] weights, SplittableRandom random) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double pick = random.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    // Muc tieu sinh mot danh muc: ten, loai, so tien trung vi va cac mo ta
+    private static final class CategoryProfile {
+        private final String name;
+        private final TransactionType type;
+        private final double median;
+        private final double sigma;
+        private final String[] descriptions;
+
+        CategoryProfile(String name, TransactionType type, double median, double sigma, String... descriptions) {
+            this.name = name;
+            this.type = type;
+            this.median = median;
+            this.sigma = sigma;
+            this.descriptions = descriptions;
+        }
+
+        long amount(SplittableRandom random) {
+            return WorkloadGenerator.amount(random, median, sigma, MIN_AMOUNT);
+        }
+
+        String description(SplittableRandom random) {
+            return descriptions[random.nextInt(descriptions.length)];
+        }
+    }
+
+    // ID Snowflake cho thoi diem cho truoc, khong trung trong mot lan sinh (dung cho khoan vay
+    // va thanh toan: so luong it, thoi diem khong theo thu tu)
+    private static final class IdClock {
+        private final Map<Long, Integer> sequences = new HashMap<>();
+
+        String next(String prefix, long epochMillis) {
+            while (true) {
+                int sequence = sequences.merge(epochMillis, 1, Integer::sum) - 1;
+                if (sequence <= SnowflakeIdGenerator.MAX_SEQUENCE) {
+                    return prefix
+                            + SnowflakeIdGenerator.formatId(SnowflakeIdGenerator.idAt(epochMillis, sequence, NODE_ID));
+                }
+                epochMillis++;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Cach dung: WorkloadGenerator <thu muc du lieu> <so tai khoan> <so giao dich> [seed]");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        int accounts = Integer.parseInt(args[1]);
+        int transactions = Integer.parseInt(args[2]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+
+        long startTime = System.currentTimeMillis();
+        try (SnapshotWorkloadSink sink = new SnapshotWorkloadSink(directory)) {
+            new WorkloadGenerator(seed, accounts, transactions).generate(sink);
+            System.out.printf("Da sinh %d tai khoan, %d giao dich vao %s (%d ms)%n", accounts, transactions,
+                    sink.getSnapshotPath(), System.currentTimeMillis() - startTime);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.financemanager.workload;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Transaction;
+
+import java.io.IOException;
+import java.util.List;
+
+// Noi nhan du lieu do WorkloadGenerator sinh ra, theo thu tu:
+// begin -> account* -> transaction* (theo thoi gian) -> loan* / lending* -> finish.
+// So du tai khoan chi dung sau cung: generator dat so du cuoi truoc khi goi finish
+public interface WorkloadSink {
+
+    // Danh muc ma giao dich sinh ra se tham chieu (phai la doi tuong sink dang dung)
+    List<Category> categories();
+
+    void begin(int accountCount, int transactionCount) throws IOException;
+
+    void account(Account account) throws IOException;
+
+    void transaction(Transaction transaction) throws IOException;
+
+    void loan(Loan loan) throws IOException;
+
+    void lending(Lending lending) throws IOException;
+
+    void finish() throws IOException;
+}
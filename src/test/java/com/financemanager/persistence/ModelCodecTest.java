@@ -0,0 +1,172 @@
+package com.financemanager.persistence;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Lending;
+import com.financemanager.model.Loan;
+import com.financemanager.model.Payment;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ghi roi doc lai qua hai ModelCodec rieng (nhu ben ghi snapshot va ben doc khi khoi dong):
+// moi truong phai giu nguyen, thoi gian giu den mili giay
+class ModelCodecTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 15, 9, 30, 12, 345_000_000);
+    private static final Category FOOD = new Category("CAT_food", "An uong", "Chi phi an uong",
+            TransactionType.EXPENSE);
+
+    @Test
+    void accountRoundTrip() {
+        Account account = new Account("ACC_1", "Tai khoan chinh", "BANK", "0123456789", -12_345, "VND");
+
+        BinaryEncoder out = new BinaryEncoder();
+        new ModelCodec().writeAccount(out, account);
+        Account read = new ModelCodec().readAccount(decoder(out));
+
+        assertEquals(account.getAccountId(), read.getAccountId());
+        assertEquals(account.getAccountName(), read.getAccountName());
+        assertEquals(account.getAccountType(), read.getAccountType());
+        assertEquals(account.getAccountNumber(), read.getAccountNumber());
+        assertEquals(account.getBalance(), read.getBalance());
+        assertEquals(account.getCurrency(), read.getCurrency());
+    }
+
+    @Test
+    void transactionsRoundTripWithSharedReferences() {
+        Category transfer = new Category("CAT_trf", "Chuyen khoan", null, TransactionType.TRANSFER);
+        List<Transaction> transactions = List.of(
+                new Transaction("TRX_1", "ACC_1", TransactionType.EXPENSE, 150_000, "Ăn trưa", FOOD, DATE),
+                new Transaction("TRX_2", "ACC_1", TransactionType.DEPOSIT, 1, null, FOOD, DATE.plusDays(1)),
+                new Transaction("TRX_3", "ACC_1", TransactionType.TRANSFER, -Long.MAX_VALUE / 2, "Chuyen",
+                        transfer, DATE, "TRF_1"),
+                new Transaction("TRX_4", "ACC_2", TransactionType.TRANSFER, Long.MAX_VALUE / 2, "Chuyen",
+                        transfer, DATE, "TRF_1"));
+
+        ModelCodec writer = new ModelCodec();
+        BinaryEncoder out = new BinaryEncoder();
+        for (Transaction transaction : transactions) {
+            writer.writeTransaction(out, transaction);
+        }
+
+        ModelCodec reader = new ModelCodec();
+        BinaryDecoder in = decoder(out);
+        Transaction[] read = new Transaction[transactions.size()];
+        for (int i = 0; i < read.length; i++) {
+            read[i] = reader.readTransaction(in);
+            assertTransactionEquals(transactions.get(i), read[i]);
+        }
+        assertFalse(in.hasRemaining());
+        // Tham chieu lap lai chi ghi ordinal, ben doc tra ve cung mot doi tuong
+        assertSame(read[0].getCategory(), read[1].getCategory());
+        assertSame(read[2].getCategory(), read[3].getCategory());
+    }
+
+    @Test
+    void registeredCategoriesAreNotRewritten() {
+        ModelCodec full = new ModelCodec();
+        BinaryEncoder fullOut = new BinaryEncoder();
+        full.writeCategoryRef(fullOut, FOOD);
+
+        ModelCodec writer = new ModelCodec();
+        writer.registerCategories(List.of(FOOD));
+        BinaryEncoder out = new BinaryEncoder();
+        writer.writeCategoryRef(out, FOOD);
+        assertEquals(1, out.size());
+
+        ModelCodec reader = new ModelCodec();
+        reader.registerCategories(List.of(FOOD));
+        assertSame(FOOD, reader.readCategoryRef(decoder(out)));
+        assertTrue(fullOut.size() > out.size());
+    }
+
+    @Test
+    void loanAndLendingRoundTripWithPayments() {
+        List<Payment> payments = List.of(
+                new Payment("PAY_1", 100_000, DATE.plusMonths(1), "Tien mat"),
+                new Payment("PAY_2", 250_000, DATE.plusMonths(2), null));
+        Loan loan = new Loan("LOAN_1", "Ngan hang", 1_000_000, 7.25, 12, 650_000,
+                DATE, DATE.plusMonths(12), "ACTIVE", "Vay mua xe", payments);
+        Lending lending = new Lending("LEND_1", "Ban", 500_000, 0, 3, 0,
+                DATE, DATE.plusMonths(3), "PAID", null, payments);
+
+        BinaryEncoder out = new BinaryEncoder();
+        ModelCodec writer = new ModelCodec();
+        writer.writeLoan(out, loan);
+        writer.writeLending(out, lending);
+
+        ModelCodec reader = new ModelCodec();
+        BinaryDecoder in = decoder(out);
+        Loan readLoan = reader.readLoan(in);
+        Lending readLending = reader.readLending(in);
+
+        assertEquals(loan.getLoanId(), readLoan.getLoanId());
+        assertEquals(loan.getLenderName(), readLoan.getLenderName());
+        assertEquals(loan.getPrincipalAmount(), readLoan.getPrincipalAmount());
+        assertEquals(loan.getInterestRate(), readLoan.getInterestRate());
+        assertEquals(loan.getLoanMonths(), readLoan.getLoanMonths());
+        assertEquals(loan.getRemainingAmount(), readLoan.getRemainingAmount());
+        assertEquals(loan.getStartDate(), readLoan.getStartDate());
+        assertEquals(loan.getDueDate(), readLoan.getDueDate());
+        assertEquals(loan.getStatus(), readLoan.getStatus());
+        assertEquals(loan.getDescription(), readLoan.getDescription());
+        assertPaymentsEqual(payments, readLoan.getPaymentHistory());
+
+        assertEquals(lending.getLendingId(), readLending.getLendingId());
+        assertEquals(lending.getBorrowerName(), readLending.getBorrowerName());
+        assertEquals(lending.getPrincipalAmount(), readLending.getPrincipalAmount());
+        assertEquals(lending.getInterestRate(), readLending.getInterestRate());
+        assertEquals(lending.getLendingMonths(), readLending.getLendingMonths());
+        assertEquals(lending.getRemainingAmount(), readLending.getRemainingAmount());
+        assertEquals(lending.getStatus(), readLending.getStatus());
+        assertNull(readLending.getDescription());
+        assertPaymentsEqual(payments, readLending.getRepaymentHistory());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void unknownReferenceIsRejected() {
+        BinaryEncoder out = new BinaryEncoder();
+        out.writeVarInt(3);
+        assertThrows(IllegalStateException.class, () -> new ModelCodec().readAccountRef(decoder(out)));
+        assertThrows(IllegalStateException.class, () -> new ModelCodec().readCategoryRef(decoder(out)));
+    }
+
+    private static BinaryDecoder decoder(BinaryEncoder out) {
+        return new BinaryDecoder(out.toByteArray());
+    }
+
+    private static void assertTransactionEquals(Transaction expected, Transaction actual) {
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+        assertEquals(expected.getAccountId(), actual.getAccountId());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getCategory().getCategoryId(), actual.getCategory().getCategoryId());
+        assertEquals(expected.getCategory().getName(), actual.getCategory().getName());
+        assertEquals(expected.getCategory().getDescription(), actual.getCategory().getDescription());
+        assertEquals(expected.getCategory().getTransactionType(), actual.getCategory().getTransactionType());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getTransferId(), actual.getTransferId());
+    }
+
+    private static void assertPaymentsEqual(List<Payment> expected, List<Payment> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getPaymentId(), actual.get(i).getPaymentId());
+            assertEquals(expected.get(i).getAmount(), actual.get(i).getAmount());
+            assertEquals(expected.get(i).getPaymentDate(), actual.get(i).getPaymentDate());
+            assertEquals(expected.get(i).getPaymentMethod(), actual.get(i).getPaymentMethod());
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.financemanager.persistence;
+
+import com.financemanager.event.FinanceEvent;
+import com.financemanager.model.Account;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+import com.financemanager.service.BatchResult;
+import com.financemanager.service.FinanceManager;
+import com.financemanager.service.TransactionRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Khoi phuc sau su co: thu muc du lieu duoc sao lai trong luc FinanceManager van chay
+// (nhu mat dien, PER_WRITE nen moi thao tac da tra ve deu da xuong dia) roi mo lai ban sao.
+// Trang thai khoi phuc phai trung voi luc sao: so du, giao dich, tong va rollups theo danh muc
+class PersistenceRecoveryTest {
+
+    @Test
+    void tornJournalTailDropsOnlyTheLastRecord(@TempDir Path directory) throws IOException {
+        Path crashed = directory.resolve("crashed");
+        String accountId;
+        FinanceManager manager = open(directory.resolve("live"));
+        try {
+            accountId = addAccount(manager, "Tai khoan A", "1234567890", 1_000);
+            for (int i = 0; i < 5; i++) {
+                manager.addTransaction(accountId, "expense", 10, "An trua " + i, "An uong");
+            }
+            copyDirectory(directory.resolve("live"), crashed);
+        } finally {
+            manager.shutdown();
+        }
+
+        // Ban ghi cuoi chi ghi duoc mot phan
+        Path lastSegment = lastSegment(crashed);
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        FinanceManager restored = open(crashed);
+        try {
+            assertEquals(4, expenses(restored, accountId).size());
+            assertEquals(Money.of(1_000 - 4 * 10), balance(restored, accountId));
+            assertLedgerMatchesBalances(restored);
+            // Duoi hong da bi cat: ban ghi moi nam ngay sau ban ghi hop le cuoi cung
+            restored.addTransaction(accountId, "expense", 10, "An toi", "An uong");
+            copyDirectory(crashed, directory.resolve("crashed-again"));
+        } finally {
+            restored.shutdown();
+        }
+
+        FinanceManager reopened = open(directory.resolve("crashed-again"));
+        try {
+            assertEquals(5, expenses(reopened, accountId).size());
+            assertEquals(Money.of(1_000 - 5 * 10), balance(reopened, accountId));
+        } finally {
+            reopened.shutdown();
+        }
+    }
+
+    @Test
+    void snapshotPlusJournalSuffixRestoresEverything(@TempDir Path directory) throws IOException {
+        Path crashed = directory.resolve("crashed");
+        State expected;
+        FinanceManager manager = open(directory.resolve("live"));
+        try {
+            String first = addAccount(manager, "Tai khoan A", "1234567890", 5_000);
+            String second = addAccount(manager, "Tai khoan B", "0987654321", 500);
+            manager.addTransaction(first, "income", 2_000, "Luong", "Luong");
+            manager.addTransaction(first, "expense", 300, "An trua", "An uong");
+            manager.checkpoint().join();
+
+            // Phan duoi sau snapshot: 3 ban ghi
+            manager.addTransaction(second, "expense", 100, "Ve xe", "Di chuyen");
+            manager.transferBetweenAccounts(first, second, 1_500);
+            manager.depositToAccount(second, 250);
+            expected = State.of(manager);
+            copyDirectory(directory.resolve("live"), crashed);
+        } finally {
+            manager.shutdown();
+        }
+
+        List<FinanceEvent> restoreEvents = new ArrayList<>();
+        FinanceManager restored = FinanceManager.open(crashed.toString(), DurabilityMode.PER_WRITE, event -> {
+            if (event.getType() == FinanceEvent.Type.DATA_RESTORED) {
+                restoreEvents.add(event);
+            }
+        });
+        try {
+            assertEquals(1, restoreEvents.size());
+            assertEquals(3, restoreEvents.get(0).getAmount());
+            assertEquals(expected, State.of(restored));
+            assertLedgerMatchesBalances(restored);
+        } finally {
+            restored.shutdown();
+        }
+    }
+
+    @Test
+    void batchWithRejectedRowsRestoresOnlyAppliedRows(@TempDir Path directory) throws IOException {
+        Path crashed = directory.resolve("crashed");
+        State expected;
+        BatchResult result;
+        FinanceManager manager = open(directory.resolve("live"));
+        try {
+            String accountId = addAccount(manager, "Tai khoan A", "1234567890", 1_000);
+            result = manager.addTransactions(List.of(
+                    new TransactionRequest(accountId, "income", 400, "Thuong", "Thuong"),
+                    new TransactionRequest(accountId, "expense", 50_000, "Qua so du", "Mua sam"),
+                    new TransactionRequest("ACC_khong_co", "expense", 10, "Sai tai khoan", "An uong"),
+                    new TransactionRequest(accountId, "transfer", 10, "Sai loai", "An uong"),
+                    new TransactionRequest(accountId, "expense", 0, "Sai so tien", "An uong"),
+                    new TransactionRequest(accountId, "expense", 700, "Mua ao", "Mua sam")));
+            expected = State.of(manager);
+            copyDirectory(directory.resolve("live"), crashed);
+        } finally {
+            manager.shutdown();
+        }
+        assertEquals(List.of(true, false, false, false, false, true),
+                result.getRows().stream().map(BatchResult.Row::isApplied).toList());
+
+        FinanceManager restored = open(crashed);
+        try {
+            assertEquals(expected, State.of(restored));
+            for (BatchResult.Row row : result.getRows()) {
+                if (row.isApplied()) {
+                    assertTrue(expected.transactions.containsKey(row.getTransactionId()), row.toString());
+                }
+            }
+            assertEquals(Money.of(1_000 + 400 - 700), restored.getAccountService().getTotalBalance());
+            assertLedgerMatchesBalances(restored);
+        } finally {
+            restored.shutdown();
+        }
+    }
+
+    @Test
+    void rollupsFollowEditsAcrossSnapshotAndJournal(@TempDir Path directory) throws IOException {
+        Path crashed = directory.resolve("crashed");
+        State expected;
+        String accountId;
+        FinanceManager manager = open(directory.resolve("live"));
+        try {
+            accountId = addAccount(manager, "Tai khoan A", "1234567890", 2_000);
+            manager.addTransaction(accountId, "expense", 100, "An trua", "An uong");
+            manager.addTransaction(accountId, "expense", 200, "Xem phim", "Giai tri");
+            manager.addTransaction(accountId, "expense", 300, "Taxi", "Di chuyen");
+            List<Transaction> rows = expenses(manager, accountId);
+
+            // Sua truoc snapshot (nam trong snapshot) va sau snapshot (phat lai tu nhat ky)
+            manager.editTransaction(accountId, rows.get(0).getTransactionId(), "expense", 150, "An trua", "Mua sam");
+            manager.checkpoint().join();
+            manager.editTransaction(accountId, rows.get(1).getTransactionId(), "income", 500, "Ban ve", "Thuong");
+            manager.editTransaction(accountId, rows.get(2).getTransactionId(), "expense", 50, "Xe buyt", "Di chuyen");
+            expected = State.of(manager);
+            copyDirectory(directory.resolve("live"), crashed);
+        } finally {
+            manager.shutdown();
+        }
+
+        assertEquals(Map.of("Mua sam", Money.of(150), "Di chuyen", Money.of(50)), expected.expenseRollups);
+        assertEquals(Map.of("Thuong", Money.of(500)), expected.incomeRollups);
+        assertEquals(Money.of(2_000 - 150 + 500 - 50), expected.balances.get(accountId));
+
+        FinanceManager restored = open(crashed);
+        try {
+            assertEquals(expected, State.of(restored));
+            assertTrue(restored.verifyRunningTotals());
+            assertLedgerMatchesBalances(restored);
+        } finally {
+            restored.shutdown();
+        }
+    }
+
+    @Test
+    void oversizedRecordIsRejectedBeforeGettingASequence(@TempDir Path directory) throws IOException {
+        try (TransactionJournal journal = new TransactionJournal(directory, DurabilityMode.PER_WRITE)) {
+            long sequence = journal.append(JournalRecord.accountDeleted("ACC_1"));
+            JournalRecord oversized = new JournalRecord(JournalRecord.Type.ACCOUNT_DELETED, 0, 0,
+                    new byte[JournalReader.MAX_PAYLOAD_SIZE + 1]);
+
+            assertThrows(IllegalArgumentException.class, () -> journal.enqueue(oversized));
+            assertThrows(IllegalArgumentException.class,
+                    () -> journal.enqueueBatch(List.of(JournalRecord.accountDeleted("ACC_2"), oversized)));
+            assertEquals(sequence, journal.getLastSequence());
+            assertEquals(sequence + 1, journal.append(JournalRecord.accountDeleted("ACC_3")));
+        }
+    }
+
+    // So du, giao dich, tong va rollups theo danh muc, du de so sanh truoc/sau khi khoi phuc
+    private record State(Map<String, Long> balances, Map<String, String> transactions, long income, long expense,
+                         Map<String, Long> incomeRollups, Map<String, Long> expenseRollups) {
+
+        static State of(FinanceManager manager) {
+            Map<String, Long> balances = new TreeMap<>();
+            for (Account account : manager.getAccountService().getAllAccounts()) {
+                balances.put(account.getAccountId(), account.getBalance());
+            }
+            Map<String, String> transactions = new TreeMap<>();
+            for (Transaction transaction : manager.getTransactionService().getAllTransactions()) {
+                transactions.put(transaction.getTransactionId(), transaction.getAccountId() + "|"
+                        + transaction.getType() + "|" + transaction.getAmount() + "|"
+                        + transaction.getCategory().getName() + "|" + transaction.getDescription());
+            }
+            return new State(balances, transactions,
+                    manager.getTransactionService().getTotalIncome(),
+                    manager.getTransactionService().getTotalExpense(),
+                    new TreeMap<>(manager.getTransactionService().getRollups()
+                            .sumsByCategory(null, TransactionType.INCOME, null, null)),
+                    new TreeMap<>(manager.getTransactionService().getRollups()
+                            .sumsByCategory(null, TransactionType.EXPENSE, null, null)));
+        }
+    }
+
+    private static FinanceManager open(Path directory) throws IOException {
+        return FinanceManager.open(directory.toString(), DurabilityMode.PER_WRITE);
+    }
+
+    private static String addAccount(FinanceManager manager, String name, String number, double balance) {
+        manager.addAccount(name, "BANK", number, balance);
+        return manager.getAccountService().getAllAccounts().stream()
+                .filter(account -> account.getAccountNumber().equals(number))
+                .findFirst().orElseThrow().getAccountId();
+    }
+
+    private static long balance(FinanceManager manager, String accountId) {
+        return manager.getAccountService().findAccountById(accountId).orElseThrow().getBalance();
+    }
+
+    private static List<Transaction> expenses(FinanceManager manager, String accountId) {
+        return manager.getTransactionService().getTransactionsByAccount(accountId).stream()
+                .filter(transaction -> transaction.getType() == TransactionType.EXPENSE)
+                .toList();
+    }
+
+    private static void assertLedgerMatchesBalances(FinanceManager manager) {
+        for (Account account : manager.getAccountService().getAllAccounts()) {
+            assertEquals(account.getBalance(),
+                    manager.getTransactionService().getLedgerNet(account.getAccountId(), null),
+                    account.getAccountId());
+        }
+    }
+
+    private static Path lastSegment(Path directory) throws IOException {
+        List<Path> segments = JournalSegments.list(directory);
+        assertFalse(segments.isEmpty());
+        return segments.get(segments.size() - 1);
+    }
+
+    private static void copyDirectory(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path copy = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(path, copy);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.financemanager.service;
+
+import com.financemanager.exception.AccountNotFoundException;
+import com.financemanager.exception.InsufficientBalanceException;
+import com.financemanager.model.Account;
+import com.financemanager.model.TransactionType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Nhieu luong cung chuyen khoan / nap / chi tren it tai khoan (tranh chap cao):
+// tong so du phai bao toan, khong tai khoan nao am va so du luon bang tong but toan so cai.
+// Chay ca che do khoa theo tai khoan va che do lock-free (CAS)
+class AccountServiceConcurrencyTest {
+    private static final int THREADS = 32;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    private static final long OPENING_BALANCE = 1_000_000;
+
+    @ParameterizedTest(name = "lockFree={0}")
+    @ValueSource(booleans = {false, true})
+    void transfersConserveTotalBalance(boolean lockFree) throws Exception {
+        AccountService accountService = new AccountService(lockFree);
+        TransactionService transactionService = new TransactionService(accountService);
+        List<String> ids = openAccounts(accountService, transactionService, 3);
+
+        run(random -> {
+            String from = ids.get(random.nextInt(ids.size()));
+            String to = ids.get(random.nextInt(ids.size()));
+            if (from.equals(to)) {
+                return;
+            }
+            try {
+                transactionService.transferBetweenAccounts(from, to, 1 + random.nextInt(50_000));
+            } catch (InsufficientBalanceException e) {
+                // Hop le khi tai khoan nguon da can
+            }
+        });
+
+        assertEquals(ids.size() * OPENING_BALANCE, accountService.getTotalBalance());
+        assertEquals(accountService.getTotalBalance(), accountService.recomputeTotalBalance());
+        assertBalancesMatchLedger(accountService, transactionService, ids);
+    }
+
+    @ParameterizedTest(name = "lockFree={0}")
+    @ValueSource(booleans = {false, true})
+    void mixedOperationsKeepBalancesConsistent(boolean lockFree) throws Exception {
+        AccountService accountService = new AccountService(lockFree);
+        TransactionService transactionService = new TransactionService(accountService);
+        List<String> ids = openAccounts(accountService, transactionService, 8);
+        AtomicLong deposited = new AtomicLong();
+        AtomicLong spent = new AtomicLong();
+
+        run(random -> {
+            String accountId = ids.get(random.nextInt(ids.size()));
+            long amount = 1 + random.nextInt(20_000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    if (transactionService.depositToAccount(accountId, amount)) {
+                        deposited.addAndGet(amount);
+                    }
+                    break;
+                case 1:
+                    if (transactionService.addTransaction(accountId, TransactionType.EXPENSE, amount,
+                            "Chi tieu", "An uong")) {
+                        spent.addAndGet(amount);
+                    }
+                    break;
+                default:
+                    String to = ids.get(random.nextInt(ids.size()));
+                    if (!to.equals(accountId)) {
+                        try {
+                            transactionService.transferBetweenAccounts(accountId, to, amount);
+                        } catch (InsufficientBalanceException e) {
+                            // Hop le khi tai khoan nguon da can
+                        }
+                    }
+                    break;
+            }
+        });
+
+        long expected = ids.size() * OPENING_BALANCE + deposited.get() - spent.get();
+        assertEquals(expected, accountService.getTotalBalance());
+        assertEquals(expected, accountService.recomputeTotalBalance());
+        assertBalancesMatchLedger(accountService, transactionService, ids);
+    }
+
+    private interface Step {
+        void run(SplittableRandom random) throws Exception;
+    }
+
+    // Cac luong cung bat dau sau mot hieu lenh de tranh chap that su; loi trong luong duoc nem lai qua get()
+    private static void run(Step step) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            SplittableRandom seeds = new SplittableRandom(42);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                SplittableRandom random = seeds.split();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        step.run(random);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<String> openAccounts(AccountService accountService, TransactionService transactionService,
+                                             int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Account account = new Account("Tai khoan " + i, "BANK", String.valueOf(1_000_000_000L + i),
+                    OPENING_BALANCE);
+            assertTrue(accountService.addAccount(account));
+            transactionService.postOpeningBalance(account.getAccountId(), OPENING_BALANCE);
+            ids.add(account.getAccountId());
+        }
+        return ids;
+    }
+
+    private static void assertBalancesMatchLedger(AccountService accountService,
+                                                  TransactionService transactionService, List<String> ids)
+            throws AccountNotFoundException {
+        for (String id : ids) {
+            Account account = accountService.findAccountById(id)
+                    .orElseThrow(() -> new AccountNotFoundException(id));
+            assertTrue(account.getBalance() >= 0, "So du am: " + account);
+            assertEquals(account.getBalance(), transactionService.getLedgerNet(id, null), id);
+        }
+    }
+}
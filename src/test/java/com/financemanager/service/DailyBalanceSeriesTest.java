@@ -0,0 +1,173 @@
+package com.financemanager.service;
+
+import com.financemanager.exception.AccountNotFoundException;
+import com.financemanager.exception.InsufficientBalanceException;
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+import com.financemanager.persistence.DurabilityMode;
+import com.financemanager.util.Constants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Chuoi so du theo ngay: so du cuoi mot ngay = so du hien tai - dong tien sau ngay do,
+// chuyen khoan chuyen dong tien giua hai tai khoan, xoa tai khoan bo lich su cua no khoi chuoi tong
+// va dong tien (ca ngay trong qua khu) giu nguyen qua snapshot
+class DailyBalanceSeriesTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    @Test
+    void pastDayBalanceIsCurrentMinusLaterFlows() {
+        DailyBalanceSeries series = new DailyBalanceSeries();
+        series.record("ACC_A", DAY.plusDays(1), 500);
+        series.record("ACC_A", DAY.plusDays(3), -200);
+        series.record("ACC_A", DAY.plusDays(5), 300);
+        series.record("ACC_B", DAY.plusDays(3), 700);
+
+        // 1000 co tu truoc khi co lich su (so du ban dau, du lieu cu) phai giu nguyen
+        NavigableMap<LocalDate, Long> balances = series.balances("ACC_A", 1_600, DAY, DAY.plusDays(6));
+        assertEquals(7, balances.size());
+        assertEquals(1_000, balances.get(DAY));
+        assertEquals(1_500, balances.get(DAY.plusDays(1)));
+        assertEquals(1_500, balances.get(DAY.plusDays(2)));
+        assertEquals(1_300, balances.get(DAY.plusDays(3)));
+        assertEquals(1_300, balances.get(DAY.plusDays(4)));
+        assertEquals(1_600, balances.get(DAY.plusDays(5)));
+        assertEquals(1_600, balances.get(DAY.plusDays(6)));
+        for (Map.Entry<LocalDate, Long> day : balances.entrySet()) {
+            long laterFlows = series.netFlow("ACC_A", day.getKey().plusDays(1), DAY.plusDays(6));
+            assertEquals(1_600 - laterFlows, day.getValue(), day.getKey().toString());
+        }
+
+        // Chuoi tong cong ca hai tai khoan
+        NavigableMap<LocalDate, Long> total = series.balances(null, 2_600, DAY.plusDays(2), DAY.plusDays(3));
+        assertEquals(1_800, total.get(DAY.plusDays(2)));
+        assertEquals(2_300, total.get(DAY.plusDays(3)));
+        assertEquals(0, series.netFlow("ACC_C", DAY, DAY.plusDays(6)));
+    }
+
+    @Test
+    void transferMovesFlowBetweenAccountsAndKeepsTotal()
+            throws AccountNotFoundException, InsufficientBalanceException {
+        AccountService accountService = new AccountService();
+        TransactionService transactionService = new TransactionService(accountService);
+        String from = openAccount(accountService, transactionService, "1000000001", 10_000);
+        String to = openAccount(accountService, transactionService, "1000000002", 2_000);
+        LocalDate today = LocalDate.now();
+
+        assertNotNull(transactionService.transferBetweenAccounts(from, to, 3_000));
+
+        DailyBalanceSeries series = accountService.getBalanceSeries();
+        assertEquals(7_000, series.netFlow(from, today, today));
+        assertEquals(5_000, series.netFlow(to, today, today));
+        assertEquals(12_000, series.netFlow(null, today, today));
+        // Truoc khi mo tai khoan so du bang 0, cuoi hom nay bang so du hien tai
+        NavigableMap<LocalDate, Long> balances = accountService.getDailyBalances(from, today.minusDays(1), today);
+        assertEquals(0, balances.get(today.minusDays(1)));
+        assertEquals(7_000, balances.get(today));
+        assertEquals(12_000, accountService.getDailyBalances(null, today, today).get(today));
+    }
+
+    @Test
+    void deletedAccountLeavesTotalSeries() {
+        AccountService accountService = new AccountService();
+        TransactionService transactionService = new TransactionService(accountService);
+        String kept = openAccount(accountService, transactionService, "1000000001", 10_000);
+        String deleted = openAccount(accountService, transactionService, "1000000002", 4_000);
+        assertTrue(transactionService.addTransaction(deleted, TransactionType.EXPENSE, 4_000, "Chi het", "An uong"));
+        LocalDate today = LocalDate.now();
+
+        accountService.deleteAccount(deleted);
+
+        DailyBalanceSeries series = accountService.getBalanceSeries();
+        assertFalse(series.getFlowsByAccount().containsKey(deleted));
+        assertEquals(0, series.netFlow(deleted, today, today));
+        assertEquals(10_000, series.netFlow(null, today, today));
+        assertEquals(series.netFlow(kept, today, today), series.netFlow(null, today, today));
+        assertEquals(10_000, accountService.getDailyBalances(null, today, today).get(today));
+    }
+
+    @Test
+    void flowsSurviveSnapshotRestart(@TempDir Path directory) throws IOException {
+        String accountId;
+        Map<String, long[]> before;
+        NavigableMap<LocalDate, Long> balancesBefore;
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(10);
+
+        FinanceManager manager = FinanceManager.open(directory.toString(), DurabilityMode.PER_WRITE);
+        try {
+            manager.addAccount("Tai khoan A", "BANK", "1234567890", 5_000);
+            manager.addAccount("Tai khoan B", "CASH", "0987654321", 1_000);
+            List<Account> accounts = manager.getAccountService().getAllAccounts();
+            accountId = accounts.get(0).getAccountId();
+            manager.addTransaction(accountId, "expense", 1_200, "An trua", "An uong");
+            manager.transferBetweenAccounts(accountId, accounts.get(1).getAccountId(), 800);
+            // Giao dich ngay trong qua khu, ap dung nhu khi phat lai nhat ky
+            restorePastTransaction(manager, accounts.get(1), today.minusDays(7), 600);
+
+            before = manager.getAccountService().getBalanceSeries().getFlowsByAccount();
+            balancesBefore = manager.getAccountService().getDailyBalances(null, from, today);
+        } finally {
+            manager.shutdown();
+        }
+
+        try (Stream<Path> snapshots = Files.list(directory)) {
+            assertTrue(snapshots.anyMatch(path -> path.getFileName().toString()
+                    .startsWith(Constants.SNAPSHOT_DIRECTORY_PREFIX)
+                    && Files.exists(path.resolve(Constants.BALANCE_FLOWS_FILE))));
+        }
+
+        FinanceManager restored = FinanceManager.open(directory.toString(), DurabilityMode.PER_WRITE);
+        try {
+            Map<String, long[]> after = restored.getAccountService().getBalanceSeries().getFlowsByAccount();
+            assertEquals(before.keySet(), after.keySet());
+            for (Map.Entry<String, long[]> flows : before.entrySet()) {
+                assertArrayEquals(flows.getValue(), after.get(flows.getKey()), flows.getKey());
+            }
+            NavigableMap<LocalDate, Long> total = restored.getAccountService().getDailyBalances(null, from, today);
+            assertEquals(balancesBefore, total);
+            // Tien vao ngay -7 giu dung ngay cua no, cac tai khoan mo hom nay
+            assertEquals(0, total.get(today.minusDays(8)));
+            assertEquals(600, total.get(today.minusDays(7)));
+            assertEquals(600, total.get(today.minusDays(1)));
+            assertEquals(restored.getAccountService().getTotalBalance(), total.get(today));
+        } finally {
+            restored.shutdown();
+        }
+    }
+
+    private static String openAccount(AccountService accountService, TransactionService transactionService,
+                                      String number, long balance) {
+        Account account = new Account("Tai khoan " + number, "BANK", number, balance);
+        assertTrue(accountService.addAccount(account));
+        transactionService.postOpeningBalance(account.getAccountId(), balance);
+        return account.getAccountId();
+    }
+
+    private static void restorePastTransaction(FinanceManager manager, Account account, LocalDate day, long amount) {
+        TransactionService transactionService = manager.getTransactionService();
+        Category category = transactionService.resolveCategory("CAT_luong", "Luong", TransactionType.INCOME);
+        transactionService.restoreTransaction(new Transaction("TRX_past", account.getAccountId(),
+                TransactionType.INCOME, amount, "Luong thang truoc", category, LocalDateTime.of(day.getYear(),
+                day.getMonth(), day.getDayOfMonth(), 9, 0)));
+        account.updateBalance(amount, TransactionType.INCOME);
+    }
+}